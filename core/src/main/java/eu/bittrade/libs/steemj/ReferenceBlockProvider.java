@@ -0,0 +1,287 @@
+package eu.bittrade.libs.steemj;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.bittrade.libs.steemj.base.models.BlockId;
+import eu.bittrade.libs.steemj.communication.CommunicationHandler;
+import eu.bittrade.libs.steemj.configuration.SteemJContext;
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+import eu.bittrade.libs.steemj.exceptions.SteemResponseException;
+import eu.bittrade.libs.steemj.fc.TimePointSec;
+import eu.bittrade.libs.steemj.plugins.apis.database.DatabaseApi;
+import eu.bittrade.libs.steemj.plugins.apis.database.models.DynamicGlobalProperty;
+
+/**
+ * This class provides the reference block used to build transactions.
+ *
+ * <p>
+ * Each transaction references a recent block, which is part of the dynamic
+ * global properties. Instead of requesting them before each transaction, this
+ * provider refreshes them in the
+ * {@link SteemJContext#getReferenceBlockRefreshInterval() configured interval}
+ * in the background, so transactions can be built without waiting for the
+ * node. The background refresh starts with the first request for a reference
+ * block and stops once no reference block has been requested for the
+ * {@link SteemJContext#getReferenceBlockIdleTimeout() configured time}. If the
+ * last reference block is older than the
+ * {@link SteemJContext#getMaxReferenceBlockAge() configured maximum age}, e.g.
+ * because the node could not be reached, it is requested before it is
+ * returned.
+ * </p>
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class ReferenceBlockProvider implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReferenceBlockProvider.class);
+
+    private final CommunicationHandler communicationHandler;
+    /** The last received properties or <code>null</code> if none. */
+    private volatile Snapshot snapshot;
+    /** The scheduler used to refresh the properties in the background. */
+    private ScheduledExecutorService scheduler;
+    /** The value of {@link System#nanoTime()} of the last request. */
+    private long lastRequestTime;
+    private boolean closed;
+
+    /**
+     * Create a new reference block provider.
+     *
+     * @param communicationHandler
+     *            The communication handler used to request the dynamic global
+     *            properties.
+     */
+    public ReferenceBlockProvider(CommunicationHandler communicationHandler) {
+        this.communicationHandler = communicationHandler;
+    }
+
+    /**
+     * Get the dynamic global properties that contain the reference block.
+     * This method only blocks if the last received properties are older than
+     * the {@link SteemJContext#getMaxReferenceBlockAge() configured maximum
+     * age}.
+     *
+     * @return The dynamic global properties.
+     * @throws SteemCommunicationException
+     *             <ul>
+     *             <li>If the server was not able to answer the request in the
+     *             given time (see
+     *             {@link eu.bittrade.libs.steemj.configuration.SteemJConfig#setResponseTimeout(int)
+     *             setResponseTimeout}).</li>
+     *             <li>If there is a connection problem.</li>
+     *             </ul>
+     * @throws SteemResponseException
+     *             <ul>
+     *             <li>If the SteemJ is unable to transform the JSON response
+     *             into a Java object.</li>
+     *             <li>If the Server returned an error object.</li>
+     *             </ul>
+     */
+    public DynamicGlobalProperty getDynamicGlobalProperties()
+            throws SteemCommunicationException, SteemResponseException {
+        return getSnapshot().getDynamicGlobalProperties();
+    }
+
+    /**
+     * Get the id of the head block, which is used as reference block.
+     *
+     * @return The id of the head block.
+     * @throws SteemCommunicationException
+     *             If there is a connection problem (see
+     *             {@link #getDynamicGlobalProperties()}).
+     * @throws SteemResponseException
+     *             If the Server returned an error object (see
+     *             {@link #getDynamicGlobalProperties()}).
+     */
+    public BlockId getHeadBlockId() throws SteemCommunicationException, SteemResponseException {
+        return getDynamicGlobalProperties().getHeadBlockId();
+    }
+
+    /**
+     * Get the number of the last irreversible block.
+     *
+     * @return The number of the last irreversible block.
+     * @throws SteemCommunicationException
+     *             If there is a connection problem (see
+     *             {@link #getDynamicGlobalProperties()}).
+     * @throws SteemResponseException
+     *             If the Server returned an error object (see
+     *             {@link #getDynamicGlobalProperties()}).
+     */
+    public long getLastIrreversibleBlockNum() throws SteemCommunicationException, SteemResponseException {
+        return getDynamicGlobalProperties().getLastIrreversibleBlockNum();
+    }
+
+    /**
+     * Get the current time of the chain. It is estimated from the time of the
+     * last received properties and the time that has passed since they have
+     * been received.
+     *
+     * @return The estimated time of the chain.
+     * @throws SteemCommunicationException
+     *             If there is a connection problem (see
+     *             {@link #getDynamicGlobalProperties()}).
+     * @throws SteemResponseException
+     *             If the Server returned an error object (see
+     *             {@link #getDynamicGlobalProperties()}).
+     */
+    public TimePointSec getChainTime() throws SteemCommunicationException, SteemResponseException {
+        Snapshot currentSnapshot = getSnapshot();
+
+        return new TimePointSec(currentSnapshot.getDynamicGlobalProperties().getTime().getDateTimeAsTimestamp()
+                + currentSnapshot.getAge());
+    }
+
+    /**
+     * @return <code>true</code> if the reference block is currently refreshed
+     *         in the background.
+     */
+    public synchronized boolean isRefreshing() {
+        return scheduler != null;
+    }
+
+    /**
+     * Stop the background refresh. Subsequent requests for a reference block
+     * request it from the node whenever the last one is too old.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        stopRefreshing();
+    }
+
+    /**
+     * Note the request for a reference block and start the background refresh
+     * if it is enabled and has not been started yet.
+     */
+    private synchronized void startRefreshing() {
+        lastRequestTime = System.nanoTime();
+
+        long refreshInterval = communicationHandler.getContext().getReferenceBlockRefreshInterval();
+        if (closed || scheduler != null || refreshInterval <= 0) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "steemj-reference-block");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            if (stopRefreshingIfIdle()) {
+                return;
+            }
+
+            try {
+                refresh();
+            } catch (SteemCommunicationException | SteemResponseException | RuntimeException e) {
+                LOGGER.debug("Could not refresh the reference block.", e);
+            }
+        }, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the background refresh if no reference block has been requested
+     * for the {@link SteemJContext#getReferenceBlockIdleTimeout() configured
+     * time}.
+     *
+     * @return <code>true</code> if the background refresh has been stopped.
+     */
+    private synchronized boolean stopRefreshingIfIdle() {
+        long idleTimeout = communicationHandler.getContext().getReferenceBlockIdleTimeout();
+        if (idleTimeout <= 0
+                || TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastRequestTime) < idleTimeout) {
+            return false;
+        }
+
+        stopRefreshing();
+        return true;
+    }
+
+    /**
+     * Stop the background refresh if it has been started.
+     */
+    private synchronized void stopRefreshing() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Get the last snapshot or request a new one if it is too old.
+     *
+     * @return The current snapshot.
+     * @throws SteemCommunicationException
+     *             If there is a connection problem.
+     * @throws SteemResponseException
+     *             If the Server returned an error object.
+     */
+    private Snapshot getSnapshot() throws SteemCommunicationException, SteemResponseException {
+        startRefreshing();
+
+        Snapshot currentSnapshot = snapshot;
+        long maxAge = communicationHandler.getContext().getMaxReferenceBlockAge();
+        if (currentSnapshot == null || currentSnapshot.getAge() > maxAge) {
+            currentSnapshot = refresh();
+        }
+
+        return currentSnapshot;
+    }
+
+    /**
+     * Request the dynamic global properties from the node and store them.
+     *
+     * @return The new snapshot.
+     * @throws SteemCommunicationException
+     *             If there is a connection problem.
+     * @throws SteemResponseException
+     *             If the Server returned an error object.
+     */
+    private Snapshot refresh() throws SteemCommunicationException, SteemResponseException {
+        Snapshot newSnapshot = new Snapshot(DatabaseApi.getDynamicGlobalProperties(communicationHandler));
+        snapshot = newSnapshot;
+
+        return newSnapshot;
+    }
+
+    /**
+     * The dynamic global properties together with the time they have been
+     * received.
+     */
+    private static final class Snapshot {
+        private final DynamicGlobalProperty dynamicGlobalProperties;
+        private final long receivedAt;
+
+        /**
+         * Create a snapshot of properties that have just been received.
+         *
+         * @param dynamicGlobalProperties
+         *            The received properties.
+         */
+        private Snapshot(DynamicGlobalProperty dynamicGlobalProperties) {
+            this.dynamicGlobalProperties = dynamicGlobalProperties;
+            this.receivedAt = System.nanoTime();
+        }
+
+        /**
+         * @return The received properties.
+         */
+        private DynamicGlobalProperty getDynamicGlobalProperties() {
+            return dynamicGlobalProperties;
+        }
+
+        /**
+         * @return The time that has passed since the properties have been
+         *         received in milliseconds.
+         */
+        private long getAge() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - receivedAt);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package eu.bittrade.libs.steemj;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.security.InvalidParameterException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -10,8 +12,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
 import org.joou.UInteger;
 import org.joou.ULong;
 import org.slf4j.Logger;
@@ -35,8 +39,11 @@ import eu.bittrade.libs.steemj.base.models.Price;
 import eu.bittrade.libs.steemj.base.models.ScheduledHardfork;
 import eu.bittrade.libs.steemj.base.models.SignedTransaction;
 import eu.bittrade.libs.steemj.communication.CommunicationHandler;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCBatchRequest;
 import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
 import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.configuration.SteemJContext;
+import eu.bittrade.libs.steemj.enums.AddressPrefixType;
 import eu.bittrade.libs.steemj.enums.AssetSymbolType;
 import eu.bittrade.libs.steemj.enums.PrivateKeyType;
 import eu.bittrade.libs.steemj.enums.RequestMethods;
@@ -57,6 +64,7 @@ import eu.bittrade.libs.steemj.plugins.apis.block.BlockApi;
 import eu.bittrade.libs.steemj.plugins.apis.block.models.ExtendedSignedBlock;
 import eu.bittrade.libs.steemj.plugins.apis.block.models.GetBlockArgs;
 import eu.bittrade.libs.steemj.plugins.apis.block.models.GetBlockHeaderArgs;
+import eu.bittrade.libs.steemj.plugins.apis.block.models.GetBlockReturn;
 import eu.bittrade.libs.steemj.plugins.apis.condenser.CondenserApi;
 import eu.bittrade.libs.steemj.plugins.apis.condenser.models.ExtendedAccount;
 import eu.bittrade.libs.steemj.plugins.apis.condenser.models.ExtendedLimitOrder;
@@ -94,6 +102,7 @@ import eu.bittrade.libs.steemj.plugins.apis.tags.TagsApi;
 import eu.bittrade.libs.steemj.plugins.apis.tags.enums.DiscussionSortType;
 import eu.bittrade.libs.steemj.plugins.apis.tags.models.Discussion;
 import eu.bittrade.libs.steemj.plugins.apis.tags.models.DiscussionQuery;
+import eu.bittrade.libs.steemj.plugins.apis.tags.models.GetActiveVotesArgs;
 import eu.bittrade.libs.steemj.plugins.apis.tags.models.Tag;
 import eu.bittrade.libs.steemj.plugins.apis.tags.models.VoteState;
 import eu.bittrade.libs.steemj.protocol.AccountName;
@@ -116,9 +125,15 @@ import eu.bittrade.libs.steemj.util.SteemJUtils;
  * This class is a wrapper for the Steem web socket API and provides all
  * features known from the Steem CLI Wallet.
  * 
+ * <p>
+ * An instance holds connections and background threads, e.g. to refresh the
+ * reference block, so it should be {@link #close() closed} once it is no
+ * longer needed.
+ * </p>
+ * 
  * @author <a href="http://steemit.com/@dez1337">dez1337</a>
  */
-public class SteemJ {
+public class SteemJ implements Closeable {
     private static final Logger LOGGER = LoggerFactory.getLogger(SteemJ.class);
 
     // Error messages as constants to make SonarQube happy.
@@ -127,6 +142,7 @@ public class SteemJ {
     private static final String MARKDOWN = "markdown";
 
     private CommunicationHandler communicationHandler;
+    private ReferenceBlockProvider referenceBlockProvider;
 
     /**
      * Initialize the SteemJ.
@@ -148,6 +164,29 @@ public class SteemJ {
      */
     public SteemJ() throws SteemCommunicationException, SteemResponseException {
         this.communicationHandler = new CommunicationHandler();
+        this.referenceBlockProvider = new ReferenceBlockProvider(communicationHandler);
+    }
+
+    /**
+     * Initialize a SteemJ instance that uses the endpoints, the chain id, the
+     * private keys and all other settings of the given <code>context</code>
+     * instead of the global
+     * {@link eu.bittrade.libs.steemj.configuration.SteemJConfig SteemJConfig}.
+     * This way, several differently configured instances can be used at the
+     * same time.
+     * 
+     * @param context
+     *            The settings of this instance (see
+     *            {@link eu.bittrade.libs.steemj.configuration.SteemJConfig#createContext()
+     *            createContext}).
+     * @throws SteemCommunicationException
+     *             If there is a connection problem.
+     * @throws SteemResponseException
+     *             If the Server returned an error object.
+     */
+    public SteemJ(SteemJContext context) throws SteemCommunicationException, SteemResponseException {
+        this.communicationHandler = new CommunicationHandler(context, context.getAsyncExecutor());
+        this.referenceBlockProvider = new ReferenceBlockProvider(communicationHandler);
     }
 
     // #########################################################################
@@ -289,6 +328,24 @@ public class SteemJ {
         return BlockApi.getBlock(communicationHandler, new GetBlockArgs(UInteger.valueOf(blockNumber))).getBlock();
     }
 
+    /**
+     * Asynchronous variant of {@link #getBlock(long)}. The request is sent
+     * without blocking the calling thread.
+     * 
+     * @param blockNumber
+     *            Height of the block to be returned.
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         referenced full, signed block, or <code>null</code> if no
+     *         matching block was found. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public CompletableFuture<Optional<ExtendedSignedBlock>> getBlockAsync(long blockNumber) {
+        return BlockApi.getBlockAsync(communicationHandler, new GetBlockArgs(UInteger.valueOf(blockNumber)))
+                .thenApply(result -> result.getBlock());
+    }
+
     /**
      * Like {@link #getBlock(long)}, but will only return the header of the
      * requested block instead of the full, signed one.
@@ -318,6 +375,65 @@ public class SteemJ {
                 .getHeader();
     }
 
+    /**
+     * Asynchronous variant of {@link #getBlockHeader(long)}. The request is
+     * sent without blocking the calling thread.
+     * 
+     * @param blockNumber
+     *            Height of the block to be returned.
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         header of the referenced block, or <code>null</code> if no
+     *         matching block was found. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public CompletableFuture<Optional<BlockHeader>> getBlockHeaderAsync(long blockNumber) {
+        return BlockApi.getBlockHeaderAsync(communicationHandler, new GetBlockHeaderArgs(UInteger.valueOf(blockNumber)))
+                .thenApply(result -> result.getHeader());
+    }
+
+    /**
+     * Get multiple full, signed blocks by providing their
+     * <code>blockNumbers</code>. In contrast to calling
+     * {@link #getBlock(long)} for each block, all blocks are requested with a
+     * single round-trip using a JSON-RPC batch.
+     * 
+     * @param blockNumbers
+     *            Heights of the blocks to be returned.
+     * @return The referenced full, signed blocks in the same order as the
+     *         <code>blockNumbers</code>. An entry is absent if no matching
+     *         block was found.
+     * @throws SteemCommunicationException
+     *             <ul>
+     *             <li>If the server was not able to answer the request in the
+     *             given time (see
+     *             {@link eu.bittrade.libs.steemj.configuration.SteemJConfig#setResponseTimeout(int)
+     *             setResponseTimeout}).</li>
+     *             <li>If there is a connection problem.</li>
+     *             </ul>
+     * @throws SteemResponseException
+     *             <ul>
+     *             <li>If the SteemJ is unable to transform the JSON response
+     *             into a Java object.</li>
+     *             <li>If the Server returned an error object.</li>
+     *             </ul>
+     */
+    public List<Optional<ExtendedSignedBlock>> getBlocks(List<Long> blockNumbers)
+            throws SteemCommunicationException, SteemResponseException {
+        List<GetBlockArgs> getBlockArgs = new ArrayList<>(blockNumbers.size());
+        for (Long blockNumber : blockNumbers) {
+            getBlockArgs.add(new GetBlockArgs(UInteger.valueOf(blockNumber)));
+        }
+
+        List<Optional<ExtendedSignedBlock>> blocks = new ArrayList<>(blockNumbers.size());
+        for (GetBlockReturn getBlockReturn : BlockApi.getBlocks(communicationHandler, getBlockArgs)) {
+            blocks.add(getBlockReturn == null ? Optional.<ExtendedSignedBlock> absent() : getBlockReturn.getBlock());
+        }
+
+        return blocks;
+    }
+
     // #########################################################################
     // ## NETWORK BROADCAST API ################################################
     // #########################################################################
@@ -353,6 +469,27 @@ public class SteemJ {
         NetworkBroadcastApi.broadcastTransaction(communicationHandler, transaction);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #broadcastTransaction(SignedTransaction)}. The transaction is
+     * signed on the calling thread if required, the request itself is sent
+     * without blocking it.
+     * 
+     * @param transaction
+     *            The {@link SignedTransaction} object to broadcast.
+     * @return A {@link CompletableFuture} that will be completed as soon as the
+     *         node answered the request. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     * @throws SteemInvalidTransactionException
+     *             In case the provided transaction is not valid.
+     */
+    public CompletableFuture<Void> broadcastTransactionAsync(SignedTransaction transaction)
+            throws SteemInvalidTransactionException {
+        return NetworkBroadcastApi.broadcastTransactionAsync(communicationHandler, transaction);
+    }
+
     /**
      * Broadcast a transaction on the Steem blockchain. This method will
      * validate the transaction and return after it has been accepted and
@@ -385,6 +522,29 @@ public class SteemJ {
         return NetworkBroadcastApi.broadcastTransactionSynchronous(communicationHandler, transaction);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #broadcastTransactionSynchronous(SignedTransaction)}. The
+     * transaction is signed on the calling thread if required, the request
+     * itself is sent without blocking it.
+     * 
+     * @param transaction
+     *            The {@link SignedTransaction} object to broadcast.
+     * @return A {@link CompletableFuture} that will be completed with a
+     *         {@link BroadcastTransactionSynchronousReturn} object providing
+     *         information about the block in which the transaction has been
+     *         applied. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     * @throws SteemInvalidTransactionException
+     *             In case the provided transaction is not valid.
+     */
+    public CompletableFuture<BroadcastTransactionSynchronousReturn> broadcastTransactionSynchronousAsync(
+            SignedTransaction transaction) throws SteemInvalidTransactionException {
+        return NetworkBroadcastApi.broadcastTransactionSynchronousAsync(communicationHandler, transaction);
+    }
+
     /**
      * Broadcast a whole block.
      * 
@@ -409,19 +569,35 @@ public class SteemJ {
         NetworkBroadcastApi.broadcastBlock(communicationHandler, signedBlock);
     }
 
+    /**
+     * Asynchronous variant of {@link #broadcastBlock(SignedBlock)}. The request
+     * is sent without blocking the calling thread.
+     * 
+     * @param signedBlock
+     *            The {@link SignedBlock} object to broadcast.
+     * @return A {@link CompletableFuture} that will be completed as soon as the
+     *         node answered the request. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public CompletableFuture<Void> broadcastBlockAsync(SignedBlock signedBlock) {
+        return NetworkBroadcastApi.broadcastBlockAsync(communicationHandler, signedBlock);
+    }
+
     // #########################################################################
     // ## DATABASE API #########################################################
     // #########################################################################
 
     /**
      * This API is a short-cut for returning all of the state required for a
-     * particular URL with a single query.
-     * 
-     * TODO: Provide examples.
+     * particular URL with a single query, e.g. the accounts, the posts and
+     * the feed price required to render the page of a post.
      * 
      * @param path
-     *            TODO: Fix JavaDoc
-     * @return TODO: Fix JavaDoc
+     *            The path of the URL to return the state for, e.g.
+     *            <code>/trending</code> or <code>/@dez1337/steemj</code>.
+     * @return The state of the given <code>path</code>.
      * @throws SteemCommunicationException
      *             <ul>
      *             <li>If the server was not able to answer the request in the
@@ -464,6 +640,20 @@ public class SteemJ {
         return DatabaseApi.getActiveWitnesses(communicationHandler);
     }
 
+    /**
+     * Asynchronous variant of {@link #getActiveWitnesses()}. The request is
+     * sent without blocking the calling thread.
+     * 
+     * @return A {@link CompletableFuture} that will be completed with the list
+     *         of the current active witnesses. It is completed exceptionally
+     *         with a {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public CompletableFuture<List<AccountName>> getActiveWitnessesAsync() {
+        return DatabaseApi.getActiveWitnessesAsync(communicationHandler);
+    }
+
     /**
      * Get the global properties.
      * 
@@ -488,6 +678,48 @@ public class SteemJ {
         return DatabaseApi.getDynamicGlobalProperties(communicationHandler);
     }
 
+    /**
+     * Asynchronous variant of {@link #getDynamicGlobalProperties()}. The
+     * request is sent without blocking the calling thread.
+     * 
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         dynamic global properties. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public CompletableFuture<DynamicGlobalProperty> getDynamicGlobalPropertiesAsync() {
+        return DatabaseApi.getDynamicGlobalPropertiesAsync(communicationHandler);
+    }
+
+    /**
+     * Get the provider of the reference block that is used by this instance
+     * to build transactions. It can be used to build transactions manually
+     * without requesting the dynamic global properties for each of them.
+     * 
+     * @return The reference block provider.
+     */
+    public ReferenceBlockProvider getReferenceBlockProvider() {
+        return referenceBlockProvider;
+    }
+
+    /**
+     * Stop refreshing the reference block, close the connections to the
+     * endpoints and stop the threads of this instance. It can not be used
+     * afterwards.
+     * 
+     * @throws IOException
+     *             If the connections could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            referenceBlockProvider.close();
+        } finally {
+            communicationHandler.close();
+        }
+    }
+
     /**
      * Get the current number of registered Steem accounts.
      * 
@@ -555,6 +787,66 @@ public class SteemJ {
         return communicationHandler.performRequest(requestObject, ExtendedAccount.class);
     }
 
+    /**
+     * Like {@link #getAccounts(List)}, but splits the <code>accountNames</code>
+     * into multiple "get_accounts" calls with at most
+     * <code>accountsPerCall</code> names each. All calls are sent with a single
+     * round-trip using a JSON-RPC batch, which allows to request the details
+     * of more accounts than a node accepts for a single call.
+     * 
+     * @param accountNames
+     *            A list of accounts you want to request the details for.
+     * @param accountsPerCall
+     *            The maximum number of account names sent with one call.
+     * @return A List of accounts found for the given account names.
+     * @throws SteemCommunicationException
+     *             <ul>
+     *             <li>If the server was not able to answer the request in the
+     *             given time (see
+     *             {@link eu.bittrade.libs.steemj.configuration.SteemJConfig#setResponseTimeout(int)
+     *             setResponseTimeout}).</li>
+     *             <li>If there is a connection problem.</li>
+     *             </ul>
+     * @throws SteemResponseException
+     *             <ul>
+     *             <li>If the SteemJ is unable to transform the JSON response
+     *             into a Java object.</li>
+     *             <li>If the Server returned an error object.</li>
+     *             </ul>
+     */
+    public List<ExtendedAccount> getAccounts(List<AccountName> accountNames, int accountsPerCall)
+            throws SteemCommunicationException, SteemResponseException {
+        if (accountsPerCall <= 0) {
+            throw new InvalidParameterException("The number of accounts per call has to be positive.");
+        }
+
+        JsonRPCBatchRequest batchRequest = new JsonRPCBatchRequest();
+        for (List<AccountName> accountNamesOfCall : Lists.partition(accountNames, accountsPerCall)) {
+            JsonRPCRequest requestObject = new JsonRPCRequest();
+            requestObject.setSteemApi(SteemApiType.DATABASE_API);
+            requestObject.setApiMethod(RequestMethods.GET_ACCOUNTS);
+
+            // The API expects an array of arrays here.
+            String[] innerParameters = new String[accountNamesOfCall.size()];
+            for (int i = 0; i < accountNamesOfCall.size(); i++) {
+                innerParameters[i] = accountNamesOfCall.get(i).getName();
+            }
+
+            String[][] parameters = { innerParameters };
+
+            requestObject.setAdditionalParameters(parameters);
+            batchRequest.addRequest(requestObject);
+        }
+
+        List<ExtendedAccount> accounts = new ArrayList<>(accountNames.size());
+        for (List<ExtendedAccount> accountsOfCall : communicationHandler.performBatchRequest(batchRequest,
+                ExtendedAccount.class)) {
+            accounts.addAll(accountsOfCall);
+        }
+
+        return accounts;
+    }
+
     /**
      * Get a list of all votes done by a specific account.
      * 
@@ -612,7 +904,7 @@ public class SteemJ {
      */
     public List<VoteState> getActiveVotes(AccountName author, Permlink permlink)
             throws SteemCommunicationException, SteemResponseException {
-        return TagsApi.getActiveVotes(communicationHandler, author, permlink);
+        return TagsApi.getActiveVotes(communicationHandler, new GetActiveVotesArgs(author, permlink)).getVotes();
     }
 
     /**
@@ -678,6 +970,51 @@ public class SteemJ {
         return communicationHandler.performRequest(requestObject, Discussion.class).get(0);
     }
 
+    /**
+     * Get the details of multiple posts. In contrast to calling
+     * {@link #getContent(AccountName, Permlink)} for each post, all posts are
+     * requested with a single round-trip using a JSON-RPC batch.
+     * 
+     * @param authorsAndPermlinks
+     *            Pairs of the authors name and the permlink of each article.
+     * @return The details of the posts in the same order as the
+     *         <code>authorsAndPermlinks</code>.
+     * @throws SteemCommunicationException
+     *             <ul>
+     *             <li>If the server was not able to answer the request in the
+     *             given time (see
+     *             {@link eu.bittrade.libs.steemj.configuration.SteemJConfig#setResponseTimeout(int)
+     *             setResponseTimeout}).</li>
+     *             <li>If there is a connection problem.</li>
+     *             </ul>
+     * @throws SteemResponseException
+     *             <ul>
+     *             <li>If the SteemJ is unable to transform the JSON response
+     *             into a Java object.</li>
+     *             <li>If the Server returned an error object.</li>
+     *             </ul>
+     */
+    public List<Discussion> getContents(List<Pair<AccountName, Permlink>> authorsAndPermlinks)
+            throws SteemCommunicationException, SteemResponseException {
+        JsonRPCBatchRequest batchRequest = new JsonRPCBatchRequest();
+        for (Pair<AccountName, Permlink> authorAndPermlink : authorsAndPermlinks) {
+            JsonRPCRequest requestObject = new JsonRPCRequest();
+            requestObject.setApiMethod(RequestMethods.GET_CONTENT);
+            requestObject.setSteemApi(SteemApiType.DATABASE_API);
+            String[] parameters = { authorAndPermlink.getLeft().getName(), authorAndPermlink.getRight().getLink() };
+            requestObject.setAdditionalParameters(parameters);
+
+            batchRequest.addRequest(requestObject);
+        }
+
+        List<Discussion> discussions = new ArrayList<>(authorsAndPermlinks.size());
+        for (List<Discussion> discussion : communicationHandler.performBatchRequest(batchRequest, Discussion.class)) {
+            discussions.add(discussion.isEmpty() ? null : discussion.get(0));
+        }
+
+        return discussions;
+    }
+
     /**
      * Get the replies of a specific post.
      * 
@@ -845,8 +1182,9 @@ public class SteemJ {
         requestObject.setSteemApi(SteemApiType.DATABASE_API);
 
         // Verify that the date has the correct format.
-        SimpleDateFormat simpleDateFormat = new SimpleDateFormat(SteemJConfig.getInstance().getDateTimePattern());
-        simpleDateFormat.setTimeZone(TimeZone.getTimeZone(SteemJConfig.getInstance().getTimeZoneId()));
+        SteemJContext context = communicationHandler.getContext();
+        SimpleDateFormat simpleDateFormat = new SimpleDateFormat(context.getDateTimePattern());
+        simpleDateFormat.setTimeZone(TimeZone.getTimeZone(context.getTimeZoneId()));
         Date beforeDate;
         try {
             beforeDate = simpleDateFormat.parse(date);
@@ -2034,10 +2372,32 @@ public class SteemJ {
      */
     public static ImmutablePair<PublicKey, String> getPrivateKeyFromPassword(AccountName account, PrivateKeyType role,
             String steemPassword) {
+        return getPrivateKeyFromPassword(account, role, steemPassword, SteemJConfig.getInstance().getAddressPrefix());
+    }
+
+    /**
+     * Like {@link #getPrivateKeyFromPassword(AccountName, PrivateKeyType, String)},
+     * but creates the public key with the given <code>addressPrefix</code>,
+     * e.g. the {@link SteemJContext#getAddressPrefix() one of a context},
+     * instead of the one of the {@link SteemJConfig}.
+     * 
+     * @param account
+     *            The account name to generate the passwords for.
+     * @param role
+     *            The key type that should be generated.
+     * @param steemPassword
+     *            The password of the <code>account</code> valid for the Steem
+     *            blockchain.
+     * @param addressPrefix
+     *            The prefix of the public key.
+     * @return The requested key pair.
+     */
+    public static ImmutablePair<PublicKey, String> getPrivateKeyFromPassword(AccountName account, PrivateKeyType role,
+            String steemPassword, AddressPrefixType addressPrefix) {
         String seed = account.getName() + role.name().toLowerCase() + steemPassword;
         ECKey keyPair = ECKey.fromPrivate(Sha256Hash.hash(seed.getBytes(), 0, seed.length()));
 
-        return new ImmutablePair<>(new PublicKey(keyPair), SteemJUtils.privateKeyToWIF(keyPair));
+        return new ImmutablePair<>(new PublicKey(keyPair, addressPrefix), SteemJUtils.privateKeyToWIF(keyPair));
     }
 
     // #########################################################################
@@ -2107,12 +2467,12 @@ public class SteemJ {
      */
     public void vote(AccountName postOrCommentAuthor, Permlink postOrCommentPermlink, short percentage)
             throws SteemCommunicationException, SteemResponseException, SteemInvalidTransactionException {
-        if (SteemJConfig.getInstance().getDefaultAccount().isEmpty()) {
+        if (communicationHandler.getContext().getDefaultAccount().isEmpty()) {
             throw new InvalidParameterException(
                     "Using the upVote method without providing an account requires to have a default account configured.");
         }
 
-        this.vote(SteemJConfig.getInstance().getDefaultAccount(), postOrCommentAuthor, postOrCommentPermlink,
+        this.vote(communicationHandler.getContext().getDefaultAccount(), postOrCommentAuthor, postOrCommentPermlink,
                 percentage);
     }
 
@@ -2184,12 +2544,10 @@ public class SteemJ {
         ArrayList<Operation> operations = new ArrayList<>();
         operations.add(voteOperation);
 
-        DynamicGlobalProperty globalProperties = this.getDynamicGlobalProperties();
+        SignedTransaction signedTransaction = new SignedTransaction(referenceBlockProvider.getHeadBlockId(),
+                operations, null, communicationHandler.getContext().getMaximumExpirationDateOffset());
 
-        SignedTransaction signedTransaction = new SignedTransaction(globalProperties.getHeadBlockId(), operations,
-                null);
-
-        signedTransaction.sign();
+        signedTransaction.sign(communicationHandler.getContext());
 
         this.broadcastTransaction(signedTransaction);
     }
@@ -2248,11 +2606,11 @@ public class SteemJ {
      */
     public void cancelVote(AccountName postOrCommentAuthor, Permlink postOrCommentPermlink)
             throws SteemCommunicationException, SteemResponseException, SteemInvalidTransactionException {
-        if (SteemJConfig.getInstance().getDefaultAccount().isEmpty()) {
+        if (communicationHandler.getContext().getDefaultAccount().isEmpty()) {
             throw new InvalidParameterException(
                     "Using the cancelVote method without providing an account requires to have a default account configured.");
         }
-        cancelVote(SteemJConfig.getInstance().getDefaultAccount(), postOrCommentAuthor, postOrCommentPermlink);
+        cancelVote(communicationHandler.getContext().getDefaultAccount(), postOrCommentAuthor, postOrCommentPermlink);
     }
 
     /**
@@ -2306,12 +2664,10 @@ public class SteemJ {
         ArrayList<Operation> operations = new ArrayList<>();
         operations.add(voteOperation);
 
-        DynamicGlobalProperty globalProperties = this.getDynamicGlobalProperties();
-
-        SignedTransaction signedTransaction = new SignedTransaction(globalProperties.getHeadBlockId(), operations,
-                null);
+        SignedTransaction signedTransaction = new SignedTransaction(referenceBlockProvider.getHeadBlockId(),
+                operations, null, communicationHandler.getContext().getMaximumExpirationDateOffset());
 
-        signedTransaction.sign();
+        signedTransaction.sign(communicationHandler.getContext());
 
         this.broadcastTransaction(signedTransaction);
     }
@@ -2362,11 +2718,11 @@ public class SteemJ {
      */
     public void follow(AccountName accountToFollow)
             throws SteemCommunicationException, SteemResponseException, SteemInvalidTransactionException {
-        if (SteemJConfig.getInstance().getDefaultAccount().isEmpty()) {
+        if (communicationHandler.getContext().getDefaultAccount().isEmpty()) {
             throw new InvalidParameterException(NO_DEFAULT_ACCOUNT_ERROR_MESSAGE);
         }
 
-        follow(SteemJConfig.getInstance().getDefaultAccount(), accountToFollow);
+        follow(communicationHandler.getContext().getDefaultAccount(), accountToFollow);
     }
 
     /**
@@ -2415,12 +2771,10 @@ public class SteemJ {
         ArrayList<Operation> operations = new ArrayList<>();
         operations.add(customJsonOperation);
 
-        DynamicGlobalProperty globalProperties = this.getDynamicGlobalProperties();
-
-        SignedTransaction signedTransaction = new SignedTransaction(globalProperties.getHeadBlockId(), operations,
-                null);
+        SignedTransaction signedTransaction = new SignedTransaction(referenceBlockProvider.getHeadBlockId(),
+                operations, null, communicationHandler.getContext().getMaximumExpirationDateOffset());
 
-        signedTransaction.sign();
+        signedTransaction.sign(communicationHandler.getContext());
 
         this.broadcastTransaction(signedTransaction);
     }
@@ -2471,11 +2825,11 @@ public class SteemJ {
      */
     public void unfollow(AccountName accountToUnfollow)
             throws SteemCommunicationException, SteemResponseException, SteemInvalidTransactionException {
-        if (SteemJConfig.getInstance().getDefaultAccount().isEmpty()) {
+        if (communicationHandler.getContext().getDefaultAccount().isEmpty()) {
             throw new InvalidParameterException(NO_DEFAULT_ACCOUNT_ERROR_MESSAGE);
         }
 
-        unfollow(SteemJConfig.getInstance().getDefaultAccount(), accountToUnfollow);
+        unfollow(communicationHandler.getContext().getDefaultAccount(), accountToUnfollow);
     }
 
     /**
@@ -2525,12 +2879,10 @@ public class SteemJ {
         ArrayList<Operation> operations = new ArrayList<>();
         operations.add(customJsonOperation);
 
-        DynamicGlobalProperty globalProperties = this.getDynamicGlobalProperties();
+        SignedTransaction signedTransaction = new SignedTransaction(referenceBlockProvider.getHeadBlockId(),
+                operations, null, communicationHandler.getContext().getMaximumExpirationDateOffset());
 
-        SignedTransaction signedTransaction = new SignedTransaction(globalProperties.getHeadBlockId(), operations,
-                null);
-
-        signedTransaction.sign();
+        signedTransaction.sign(communicationHandler.getContext());
 
         this.broadcastTransaction(signedTransaction);
     }
@@ -2584,11 +2936,12 @@ public class SteemJ {
      */
     public void reblog(AccountName authorOfThePostToReblog, Permlink permlinkOfThePostToReblog)
             throws SteemCommunicationException, SteemResponseException, SteemInvalidTransactionException {
-        if (SteemJConfig.getInstance().getDefaultAccount().isEmpty()) {
+        if (communicationHandler.getContext().getDefaultAccount().isEmpty()) {
             throw new InvalidParameterException(NO_DEFAULT_ACCOUNT_ERROR_MESSAGE);
         }
 
-        reblog(SteemJConfig.getInstance().getDefaultAccount(), authorOfThePostToReblog, permlinkOfThePostToReblog);
+        reblog(communicationHandler.getContext().getDefaultAccount(), authorOfThePostToReblog,
+                permlinkOfThePostToReblog);
     }
 
     /**
@@ -2641,12 +2994,10 @@ public class SteemJ {
 
         operations.add(customJsonReblogOperation);
 
-        DynamicGlobalProperty globalProperties = this.getDynamicGlobalProperties();
-
-        SignedTransaction signedTransaction = new SignedTransaction(globalProperties.getHeadBlockId(), operations,
-                null);
+        SignedTransaction signedTransaction = new SignedTransaction(referenceBlockProvider.getHeadBlockId(),
+                operations, null, communicationHandler.getContext().getMaximumExpirationDateOffset());
 
-        signedTransaction.sign();
+        signedTransaction.sign(communicationHandler.getContext());
 
         this.broadcastTransaction(signedTransaction);
     }
@@ -2708,11 +3059,11 @@ public class SteemJ {
      */
     public CommentOperation createPost(String title, String content, String[] tags)
             throws SteemCommunicationException, SteemResponseException, SteemInvalidTransactionException {
-        if (SteemJConfig.getInstance().getDefaultAccount().isEmpty()) {
+        if (communicationHandler.getContext().getDefaultAccount().isEmpty()) {
             throw new InvalidParameterException(NO_DEFAULT_ACCOUNT_ERROR_MESSAGE);
         }
 
-        return createPost(SteemJConfig.getInstance().getDefaultAccount(), title, content, tags);
+        return createPost(communicationHandler.getContext().getDefaultAccount(), title, content, tags);
     }
 
     /**
@@ -2785,9 +3136,9 @@ public class SteemJ {
 
         CommentOptionsOperation commentOptionsOperation;
         // Only add a BeneficiaryRouteType if it makes sense.
-        if (SteemJConfig.getInstance().getSteemJWeight() > 0) {
+        if (communicationHandler.getContext().getSteemJWeight() > 0) {
             BeneficiaryRouteType beneficiaryRouteType = new BeneficiaryRouteType(SteemJConfig.getSteemJAccount(),
-                    SteemJConfig.getInstance().getSteemJWeight());
+                    communicationHandler.getContext().getSteemJWeight());
 
             ArrayList<BeneficiaryRouteType> beneficiaryRouteTypes = new ArrayList<>();
             beneficiaryRouteTypes.add(beneficiaryRouteType);
@@ -2807,12 +3158,10 @@ public class SteemJ {
 
         operations.add(commentOptionsOperation);
 
-        DynamicGlobalProperty globalProperties = this.getDynamicGlobalProperties();
+        SignedTransaction signedTransaction = new SignedTransaction(referenceBlockProvider.getHeadBlockId(),
+                operations, null, communicationHandler.getContext().getMaximumExpirationDateOffset());
 
-        SignedTransaction signedTransaction = new SignedTransaction(globalProperties.getHeadBlockId(), operations,
-                null);
-
-        signedTransaction.sign();
+        signedTransaction.sign(communicationHandler.getContext());
 
         this.broadcastTransaction(signedTransaction);
 
@@ -2879,11 +3228,11 @@ public class SteemJ {
     public CommentOperation createComment(AccountName authorOfThePostOrCommentToReplyTo,
             Permlink permlinkOfThePostOrCommentToReplyTo, String content, String[] tags)
             throws SteemCommunicationException, SteemResponseException, SteemInvalidTransactionException {
-        if (SteemJConfig.getInstance().getDefaultAccount().isEmpty()) {
+        if (communicationHandler.getContext().getDefaultAccount().isEmpty()) {
             throw new InvalidParameterException(NO_DEFAULT_ACCOUNT_ERROR_MESSAGE);
         }
 
-        return createComment(SteemJConfig.getInstance().getDefaultAccount(), authorOfThePostOrCommentToReplyTo,
+        return createComment(communicationHandler.getContext().getDefaultAccount(), authorOfThePostOrCommentToReplyTo,
                 permlinkOfThePostOrCommentToReplyTo, content, tags);
     }
 
@@ -2959,9 +3308,9 @@ public class SteemJ {
 
         CommentOptionsOperation commentOptionsOperation;
         // Only add a BeneficiaryRouteType if it makes sense.
-        if (SteemJConfig.getInstance().getSteemJWeight() > 0) {
+        if (communicationHandler.getContext().getSteemJWeight() > 0) {
             BeneficiaryRouteType beneficiaryRouteType = new BeneficiaryRouteType(SteemJConfig.getSteemJAccount(),
-                    SteemJConfig.getInstance().getSteemJWeight());
+                    communicationHandler.getContext().getSteemJWeight());
 
             ArrayList<BeneficiaryRouteType> beneficiaryRouteTypes = new ArrayList<>();
             beneficiaryRouteTypes.add(beneficiaryRouteType);
@@ -2981,12 +3330,10 @@ public class SteemJ {
 
         operations.add(commentOptionsOperation);
 
-        DynamicGlobalProperty globalProperties = this.getDynamicGlobalProperties();
-
-        SignedTransaction signedTransaction = new SignedTransaction(globalProperties.getHeadBlockId(), operations,
-                null);
+        SignedTransaction signedTransaction = new SignedTransaction(referenceBlockProvider.getHeadBlockId(),
+                operations, null, communicationHandler.getContext().getMaximumExpirationDateOffset());
 
-        signedTransaction.sign();
+        signedTransaction.sign(communicationHandler.getContext());
 
         this.broadcastTransaction(signedTransaction);
 
@@ -3057,12 +3404,12 @@ public class SteemJ {
      */
     public CommentOperation updatePost(Permlink permlinkOfThePostToUpdate, String title, String content, String[] tags)
             throws SteemCommunicationException, SteemResponseException, SteemInvalidTransactionException {
-        if (SteemJConfig.getInstance().getDefaultAccount().isEmpty()) {
+        if (communicationHandler.getContext().getDefaultAccount().isEmpty()) {
             throw new InvalidParameterException(NO_DEFAULT_ACCOUNT_ERROR_MESSAGE);
         }
 
-        return updatePost(SteemJConfig.getInstance().getDefaultAccount(), permlinkOfThePostToUpdate, title, content,
-                tags);
+        return updatePost(communicationHandler.getContext().getDefaultAccount(), permlinkOfThePostToUpdate, title,
+                content, tags);
     }
 
     /**
@@ -3130,12 +3477,10 @@ public class SteemJ {
 
         operations.add(commentOperation);
 
-        DynamicGlobalProperty globalProperties = this.getDynamicGlobalProperties();
-
-        SignedTransaction signedTransaction = new SignedTransaction(globalProperties.getHeadBlockId(), operations,
-                null);
+        SignedTransaction signedTransaction = new SignedTransaction(referenceBlockProvider.getHeadBlockId(),
+                operations, null, communicationHandler.getContext().getMaximumExpirationDateOffset());
 
-        signedTransaction.sign();
+        signedTransaction.sign(communicationHandler.getContext());
 
         this.broadcastTransaction(signedTransaction);
 
@@ -3210,11 +3555,11 @@ public class SteemJ {
     public CommentOperation updateComment(AccountName parentAuthor, Permlink parentPermlink,
             Permlink originalPermlinkOfTheCommentToUpdate, String content, String[] tags)
             throws SteemCommunicationException, SteemResponseException, SteemInvalidTransactionException {
-        if (SteemJConfig.getInstance().getDefaultAccount().isEmpty()) {
+        if (communicationHandler.getContext().getDefaultAccount().isEmpty()) {
             throw new InvalidParameterException(NO_DEFAULT_ACCOUNT_ERROR_MESSAGE);
         }
 
-        return updateComment(SteemJConfig.getInstance().getDefaultAccount(), parentAuthor, parentPermlink,
+        return updateComment(communicationHandler.getContext().getDefaultAccount(), parentAuthor, parentPermlink,
                 originalPermlinkOfTheCommentToUpdate, content, tags);
     }
 
@@ -3282,12 +3627,10 @@ public class SteemJ {
                 originalAuthorOfTheCommentToUpdate, originalPermlinkOfTheCommentToUpdate, "", content, jsonMetadata);
 
         operations.add(commentOperation);
-        DynamicGlobalProperty globalProperties = this.getDynamicGlobalProperties();
+        SignedTransaction signedTransaction = new SignedTransaction(referenceBlockProvider.getHeadBlockId(),
+                operations, null, communicationHandler.getContext().getMaximumExpirationDateOffset());
 
-        SignedTransaction signedTransaction = new SignedTransaction(globalProperties.getHeadBlockId(), operations,
-                null);
-
-        signedTransaction.sign();
+        signedTransaction.sign(communicationHandler.getContext());
 
         this.broadcastTransaction(signedTransaction);
 
@@ -3343,11 +3686,11 @@ public class SteemJ {
      */
     public void deletePostOrComment(Permlink postOrCommentPermlink)
             throws SteemCommunicationException, SteemResponseException, SteemInvalidTransactionException {
-        if (SteemJConfig.getInstance().getDefaultAccount().isEmpty()) {
+        if (communicationHandler.getContext().getDefaultAccount().isEmpty()) {
             throw new InvalidParameterException(NO_DEFAULT_ACCOUNT_ERROR_MESSAGE);
         }
 
-        deletePostOrComment(SteemJConfig.getInstance().getDefaultAccount(), postOrCommentPermlink);
+        deletePostOrComment(communicationHandler.getContext().getDefaultAccount(), postOrCommentPermlink);
     }
 
     /**
@@ -3395,12 +3738,10 @@ public class SteemJ {
         ArrayList<Operation> operations = new ArrayList<>();
         operations.add(deleteCommentOperation);
 
-        DynamicGlobalProperty globalProperties = this.getDynamicGlobalProperties();
-
-        SignedTransaction signedTransaction = new SignedTransaction(globalProperties.getHeadBlockId(), operations,
-                null);
+        SignedTransaction signedTransaction = new SignedTransaction(referenceBlockProvider.getHeadBlockId(),
+                operations, null, communicationHandler.getContext().getMaximumExpirationDateOffset());
 
-        signedTransaction.sign();
+        signedTransaction.sign(communicationHandler.getContext());
 
         this.broadcastTransaction(signedTransaction);
     }
@@ -3463,11 +3804,11 @@ public class SteemJ {
      */
     public TransferOperation transfer(AccountName to, Asset amount, String memo)
             throws SteemCommunicationException, SteemResponseException, SteemInvalidTransactionException {
-        if (SteemJConfig.getInstance().getDefaultAccount().isEmpty()) {
+        if (communicationHandler.getContext().getDefaultAccount().isEmpty()) {
             throw new InvalidParameterException(NO_DEFAULT_ACCOUNT_ERROR_MESSAGE);
         }
 
-        return transfer(SteemJConfig.getInstance().getDefaultAccount(), to, amount, memo);
+        return transfer(communicationHandler.getContext().getDefaultAccount(), to, amount, memo);
     }
 
     /**
@@ -3520,10 +3861,9 @@ public class SteemJ {
         TransferOperation transferOperation = new TransferOperation(from, to, amount, memo);
         ArrayList<Operation> operations = new ArrayList<>();
         operations.add(transferOperation);
-        DynamicGlobalProperty globalProperties = this.getDynamicGlobalProperties();
-        SignedTransaction signedTransaction = new SignedTransaction(globalProperties.getHeadBlockId(), operations,
-                null);
-        signedTransaction.sign();
+        SignedTransaction signedTransaction = new SignedTransaction(referenceBlockProvider.getHeadBlockId(),
+                operations, null, communicationHandler.getContext().getMaximumExpirationDateOffset());
+        signedTransaction.sign(communicationHandler.getContext());
         this.broadcastTransaction(signedTransaction);
         return transferOperation;
     }
@@ -3568,11 +3908,11 @@ public class SteemJ {
      */
     public ClaimRewardBalanceOperation claimRewards()
             throws SteemCommunicationException, SteemResponseException, SteemInvalidTransactionException {
-        if (SteemJConfig.getInstance().getDefaultAccount().isEmpty()) {
+        if (communicationHandler.getContext().getDefaultAccount().isEmpty()) {
             throw new InvalidParameterException(NO_DEFAULT_ACCOUNT_ERROR_MESSAGE);
         }
 
-        return claimRewards(SteemJConfig.getInstance().getDefaultAccount());
+        return claimRewards(communicationHandler.getContext().getDefaultAccount());
     }
 
     /**
@@ -3621,10 +3961,9 @@ public class SteemJ {
         if (steemReward.getAmount() > 0 || sbdReward.getAmount() > 0 || vestingReward.getAmount() > 0) {
             ArrayList<Operation> operations = new ArrayList<>();
             operations.add(claimOperation);
-            DynamicGlobalProperty globalProperties = this.getDynamicGlobalProperties();
-            SignedTransaction signedTransaction = new SignedTransaction(globalProperties.getHeadBlockId(), operations,
-                    null);
-            signedTransaction.sign();
+            SignedTransaction signedTransaction = new SignedTransaction(referenceBlockProvider.getHeadBlockId(),
+                    operations, null, communicationHandler.getContext().getMaximumExpirationDateOffset());
+            signedTransaction.sign(communicationHandler.getContext());
             this.broadcastTransaction(signedTransaction);
         }
 
@@ -3664,11 +4003,11 @@ public class SteemJ {
      */
     public void delegateVestingShares(AccountName delegatee, Asset vestingShares)
             throws SteemCommunicationException, SteemResponseException, SteemInvalidTransactionException {
-        if (SteemJConfig.getInstance().getDefaultAccount().isEmpty()) {
+        if (communicationHandler.getContext().getDefaultAccount().isEmpty()) {
             throw new InvalidParameterException(NO_DEFAULT_ACCOUNT_ERROR_MESSAGE);
         }
 
-        delegateVestingShares(SteemJConfig.getInstance().getDefaultAccount(), delegatee, vestingShares);
+        delegateVestingShares(communicationHandler.getContext().getDefaultAccount(), delegatee, vestingShares);
     }
 
     /**
@@ -3707,10 +4046,9 @@ public class SteemJ {
 
         ArrayList<Operation> operations = new ArrayList<>();
         operations.add(delegateVestingSharesOperation);
-        DynamicGlobalProperty globalProperties = this.getDynamicGlobalProperties();
-        SignedTransaction signedTransaction = new SignedTransaction(globalProperties.getHeadBlockId(), operations,
-                null);
-        signedTransaction.sign();
+        SignedTransaction signedTransaction = new SignedTransaction(referenceBlockProvider.getHeadBlockId(),
+                operations, null, communicationHandler.getContext().getMaximumExpirationDateOffset());
+        signedTransaction.sign(communicationHandler.getContext());
         this.broadcastTransaction(signedTransaction);
     }
 }
@@ -23,7 +23,9 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import eu.bittrade.crypto.core.CryptoUtils;
 import eu.bittrade.crypto.core.ECKey;
 import eu.bittrade.crypto.core.Sha256Hash;
+import eu.bittrade.libs.steemj.configuration.PrivateKeyStorage;
 import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.configuration.SteemJContext;
 import eu.bittrade.libs.steemj.enums.PrivateKeyType;
 import eu.bittrade.libs.steemj.enums.ValidationType;
 import eu.bittrade.libs.steemj.exceptions.SteemInvalidTransactionException;
@@ -108,6 +110,31 @@ public class SignedTransaction extends Transaction implements ByteTransformable,
         this.signatures = new ArrayList<>();
     }
 
+    /**
+     * Like {@link #SignedTransaction(BlockId, List, List)}, but calculates the
+     * latest possible <code>expirationDate</code> from the given
+     * <code>maximumExpirationDateOffset</code>, e.g. the
+     * {@link SteemJContext#getMaximumExpirationDateOffset() one of a context}.
+     * 
+     * @param blockId
+     *            The block reference (see {@link #setRefBlockNum(UShort)} and
+     *            {@link #setRefBlockPrefix(UInteger)}).
+     * @param operations
+     *            A list of operations to process within this Transaction (see
+     *            {@link #setOperations(List)}).
+     * @param extensions
+     *            Extensions are currently not supported and will be ignored
+     *            (see {@link #setExtensions(List)}).
+     * @param maximumExpirationDateOffset
+     *            The maximum offset in milliseconds between now and the
+     *            expiration date.
+     */
+    public SignedTransaction(BlockId blockId, List<Operation> operations, List<FutureExtensions> extensions,
+            long maximumExpirationDateOffset) {
+        super(blockId, operations, extensions, maximumExpirationDateOffset);
+        this.signatures = new ArrayList<>();
+    }
+
     /**
      * Get the signatures for this transaction.
      * 
@@ -157,17 +184,55 @@ public class SignedTransaction extends Transaction implements ByteTransformable,
      *             If the transaction can not be signed.
      */
     public void sign(String chainId) throws SteemInvalidTransactionException {
-        if (!SteemJConfig.getInstance().getValidationLevel().equals(ValidationType.SKIP_VALIDATION)) {
-            this.validate();
+        sign(chainId, SteemJConfig.getInstance().getValidationLevel(),
+                SteemJConfig.getInstance().getMaximumExpirationDateOffset(),
+                SteemJConfig.getInstance().getPrivateKeyStorage());
+    }
+
+    /**
+     * Like {@link #sign(String) sign(String)}, but takes the chain id, the
+     * validation level, the maximum expiration date offset and the private
+     * keys from the given <code>context</code> instead of the
+     * {@link SteemJConfig}.
+     * 
+     * @param context
+     *            The context of the client that broadcasts this transaction.
+     * @throws SteemInvalidTransactionException
+     *             If the transaction can not be signed.
+     */
+    public void sign(SteemJContext context) throws SteemInvalidTransactionException {
+        sign(context.getChainId(), context.getValidationLevel(), context.getMaximumExpirationDateOffset(),
+                context.getPrivateKeyStorage());
+    }
+
+    /**
+     * Sign this transaction with all required keys.
+     * 
+     * @param chainId
+     *            The chain id that should be used during signing.
+     * @param validationLevel
+     *            The validation level applied to this transaction.
+     * @param maximumExpirationDateOffset
+     *            The maximum offset in milliseconds between now and the
+     *            expiration date.
+     * @param privateKeyStorage
+     *            The storage to take the required keys from.
+     * @throws SteemInvalidTransactionException
+     *             If the transaction can not be signed.
+     */
+    private void sign(String chainId, ValidationType validationLevel, long maximumExpirationDateOffset,
+            PrivateKeyStorage privateKeyStorage) throws SteemInvalidTransactionException {
+        if (!validationLevel.equals(ValidationType.SKIP_VALIDATION)) {
+            this.validate(maximumExpirationDateOffset);
         }
 
-        for (ECKey requiredPrivateKey : getRequiredSignatureKeys()) {
+        for (ECKey requiredPrivateKey : getRequiredSignatureKeys(privateKeyStorage)) {
             boolean isCanonical = false;
 
             Sha256Hash messageAsHash;
             while (!isCanonical) {
                 try {
-                    messageAsHash = Sha256Hash.of(this.toByteArray(chainId));
+                    messageAsHash = Sha256Hash.of(this.toByteArray(chainId, validationLevel));
                 } catch (SteemInvalidTransactionException e) {
                     throw new SteemInvalidTransactionException(
                             "The required encoding is not supported by your platform.", e);
@@ -194,13 +259,26 @@ public class SignedTransaction extends Transaction implements ByteTransformable,
      */
     @JsonIgnore
     protected List<ECKey> getRequiredSignatureKeys() throws SteemInvalidTransactionException {
+        return getRequiredSignatureKeys(SteemJConfig.getInstance().getPrivateKeyStorage());
+    }
+
+    /**
+     * @param privateKeyStorage
+     *            The storage to take the keys from.
+     * @return The list of private keys required to sign this transaction.
+     * @throws SteemInvalidTransactionException
+     *             If the required private key is not present in the
+     *             <code>privateKeyStorage</code>.
+     */
+    protected List<ECKey> getRequiredSignatureKeys(PrivateKeyStorage privateKeyStorage)
+            throws SteemInvalidTransactionException {
         List<ECKey> requiredSignatures = new ArrayList<>();
         Map<SignatureObject, PrivateKeyType> requiredAuthorities = getRequiredAuthorities();
 
         for (Entry<SignatureObject, PrivateKeyType> requiredAuthority : requiredAuthorities.entrySet()) {
             if (requiredAuthority.getKey() instanceof AccountName) {
                 requiredSignatures = getRequiredSignatureKeyForAccount(requiredSignatures,
-                        (AccountName) requiredAuthority.getKey(), requiredAuthority.getValue());
+                        (AccountName) requiredAuthority.getKey(), requiredAuthority.getValue(), privateKeyStorage);
             } else if (requiredAuthority.getKey() instanceof Authority) {
                 // TODO: Support authorities.
             } else {
@@ -223,6 +301,8 @@ public class SignedTransaction extends Transaction implements ByteTransformable,
      *            The account name to fetch the key for.
      * @param privateKeyType
      *            The key type to fetch.
+     * @param privateKeyStorage
+     *            The storage to take the key from.
      * @return The <code>requiredSignatures</code> including the
      *         <code>privateKeyType</code> for <code>accountName</code>.
      * @throws SteemInvalidTransactionException
@@ -230,12 +310,12 @@ public class SignedTransaction extends Transaction implements ByteTransformable,
      *             {@link eu.bittrade.libs.steemj.configuration.PrivateKeyStorage}.
      */
     private List<ECKey> getRequiredSignatureKeyForAccount(List<ECKey> requiredSignatures, AccountName accountName,
-            PrivateKeyType privateKeyType) throws SteemInvalidTransactionException {
+            PrivateKeyType privateKeyType, PrivateKeyStorage privateKeyStorage)
+            throws SteemInvalidTransactionException {
         ECKey privateKey;
 
         try {
-            privateKey = SteemJConfig.getInstance().getPrivateKeyStorage().getKeyForAccount(privateKeyType,
-                    accountName);
+            privateKey = privateKeyStorage.getKeyForAccount(privateKeyType, accountName);
         } catch (InvalidParameterException ipe) {
             throw new SteemInvalidTransactionException(
                     "Could not find private " + privateKeyType + " key for the user " + accountName.getName() + ".");
@@ -276,6 +356,24 @@ public class SignedTransaction extends Transaction implements ByteTransformable,
      *             If the transaction can not be signed.
      */
     protected byte[] toByteArray(String chainId) throws SteemInvalidTransactionException {
+        return toByteArray(chainId, SteemJConfig.getInstance().getValidationLevel());
+    }
+
+    /**
+     * Like {@link #toByteArray(String) toByteArray(String)}, but allows to
+     * define the validation level applied to the operations.
+     * 
+     * @param chainId
+     *            The HEX representation of the chain Id you want to use for
+     *            this transaction.
+     * @param validationLevel
+     *            The validation level applied to the operations.
+     * @return The serialized transaction object.
+     * @throws SteemInvalidTransactionException
+     *             If the transaction can not be signed.
+     */
+    protected byte[] toByteArray(String chainId, ValidationType validationLevel)
+            throws SteemInvalidTransactionException {
         try (ByteArrayOutputStream serializedTransaction = new ByteArrayOutputStream()) {
             if (chainId != null && !chainId.isEmpty()) {
                 serializedTransaction.write(CryptoUtils.HEX.decode(chainId));
@@ -291,7 +389,7 @@ public class SignedTransaction extends Transaction implements ByteTransformable,
                  * 
                  * TODO: Add a validation method to the Transaction Object?
                  */
-                operation.validate(SteemJConfig.getInstance().getValidationLevel());
+                operation.validate(validationLevel);
                 serializedTransaction.write(operation.toByteArray());
             }
 
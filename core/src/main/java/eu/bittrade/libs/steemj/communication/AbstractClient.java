@@ -2,7 +2,13 @@ package eu.bittrade.libs.steemj.communication;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCBatchRequest;
 import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
 import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
 import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
@@ -14,6 +20,13 @@ import eu.bittrade.libs.steemj.exceptions.SteemResponseException;
  * @author <a href="http://steemit.com/@dez1337">dez1337</a>
  */
 public abstract class AbstractClient {
+    /**
+     * An {@link Executor} that runs the given task directly in the calling
+     * thread. It is used to execute the asynchronous path of a client in a
+     * blocking manner.
+     */
+    protected static final Executor CALLING_THREAD_EXECUTOR = Runnable::run;
+
     /**
      * Use this method to send a <code>requestObject</code> to the
      * <code>endpointUri</code> and to receive an answer.
@@ -34,6 +47,90 @@ public abstract class AbstractClient {
     public abstract JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
             boolean sslVerificationDisabled) throws SteemCommunicationException, SteemResponseException;
 
+    /**
+     * Use this method to send a <code>requestObject</code> to the
+     * <code>endpointUri</code> without blocking the calling thread.
+     * 
+     * <p>
+     * The default implementation executes
+     * {@link #invokeAndReadResponse(JsonRPCRequest, URI, boolean)} using the
+     * given <code>executor</code>. Clients that support non-blocking I/O should
+     * override this method.
+     * </p>
+     * 
+     * @param requestObject
+     *            The object to send.
+     * @param endpointUri
+     *            The endpoint to connect and send to.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification should be disabled.
+     * @param executor
+     *            The {@link Executor} used to perform blocking work.
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         response returned by the Steem Node or exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException}.
+     */
+    public CompletableFuture<JsonRPCResponse> invokeAndReadResponseAsync(JsonRPCRequest requestObject,
+            URI endpointUri, boolean sslVerificationDisabled, Executor executor) {
+        return supplyAsync(() -> invokeAndReadResponse(requestObject, endpointUri, sslVerificationDisabled),
+                executor);
+    }
+
+    /**
+     * Use this method to send all requests of the <code>batchRequest</code> to
+     * the <code>endpointUri</code> at once and to receive their answers.
+     * 
+     * @param batchRequest
+     *            The requests to send.
+     * @param endpointUri
+     *            The endpoint to connect and send to.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification should be disabled.
+     * @return The responses returned by the Steem Node wrapped in
+     *         {@link JsonRPCResponse} objects, in the same order as the
+     *         requests of the <code>batchRequest</code>.
+     * @throws SteemCommunicationException
+     *             In case of communication problems or if the response for one
+     *             of the requests is missing.
+     * @throws SteemResponseException
+     *             If the answer received from the node is no valid JSON.
+     */
+    public abstract List<JsonRPCResponse> invokeAndReadResponse(JsonRPCBatchRequest batchRequest, URI endpointUri,
+            boolean sslVerificationDisabled) throws SteemCommunicationException, SteemResponseException;
+
+    /**
+     * Use this method to send all requests of the <code>batchRequest</code> to
+     * the <code>endpointUri</code> at once without blocking the calling
+     * thread.
+     * 
+     * <p>
+     * The default implementation executes
+     * {@link #invokeAndReadResponse(JsonRPCBatchRequest, URI, boolean)} using
+     * the given <code>executor</code>. Clients that support non-blocking I/O
+     * should override this method.
+     * </p>
+     * 
+     * @param batchRequest
+     *            The requests to send.
+     * @param endpointUri
+     *            The endpoint to connect and send to.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification should be disabled.
+     * @param executor
+     *            The {@link Executor} used to perform blocking work.
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         responses returned by the Steem Node in the same order as the
+     *         requests of the <code>batchRequest</code>, or exceptionally with
+     *         a {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException}.
+     */
+    public CompletableFuture<List<JsonRPCResponse>> invokeAndReadResponseAsync(JsonRPCBatchRequest batchRequest,
+            URI endpointUri, boolean sslVerificationDisabled, Executor executor) {
+        return supplyAsync(() -> invokeAndReadResponse(batchRequest, endpointUri, sslVerificationDisabled),
+                executor);
+    }
+
     /**
      * Use this method to close the connection of this client.
      * 
@@ -41,4 +138,125 @@ public abstract class AbstractClient {
      *             If the connection can't be closed.
      */
     public abstract void closeConnection() throws IOException;
+
+    /**
+     * Perform the given blocking <code>call</code> using the
+     * <code>executor</code>.
+     * 
+     * @param call
+     *            The call to perform.
+     * @param executor
+     *            The {@link Executor} used to perform the call.
+     * @param <T>
+     *            The type of the result.
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         result of the call or exceptionally with its failure.
+     */
+    protected static <T> CompletableFuture<T> supplyAsync(BlockingCall<T> call, Executor executor) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(call.call());
+                } catch (SteemCommunicationException | SteemResponseException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+
+        return result;
+    }
+
+    /**
+     * Wait for the given <code>future</code> to complete and return its
+     * result. The exceptions used to complete the future are rethrown as they
+     * are.
+     * 
+     * @param future
+     *            The future to wait for.
+     * @param <T>
+     *            The type of the result.
+     * @return The result of the future.
+     * @throws SteemCommunicationException
+     *             If the future has been completed with a
+     *             {@link SteemCommunicationException} or if the calling thread
+     *             has been interrupted.
+     * @throws SteemResponseException
+     *             If the future has been completed with a
+     *             {@link SteemResponseException}.
+     */
+    protected static <T> T await(CompletableFuture<T> future)
+            throws SteemCommunicationException, SteemResponseException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            // Nobody will read the response, so stop waiting for it.
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new SteemCommunicationException("Thread has been interrupted while waiting for a response.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SteemCommunicationException) {
+                throw (SteemCommunicationException) cause;
+            } else if (cause instanceof SteemResponseException) {
+                throw (SteemResponseException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new SteemCommunicationException(cause);
+        }
+    }
+
+    /**
+     * Count the bytes of the UTF-8 representation of the given
+     * <code>text</code> without encoding it.
+     * 
+     * @param text
+     *            The text to count the bytes of.
+     * @return The number of bytes.
+     */
+    protected static long getUtf8Length(String text) {
+        long numberOfBytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char character = text.charAt(i);
+            if (character < 0x80) {
+                numberOfBytes++;
+            } else if (character < 0x800) {
+                numberOfBytes += 2;
+            } else if (Character.isHighSurrogate(character) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                numberOfBytes += 4;
+                i++;
+            } else {
+                numberOfBytes += 3;
+            }
+        }
+
+        return numberOfBytes;
+    }
+
+    /**
+     * A blocking call that can be performed asynchronously using
+     * {@link AbstractClient#supplyAsync(BlockingCall, Executor)}.
+     * 
+     * @param <T>
+     *            The type of the result.
+     */
+    @FunctionalInterface
+    protected interface BlockingCall<T> {
+        /**
+         * @return The result of the call.
+         * @throws SteemCommunicationException
+         *             In case of communication problems.
+         * @throws SteemResponseException
+         *             If the answer received from the node is no valid JSON.
+         */
+        T call() throws SteemCommunicationException, SteemResponseException;
+    }
 }
@@ -0,0 +1,48 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.net.URI;
+
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+
+/**
+ * A factory creating the {@link AbstractClient} implementation used to send
+ * requests to an endpoint.
+ * 
+ * <p>
+ * The {@link CommunicationHandler} asks the
+ * {@link SteemJConfig#getClientFactories() configured factories} in their
+ * order and uses the first one that supports the endpoint. Each factory
+ * creates at most one client per {@link CommunicationHandler}. Additional
+ * factories can be registered through the {@link java.util.ServiceLoader}
+ * mechanism by listing them in a
+ * <code>META-INF/services/eu.bittrade.libs.steemj.communication.ClientFactory</code>
+ * file. Those factories take precedence over the built-in ones.
+ * </p>
+ * 
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public interface ClientFactory {
+    /**
+     * Check if the clients created by this factory are able to send requests
+     * to the given endpoint.
+     * 
+     * @param endpointUri
+     *            The endpoint to send requests to.
+     * @return <code>true</code> if the endpoint is supported.
+     */
+    boolean supports(URI endpointUri);
+
+    /**
+     * Create a new client.
+     * 
+     * @param communicationHandler
+     *            The handler the client is created for. It provides the
+     *            resources shared by its clients, like the
+     *            {@link CommunicationHandler#getHttpConnectionPool() HTTP
+     *            connection pool} or the
+     *            {@link CommunicationHandler#getCompressionStatistics()
+     *            compression statistics}.
+     * @return The new client.
+     */
+    AbstractClient createClient(CommunicationHandler communicationHandler);
+}
@@ -1,12 +1,39 @@
 package eu.bittrade.libs.steemj.communication;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.security.InvalidParameterException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
+import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,10 +45,20 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 
 import eu.bittrade.libs.steemj.base.models.serializer.BooleanSerializer;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCBatchRequest;
 import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
 import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+import eu.bittrade.libs.steemj.communication.metrics.MetricsRecorder;
+import eu.bittrade.libs.steemj.communication.metrics.MetricsRegistry;
+import eu.bittrade.libs.steemj.communication.selection.ConcurrencyLimiter;
+import eu.bittrade.libs.steemj.communication.selection.EndpointSelector;
+import eu.bittrade.libs.steemj.communication.selection.EndpointStatistics;
 import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.configuration.SteemJContext;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
 import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+import eu.bittrade.libs.steemj.exceptions.SteemRateLimitException;
 import eu.bittrade.libs.steemj.exceptions.SteemResponseException;
 import eu.bittrade.libs.steemj.exceptions.SteemTimeoutException;
 import eu.bittrade.libs.steemj.exceptions.SteemTransformationException;
@@ -31,63 +68,232 @@ import eu.bittrade.libs.steemj.exceptions.SteemTransformationException;
  * 
  * @author <a href="http://steemit.com/@dez1337">dez1337</a>
  */
-public class CommunicationHandler {
+public class CommunicationHandler implements Closeable {
     private static final Logger LOGGER = LoggerFactory.getLogger(CommunicationHandler.class);
+    private static final String DEADLINE_EXPIRED_MESSAGE = "The deadline of the request expired before a response "
+            + "was received.";
 
     /**
      * A preconfigured mapper instance used for de-/serialization of Json
      * objects.
      */
     private static ObjectMapper mapper = getObjectMapper();
-    /** A counter for failed connection tries. */
-    private int numberOfConnectionTries = 0;
-    /** The client used to send requests. */
-    private AbstractClient client;
+    /** The factories used to create the clients for the endpoints. */
+    private final List<ClientFactory> clientFactories;
+    /**
+     * The interceptors each attempt of a request passes before it is sent,
+     * in the order they are called.
+     */
+    private final List<RequestInterceptor> requestInterceptors;
+    /** The clients created so far, stored by the factory that created them. */
+    private final Map<ClientFactory, AbstractClient> clients;
+    /** Decides which endpoint is used for the next request. */
+    private final EndpointSelector endpointSelector;
+    /** The pool of persistent connections shared by all HTTP clients. */
+    private final HttpConnectionPool httpConnectionPool;
+    /** The number of bytes received before and after decompression. */
+    private final CompressionStatistics compressionStatistics;
+    /** The executor used to perform asynchronous requests. */
+    private final Executor executor;
+    /**
+     * The executor created by this instance in case no executor has been
+     * configured.
+     */
+    private final ExecutorService ownedExecutor;
+    /** The scheduler used to delay retries, hedged and rate limited requests. */
+    private final ScheduledExecutorService scheduler;
+    /** Lets concurrent, identical read requests share a single call. */
+    private final RequestCoalescer requestCoalescer = new RequestCoalescer();
+    /** The rate limiter applied to all requests sent by this instance. */
+    private final RateLimiter rateLimiter;
+    /** The calls waiting for the rate limits of each endpoint. */
+    private final ConcurrentMap<URI, RateLimitQueue> rateLimitQueues = new ConcurrentHashMap<>();
+    /**
+     * Decide in which order the calls waiting for a pooled connection of an
+     * HTTP endpoint get one.
+     */
+    private final ConcurrentMap<Pair<URI, Boolean>, PriorityGate> connectionGates = new ConcurrentHashMap<>();
+    /** The settings this instance has been created with. */
+    private final SteemJContext context;
+    /** The recorder the latencies, sizes and errors of the requests are reported to. */
+    private final MetricsRecorder metricsRecorder;
 
     /**
-     * Initialize the Connection Handler.
+     * Initialize the Connection Handler. Asynchronous requests are performed
+     * using the {@link SteemJConfig#getAsyncExecutor() configured executor}.
      * 
      * @throws SteemCommunicationException
      *             If no connection to the Steem Node could be established.
      */
     public CommunicationHandler() throws SteemCommunicationException {
-        // Create a new connection
-        initializeNewClient();
+        this(SteemJConfig.getInstance().getAsyncExecutor());
     }
 
     /**
-     * Initialize a new <code>client</code> by selecting one of the configured
-     * endpoints.
+     * Initialize the Connection Handler. The endpoints are taken from the
+     * {@link SteemJConfig} for each request, so they can be changed at any
+     * time, while all other settings (see {@link SteemJContext}) are taken
+     * from the {@link SteemJConfig} when this instance is created.
+     * 
+     * @param executor
+     *            The {@link Executor} used to perform asynchronous requests.
+     *            If <code>null</code> is provided, this instance creates its
+     *            own thread pool that is shut down when this instance is
+     *            closed.
+     * @throws SteemCommunicationException
+     *             If no connection to the Steem Node could be established.
+     */
+    public CommunicationHandler(Executor executor) throws SteemCommunicationException {
+        this(SteemJConfig.getInstance().createContext(), () -> SteemJConfig.getInstance().getEndpointURIs(),
+                executor);
+    }
+
+    /**
+     * Initialize the Connection Handler for the given <code>context</code>,
+     * which is independent of later changes of the {@link SteemJConfig}.
+     * 
+     * @param context
+     *            The context providing the endpoints and all other settings.
+     * @param executor
+     *            The {@link Executor} used to perform asynchronous requests.
+     *            If <code>null</code> is provided, this instance creates its
+     *            own thread pool that is shut down when this instance is
+     *            closed.
+     * @throws SteemCommunicationException
+     *             If no connection to the Steem Node could be established.
+     */
+    public CommunicationHandler(SteemJContext context, Executor executor) throws SteemCommunicationException {
+        this(context, context::getEndpointURIs, executor);
+    }
+
+    /**
+     * Initialize the Connection Handler.
+     * 
+     * @param context
+     *            The context providing the settings.
+     * @param endpoints
+     *            Supplies the endpoints to send requests to.
+     * @param executor
+     *            The {@link Executor} used to perform asynchronous requests.
+     * @throws SteemCommunicationException
+     *             If no connection to the Steem Node could be established.
+     */
+    private CommunicationHandler(SteemJContext context, Supplier<List<Pair<URI, Boolean>>> endpoints,
+            Executor executor) throws SteemCommunicationException {
+        this.context = context;
+        this.metricsRecorder = context.getMetricsRecorder();
+        this.compressionStatistics = new CompressionStatistics();
+        this.httpConnectionPool = new HttpConnectionPool(context, compressionStatistics);
+        this.clientFactories = context.getClientFactories();
+        this.requestInterceptors = context.getRequestInterceptors();
+        this.clients = new HashMap<>();
+        this.rateLimiter = new RateLimiter(context);
+        this.endpointSelector = new EndpointSelector(context, this::probe, endpoints);
+
+        if (executor == null) {
+            this.ownedExecutor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "steemj-async");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor = this.ownedExecutor;
+        } else {
+            this.ownedExecutor = null;
+            this.executor = executor;
+        }
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "steemj-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (context.isConnectionWarmUpEnabled()) {
+            awaitWarmUp(warmUp(), context.getConnectionWarmUpTimeout());
+        }
+    }
+
+    /**
+     * Initialize new <code>clients</code>. The connections of the current
+     * clients are closed, so new connections to the best endpoint are
+     * established with the next request. Pooled HTTP connections are kept.
      * 
      * @throws SteemCommunicationException
-     *             If no {@link AbstractClient} implementation for the given
-     *             schema is available.
+     *             If the current connection could not be closed.
      */
-    public void initializeNewClient() throws SteemCommunicationException {
-        if (client != null) {
+    public synchronized void initializeNewClient() throws SteemCommunicationException {
+        IOException closeException = null;
+        for (AbstractClient client : clients.values()) {
             try {
                 client.closeConnection();
             } catch (IOException e) {
-                throw new SteemCommunicationException("Could not close the current client connection.", e);
+                closeException = e;
             }
         }
-        // Get a new endpoint URI based on the number of retries.
-        Pair<URI, Boolean> endpoint = SteemJConfig.getInstance().getNextEndpointURI(numberOfConnectionTries);
 
-        if (endpoint.getLeft().getScheme().toLowerCase().matches("(http){1}[s]?")) {
-            client = new HttpClient();
-        } else if (endpoint.getLeft().getScheme().toLowerCase().matches("(ws){1}[s]?")) {
-            client = new WebsocketClient();
-        } else {
-            throw new InvalidParameterException("No client implementation for the following protocol available: "
-                    + endpoint.getLeft().getScheme().toLowerCase());
+        clients.clear();
+
+        if (closeException != null) {
+            throw new SteemCommunicationException("Could not close the current client connection.", closeException);
+        }
+    }
+
+    /**
+     * Open connections to all configured endpoints in parallel and record
+     * their initial latency, so the first requests do not have to establish
+     * them. HTTP connections stay in the connection pool. As only one
+     * WebSocket session is kept open, WebSocket endpoints are probed using
+     * dedicated connections and the session of the endpoint that is selected
+     * afterwards is opened.
+     * 
+     * @return A future that will be completed once all endpoints have
+     *         answered or failed. Failed endpoints are recorded in the
+     *         endpoint statistics, so the future is never completed
+     *         exceptionally.
+     */
+    public CompletableFuture<Void> warmUp() {
+        List<EndpointStatistics> endpoints = endpointSelector.getEndpointStatistics();
+        List<CompletableFuture<Void>> warmUps = new ArrayList<>(endpoints.size());
+        for (EndpointStatistics endpoint : endpoints) {
+            warmUps.add(CompletableFuture.runAsync(() -> warmUp(endpoint), executor));
         }
+
+        return CompletableFuture.allOf(warmUps.toArray(new CompletableFuture<?>[warmUps.size()])).thenRunAsync(() -> {
+            EndpointStatistics endpoint = endpointSelector.selectEndpoint();
+            if (isWebsocket(endpoint.getEndpointUri())) {
+                try {
+                    getClient(endpoint.getEndpointUri()).invokeAndReadResponse(createProbeRequest(),
+                            endpoint.getEndpointUri(), endpoint.isSslVerificationDisabled());
+                } catch (SteemCommunicationException | SteemResponseException | RuntimeException e) {
+                    LOGGER.debug("Could not open the session to {}.", endpoint.getEndpointUri(), e);
+                }
+            }
+        }, executor);
     }
 
     /**
      * Perform a request to the web socket API whose response will automatically
      * get transformed into the given object.
      * 
+     * <p>
+     * This method blocks the calling thread until the response has been
+     * received. It uses the same code path as
+     * {@link #performRequestAsync(JsonRPCRequest, Class)}, but executes it in
+     * the calling thread.
+     * </p>
+     * 
+     * <p>
+     * Failed requests are retried on the next endpoint as defined by the
+     * {@link SteemJContext#getRetryPolicy() configured retry policy}.
+     * </p>
+     * 
+     * <p>
+     * If the method of the request is one of the
+     * {@link SteemJContext#getCoalescedMethods() coalesced methods}, identical
+     * requests that are in flight at the same time share one call and the
+     * returned list is unmodifiable.
+     * </p>
+     * 
      * @param requestObject
      *            A request object that contains all needed parameters.
      * @param targetClass
@@ -110,24 +316,1706 @@ public class CommunicationHandler {
      */
     public <T> List<T> performRequest(JsonRPCRequest requestObject, Class<T> targetClass)
             throws SteemCommunicationException, SteemResponseException {
+        requestObject.setResultType(getResultType(targetClass));
+        applyCurrentDeadline(requestObject);
+
+        Object coalescingKey = getCoalescingKey(requestObject);
+        if (coalescingKey == null) {
+            return performRequestWithRetries(requestObject, targetClass);
+        }
+
+        return requestCoalescer.coalesceBlocking(coalescingKey,
+                () -> Collections.unmodifiableList(performRequestWithRetries(requestObject, targetClass)));
+    }
+
+    /**
+     * Perform the <code>requestObject</code> in the calling thread and retry
+     * it as defined by the {@link SteemJContext#getRetryPolicy() configured
+     * retry policy} until the {@link Deadline} of the request expires.
+     * 
+     * @param requestObject
+     *            A request object that contains all needed parameters.
+     * @param targetClass
+     *            The type the response should be transformed to.
+     * @param <T>
+     *            The type that should be returned.
+     * @return The server response transformed into a list of given objects.
+     * @throws SteemCommunicationException
+     *             If there is a connection problem.
+     * @throws SteemResponseException
+     *             If the Server returned an error object.
+     */
+    private <T> List<T> performRequestWithRetries(JsonRPCRequest requestObject, Class<T> targetClass)
+            throws SteemCommunicationException, SteemResponseException {
+        RetryPolicy retryPolicy = context.getRetryPolicy();
+        Deadline deadline = requestObject.getDeadline();
+        long startTime = System.currentTimeMillis();
+        Map<Integer, EndpointStatistics> previousAttempt = new ConcurrentHashMap<>();
+
+        for (int attempt = 1;; attempt++) {
+            try {
+                checkDeadline(deadline, null);
+                // The clients enforce the deadline while they send the request
+                // in this thread, e.g. by aborting the HTTP request. The
+                // returned future is only pending if the request waits for a
+                // permit, which is limited to the deadline here.
+                JsonRPCResponse rawJsonResponse = AbstractClient.await(withDeadline(
+                        invoke(requestObject, previousAttempt, AbstractClient.CALLING_THREAD_EXECUTOR), deadline));
+
+                return transformResponse(rawJsonResponse, requestObject, targetClass);
+            } catch (SteemCommunicationException | SteemResponseException e) {
+                if (!waitBeforeRetry(retryPolicy, deadline, attempt, startTime, e)) {
+                    checkDeadline(deadline, e);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Perform a request to the web socket API without blocking the calling
+     * thread. The response will automatically get transformed into the given
+     * object using the configured {@link Executor}.
+     * 
+     * @param requestObject
+     *            A request object that contains all needed parameters.
+     * @param targetClass
+     *            The type the response should be transformed to.
+     * @param <T>
+     *            The type that should be returned.
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         server response transformed into a list of given objects. In case
+     *         the server returned an error object or the response could not be
+     *         transformed, the future is completed exceptionally with a
+     *         {@link SteemResponseException}. If the method of the request is
+     *         one of the {@link SteemJContext#getCoalescedMethods() coalesced
+     *         methods}, the list is shared with identical requests and
+     *         therefore unmodifiable. Cancelling the future stops all further
+     *         attempts and aborts the request in flight, so its connection is
+     *         released.
+     */
+    public <T> CompletableFuture<List<T>> performRequestAsync(JsonRPCRequest requestObject, Class<T> targetClass) {
+        requestObject.setResultType(getResultType(targetClass));
+        applyCurrentDeadline(requestObject);
+
+        Supplier<CompletableFuture<List<T>>> call = () -> {
+            Map<Integer, EndpointStatistics> previousAttempt = new ConcurrentHashMap<>();
+
+            return withRetries(() -> {
+                CompletableFuture<JsonRPCResponse> response = invoke(requestObject, previousAttempt, executor);
+
+                return cancelWith(response.thenApplyAsync(rawJsonResponse -> {
+                    try {
+                        return transformResponse(rawJsonResponse, requestObject, targetClass);
+                    } catch (SteemCommunicationException | SteemResponseException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor), response);
+            }, requestObject.getDeadline());
+        };
+
+        Object coalescingKey = getCoalescingKey(requestObject);
+        if (coalescingKey == null) {
+            return call.get();
+        }
+
+        return requestCoalescer.coalesce(coalescingKey, () -> call.get().thenApply(Collections::unmodifiableList));
+    }
+
+    /**
+     * Send all requests of the <code>batchRequest</code> as JSON-RPC batch and
+     * transform the responses into the given object.
+     * 
+     * <p>
+     * Batches that contain more than {@link SteemJContext#getMaxBatchSize()}
+     * requests are split into multiple batches. This method blocks the
+     * calling thread until all responses have been received.
+     * </p>
+     * 
+     * @param batchRequest
+     *            The requests to send. All requests are expected to return the
+     *            same type.
+     * @param targetClass
+     *            The type the responses should be transformed to.
+     * @param <T>
+     *            The type that should be returned.
+     * @return The transformed responses in the same order as the requests of
+     *         the <code>batchRequest</code>. Each element contains the result
+     *         of one request like it would have been returned by
+     *         {@link #performRequest(JsonRPCRequest, Class)}.
+     * @throws SteemCommunicationException
+     *             If there is a connection problem.
+     * @throws SteemResponseException
+     *             If the Server returned an error object for at least one of
+     *             the requests.
+     */
+    public <T> List<List<T>> performBatchRequest(JsonRPCBatchRequest batchRequest, Class<T> targetClass)
+            throws SteemCommunicationException, SteemResponseException {
+        if (batchRequest.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        setResultType(batchRequest, targetClass);
+        applyCurrentDeadline(batchRequest);
+
+        RetryPolicy retryPolicy = context.getRetryPolicy();
+        Deadline deadline = batchRequest.getDeadline();
+        long startTime = System.currentTimeMillis();
+        Map<Integer, EndpointStatistics> previousAttempt = new ConcurrentHashMap<>();
+
+        for (int attempt = 1;; attempt++) {
+            try {
+                checkDeadline(deadline, null);
+                // See performRequestWithRetries for how the deadline is applied.
+                List<JsonRPCResponse> rawJsonResponses = AbstractClient.await(withDeadline(
+                        invokeBatch(batchRequest, previousAttempt, AbstractClient.CALLING_THREAD_EXECUTOR), deadline));
+
+                return transformBatchResponse(rawJsonResponses, batchRequest, targetClass);
+            } catch (SteemCommunicationException | SteemResponseException e) {
+                if (!waitBeforeRetry(retryPolicy, deadline, attempt, startTime, e)) {
+                    checkDeadline(deadline, e);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Send all requests of the <code>batchRequest</code> as JSON-RPC batch
+     * without blocking the calling thread. If the batch needs to be split
+     * (see {@link SteemJContext#getMaxBatchSize()}), the resulting batches are
+     * sent concurrently.
+     * 
+     * @param batchRequest
+     *            The requests to send. All requests are expected to return the
+     *            same type.
+     * @param targetClass
+     *            The type the responses should be transformed to.
+     * @param <T>
+     *            The type that should be returned.
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         transformed responses in the same order as the requests of the
+     *         <code>batchRequest</code>. In case the server returned an error
+     *         object for at least one of the requests, the future is completed
+     *         exceptionally with a {@link SteemResponseException}. Cancelling
+     *         the future stops all further attempts and aborts the requests
+     *         in flight.
+     */
+    public <T> CompletableFuture<List<List<T>>> performBatchRequestAsync(JsonRPCBatchRequest batchRequest,
+            Class<T> targetClass) {
+        if (batchRequest.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+
+        setResultType(batchRequest, targetClass);
+        applyCurrentDeadline(batchRequest);
+
+        Map<Integer, EndpointStatistics> previousAttempt = new ConcurrentHashMap<>();
+        return withRetries(() -> {
+            CompletableFuture<List<JsonRPCResponse>> responses = invokeBatch(batchRequest, previousAttempt, executor);
+
+            return cancelWith(responses.thenApplyAsync(rawJsonResponses -> {
+                try {
+                    return transformBatchResponse(rawJsonResponses, batchRequest, targetClass);
+                } catch (SteemCommunicationException | SteemResponseException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor), responses);
+        }, batchRequest.getDeadline());
+    }
+
+    /**
+     * Register a callback at a WebSocket endpoint, so the node pushes notices
+     * to the given <code>listener</code> instead of being polled. This method
+     * blocks the calling thread until the node has accepted the callback.
+     * 
+     * <p>
+     * Callbacks can only be registered at the configured WebSocket
+     * endpoints. The notices are delivered by a dedicated thread, so they do
+     * not block the responses to other requests. As a WebSocket client keeps
+     * a single session, requests sent to another WebSocket endpoint
+     * afterwards end the subscription.
+     * </p>
+     * 
+     * @param callbackMethod
+     *            The method used to register the callback, e.g.
+     *            {@link RequestMethods#SET_BLOCK_APPLIED_CALLBACK}.
+     * @param noticeClass
+     *            The type the notices should be transformed to.
+     * @param listener
+     *            The listener to inform about the notices.
+     * @param <T>
+     *            The type the notices should be transformed to.
+     * @return The subscription, which can be used to stop informing the
+     *         <code>listener</code>.
+     * @throws SteemCommunicationException
+     *             If no WebSocket endpoint has been configured or if there is
+     *             a connection problem.
+     * @throws SteemResponseException
+     *             If the node does not support the <code>callbackMethod</code>.
+     */
+    public <T> Subscription subscribe(RequestMethods callbackMethod, Class<T> noticeClass,
+            NoticeListener<T> listener) throws SteemCommunicationException, SteemResponseException {
+        return AbstractClient.await(subscribe(callbackMethod, noticeClass, listener,
+                AbstractClient.CALLING_THREAD_EXECUTOR));
+    }
+
+    /**
+     * Asynchronous variant of
+     * {@link #subscribe(RequestMethods, Class, NoticeListener)}.
+     * 
+     * @param callbackMethod
+     *            The method used to register the callback, e.g.
+     *            {@link RequestMethods#SET_BLOCK_APPLIED_CALLBACK}.
+     * @param noticeClass
+     *            The type the notices should be transformed to.
+     * @param listener
+     *            The listener to inform about the notices.
+     * @param <T>
+     *            The type the notices should be transformed to.
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         subscription. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public <T> CompletableFuture<Subscription> subscribeAsync(RequestMethods callbackMethod, Class<T> noticeClass,
+            NoticeListener<T> listener) {
+        return subscribe(callbackMethod, noticeClass, listener, executor);
+    }
+
+    /**
+     * Get the settings this instance has been created with.
+     * 
+     * @return The context of this instance.
+     */
+    public SteemJContext getContext() {
+        return context;
+    }
+
+    /**
+     * Get the {@link Executor} used to perform asynchronous requests.
+     * 
+     * @return The executor used by this instance.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Get the pool of persistent HTTP connections shared by the clients of
+     * this instance.
+     * 
+     * @return The HTTP connection pool of this instance.
+     */
+    public HttpConnectionPool getHttpConnectionPool() {
+        return httpConnectionPool;
+    }
+
+    /**
+     * Get the number of bytes received from the nodes before and after they
+     * have been decompressed.
+     * 
+     * @return The compression statistics of this instance.
+     */
+    public CompressionStatistics getCompressionStatistics() {
+        return compressionStatistics;
+    }
+
+    /**
+     * Get the recorder the latencies, payload sizes and errors of the
+     * requests of this instance are reported to.
+     * 
+     * @return The {@link SteemJContext#getMetricsRecorder() metrics recorder}
+     *         configured when this instance has been created.
+     */
+    public MetricsRecorder getMetricsRecorder() {
+        return metricsRecorder;
+    }
+
+    /**
+     * Get the latency and health statistics collected for the configured
+     * endpoints.
+     * 
+     * @return The statistics of all configured endpoints.
+     */
+    public List<EndpointStatistics> getEndpointStatistics() {
+        return endpointSelector.getEndpointStatistics();
+    }
+
+    /**
+     * Register a callback at the WebSocket endpoint selected by the
+     * configured strategy.
+     * 
+     * @param callbackMethod
+     *            The method used to register the callback.
+     * @param noticeClass
+     *            The type the notices should be transformed to.
+     * @param listener
+     *            The listener to inform about the notices.
+     * @param connectExecutor
+     *            The {@link Executor} used to establish a new connection if
+     *            required.
+     * @param <T>
+     *            The type the notices should be transformed to.
+     * @return A future that is completed with the subscription.
+     */
+    private <T> CompletableFuture<Subscription> subscribe(RequestMethods callbackMethod, Class<T> noticeClass,
+            NoticeListener<T> listener, Executor connectExecutor) {
+        CompletableFuture<Subscription> subscription = new CompletableFuture<>();
+
+        EndpointStatistics endpoint = endpointSelector
+                .selectEndpoint(candidate -> isWebsocket(candidate.getEndpointUri()));
+        if (endpoint == null) {
+            subscription.completeExceptionally(new SteemCommunicationException(
+                    "Notices can only be received from a WebSocket endpoint, but none has been configured."));
+            return subscription;
+        }
+
+        AbstractClient client = getClient(endpoint.getEndpointUri());
+        if (!(client instanceof WebsocketClient)) {
+            subscription.completeExceptionally(new SteemCommunicationException(
+                    "The client used for " + endpoint.getEndpointUri() + " does not support notices."));
+            return subscription;
+        }
+
+        return ((WebsocketClient) client).subscribe(callbackMethod, mapper.getTypeFactory().constructType(noticeClass),
+                listener, endpoint.getEndpointUri(), endpoint.isSslVerificationDisabled(), connectExecutor);
+    }
+
+    /**
+     * Block the calling thread until the next attempt of a failed request may
+     * be started. A request is not retried if its <code>deadline</code>
+     * expires before the next attempt could be started.
+     * 
+     * @param retryPolicy
+     *            The policy that decides if the request is retried.
+     * @param deadline
+     *            The deadline of the request or <code>null</code> if there is
+     *            none.
+     * @param attempt
+     *            The number of the attempt that has just failed.
+     * @param startTime
+     *            The time in milliseconds when the first attempt has been
+     *            started.
+     * @param failure
+     *            The failure of the last attempt.
+     * @return <code>false</code> if the request should not be retried.
+     * @throws SteemCommunicationException
+     *             If the calling thread has been interrupted while waiting.
+     */
+    private boolean waitBeforeRetry(RetryPolicy retryPolicy, Deadline deadline, int attempt, long startTime,
+            Exception failure) throws SteemCommunicationException {
+        long delay = retryPolicy.getRetryDelay(attempt, System.currentTimeMillis() - startTime, failure);
+
+        if (delay < 0 || (deadline != null && delay >= deadline.getRemainingTime(TimeUnit.MILLISECONDS))) {
+            return false;
+        }
+
+        LOGGER.warn("Attempt {} failed. Switching the endpoint and retrying in {} ms.", attempt, delay);
+        LOGGER.debug("For the following reason: ", failure);
+
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SteemCommunicationException("Interrupted while waiting to retry the request.", e);
+        }
+
+        return true;
+    }
+
+    /**
+     * Perform the asynchronous operation provided by the
+     * <code>attemptSupplier</code> and repeat it according to the configured
+     * {@link RetryPolicy} as long as it fails and the <code>deadline</code>
+     * has not expired.
+     * 
+     * @param attemptSupplier
+     *            Starts a new attempt.
+     * @param deadline
+     *            The deadline of the request or <code>null</code> if there is
+     *            none.
+     * @param <R>
+     *            The type of the result.
+     * @return A future that will be completed with the result of the first
+     *         successful attempt or the failure of the last attempt.
+     *         Cancelling it cancels the current attempt and stops all further
+     *         attempts.
+     */
+    private <R> CompletableFuture<R> withRetries(Supplier<CompletableFuture<R>> attemptSupplier, Deadline deadline) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+
+        retryAsync(attemptSupplier, context.getRetryPolicy(), deadline, 1, System.currentTimeMillis(), result);
+
+        return withDeadline(result, deadline);
+    }
+
+    /**
+     * Start the given <code>attempt</code> and schedule the next one if it
+     * fails with a retryable failure.
+     * 
+     * @param attemptSupplier
+     *            Starts a new attempt.
+     * @param retryPolicy
+     *            The policy that decides if the request is retried.
+     * @param deadline
+     *            The deadline of the request or <code>null</code> if there is
+     *            none.
+     * @param attempt
+     *            The number of the attempt to start.
+     * @param startTime
+     *            The time in milliseconds when the first attempt has been
+     *            started.
+     * @param result
+     *            The future to complete with the final outcome.
+     * @param <R>
+     *            The type of the result.
+     */
+    private <R> void retryAsync(Supplier<CompletableFuture<R>> attemptSupplier, RetryPolicy retryPolicy,
+            Deadline deadline, int attempt, long startTime, CompletableFuture<R> result) {
+        if (result.isDone()) {
+            // The caller is no longer interested in the result.
+            return;
+        }
+
+        CompletableFuture<R> attemptResult;
         try {
-            Pair<URI, Boolean> endpoint = SteemJConfig.getInstance().getNextEndpointURI(numberOfConnectionTries++);
-            JsonRPCResponse rawJsonResponse = client.invokeAndReadResponse(requestObject, endpoint.getLeft(),
-                    endpoint.getRight());
-            LOGGER.debug("Received {} ", rawJsonResponse);
+            checkDeadline(deadline, null);
+            attemptResult = attemptSupplier.get();
+        } catch (SteemTimeoutException | RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
 
-            if (rawJsonResponse.isError()) {
-                throw rawJsonResponse.handleError(requestObject.getId());
-            } else {
-                // HANDLE NORMAL RESPONSE
-                JavaType expectedResultType = mapper.getTypeFactory().constructCollectionType(List.class, targetClass);
-                return rawJsonResponse.handleResult(expectedResultType, requestObject.getId());
+        result.whenComplete((value, throwable) -> attemptResult.cancel(true));
+
+        attemptResult.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                result.complete(value);
+                return;
+            } else if (result.isDone()) {
+                return;
             }
-        } catch (SteemCommunicationException e) {
-            LOGGER.warn("The connection has been closed. Switching the endpoint and reconnecting.");
-            LOGGER.debug("For the following reason: ", e);
 
-            return performRequest(requestObject, targetClass);
+            Throwable failure = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+            long delay = retryPolicy.getRetryDelay(attempt, System.currentTimeMillis() - startTime, failure);
+
+            if (delay < 0 || (deadline != null && delay >= deadline.getRemainingTime(TimeUnit.MILLISECONDS))) {
+                try {
+                    checkDeadline(deadline, failure);
+                    result.completeExceptionally(failure);
+                } catch (SteemTimeoutException e) {
+                    result.completeExceptionally(e);
+                }
+
+                return;
+            }
+
+            LOGGER.warn("Attempt {} failed. Switching the endpoint and retrying in {} ms.", attempt, delay);
+            LOGGER.debug("For the following reason: ", failure);
+
+            try {
+                ScheduledFuture<?> retryTimer = scheduler.schedule(
+                        () -> retryAsync(attemptSupplier, retryPolicy, deadline, attempt + 1, startTime, result),
+                        delay, TimeUnit.MILLISECONDS);
+                result.whenComplete((ignored, cause) -> retryTimer.cancel(false));
+            } catch (RejectedExecutionException e) {
+                failure.addSuppressed(e);
+                result.completeExceptionally(failure);
+            }
+        });
+    }
+
+    /**
+     * Fail with a {@link SteemTimeoutException} if the given
+     * <code>deadline</code> has expired. Transport failures caused by the
+     * timeouts of the clients, which are limited to the deadline, are
+     * reported the same way.
+     * 
+     * @param deadline
+     *            The deadline to check or <code>null</code> if there is none.
+     * @param failure
+     *            The failure of the last attempt or <code>null</code> if no
+     *            attempt has been started yet.
+     * @throws SteemTimeoutException
+     *             If the deadline has expired.
+     */
+    private static void checkDeadline(Deadline deadline, Throwable failure) throws SteemTimeoutException {
+        if (deadline != null && deadline.getRemainingTime(TimeUnit.MILLISECONDS) <= 0
+                && !(failure instanceof SteemTimeoutException) && !(failure instanceof SteemResponseException)) {
+            throw new SteemTimeoutException(DEADLINE_EXPIRED_MESSAGE, failure);
+        }
+    }
+
+    /**
+     * Complete the returned future exceptionally with a
+     * {@link SteemTimeoutException} once the given <code>deadline</code>
+     * expires and cancel the <code>response</code> in that case, so the
+     * clients stop waiting for it and release its connection.
+     * 
+     * @param response
+     *            The future to limit.
+     * @param deadline
+     *            The deadline or <code>null</code> if there is none.
+     * @param <R>
+     *            The type of the result.
+     * @return A future that will be completed with the outcome of the
+     *         <code>response</code> or the expiration of the deadline.
+     */
+    private <R> CompletableFuture<R> withDeadline(CompletableFuture<R> response, Deadline deadline) {
+        if (deadline == null || response.isDone()) {
+            return response;
+        }
+
+        CompletableFuture<R> result = new CompletableFuture<>();
+        ScheduledFuture<?> deadlineTimer;
+        try {
+            deadlineTimer = scheduler.schedule(
+                    () -> result.completeExceptionally(new SteemTimeoutException(DEADLINE_EXPIRED_MESSAGE)),
+                    Math.max(0, deadline.getRemainingTime(TimeUnit.NANOSECONDS)), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            return response;
+        }
+
+        result.whenComplete((value, throwable) -> deadlineTimer.cancel(false));
+        forward(response, result);
+
+        return result;
+    }
+
+    /**
+     * Cancel the <code>source</code> if the dependent <code>stage</code> is
+     * cancelled, as a cancellation is not passed on to the future a stage has
+     * been created from.
+     * 
+     * @param stage
+     *            The future returned to the caller.
+     * @param source
+     *            The future the <code>stage</code> depends on.
+     * @param <R>
+     *            The type of the result.
+     * @return The <code>stage</code>.
+     */
+    private static <R> CompletableFuture<R> cancelWith(CompletableFuture<R> stage, CompletableFuture<?> source) {
+        stage.whenComplete((value, throwable) -> {
+            if (stage.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+
+        return stage;
+    }
+
+    /**
+     * Apply the {@link Deadline#current() deadline of the current thread} to
+     * the given <code>requestObject</code> if it has no deadline.
+     * 
+     * @param requestObject
+     *            The request to send.
+     */
+    private static void applyCurrentDeadline(JsonRPCRequest requestObject) {
+        if (requestObject.getDeadline() == null) {
+            requestObject.setDeadline(Deadline.current());
+        }
+    }
+
+    /**
+     * Apply the {@link Deadline#current() deadline of the current thread} to
+     * all requests of the given <code>batchRequest</code> that have no
+     * deadline.
+     * 
+     * @param batchRequest
+     *            The requests to send.
+     */
+    private static void applyCurrentDeadline(JsonRPCBatchRequest batchRequest) {
+        for (JsonRPCRequest requestObject : batchRequest.getRequests()) {
+            applyCurrentDeadline(requestObject);
+        }
+    }
+
+    /**
+     * Select the endpoint for the next attempt of a request. If the request
+     * has already been sent before, a retry is recorded for the endpoint of
+     * the previous attempt and a failover if another endpoint is selected
+     * this time.
+     * 
+     * @param previousAttempt
+     *            The endpoints used by the previous attempt, stored by the
+     *            index of the batch they have been used for. The selected
+     *            endpoint is stored for the next attempt.
+     * @param index
+     *            The index of the batch the endpoint is selected for, which is
+     *            0 for single requests.
+     * @return The selected endpoint.
+     */
+    private EndpointStatistics selectEndpoint(Map<Integer, EndpointStatistics> previousAttempt, int index) {
+        EndpointStatistics endpoint = endpointSelector.selectEndpoint();
+        EndpointStatistics previousEndpoint = previousAttempt.put(index, endpoint);
+
+        if (previousEndpoint != null) {
+            metricsRecorder.recordRetry(previousEndpoint.getEndpointUri());
+            if (previousEndpoint != endpoint) {
+                metricsRecorder.recordFailover(previousEndpoint.getEndpointUri(), endpoint.getEndpointUri());
+            }
+        }
+
+        return endpoint;
+    }
+
+    /**
+     * Send the <code>requestObject</code> to the next endpoint. If hedging is
+     * enabled for the request, it is also sent to a second endpoint in case
+     * the first one does not answer in time.
+     * 
+     * @param requestObject
+     *            The request to send.
+     * @param previousAttempt
+     *            The endpoint used by the previous attempt of the request (see
+     *            {@link #selectEndpoint(Map, int)}).
+     * @param executor
+     *            The executor used by the client to perform blocking work.
+     * @return A future that will be completed with the raw response.
+     */
+    private CompletableFuture<JsonRPCResponse> invoke(JsonRPCRequest requestObject,
+            Map<Integer, EndpointStatistics> previousAttempt, Executor executor) {
+        EndpointStatistics endpoint = selectEndpoint(previousAttempt, 0);
+
+        if (!isHedgeable(requestObject) || endpoint.getNumberOfSamples() == 0) {
+            return invoke(requestObject, endpoint, executor);
+        }
+
+        long hedgeDelay = (long) Math.ceil(endpoint.getLatencyPercentile(context.getHedgingPercentile()));
+
+        // Hedged requests must not block the calling thread, as it has to wait
+        // for the first of two responses.
+        return hedge(requestObject, endpoint, invoke(requestObject, endpoint, this.executor), hedgeDelay,
+                this.executor);
+    }
+
+    /**
+     * Pass the <code>requestObject</code> through the
+     * {@link SteemJContext#getRequestInterceptors() request interceptors} and
+     * send it to the given <code>endpoint</code>.
+     * 
+     * @param requestObject
+     *            The request to send.
+     * @param endpoint
+     *            The endpoint to send the request to.
+     * @param executor
+     *            The executor used by the client to perform blocking work.
+     * @return A future that will be completed with the raw response.
+     *         Cancelling it stops waiting for the response.
+     */
+    private CompletableFuture<JsonRPCResponse> invoke(JsonRPCRequest requestObject, EndpointStatistics endpoint,
+            Executor executor) {
+        if (requestInterceptors.isEmpty()) {
+            return invokeClient(requestObject, endpoint, executor);
+        }
+
+        List<CompletableFuture<JsonRPCResponse>> sentRequests = new CopyOnWriteArrayList<>();
+        CompletableFuture<JsonRPCResponse> response = intercept(requestObject, endpoint.getEndpointUri(), 0,
+                interceptedRequest -> {
+                    CompletableFuture<JsonRPCResponse> sentRequest = invokeClient(interceptedRequest, endpoint,
+                            executor);
+                    sentRequests.add(sentRequest);
+                    return sentRequest;
+                });
+
+        // The interceptors may return another future than the one of the
+        // client, so a cancellation has to be passed on.
+        response.whenComplete((result, throwable) -> {
+            if (response.isCancelled()) {
+                sentRequests.forEach(sentRequest -> sentRequest.cancel(true));
+            }
+        });
+
+        return response;
+    }
+
+    /**
+     * Send the <code>requestObject</code> to the given <code>endpoint</code>
+     * and record the outcome in its statistics.
+     * 
+     * @param requestObject
+     *            The request to send.
+     * @param endpoint
+     *            The endpoint to send the request to.
+     * @param executor
+     *            The executor used by the client to perform blocking work.
+     * @return The future of the client, which will be completed with the raw
+     *         response. Cancelling it stops waiting for the response.
+     */
+    private CompletableFuture<JsonRPCResponse> invokeClient(JsonRPCRequest requestObject,
+            EndpointStatistics endpoint, Executor executor) {
+        return send(endpoint, Collections.singletonList(requestObject),
+                () -> getClient(endpoint.getEndpointUri()).invokeAndReadResponseAsync(requestObject,
+                        endpoint.getEndpointUri(), endpoint.isSslVerificationDisabled(), executor));
+    }
+
+    /**
+     * Pass the <code>requestObject</code> to the interceptor at the given
+     * <code>index</code>, which passes it on to the next one.
+     * 
+     * @param requestObject
+     *            The request to intercept.
+     * @param endpointUri
+     *            The endpoint the request will be sent to.
+     * @param index
+     *            The index of the interceptor to call.
+     * @param transport
+     *            Sends the request once it has passed all interceptors.
+     * @return A future that will be completed with the raw response or the
+     *         failure of an interceptor.
+     */
+    private CompletableFuture<JsonRPCResponse> intercept(JsonRPCRequest requestObject, URI endpointUri, int index,
+            InterceptorChain transport) {
+        if (index >= requestInterceptors.size()) {
+            return transport.proceed(requestObject);
+        }
+
+        CompletableFuture<JsonRPCResponse> response;
+        try {
+            response = requestInterceptors.get(index).intercept(requestObject, endpointUri,
+                    interceptedRequest -> intercept(interceptedRequest, endpointUri, index + 1, transport));
+        } catch (RuntimeException e) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+        }
+
+        if (response == null) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(new IllegalStateException(
+                    "The interceptor " + requestInterceptors.get(index) + " did not return a response."));
+        }
+
+        return response;
+    }
+
+    /**
+     * Pass each request of the <code>batch</code> through the
+     * {@link SteemJContext#getRequestInterceptors() request interceptors} and
+     * send the requests the interceptors have passed on as a single batch to
+     * the given <code>endpoint</code>. Requests an interceptor only passes on
+     * after all requests of the batch have been intercepted are sent on their
+     * own.
+     * 
+     * @param batch
+     *            The requests to send.
+     * @param endpoint
+     *            The endpoint to send the requests to.
+     * @param executor
+     *            The executor used by the client to perform blocking work.
+     * @return A future that will be completed with the raw responses in the
+     *         same order as the requests. Cancelling it stops waiting for the
+     *         responses.
+     */
+    private CompletableFuture<List<JsonRPCResponse>> interceptBatch(JsonRPCBatchRequest batch,
+            EndpointStatistics endpoint, Executor executor) {
+        List<JsonRPCRequest> passedRequests = new ArrayList<>();
+        List<CompletableFuture<JsonRPCResponse>> passedResponses = new ArrayList<>();
+        List<CompletableFuture<?>> sentRequests = new CopyOnWriteArrayList<>();
+        AtomicBoolean collecting = new AtomicBoolean(true);
+
+        InterceptorChain transport = interceptedRequest -> {
+            synchronized (passedRequests) {
+                if (collecting.get()) {
+                    CompletableFuture<JsonRPCResponse> passedResponse = new CompletableFuture<>();
+                    passedRequests.add(interceptedRequest);
+                    passedResponses.add(passedResponse);
+                    return passedResponse;
+                }
+            }
+
+            CompletableFuture<JsonRPCResponse> sentRequest = invokeClient(interceptedRequest, endpoint, executor);
+            sentRequests.add(sentRequest);
+            return sentRequest;
+        };
+
+        List<CompletableFuture<JsonRPCResponse>> responses = new ArrayList<>(batch.size());
+        for (JsonRPCRequest requestObject : batch.getRequests()) {
+            responses.add(intercept(requestObject, endpoint.getEndpointUri(), 0, transport));
+        }
+
+        synchronized (passedRequests) {
+            collecting.set(false);
+        }
+
+        if (!passedRequests.isEmpty()) {
+            JsonRPCBatchRequest passedBatch = new JsonRPCBatchRequest(passedRequests);
+            CompletableFuture<List<JsonRPCResponse>> sentBatch = send(endpoint, passedBatch.getRequests(),
+                    () -> getClient(endpoint.getEndpointUri()).invokeAndReadResponseAsync(passedBatch,
+                            endpoint.getEndpointUri(), endpoint.isSslVerificationDisabled(), executor));
+            sentRequests.add(sentBatch);
+            sentBatch.whenComplete((rawJsonResponses, throwable) -> {
+                        for (int i = 0; i < passedResponses.size(); i++) {
+                            if (throwable == null) {
+                                passedResponses.get(i).complete(rawJsonResponses.get(i));
+                            } else {
+                                passedResponses.get(i).completeExceptionally(
+                                        throwable instanceof CompletionException ? throwable.getCause() : throwable);
+                            }
+                        }
+                    });
+        }
+
+        CompletableFuture<List<JsonRPCResponse>> result = CompletableFuture
+                .allOf(responses.toArray(new CompletableFuture<?>[responses.size()])).thenApply(done -> {
+                    List<JsonRPCResponse> rawJsonResponses = new ArrayList<>(responses.size());
+                    for (CompletableFuture<JsonRPCResponse> response : responses) {
+                        rawJsonResponses.add(response.join());
+                    }
+
+                    return rawJsonResponses;
+                });
+
+        // The interceptors may return other futures than the ones of the
+        // client, so a cancellation has to be passed on.
+        result.whenComplete((rawJsonResponses, throwable) -> {
+            if (result.isCancelled()) {
+                responses.forEach(response -> response.cancel(true));
+                sentRequests.forEach(sentRequest -> sentRequest.cancel(true));
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Perform the <code>call</code> to the given <code>endpoint</code> once
+     * the {@link RateLimit rate limits} of the endpoint and of the contained
+     * <code>requests</code> allow it. In case the rate limits would require to
+     * wait longer than {@link SteemJContext#getRateLimitMaxWait() configured},
+     * the call fails with a {@link SteemRateLimitException}. Calls waiting for
+     * the rate limit of the same endpoint are sent in the order of their
+     * priority (see {@link RateLimitQueue}).
+     * 
+     * @param endpoint
+     *            The endpoint the call is sent to.
+     * @param requests
+     *            The requests sent by the call.
+     * @param call
+     *            Sends the request and supplies the future of the client.
+     * @param <R>
+     *            The type of the response.
+     * @return A future that will be completed with the response. Cancelling
+     *         it stops waiting for the rate limits, for a permit or for the
+     *         response.
+     */
+    private <R> CompletableFuture<R> send(EndpointStatistics endpoint, List<JsonRPCRequest> requests,
+            Supplier<CompletableFuture<R>> call) {
+        RateLimiter.Reservation reservation;
+        try {
+            reservation = rateLimiter.reservePermits(endpoint.getEndpointUri(), requests,
+                    context.getRateLimitMaxWait());
+        } catch (SteemRateLimitException e) {
+            CompletableFuture<R> result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        if (reservation.getWait() == 0) {
+            return acquireAndSend(endpoint, requests, call);
+        }
+
+        CompletableFuture<R> result = new CompletableFuture<>();
+        Runnable delayedSend = () -> {
+            if (result.isDone()) {
+                return;
+            }
+
+            try {
+                forward(acquireAndSend(endpoint, requests, call), result);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        };
+
+        RateLimitQueue rateLimitQueue = rateLimitQueues.computeIfAbsent(endpoint.getEndpointUri(),
+                endpointUri -> new RateLimitQueue(endpointUri, rateLimiter, scheduler, context));
+        Object waitingCall;
+        try {
+            // The call of a blocking request performs the whole round trip,
+            // so it must not occupy the scheduler, which drives the timers of
+            // all other requests.
+            waitingCall = rateLimitQueue.add(requests, reservation, () -> {
+                try {
+                    executor.execute(delayedSend);
+                } catch (RejectedExecutionException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rateLimiter.refund(endpoint.getEndpointUri(), requests);
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        // Give the permits back if the caller is no longer interested before
+        // the request has been sent.
+        result.whenComplete((value, throwable) -> rateLimitQueue.remove(waitingCall));
+
+        return result;
+    }
+
+    /**
+     * Perform the <code>call</code> to the given <code>endpoint</code> and
+     * record its outcome. If {@link SteemJContext#isConcurrencyLimitingEnabled()
+     * concurrency limiting} is enabled, the call is only performed once the
+     * {@link ConcurrencyLimiter} of the endpoint grants a permit. In case no
+     * permit is granted within the {@link SteemJContext#getConcurrencyLimitMaxWait()
+     * configured time}, the call fails with a {@link SteemTimeoutException}.
+     * While waiting, requests of a higher priority are preferred (see
+     * {@link JsonRPCRequest#getPriority(SteemJContext)}).
+     * 
+     * @param endpoint
+     *            The endpoint the call is sent to.
+     * @param requests
+     *            The requests sent by the call.
+     * @param call
+     *            Sends the request and supplies the future of the client.
+     * @param <R>
+     *            The type of the response.
+     * @return A future that will be completed with the response. Cancelling
+     *         it stops waiting for a permit or for the response.
+     */
+    private <R> CompletableFuture<R> acquireAndSend(EndpointStatistics endpoint, List<JsonRPCRequest> requests,
+            Supplier<CompletableFuture<R>> call) {
+        if (!context.isConcurrencyLimitingEnabled()) {
+            return sendWithPermit(endpoint, requests, call, false);
+        }
+
+        ConcurrencyLimiter concurrencyLimiter = endpoint.getConcurrencyLimiter();
+        CompletableFuture<Void> permit = concurrencyLimiter
+                .acquire(JsonRPCBatchRequest.getHighestPriority(requests, context));
+        if (permit.isDone()) {
+            return sendWithPermit(endpoint, requests, call, true);
+        }
+
+        long maxWait = context.getConcurrencyLimitMaxWait();
+        ScheduledFuture<?> waitTimer = scheduler.schedule(
+                () -> permit.completeExceptionally(new SteemTimeoutException("No permit to send a request to "
+                        + endpoint.getEndpointUri() + " has been granted within " + maxWait + " ms.")),
+                maxWait, TimeUnit.MILLISECONDS);
+
+        CompletableFuture<R> result = new CompletableFuture<>();
+        // Stop waiting for a permit if the caller is no longer interested.
+        result.whenComplete((value, throwable) -> permit.cancel(false));
+
+        permit.whenCompleteAsync((granted, throwable) -> {
+            waitTimer.cancel(false);
+
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+                return;
+            } else if (result.isDone()) {
+                concurrencyLimiter.recordCancellation();
+                return;
+            }
+
+            try {
+                forward(sendWithPermit(endpoint, requests, call, true), result);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }, executor);
+
+        return result;
+    }
+
+    /**
+     * Complete the <code>target</code> with the outcome of the
+     * <code>source</code> and cancel the <code>source</code> if the
+     * <code>target</code> is completed first.
+     * 
+     * @param source
+     *            The future to take the outcome from.
+     * @param target
+     *            The future to complete.
+     * @param <R>
+     *            The type of the result.
+     */
+    private static <R> void forward(CompletableFuture<R> source, CompletableFuture<R> target) {
+        target.whenComplete((value, throwable) -> source.cancel(true));
+        source.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                target.complete(value);
+            } else if (throwable instanceof CompletionException && throwable.getCause() != null) {
+                target.completeExceptionally(throwable.getCause());
+            } else {
+                target.completeExceptionally(throwable);
+            }
+        });
+    }
+
+    /**
+     * Perform the <code>call</code> to the given <code>endpoint</code> and
+     * record its outcome. Calls to an HTTP endpoint wait until one of the
+     * pooled connections of the endpoint is free, as the pool would let them
+     * wait in the order they arrived. Instead, the waiting calls get a
+     * connection in the order of their priority (see {@link PriorityGate}).
+     * 
+     * @param endpoint
+     *            The endpoint the call is sent to.
+     * @param requests
+     *            The requests sent by the call.
+     * @param call
+     *            Sends the request and supplies the future of the client.
+     * @param limited
+     *            <code>true</code> if a permit of the concurrency limiter of
+     *            the endpoint has been granted for the call.
+     * @param <R>
+     *            The type of the response.
+     * @return A future that will be completed with the response. Cancelling
+     *         it stops waiting for a connection or for the response.
+     */
+    private <R> CompletableFuture<R> sendWithPermit(EndpointStatistics endpoint, List<JsonRPCRequest> requests,
+            Supplier<CompletableFuture<R>> call, boolean limited) {
+        if (!isHttp(endpoint.getEndpointUri())) {
+            return sendAndRecord(endpoint, requests, call, limited, null);
+        }
+
+        PriorityGate connectionGate = connectionGates.computeIfAbsent(
+                new ImmutablePair<>(endpoint.getEndpointUri(), endpoint.isSslVerificationDisabled()),
+                key -> new PriorityGate(httpConnectionPool.getMaxConnectionsPerEndpoint(),
+                        context.getPriorityWeights()));
+        CompletableFuture<Void> connection = connectionGate
+                .acquire(JsonRPCBatchRequest.getHighestPriority(requests, context));
+        if (connection.isDone()) {
+            return sendAndRecord(endpoint, requests, call, limited, connectionGate);
+        }
+
+        CompletableFuture<R> result = new CompletableFuture<>();
+        // Stop waiting for a connection if the caller is no longer interested.
+        result.whenComplete((value, throwable) -> connection.cancel(false));
+
+        connection.whenCompleteAsync((granted, throwable) -> {
+            if (throwable != null || result.isDone()) {
+                if (throwable == null) {
+                    connectionGate.release();
+                }
+
+                if (limited) {
+                    endpoint.getConcurrencyLimiter().recordCancellation();
+                }
+
+                result.completeExceptionally(throwable == null ? new CancellationException() : throwable);
+                return;
+            }
+
+            try {
+                forward(sendAndRecord(endpoint, requests, call, limited, connectionGate), result);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }, executor);
+
+        return result;
+    }
+
+    /**
+     * Perform the <code>call</code> to the given <code>endpoint</code> and
+     * record its outcome.
+     * 
+     * @param endpoint
+     *            The endpoint the call is sent to.
+     * @param requests
+     *            The requests sent by the call.
+     * @param call
+     *            Sends the request and supplies the future of the client.
+     * @param limited
+     *            <code>true</code> if a permit of the concurrency limiter of
+     *            the endpoint has been granted for the call.
+     * @param connectionGate
+     *            The gate whose permit has been granted for the call or
+     *            <code>null</code> if the call does not need a pooled
+     *            connection.
+     * @param <R>
+     *            The type of the response.
+     * @return The future of the client.
+     */
+    private <R> CompletableFuture<R> sendAndRecord(EndpointStatistics endpoint, List<JsonRPCRequest> requests,
+            Supplier<CompletableFuture<R>> call, boolean limited, PriorityGate connectionGate) {
+        long startTime = System.nanoTime();
+
+        CompletableFuture<R> response;
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            if (connectionGate != null) {
+                connectionGate.release();
+            }
+
+            if (limited) {
+                endpoint.getConcurrencyLimiter().recordCancellation();
+            }
+
+            throw e;
+        }
+
+        response.whenComplete((result, throwable) -> {
+            if (connectionGate != null) {
+                connectionGate.release();
+            }
+
+            recordOutcome(endpoint, requests, startTime, result, throwable, limited);
+        });
+
+        return response;
+    }
+
+    /**
+     * Check if the given request may be sent to two endpoints at the same
+     * time. Broadcasts are never hedged, as they have side effects.
+     * 
+     * @param requestObject
+     *            The request to check.
+     * @return <code>true</code> if hedging is enabled for the request.
+     */
+    private boolean isHedgeable(JsonRPCRequest requestObject) {
+        return context.isHedgingEnabled() && requestObject.getSteemApi() != SteemApiType.NETWORK_BROADCAST_API
+                && requestObject.getApiMethod() != null
+                && !requestObject.getApiMethod().name().startsWith("BROADCAST_")
+                && context.getHedgedMethods().contains(requestObject.getApiMethod());
+    }
+
+    /**
+     * Get the key used to coalesce the given request with identical requests.
+     * Only requests for the {@link SteemJContext#getCoalescedMethods()
+     * coalesced methods} are coalesced. Broadcasts and requests with a
+     * {@link Deadline} never are, as the deadline of another caller would
+     * apply to them.
+     * 
+     * @param requestObject
+     *            The request to check.
+     * @return The key or <code>null</code> if the request must not be
+     *         coalesced.
+     */
+    private Object getCoalescingKey(JsonRPCRequest requestObject) {
+        if (requestObject.getSteemApi() == SteemApiType.NETWORK_BROADCAST_API || requestObject.getApiMethod() == null
+                || requestObject.getDeadline() != null
+                || !context.getCoalescedMethods().contains(requestObject.getApiMethod())) {
+            return null;
+        }
+
+        return RequestCoalescer.createKey(requestObject, mapper);
+    }
+
+    /**
+     * Send the <code>requestObject</code> to a second endpoint if the
+     * <code>primaryResponse</code> has not been received after the
+     * <code>hedgeDelay</code>. The first successful response wins and the
+     * other request is cancelled.
+     * 
+     * <p>
+     * Only HTTP endpoints are used as second endpoint, as all WebSocket
+     * requests share a single connection.
+     * </p>
+     * 
+     * @param requestObject
+     *            The request to send.
+     * @param primaryEndpoint
+     *            The endpoint the request has already been sent to.
+     * @param primaryResponse
+     *            The future of the request sent to the
+     *            <code>primaryEndpoint</code>.
+     * @param hedgeDelay
+     *            The time in milliseconds to wait before the request is sent to
+     *            a second endpoint.
+     * @param executor
+     *            The executor used by the client to perform blocking work.
+     * @return A future that will be completed with the first successful
+     *         response or the failure of the last request.
+     */
+    private CompletableFuture<JsonRPCResponse> hedge(JsonRPCRequest requestObject, EndpointStatistics primaryEndpoint,
+            CompletableFuture<JsonRPCResponse> primaryResponse, long hedgeDelay, Executor executor) {
+        CompletableFuture<JsonRPCResponse> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<JsonRPCResponse>> hedgedResponse = new AtomicReference<>();
+        // The number of requests that have not completed yet.
+        AtomicInteger outstandingRequests = new AtomicInteger(1);
+
+        BiConsumer<JsonRPCResponse, Throwable> completion = (response, throwable) -> {
+            if (throwable == null) {
+                result.complete(response);
+            } else if (outstandingRequests.decrementAndGet() == 0) {
+                result.completeExceptionally(
+                        throwable instanceof CompletionException ? throwable.getCause() : throwable);
+            }
+        };
+
+        ScheduledFuture<?> hedgeTimer;
+        try {
+            hedgeTimer = scheduler.schedule(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+
+                EndpointStatistics secondEndpoint = endpointSelector.selectEndpoint(
+                        endpoint -> endpoint != primaryEndpoint && endpoint.isHealthy()
+                                && endpoint.getEndpointUri().getScheme().toLowerCase().matches("(http){1}[s]?"));
+
+                if (secondEndpoint == null
+                        || outstandingRequests.getAndUpdate(count -> count == 0 ? 0 : count + 1) == 0) {
+                    return;
+                }
+
+                LOGGER.debug("No response from {} after {} ms. Sending the request to {}.",
+                        primaryEndpoint.getEndpointUri(), hedgeDelay, secondEndpoint.getEndpointUri());
+
+                hedgedResponse.set(invoke(requestObject, secondEndpoint, executor));
+                hedgedResponse.get().whenComplete(completion);
+
+                if (result.isDone()) {
+                    hedgedResponse.get().cancel(true);
+                }
+            }, hedgeDelay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return primaryResponse;
+        }
+
+        primaryResponse.whenComplete(completion);
+
+        result.whenComplete((response, throwable) -> {
+            hedgeTimer.cancel(false);
+            primaryResponse.cancel(true);
+            if (hedgedResponse.get() != null) {
+                hedgedResponse.get().cancel(true);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Send the <code>batchRequest</code> to the next endpoint. Batches that are
+     * larger than the configured maximum batch size are split and the
+     * responses are merged again.
+     * 
+     * @param batchRequest
+     *            The requests to send.
+     * @param previousAttempt
+     *            The endpoints used by the previous attempt of the batch (see
+     *            {@link #selectEndpoint(Map, int)}).
+     * @param executor
+     *            The executor used by the client to perform blocking work.
+     * @return A future that will be completed with the raw responses in the
+     *         same order as the requests. Cancelling it stops waiting for the
+     *         responses of all batches.
+     */
+    private CompletableFuture<List<JsonRPCResponse>> invokeBatch(JsonRPCBatchRequest batchRequest,
+            Map<Integer, EndpointStatistics> previousAttempt, Executor executor) {
+        List<JsonRPCBatchRequest> batches = batchRequest.split(context.getMaxBatchSize());
+        List<CompletableFuture<List<JsonRPCResponse>>> batchResponses = new ArrayList<>(batches.size());
+
+        for (int i = 0; i < batches.size(); i++) {
+            JsonRPCBatchRequest batch = batches.get(i);
+            EndpointStatistics endpoint = selectEndpoint(previousAttempt, i);
+
+            if (!requestInterceptors.isEmpty()) {
+                batchResponses.add(interceptBatch(batch, endpoint, executor));
+                continue;
+            }
+
+            batchResponses.add(send(endpoint, batch.getRequests(), () -> getClient(endpoint.getEndpointUri())
+                    .invokeAndReadResponseAsync(batch, endpoint.getEndpointUri(),
+                            endpoint.isSslVerificationDisabled(), executor)));
+        }
+
+        CompletableFuture<List<JsonRPCResponse>> result = CompletableFuture
+                .allOf(batchResponses.toArray(new CompletableFuture<?>[batchResponses.size()])).thenApply(done -> {
+                    List<JsonRPCResponse> rawJsonResponses = new ArrayList<>(batchRequest.size());
+                    for (CompletableFuture<List<JsonRPCResponse>> batchResponse : batchResponses) {
+                        rawJsonResponses.addAll(batchResponse.join());
+                    }
+
+                    return rawJsonResponses;
+                });
+
+        result.whenComplete((rawJsonResponses, throwable) -> {
+            if (result.isCancelled()) {
+                batchResponses.forEach(batchResponse -> batchResponse.cancel(true));
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Get the client that is able to send requests to the given endpoint. The
+     * client is created by the first of the {@link #clientFactories} that
+     * supports the endpoint.
+     * 
+     * @param endpointUri
+     *            The endpoint to send a request to.
+     * @return The client for the protocol of the endpoint.
+     * @throws InvalidParameterException
+     *             If no {@link AbstractClient} implementation for the protocol
+     *             of the endpoint is available.
+     */
+    private synchronized AbstractClient getClient(URI endpointUri) {
+        for (ClientFactory clientFactory : clientFactories) {
+            if (clientFactory.supports(endpointUri)) {
+                return clients.computeIfAbsent(clientFactory, factory -> factory.createClient(this));
+            }
+        }
+
+        throw new InvalidParameterException(
+                "No client implementation for the following protocol available: " + endpointUri.getScheme());
+    }
+
+    /**
+     * Update the statistics of the given <code>endpoint</code> with the
+     * outcome of a request, give back the permit of its concurrency limiter
+     * and report the outcome to the {@link #getMetricsRecorder() metrics
+     * recorder}.
+     * 
+     * @param endpoint
+     *            The endpoint the request has been sent to.
+     * @param requests
+     *            The requests that have been sent.
+     * @param startTime
+     *            The value of {@link System#nanoTime()} when the request has
+     *            been sent.
+     * @param response
+     *            The response or <code>null</code> if the request failed.
+     * @param throwable
+     *            The failure of the request or <code>null</code> if a response
+     *            has been received.
+     * @param limited
+     *            <code>true</code> if a permit of the concurrency limiter of
+     *            the endpoint has been granted for the request.
+     */
+    private void recordOutcome(EndpointStatistics endpoint, List<JsonRPCRequest> requests, long startTime,
+            Object response, Throwable throwable, boolean limited) {
+        Throwable failure = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+        long elapsedTime = System.nanoTime() - startTime;
+        long latency = TimeUnit.NANOSECONDS.toMillis(elapsedTime);
+        boolean aborted = failure instanceof CancellationException
+                || (failure != null && isDeadlineExpired(requests));
+
+        if (failure == null) {
+            // The clients may decode the response while it is received, which
+            // must not be counted as network time.
+            long networkTime = elapsedTime - getDecodeTime(response);
+            for (JsonRPCRequest request : requests) {
+                if (request.getApiMethod() != null) {
+                    metricsRecorder.recordLatency(endpoint.getEndpointUri(), request.getApiMethod(), networkTime);
+                }
+            }
+        } else if (!aborted && (failure instanceof SteemTimeoutException
+                || failure.getCause() instanceof SocketTimeoutException)) {
+            metricsRecorder.recordTimeout(endpoint.getEndpointUri());
+        }
+
+        if (aborted) {
+            // The request has been superseded by a hedged request, cancelled
+            // by the caller or aborted due to its deadline, so the outcome is
+            // unknown.
+            if (limited) {
+                endpoint.getConcurrencyLimiter().recordCancellation();
+            }
+        } else if (failure instanceof SteemCommunicationException
+                && !(failure instanceof SteemTransformationException)) {
+            endpoint.recordFailure();
+            if (limited) {
+                endpoint.getConcurrencyLimiter().recordFailure(latency);
+            }
+        } else {
+            endpoint.recordSuccess(latency);
+            if (limited) {
+                endpoint.getConcurrencyLimiter().recordSuccess(latency);
+            }
+        }
+    }
+
+    /**
+     * Check if the deadline of one of the given <code>requests</code> has
+     * expired.
+     * 
+     * @param requests
+     *            The requests that have been sent.
+     * @return <code>true</code> if a deadline has expired.
+     */
+    private static boolean isDeadlineExpired(List<JsonRPCRequest> requests) {
+        for (JsonRPCRequest request : requests) {
+            // The timeouts of the clients are limited to whole milliseconds.
+            if (request.getDeadline() != null && request.getDeadline().getRemainingTime(TimeUnit.MILLISECONDS) <= 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Get the time the client has spent to decode the given
+     * <code>response</code>.
+     * 
+     * @param response
+     *            A single {@link JsonRPCResponse} or the list of responses of a
+     *            batch.
+     * @return The decode time in nanoseconds.
+     */
+    private static long getDecodeTime(Object response) {
+        if (response instanceof JsonRPCResponse) {
+            return ((JsonRPCResponse) response).getDecodeTime();
+        } else if (!(response instanceof List)) {
+            return 0;
+        }
+
+        long decodeTime = 0;
+        for (Object element : (List<?>) response) {
+            if (element instanceof JsonRPCResponse) {
+                decodeTime += ((JsonRPCResponse) element).getDecodeTime();
+            }
+        }
+
+        return decodeTime;
+    }
+
+    /**
+     * Check if the given endpoint is able to answer a cheap request. For
+     * WebSocket and HTTP endpoints a dedicated client is used, so the
+     * connection used by normal requests is not affected. Other endpoints,
+     * like the ones handled by the {@link ReplayClient}, are probed using
+     * their normal client.
+     * 
+     * @param endpointUri
+     *            The endpoint to probe.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification should be disabled.
+     * @throws SteemCommunicationException
+     *             If the endpoint could not be reached.
+     * @throws SteemResponseException
+     *             If the answer of the endpoint is no valid JSON.
+     */
+    private void probe(URI endpointUri, boolean sslVerificationDisabled)
+            throws SteemCommunicationException, SteemResponseException {
+        if (!isWebsocket(endpointUri) && !isHttp(endpointUri)) {
+            getClient(endpointUri).invokeAndReadResponse(createProbeRequest(), endpointUri, sslVerificationDisabled);
+            return;
+        }
+
+        AbstractClient probeClient = isWebsocket(endpointUri)
+                ? new WebsocketClient(context, new CompressionStatistics(), new MetricsRegistry(), executor)
+                : new HttpClient(httpConnectionPool, new MetricsRegistry());
+        try {
+            probeClient.invokeAndReadResponse(createProbeRequest(), endpointUri, sslVerificationDisabled);
+        } finally {
+            try {
+                probeClient.closeConnection();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close the probe connection.", e);
+            }
+        }
+    }
+
+    /**
+     * Open a connection to the given <code>endpoint</code> and record the
+     * latency of a cheap request in its statistics.
+     * 
+     * @param endpoint
+     *            The endpoint to warm up.
+     */
+    private void warmUp(EndpointStatistics endpoint) {
+        long startTime = System.nanoTime();
+        try {
+            if (isWebsocket(endpoint.getEndpointUri())) {
+                probe(endpoint.getEndpointUri(), endpoint.isSslVerificationDisabled());
+            } else {
+                getClient(endpoint.getEndpointUri()).invokeAndReadResponse(createProbeRequest(),
+                        endpoint.getEndpointUri(), endpoint.isSslVerificationDisabled());
+            }
+
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            endpoint.recordSuccess(latency);
+
+            LOGGER.debug("Warmed up the endpoint {} in {} ms.", endpoint.getEndpointUri(), latency);
+        } catch (SteemCommunicationException | SteemResponseException | RuntimeException e) {
+            endpoint.recordFailure();
+
+            LOGGER.warn("Could not warm up the endpoint {}.", endpoint.getEndpointUri());
+            LOGGER.debug("For the following reason: ", e);
+        }
+    }
+
+    /**
+     * Wait for the connection warm-up started by the constructor.
+     * 
+     * @param warmUp
+     *            The future of the warm-up.
+     * @param timeout
+     *            The maximum time to wait in milliseconds.
+     */
+    private static void awaitWarmUp(CompletableFuture<Void> warmUp, long timeout) {
+        if (timeout == 0) {
+            return;
+        }
+
+        try {
+            warmUp.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            LOGGER.info("The connection warm-up did not finish within {} ms and continues in the background.",
+                    timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.debug("The connection warm-up failed.", e);
+        }
+    }
+
+    /**
+     * Create a cheap request used to check if an endpoint answers.
+     * 
+     * @return The request.
+     */
+    private static JsonRPCRequest createProbeRequest() {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_CONFIG);
+        requestObject.setSteemApi(SteemApiType.CONDENSER_API);
+        String[] parameters = {};
+        requestObject.setAdditionalParameters(parameters);
+
+        return requestObject;
+    }
+
+    /**
+     * Check if the given endpoint is a WebSocket endpoint.
+     * 
+     * @param endpointUri
+     *            The endpoint to check.
+     * @return <code>true</code> if the endpoint uses the ws or wss scheme.
+     */
+    private static boolean isWebsocket(URI endpointUri) {
+        return endpointUri.getScheme() != null && endpointUri.getScheme().toLowerCase().matches("(ws){1}[s]?");
+    }
+
+    /**
+     * Check if the given endpoint is a HTTP endpoint.
+     * 
+     * @param endpointUri
+     *            The endpoint to check.
+     * @return <code>true</code> if the endpoint uses the http or https scheme.
+     */
+    private static boolean isHttp(URI endpointUri) {
+        return endpointUri.getScheme() != null && endpointUri.getScheme().toLowerCase().matches("(http){1}[s]?");
+    }
+
+    /**
+     * Get the type a response is transformed to.
+     * 
+     * @param targetClass
+     *            The type of the elements.
+     * @return A list type of <code>targetClass</code> elements.
+     */
+    private static JavaType getResultType(Class<?> targetClass) {
+        return mapper.getTypeFactory().constructCollectionType(List.class, targetClass);
+    }
+
+    /**
+     * Define the expected result type of all requests of the
+     * <code>batchRequest</code>, so their results can be decoded while they
+     * are read.
+     * 
+     * @param batchRequest
+     *            The requests to update.
+     * @param targetClass
+     *            The type the responses should be transformed to.
+     */
+    private static void setResultType(JsonRPCBatchRequest batchRequest, Class<?> targetClass) {
+        JavaType resultType = getResultType(targetClass);
+        for (JsonRPCRequest requestObject : batchRequest.getRequests()) {
+            requestObject.setResultType(resultType);
+        }
+    }
+
+    /**
+     * Transform the <code>rawJsonResponse</code> into a list of
+     * <code>targetClass</code> instances.
+     * 
+     * @param rawJsonResponse
+     *            The response to transform.
+     * @param requestObject
+     *            The request the response belongs to.
+     * @param targetClass
+     *            The type the response should be transformed to.
+     * @return The server response transformed into a list of given objects.
+     * @throws SteemCommunicationException
+     *             If the response does not belong to the request.
+     * @throws SteemResponseException
+     *             If the Server returned an error object.
+     */
+    private <T> List<T> transformResponse(JsonRPCResponse rawJsonResponse, JsonRPCRequest requestObject,
+            Class<T> targetClass) throws SteemCommunicationException, SteemResponseException {
+        LOGGER.debug("Received {} ", rawJsonResponse);
+
+        if (rawJsonResponse.isError()) {
+            throw rawJsonResponse.handleError(requestObject.getId());
+        } else {
+            // HANDLE NORMAL RESPONSE
+            long startTime = System.nanoTime();
+            List<T> result = rawJsonResponse.handleResult(getResultType(targetClass), requestObject.getId());
+
+            if (requestObject.getApiMethod() != null) {
+                metricsRecorder.recordDecodeTime(requestObject.getApiMethod(),
+                        rawJsonResponse.getDecodeTime() + System.nanoTime() - startTime);
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * Transform the <code>rawJsonResponses</code> of a batch into lists of
+     * <code>targetClass</code> instances.
+     * 
+     * @param rawJsonResponses
+     *            The responses to transform, in the same order as the requests.
+     * @param batchRequest
+     *            The requests the responses belong to.
+     * @param targetClass
+     *            The type the responses should be transformed to.
+     * @return The transformed responses in the same order as the requests.
+     * @throws SteemCommunicationException
+     *             If a response does not belong to its request.
+     * @throws SteemResponseException
+     *             If the Server returned an error object for at least one of
+     *             the requests.
+     */
+    private <T> List<List<T>> transformBatchResponse(List<JsonRPCResponse> rawJsonResponses,
+            JsonRPCBatchRequest batchRequest, Class<T> targetClass)
+            throws SteemCommunicationException, SteemResponseException {
+        List<JsonRPCRequest> requests = batchRequest.getRequests();
+        List<List<T>> results = new ArrayList<>(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(transformResponse(rawJsonResponses.get(i), requests.get(i), targetClass));
+        }
+
+        return results;
+    }
+
+    /**
+     * Close the connection of the current client, all pooled HTTP connections
+     * and the thread pools created by this instance.
+     * 
+     * @throws IOException
+     *             If the connection of the current client can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            endpointSelector.close();
+            initializeNewClient();
+        } catch (SteemCommunicationException e) {
+            throw new IOException(e);
+        } finally {
+            httpConnectionPool.close();
+            scheduler.shutdown();
+
+            if (ownedExecutor != null) {
+                ownedExecutor.shutdown();
+            }
         }
     }
 
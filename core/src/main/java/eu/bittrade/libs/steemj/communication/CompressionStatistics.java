@@ -0,0 +1,69 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * This class counts the bytes received from the nodes before and after they
+ * have been decompressed, so the effect of the transport compression can be
+ * monitored.
+ *
+ * Responses that have not been compressed by the node are added to both
+ * counters.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class CompressionStatistics {
+    private final AtomicLong compressedBytes = new AtomicLong();
+    private final AtomicLong uncompressedBytes = new AtomicLong();
+
+    /**
+     * Add the given number of bytes received on the wire.
+     *
+     * @param numberOfBytes
+     *            The number of bytes to add.
+     */
+    public void addCompressedBytes(long numberOfBytes) {
+        compressedBytes.addAndGet(numberOfBytes);
+    }
+
+    /**
+     * Add the given number of bytes that have been decompressed.
+     *
+     * @param numberOfBytes
+     *            The number of bytes to add.
+     */
+    public void addUncompressedBytes(long numberOfBytes) {
+        uncompressedBytes.addAndGet(numberOfBytes);
+    }
+
+    /**
+     * @return The number of bytes received on the wire.
+     */
+    public long getCompressedBytes() {
+        return compressedBytes.get();
+    }
+
+    /**
+     * @return The number of bytes after decompression.
+     */
+    public long getUncompressedBytes() {
+        return uncompressedBytes.get();
+    }
+
+    /**
+     * @return The number of uncompressed bytes per compressed byte or 1 if
+     *         nothing has been received yet.
+     */
+    public double getCompressionRatio() {
+        long compressed = compressedBytes.get();
+
+        return compressed == 0 ? 1 : (double) uncompressedBytes.get() / compressed;
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
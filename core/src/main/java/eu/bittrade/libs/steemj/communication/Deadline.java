@@ -0,0 +1,179 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class represents the point in time until which the result of a request
+ * is needed.
+ *
+ * <p>
+ * A deadline covers the whole processing of a request, including the time
+ * spent waiting for a free connection, all retries and the failover to other
+ * endpoints. Once it has expired, the request is aborted with a
+ * {@link eu.bittrade.libs.steemj.exceptions.SteemTimeoutException
+ * SteemTimeoutException} and the connection used for it is released. The
+ * {@link eu.bittrade.libs.steemj.configuration.SteemJConfig#getResponseTimeout()
+ * response timeout} still applies to each single attempt.
+ * </p>
+ *
+ * <p>
+ * A deadline can be set for a single request using
+ * {@link eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest#setDeadline(Deadline)
+ * JsonRPCRequest#setDeadline(Deadline)} or for all requests sent by the
+ * current thread while it is active:
+ * </p>
+ *
+ * <pre>
+ * Deadline.Scope scope = Deadline.after(200, TimeUnit.MILLISECONDS).activate();
+ * try {
+ *     DatabaseApi.getDynamicGlobalProperties(communicationHandler);
+ * } finally {
+ *     scope.close();
+ * }
+ * </pre>
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public final class Deadline {
+    /** The deadline of the requests sent by the current thread. */
+    private static final ThreadLocal<Deadline> CURRENT_DEADLINE = new ThreadLocal<>();
+
+    /** The value of {@link System#nanoTime()} at which the deadline expires. */
+    private final long expirationTime;
+
+    /**
+     * Create a new {@link Deadline} instance.
+     *
+     * @param expirationTime
+     *            The value of {@link System#nanoTime()} at which the deadline
+     *            expires.
+     */
+    private Deadline(long expirationTime) {
+        this.expirationTime = expirationTime;
+    }
+
+    /**
+     * Create a deadline that expires after the given <code>timeout</code>.
+     *
+     * @param timeout
+     *            The time until the deadline expires.
+     * @param unit
+     *            The unit of the <code>timeout</code>.
+     * @return The new deadline.
+     * @throws IllegalArgumentException
+     *             If the <code>timeout</code> is negative.
+     */
+    public static Deadline after(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("The timeout can't be negative.");
+        }
+
+        return new Deadline(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * Get the deadline of the requests sent by the current thread.
+     *
+     * @return The active deadline or <code>null</code> if there is none.
+     */
+    public static Deadline current() {
+        return CURRENT_DEADLINE.get();
+    }
+
+    /**
+     * Apply this deadline to all requests sent by the current thread until
+     * the returned scope is closed. If another deadline is active already, the
+     * earlier one of both is applied.
+     *
+     * @return The scope to close once the deadline should no longer be
+     *         applied.
+     */
+    public Scope activate() {
+        Deadline previousDeadline = CURRENT_DEADLINE.get();
+        CURRENT_DEADLINE.set(earliest(previousDeadline));
+        return new Scope(previousDeadline);
+    }
+
+    /**
+     * Get the time left until this deadline expires.
+     *
+     * @param unit
+     *            The unit of the returned time.
+     * @return The remaining time, which is 0 or negative if the deadline has
+     *         expired.
+     */
+    public long getRemainingTime(TimeUnit unit) {
+        return unit.convert(expirationTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return <code>true</code> if this deadline has expired.
+     */
+    public boolean isExpired() {
+        return expirationTime - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Get the deadline that expires first.
+     *
+     * @param other
+     *            The deadline to compare with, which may be <code>null</code>.
+     * @return This deadline or <code>other</code>, whichever expires first.
+     */
+    public Deadline earliest(Deadline other) {
+        if (other == null || expirationTime - other.expirationTime <= 0) {
+            return this;
+        }
+
+        return other;
+    }
+
+    /**
+     * Limit the given <code>timeout</code> to the time left until this
+     * deadline expires.
+     *
+     * @param timeout
+     *            A timeout in milliseconds. A value that is 0 or negative
+     *            disables the timeout.
+     * @return The limited timeout in milliseconds, which is at least 1.
+     */
+    public int limitTimeout(int timeout) {
+        long remainingTime = Math.max(1, getRemainingTime(TimeUnit.MILLISECONDS));
+        if (timeout > 0 && timeout < remainingTime) {
+            return timeout;
+        }
+
+        return (int) Math.min(remainingTime, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The scope in which a deadline is applied to the requests sent by the
+     * current thread.
+     */
+    public static final class Scope implements AutoCloseable {
+        /** The deadline to restore when the scope is closed. */
+        private final Deadline previousDeadline;
+
+        /**
+         * Create a new {@link Scope} instance.
+         *
+         * @param previousDeadline
+         *            The deadline to restore when the scope is closed.
+         */
+        private Scope(Deadline previousDeadline) {
+            this.previousDeadline = previousDeadline;
+        }
+
+        /**
+         * Stop to apply the deadline and restore the previous one.
+         */
+        @Override
+        public void close() {
+            if (previousDeadline == null) {
+                CURRENT_DEADLINE.remove();
+            } else {
+                CURRENT_DEADLINE.set(previousDeadline);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.io.IOException;
+
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.methods.AbortableHttpRequest;
+import org.apache.http.impl.client.RequestWrapper;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * This class allows to abort an HTTP request sent by the {@link HttpClient}
+ * from another thread, e.g. because the caller is no longer interested in the
+ * response or because its {@link Deadline} expired. Aborting a request closes
+ * its connection, so a thread that is blocked while reading the response is
+ * released immediately.
+ *
+ * <p>
+ * The request is built by the google-http-client, which does not expose the
+ * underlying Apache request. Therefore, the handle is {@link #activate()
+ * activated} for the sending thread and the {@link Interceptor} registered by
+ * the {@link HttpConnectionPool} attaches the request to it once its
+ * connection has been leased and connected. Both steps can't be aborted, but
+ * they are limited by the connect timeout of the request.
+ * </p>
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+final class HttpAbortHandle {
+    /** The handle of the request sent by the current thread. */
+    private static final ThreadLocal<HttpAbortHandle> CURRENT_HANDLE = new ThreadLocal<>();
+
+    /** The request to abort or <code>null</code> if not attached yet. */
+    private AbortableHttpRequest request;
+    private boolean aborted;
+    private boolean completed;
+
+    /**
+     * Attach the requests sent by the current thread to this handle until the
+     * returned scope is closed.
+     *
+     * @return The scope, which has to be closed once the request has been
+     *         sent.
+     */
+    Scope activate() {
+        CURRENT_HANDLE.set(this);
+        return new Scope();
+    }
+
+    /**
+     * Abort the attached request. If no request has been attached yet, it is
+     * aborted as soon as it is. Has no effect once the handle has been
+     * {@link #complete() completed}.
+     */
+    synchronized void abort() {
+        if (aborted || completed) {
+            return;
+        }
+
+        aborted = true;
+        if (request != null) {
+            request.abort();
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the request has been aborted before it
+     *         has been completed.
+     */
+    synchronized boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * Mark the request as completed, so it is no longer aborted. This has to
+     * be called once the response has been read, as the connection may have
+     * been passed on to the next request at that point.
+     */
+    synchronized void complete() {
+        completed = true;
+        request = null;
+    }
+
+    /**
+     * Attach the given <code>request</code> and abort it right away if the
+     * handle has already been aborted.
+     *
+     * @param request
+     *            The request sent by the thread the handle is active for.
+     */
+    private synchronized void attach(AbortableHttpRequest request) {
+        if (completed) {
+            return;
+        }
+
+        this.request = request;
+        if (aborted) {
+            request.abort();
+        }
+    }
+
+    /**
+     * The scope in which the requests of the current thread are attached to a
+     * handle.
+     */
+    final class Scope implements AutoCloseable {
+        /**
+         * Stop attaching the requests of the current thread to the handle.
+         */
+        @Override
+        public void close() {
+            CURRENT_HANDLE.remove();
+        }
+    }
+
+    /**
+     * Attaches the requests that are sent by a thread with an active handle
+     * to it.
+     */
+    static final class Interceptor implements HttpRequestInterceptor {
+        @Override
+        public void process(HttpRequest request, HttpContext context) throws HttpException, IOException {
+            HttpAbortHandle abortHandle = CURRENT_HANDLE.get();
+            if (abortHandle == null || !(request instanceof RequestWrapper)) {
+                return;
+            }
+
+            HttpRequest originalRequest = ((RequestWrapper) request).getOriginal();
+            if (originalRequest instanceof AbortableHttpRequest) {
+                abortHandle.attach((AbortableHttpRequest) originalRequest);
+            }
+        }
+    }
+}
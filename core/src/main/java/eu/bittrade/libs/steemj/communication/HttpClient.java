@@ -1,67 +1,488 @@
 package eu.bittrade.libs.steemj.communication;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
 
 import org.apache.http.client.ClientProtocolException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.google.api.client.http.ByteArrayContent;
 import com.google.api.client.http.GenericUrl;
 import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpResponse;
-import com.google.api.client.http.javanet.NetHttpTransport;
 
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCBatchRequest;
 import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
 import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+import eu.bittrade.libs.steemj.communication.metrics.MetricsRecorder;
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
 import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+import eu.bittrade.libs.steemj.exceptions.SteemTimeoutException;
+import eu.bittrade.libs.steemj.exceptions.SteemTransformationException;
 
 /**
  * This class handles the communication to a Steem Node using the HTTP protocol.
  * 
+ * <p>
+ * Requests are aborted once their {@link Deadline} expires or once the future
+ * returned by the asynchronous methods is cancelled. Aborting a request closes
+ * its connection, so a node that answers slowly can't keep the calling thread
+ * waiting.
+ * </p>
+ * 
  * @author <a href="http://steemit.com/@dez1337">dez1337</a>
  */
 public class HttpClient extends AbstractClient {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClient.class);
 
+    /** The pool providing the connections to the endpoints. */
+    private final HttpConnectionPool connectionPool;
+    /** The recorder the sizes of the payloads are reported to. */
+    private final MetricsRecorder metricsRecorder;
+
+    /**
+     * Initialize a new HTTP Client.
+     * 
+     * @param connectionPool
+     *            The {@link HttpConnectionPool} used to obtain persistent
+     *            connections to the endpoints.
+     */
+    public HttpClient(HttpConnectionPool connectionPool) {
+        this(connectionPool, SteemJConfig.getInstance().getMetricsRecorder());
+    }
+
+    /**
+     * Initialize a new HTTP Client.
+     * 
+     * @param connectionPool
+     *            The {@link HttpConnectionPool} used to obtain persistent
+     *            connections to the endpoints.
+     * @param metricsRecorder
+     *            The recorder the sizes of the payloads are reported to.
+     */
+    public HttpClient(HttpConnectionPool connectionPool, MetricsRecorder metricsRecorder) {
+        this.connectionPool = connectionPool;
+        this.metricsRecorder = metricsRecorder;
+    }
+
     @Override
     public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
             boolean sslVerificationDisabled) throws SteemCommunicationException {
+        return invokeAndReadResponse(requestObject, endpointUri, sslVerificationDisabled, new HttpAbortHandle());
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>
+     * Cancelling the returned future aborts the request.
+     * </p>
+     */
+    @Override
+    public CompletableFuture<JsonRPCResponse> invokeAndReadResponseAsync(JsonRPCRequest requestObject,
+            URI endpointUri, boolean sslVerificationDisabled, Executor executor) {
+        HttpAbortHandle abortHandle = new HttpAbortHandle();
+
+        return abortOnCancellation(supplyAsync(
+                () -> invokeAndReadResponse(requestObject, endpointUri, sslVerificationDisabled, abortHandle),
+                executor), abortHandle);
+    }
+
+    @Override
+    public List<JsonRPCResponse> invokeAndReadResponse(JsonRPCBatchRequest batchRequest, URI endpointUri,
+            boolean sslVerificationDisabled) throws SteemCommunicationException {
+        return invokeAndReadResponse(batchRequest, endpointUri, sslVerificationDisabled, new HttpAbortHandle());
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>
+     * Cancelling the returned future aborts the batch request.
+     * </p>
+     */
+    @Override
+    public CompletableFuture<List<JsonRPCResponse>> invokeAndReadResponseAsync(JsonRPCBatchRequest batchRequest,
+            URI endpointUri, boolean sslVerificationDisabled, Executor executor) {
+        HttpAbortHandle abortHandle = new HttpAbortHandle();
+
+        return abortOnCancellation(supplyAsync(
+                () -> invokeAndReadResponse(batchRequest, endpointUri, sslVerificationDisabled, abortHandle),
+                executor), abortHandle);
+    }
+
+    @Override
+    public void closeConnection() {
+        // The connections are owned by the HttpConnectionPool of the
+        // CommunicationHandler and are kept alive so they can be reused by
+        // the next client.
+    }
+
+    /**
+     * Send the <code>requestObject</code> and read its response. The request
+     * is aborted through the given <code>abortHandle</code> once its deadline
+     * expires.
+     * 
+     * @param requestObject
+     *            The request to send.
+     * @param endpointUri
+     *            The endpoint to send the request to.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification should be disabled.
+     * @param abortHandle
+     *            The handle used to abort the request.
+     * @return The response.
+     * @throws SteemCommunicationException
+     *             If the request failed or has been aborted.
+     */
+    private JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
+            boolean sslVerificationDisabled, HttpAbortHandle abortHandle) throws SteemCommunicationException {
+        String requestPayload;
+        try {
+            requestPayload = requestObject.toJson();
+        } catch (JsonProcessingException e) {
+            throw new SteemCommunicationException("Could not serialize the request.", e);
+        }
+
+        Deadline deadline = requestObject.getDeadline();
+        ScheduledFuture<?> deadlineTimer = scheduleAbort(abortHandle, deadline);
+        try {
+            HttpResponse httpResponse = post(requestPayload, deadline, endpointUri, sslVerificationDisabled,
+                    abortHandle);
+            try (JsonParser parser = createParser(httpResponse)) {
+                JsonRPCResponse response = readResponse(parser, requestObject);
+                recordBytesReceived(parser, endpointUri);
+
+                return response;
+            } catch (JsonMappingException e) {
+                throw abortedOr(abortHandle, deadline, new SteemTransformationException(
+                        "Could not transform the response into the expected type.", e));
+            } catch (IOException e) {
+                throw abortedOr(abortHandle, deadline,
+                        new SteemCommunicationException("A problem occured while processing the request.", e));
+            } finally {
+                releaseConnection(httpResponse);
+            }
+        } finally {
+            complete(abortHandle, deadlineTimer);
+        }
+    }
+
+    /**
+     * Send all requests of the <code>batchRequest</code> and read their
+     * responses. The batch request is aborted through the given
+     * <code>abortHandle</code> once its deadline expires.
+     * 
+     * @param batchRequest
+     *            The requests to send.
+     * @param endpointUri
+     *            The endpoint to send the requests to.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification should be disabled.
+     * @param abortHandle
+     *            The handle used to abort the batch request.
+     * @return The responses in the same order as the requests.
+     * @throws SteemCommunicationException
+     *             If the batch request failed or has been aborted.
+     */
+    private List<JsonRPCResponse> invokeAndReadResponse(JsonRPCBatchRequest batchRequest, URI endpointUri,
+            boolean sslVerificationDisabled, HttpAbortHandle abortHandle) throws SteemCommunicationException {
+        String requestPayload;
+        try {
+            requestPayload = batchRequest.toJson();
+        } catch (JsonProcessingException e) {
+            throw new SteemCommunicationException("Could not serialize the batch request.", e);
+        }
+
+        Deadline deadline = batchRequest.getDeadline();
+        ScheduledFuture<?> deadlineTimer = scheduleAbort(abortHandle, deadline);
         try {
-            NetHttpTransport.Builder builder = new NetHttpTransport.Builder();
-            // Disable SSL verification if needed
-            if (sslVerificationDisabled && endpointUri.getScheme().equals("https")) {
-                builder.doNotValidateCertificate();
+            HttpResponse httpResponse = post(requestPayload, deadline, endpointUri, sslVerificationDisabled,
+                    abortHandle);
+            try (JsonParser parser = createParser(httpResponse)) {
+                List<JsonRPCResponse> responses = readResponses(parser, batchRequest);
+                recordBytesReceived(parser, endpointUri);
+
+                return responses;
+            } catch (JsonMappingException e) {
+                throw abortedOr(abortHandle, deadline, new SteemTransformationException(
+                        "Could not transform the responses into the expected type.", e));
+            } catch (IOException e) {
+                throw abortedOr(abortHandle, deadline,
+                        new SteemCommunicationException("A problem occured while processing the batch request.", e));
+            } finally {
+                releaseConnection(httpResponse);
             }
+        } finally {
+            complete(abortHandle, deadlineTimer);
+        }
+    }
+
+    /**
+     * Read the response of a single request from the given
+     * <code>parser</code>.
+     * 
+     * @param parser
+     *            The parser reading the body of the HTTP response.
+     * @param requestObject
+     *            The request the response belongs to.
+     * @return The response.
+     * @throws SteemCommunicationException
+     *             If the node returned an empty response.
+     * @throws IOException
+     *             If the response could not be parsed.
+     */
+    static JsonRPCResponse readResponse(JsonParser parser, JsonRPCRequest requestObject)
+            throws SteemCommunicationException, IOException {
+        JsonRPCResponse response = JsonRPCResponse.readFrom(parser, requestObject.getResultType());
+
+        if (response.getRawJsonResponse() == null) {
+            throw new SteemCommunicationException("The node returned an empty response.");
+        }
+
+        return response;
+    }
 
-            String requestPayload = requestObject.toJson();
-            HttpRequest httpRequest = builder.build().createRequestFactory(new HttpClientRequestInitializer())
-                    .buildPostRequest(new GenericUrl(endpointUri),
-                            ByteArrayContent.fromString("application/json", requestPayload));
+    /**
+     * Read the responses of a batch request from the given
+     * <code>parser</code>.
+     * 
+     * @param parser
+     *            The parser reading the body of the HTTP response.
+     * @param batchRequest
+     *            The batch request the responses belong to.
+     * @return The responses in the same order as the requests of the
+     *         <code>batchRequest</code>.
+     * @throws SteemCommunicationException
+     *             If the response for one of the requests is missing.
+     * @throws IOException
+     *             If the responses could not be parsed.
+     */
+    static List<JsonRPCResponse> readResponses(JsonParser parser, JsonRPCBatchRequest batchRequest)
+            throws SteemCommunicationException, IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            return batchRequest.matchResponses((JsonNode) CommunicationHandler.getObjectMapper().readTree(parser));
+        }
+
+        JavaType resultType = batchRequest.getResultType();
+        List<JsonRPCResponse> responses = new ArrayList<>(batchRequest.size());
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            responses.add(JsonRPCResponse.readFrom(parser, resultType));
+        }
+
+        return batchRequest.matchResponses(responses);
+    }
+
+    /**
+     * Send the given <code>requestPayload</code> to the
+     * <code>endpointUri</code> using a pooled connection. The timeouts of the
+     * connection are limited to the given <code>deadline</code>. This also
+     * limits the time to wait for a pooled connection, as the connect timeout
+     * is used for it.
+     * 
+     * @param requestPayload
+     *            The JSON to send.
+     * @param deadline
+     *            The deadline of the request or <code>null</code> if there is
+     *            none.
+     * @param endpointUri
+     *            The endpoint to send the payload to.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification should be disabled.
+     * @param abortHandle
+     *            The handle the request is attached to, so it can be aborted.
+     * @return The response of the node, whose content has not been read yet.
+     *         It has to be passed to {@link #releaseConnection(HttpResponse)}
+     *         once it has been processed.
+     * @throws SteemCommunicationException
+     *             If the request could not be sent, has been aborted or the
+     *             node answered with an unexpected status.
+     */
+    private HttpResponse post(String requestPayload, Deadline deadline, URI endpointUri,
+            boolean sslVerificationDisabled, HttpAbortHandle abortHandle) throws SteemCommunicationException {
+        try {
+            byte[] body = requestPayload.getBytes(StandardCharsets.UTF_8);
+            HttpRequest httpRequest = connectionPool.getRequestFactory(endpointUri, sslVerificationDisabled)
+                    .buildPostRequest(new GenericUrl(endpointUri), new ByteArrayContent("application/json", body));
+            if (deadline != null) {
+                httpRequest.setConnectTimeout(deadline.limitTimeout(httpRequest.getConnectTimeout()));
+                httpRequest.setReadTimeout(deadline.limitTimeout(httpRequest.getReadTimeout()));
+            }
 
             LOGGER.debug("Sending {}.", requestPayload);
 
-            HttpResponse httpResponse = httpRequest.execute();
+            HttpResponse httpResponse;
+            HttpAbortHandle.Scope scope = abortHandle.activate();
+            try {
+                httpResponse = httpRequest.execute();
+            } finally {
+                scope.close();
+            }
+            metricsRecorder.recordBytesSent(endpointUri, body.length);
 
             int status = httpResponse.getStatusCode();
-            String responsePayload = httpResponse.parseAsString();
-
-            if (status >= 200 && status < 300 && responsePayload != null) {
-                return new JsonRPCResponse(CommunicationHandler.getObjectMapper().readTree(responsePayload));
-            } else {
+            if (status < 200 || status >= 300) {
+                releaseConnection(httpResponse);
                 throw new ClientProtocolException("Unexpected response status: " + status);
             }
 
+            return httpResponse;
         } catch (GeneralSecurityException | IOException e) {
-            throw new SteemCommunicationException("A problem occured while processing the request.", e);
+            throw abortedOr(abortHandle, deadline,
+                    new SteemCommunicationException("A problem occured while processing the request.", e));
         }
     }
 
-    @Override
-    public void closeConnection() {
-        // A connection is used for exactly one request and closed afterwards.
-        // Due to that there is no need to close it here.
+    /**
+     * Abort the request of the given <code>abortHandle</code> once the
+     * <code>deadline</code> expires.
+     * 
+     * @param abortHandle
+     *            The handle of the request.
+     * @param deadline
+     *            The deadline of the request or <code>null</code> if there is
+     *            none.
+     * @return The timer or <code>null</code> if there is none.
+     */
+    private ScheduledFuture<?> scheduleAbort(HttpAbortHandle abortHandle, Deadline deadline) {
+        if (deadline == null) {
+            return null;
+        }
+
+        return connectionPool.scheduleAbort(abortHandle, deadline);
+    }
+
+    /**
+     * Mark the request of the given <code>abortHandle</code> as completed, so
+     * it is no longer aborted.
+     * 
+     * @param abortHandle
+     *            The handle of the request.
+     * @param deadlineTimer
+     *            The timer that aborts the request once its deadline expires
+     *            or <code>null</code> if there is none.
+     */
+    private static void complete(HttpAbortHandle abortHandle, ScheduledFuture<?> deadlineTimer) {
+        abortHandle.complete();
+        if (deadlineTimer != null) {
+            deadlineTimer.cancel(false);
+        }
+    }
+
+    /**
+     * Abort the request of the given <code>abortHandle</code> if the
+     * <code>response</code> is cancelled.
+     * 
+     * @param response
+     *            The future returned to the caller.
+     * @param abortHandle
+     *            The handle of the request.
+     * @param <R>
+     *            The type of the response.
+     * @return The <code>response</code>.
+     */
+    private static <R> CompletableFuture<R> abortOnCancellation(CompletableFuture<R> response,
+            HttpAbortHandle abortHandle) {
+        response.whenComplete((result, throwable) -> {
+            if (response.isCancelled()) {
+                abortHandle.abort();
+            }
+        });
+
+        return response;
+    }
+
+    /**
+     * Replace the given <code>failure</code> if it has been caused by
+     * aborting the request.
+     * 
+     * @param abortHandle
+     *            The handle of the request.
+     * @param deadline
+     *            The deadline of the request or <code>null</code> if there is
+     *            none.
+     * @param failure
+     *            The failure of the request.
+     * @return A {@link SteemTimeoutException} if the request has been aborted
+     *         as its deadline expired, another exception if it has been
+     *         aborted as it has been cancelled, or the <code>failure</code>.
+     */
+    private static SteemCommunicationException abortedOr(HttpAbortHandle abortHandle, Deadline deadline,
+            SteemCommunicationException failure) {
+        if (!abortHandle.isAborted()) {
+            return failure;
+        }
+
+        if (deadline != null && deadline.isExpired()) {
+            return new SteemTimeoutException("The deadline of the request expired before the response has been "
+                    + "received.", failure.getCause());
+        }
+
+        return new SteemCommunicationException("The request has been aborted.", failure.getCause());
+    }
+
+    /**
+     * Create a parser that reads the content of the <code>httpResponse</code>
+     * while it is received, so the response is never copied into a String.
+     * 
+     * @param httpResponse
+     *            The response to read.
+     * @return The parser.
+     * @throws IOException
+     *             If the content could not be read.
+     */
+    private JsonParser createParser(HttpResponse httpResponse) throws IOException {
+        InputStream content = httpResponse.getContent();
+        if (content == null) {
+            throw new ClientProtocolException("The node returned an empty response.");
+        }
+
+        return CommunicationHandler.getObjectMapper().getFactory().createParser(content);
+    }
+
+    /**
+     * Report the number of bytes the <code>parser</code> has read from the
+     * decompressed body of a response.
+     * 
+     * @param parser
+     *            The parser that has read the response.
+     * @param endpointUri
+     *            The endpoint the response has been received from.
+     */
+    private void recordBytesReceived(JsonParser parser, URI endpointUri) {
+        long numberOfBytes = parser.getCurrentLocation().getByteOffset();
+        if (numberOfBytes > 0) {
+            metricsRecorder.recordBytesReceived(endpointUri, numberOfBytes);
+        }
+    }
+
+    /**
+     * Consume the remaining content of the <code>httpResponse</code>, which
+     * releases the connection back into the pool.
+     * 
+     * @param httpResponse
+     *            The response to release.
+     */
+    private void releaseConnection(HttpResponse httpResponse) {
+        try {
+            httpResponse.ignore();
+        } catch (IOException e) {
+            LOGGER.debug("Could not release the connection.", e);
+        }
     }
 }
@@ -0,0 +1,22 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.net.URI;
+
+/**
+ * A {@link ClientFactory} creating {@link HttpClient} instances for HTTP and
+ * HTTPS endpoints. The clients share the {@link HttpConnectionPool} of their
+ * {@link CommunicationHandler}.
+ * 
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class HttpClientFactory implements ClientFactory {
+    @Override
+    public boolean supports(URI endpointUri) {
+        return endpointUri.getScheme() != null && endpointUri.getScheme().toLowerCase().matches("(http){1}[s]?");
+    }
+
+    @Override
+    public AbstractClient createClient(CommunicationHandler communicationHandler) {
+        return new HttpClient(communicationHandler.getHttpConnectionPool(), communicationHandler.getMetricsRecorder());
+    }
+}
@@ -6,6 +6,7 @@ import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpRequestInitializer;
 
 import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.configuration.SteemJContext;
 
 /**
  * This class is used to initialize a http request.
@@ -13,11 +14,32 @@ import eu.bittrade.libs.steemj.configuration.SteemJConfig;
  * @author <a href="http://steemit.com/@dez1337">dez1337</a>
  */
 public class HttpClientRequestInitializer implements HttpRequestInitializer {
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    /**
+     * Create a new {@link HttpClientRequestInitializer} instance based on the
+     * settings of the current {@link SteemJConfig} instance.
+     */
+    public HttpClientRequestInitializer() {
+        this(SteemJConfig.getInstance().createContext());
+    }
+
+    /**
+     * Create a new {@link HttpClientRequestInitializer} instance.
+     * 
+     * @param context
+     *            The context providing the timeouts.
+     */
+    public HttpClientRequestInitializer(SteemJContext context) {
+        this.connectTimeout = context.getConnectTimeout();
+        this.readTimeout = context.getResponseTimeout();
+    }
 
     @Override
     public void initialize(HttpRequest request) throws IOException {
-        request.setConnectTimeout(SteemJConfig.getInstance().getIdleTimeout());
-        request.setReadTimeout(SteemJConfig.getInstance().getResponseTimeout());
+        request.setConnectTimeout(connectTimeout);
+        request.setReadTimeout(readTimeout);
         request.setNumberOfRetries(0);
     }
 }
@@ -0,0 +1,204 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * This interceptor negotiates the compression of HTTP responses and
+ * decompresses them while they are read.
+ *
+ * If compression is enabled, the nodes are asked to compress their responses
+ * using gzip or deflate. The content of each response is wrapped, so it is
+ * decompressed while it is streamed and the number of bytes before and after
+ * the decompression is added to the {@link CompressionStatistics}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class HttpCompressionInterceptor implements HttpRequestInterceptor, HttpResponseInterceptor {
+    private static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
+    private static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+    private static final String GZIP_ENCODING = "gzip";
+    private static final String DEFLATE_ENCODING = "deflate";
+
+    /** Define if the nodes should compress their responses. */
+    private final boolean compressionEnabled;
+    /** The statistics to update. */
+    private final CompressionStatistics compressionStatistics;
+
+    /**
+     * Create a new {@link HttpCompressionInterceptor} instance.
+     *
+     * @param compressionEnabled
+     *            Define if the nodes should compress their responses.
+     * @param compressionStatistics
+     *            The statistics to update.
+     */
+    public HttpCompressionInterceptor(boolean compressionEnabled, CompressionStatistics compressionStatistics) {
+        this.compressionEnabled = compressionEnabled;
+        this.compressionStatistics = compressionStatistics;
+    }
+
+    @Override
+    public void process(HttpRequest request, HttpContext context) throws HttpException, IOException {
+        request.setHeader(ACCEPT_ENCODING_HEADER,
+                compressionEnabled ? GZIP_ENCODING + ", " + DEFLATE_ENCODING : "identity");
+    }
+
+    @Override
+    public void process(HttpResponse response, HttpContext context) throws HttpException, IOException {
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            return;
+        }
+
+        Header contentEncoding = entity.getContentEncoding();
+        String encoding = contentEncoding == null ? null : contentEncoding.getValue().trim().toLowerCase();
+
+        if (encoding != null && !GZIP_ENCODING.equals(encoding) && !DEFLATE_ENCODING.equals(encoding)
+                && !"identity".equals(encoding)) {
+            // Leave unknown encodings to the caller.
+            return;
+        }
+
+        response.removeHeaders(CONTENT_ENCODING_HEADER);
+        response.setEntity(new DecompressingEntity(entity, encoding));
+    }
+
+    /**
+     * An entity that decompresses the content of the wrapped entity while it
+     * is read.
+     */
+    private class DecompressingEntity extends HttpEntityWrapper {
+        private final String encoding;
+
+        /**
+         * Create a new {@link DecompressingEntity} instance.
+         *
+         * @param wrappedEntity
+         *            The entity received from the node.
+         * @param encoding
+         *            The content encoding of the entity or <code>null</code>.
+         */
+        DecompressingEntity(HttpEntity wrappedEntity, String encoding) {
+            super(wrappedEntity);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            InputStream content = wrappedEntity.getContent();
+            if (content == null) {
+                return null;
+            }
+
+            InputStream compressedContent = new CountingInputStream(content, true);
+            if (GZIP_ENCODING.equals(encoding)) {
+                return new CountingInputStream(new GZIPInputStream(compressedContent), false);
+            } else if (DEFLATE_ENCODING.equals(encoding)) {
+                return new CountingInputStream(new InflaterInputStream(compressedContent), false);
+            }
+
+            return new CountingInputStream(compressedContent, false);
+        }
+
+        @Override
+        public Header getContentEncoding() {
+            // The content is already decompressed.
+            return null;
+        }
+
+        @Override
+        public long getContentLength() {
+            return encoding == null ? wrappedEntity.getContentLength() : -1;
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            try (InputStream content = getContent()) {
+                byte[] buffer = new byte[8192];
+                int length;
+                while ((length = content.read(buffer)) != -1) {
+                    outputStream.write(buffer, 0, length);
+                }
+            }
+        }
+    }
+
+    /**
+     * A stream that adds the number of bytes read to the
+     * {@link CompressionStatistics}.
+     */
+    private class CountingInputStream extends FilterInputStream {
+        private final boolean compressed;
+
+        /**
+         * Create a new {@link CountingInputStream} instance.
+         *
+         * @param inputStream
+         *            The stream to count.
+         * @param compressed
+         *            <code>true</code> to count compressed bytes,
+         *            <code>false</code> to count uncompressed bytes.
+         */
+        CountingInputStream(InputStream inputStream, boolean compressed) {
+            super(inputStream);
+            this.compressed = compressed;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value != -1) {
+                count(1);
+            }
+
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int numberOfBytes = super.read(buffer, offset, length);
+            if (numberOfBytes > 0) {
+                count(numberOfBytes);
+            }
+
+            return numberOfBytes;
+        }
+
+        @Override
+        public long skip(long numberOfBytes) throws IOException {
+            long skippedBytes = super.skip(numberOfBytes);
+            count(skippedBytes);
+
+            return skippedBytes;
+        }
+
+        /**
+         * Add the given number of bytes to the statistics.
+         *
+         * @param numberOfBytes
+         *            The number of bytes to add.
+         */
+        private void count(long numberOfBytes) {
+            if (compressed) {
+                compressionStatistics.addCompressedBytes(numberOfBytes);
+            } else {
+                compressionStatistics.addUncompressedBytes(numberOfBytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.params.ConnManagerParams;
+import org.apache.http.conn.params.ConnPerRouteBean;
+import org.apache.http.impl.client.AbstractHttpClient;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.params.HttpParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.api.client.http.HttpRequestFactory;
+import com.google.api.client.http.apache.ApacheHttpTransport;
+
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.configuration.SteemJContext;
+
+/**
+ * This class manages persistent, keep-alive HTTP connections to the configured
+ * endpoints. Each endpoint gets its own pool of connections which is reused
+ * for all requests sent to this endpoint, so the TCP and TLS handshakes are
+ * only performed once per connection instead of once per request.
+ *
+ * Connections that have not been used for longer than the configured
+ * {@link SteemJConfig#getIdleTimeout() idleTimeout} are evicted by a
+ * background task.
+ *
+ * All transports use a {@link HttpCompressionInterceptor} to negotiate and
+ * decompress compressed responses.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class HttpConnectionPool implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpConnectionPool.class);
+
+    /** The transports used for the different endpoints. */
+    private final ConcurrentMap<Pair<URI, Boolean>, ApacheHttpTransport> transports;
+    /** The request factories belonging to the transports. */
+    private final ConcurrentMap<Pair<URI, Boolean>, HttpRequestFactory> requestFactories;
+    /**
+     * The scheduler used to evict idle connections and to abort requests whose
+     * deadline expired.
+     */
+    private final ScheduledExecutorService evictionScheduler;
+    /** The maximum number of connections opened to one endpoint. */
+    private final int maxConnectionsPerEndpoint;
+    /** The time in milliseconds after which an idle connection is closed. */
+    private final int idleTimeout;
+    /** Define if the nodes should compress their responses. */
+    private final boolean compressionEnabled;
+    /** The statistics of the received bytes. */
+    private final CompressionStatistics compressionStatistics;
+    /** Sets the timeouts of the requests. */
+    private final HttpClientRequestInitializer requestInitializer;
+
+    /**
+     * Create a new {@link HttpConnectionPool} instance based on the settings
+     * of the current {@link SteemJConfig} instance.
+     */
+    public HttpConnectionPool() {
+        this(new CompressionStatistics());
+    }
+
+    /**
+     * Create a new {@link HttpConnectionPool} instance based on the settings
+     * of the current {@link SteemJConfig} instance.
+     *
+     * @param compressionStatistics
+     *            The statistics to add the received bytes to.
+     */
+    public HttpConnectionPool(CompressionStatistics compressionStatistics) {
+        this(SteemJConfig.getInstance().createContext(), compressionStatistics);
+    }
+
+    /**
+     * Create a new {@link HttpConnectionPool} instance based on the settings
+     * of the given <code>context</code>.
+     *
+     * @param context
+     *            The context providing the timeouts and the connection
+     *            limits.
+     * @param compressionStatistics
+     *            The statistics to add the received bytes to.
+     */
+    public HttpConnectionPool(SteemJContext context, CompressionStatistics compressionStatistics) {
+        this(context.getMaxConnectionsPerEndpoint(), context.getIdleTimeout(), context.getConnectionEvictionInterval(),
+                context.isCompressionEnabled(), compressionStatistics, new HttpClientRequestInitializer(context));
+    }
+
+    /**
+     * Create a new {@link HttpConnectionPool} instance.
+     *
+     * @param maxConnectionsPerEndpoint
+     *            The maximum number of connections opened to one endpoint.
+     * @param idleTimeout
+     *            The time in milliseconds after which an unused connection is
+     *            closed. A value that is 0 or negative disables the eviction
+     *            of idle connections.
+     * @param evictionInterval
+     *            The interval in milliseconds in which idle and expired
+     *            connections are evicted.
+     */
+    public HttpConnectionPool(int maxConnectionsPerEndpoint, int idleTimeout, long evictionInterval) {
+        this(maxConnectionsPerEndpoint, idleTimeout, evictionInterval, true, new CompressionStatistics());
+    }
+
+    /**
+     * Create a new {@link HttpConnectionPool} instance.
+     *
+     * @param maxConnectionsPerEndpoint
+     *            The maximum number of connections opened to one endpoint.
+     * @param idleTimeout
+     *            The time in milliseconds after which an unused connection is
+     *            closed. A value that is 0 or negative disables the eviction
+     *            of idle connections.
+     * @param evictionInterval
+     *            The interval in milliseconds in which idle and expired
+     *            connections are evicted.
+     * @param compressionEnabled
+     *            Define if the nodes should compress their responses.
+     * @param compressionStatistics
+     *            The statistics to add the received bytes to.
+     */
+    public HttpConnectionPool(int maxConnectionsPerEndpoint, int idleTimeout, long evictionInterval,
+            boolean compressionEnabled, CompressionStatistics compressionStatistics) {
+        this(maxConnectionsPerEndpoint, idleTimeout, evictionInterval, compressionEnabled, compressionStatistics,
+                new HttpClientRequestInitializer());
+    }
+
+    /**
+     * Create a new {@link HttpConnectionPool} instance.
+     *
+     * @param maxConnectionsPerEndpoint
+     *            The maximum number of connections opened to one endpoint.
+     * @param idleTimeout
+     *            The time in milliseconds after which an unused connection is
+     *            closed. A value that is 0 or negative disables the eviction
+     *            of idle connections.
+     * @param evictionInterval
+     *            The interval in milliseconds in which idle and expired
+     *            connections are evicted.
+     * @param compressionEnabled
+     *            Define if the nodes should compress their responses.
+     * @param compressionStatistics
+     *            The statistics to add the received bytes to.
+     * @param requestInitializer
+     *            Sets the timeouts of the requests.
+     */
+    public HttpConnectionPool(int maxConnectionsPerEndpoint, int idleTimeout, long evictionInterval,
+            boolean compressionEnabled, CompressionStatistics compressionStatistics,
+            HttpClientRequestInitializer requestInitializer) {
+        if (maxConnectionsPerEndpoint <= 0) {
+            throw new IllegalArgumentException("The maximum number of connections per endpoint has to be positive.");
+        }
+
+        this.transports = new ConcurrentHashMap<>();
+        this.requestFactories = new ConcurrentHashMap<>();
+        this.maxConnectionsPerEndpoint = maxConnectionsPerEndpoint;
+        this.idleTimeout = idleTimeout;
+        this.compressionEnabled = compressionEnabled;
+        this.compressionStatistics = compressionStatistics;
+        this.requestInitializer = requestInitializer;
+        this.evictionScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "steemj-http-connection-eviction");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        if (evictionInterval > 0) {
+            this.evictionScheduler.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    evictConnections();
+                }
+            }, evictionInterval, evictionInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Get the {@link HttpRequestFactory} for the given endpoint. All requests
+     * created by this factory share the connection pool of the endpoint.
+     *
+     * @param endpointUri
+     *            The endpoint to get the factory for.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification should be disabled.
+     * @return The request factory for the given endpoint.
+     * @throws GeneralSecurityException
+     *             If the SSL verification could not be disabled.
+     */
+    public HttpRequestFactory getRequestFactory(URI endpointUri, boolean sslVerificationDisabled)
+            throws GeneralSecurityException {
+        Pair<URI, Boolean> endpoint = new ImmutablePair<>(endpointUri, sslVerificationDisabled);
+        HttpRequestFactory requestFactory = requestFactories.get(endpoint);
+
+        if (requestFactory == null) {
+            synchronized (this) {
+                requestFactory = requestFactories.get(endpoint);
+                if (requestFactory == null) {
+                    ApacheHttpTransport transport = createTransport(endpointUri, sslVerificationDisabled);
+                    requestFactory = transport.createRequestFactory(requestInitializer);
+
+                    transports.put(endpoint, transport);
+                    requestFactories.put(endpoint, requestFactory);
+                }
+            }
+        }
+
+        return requestFactory;
+    }
+
+    /**
+     * Get the number of connections currently held for the given endpoint.
+     *
+     * @param endpointUri
+     *            The endpoint to get the number of connections for.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification is disabled for this endpoint.
+     * @return The number of pooled connections (leased and idle).
+     */
+    public int getNumberOfConnections(URI endpointUri, boolean sslVerificationDisabled) {
+        ApacheHttpTransport transport = transports
+                .get(new ImmutablePair<URI, Boolean>(endpointUri, sslVerificationDisabled));
+
+        if (transport == null) {
+            return 0;
+        }
+
+        ClientConnectionManager connectionManager = transport.getHttpClient().getConnectionManager();
+        if (connectionManager instanceof ThreadSafeClientConnManager) {
+            return ((ThreadSafeClientConnManager) connectionManager).getConnectionsInPool();
+        }
+
+        return 0;
+    }
+
+    /**
+     * @return The maximum number of connections opened to one endpoint.
+     */
+    public int getMaxConnectionsPerEndpoint() {
+        return maxConnectionsPerEndpoint;
+    }
+
+    /**
+     * Get the number of bytes received by all connections of this pool before
+     * and after their decompression.
+     *
+     * @return The compression statistics.
+     */
+    public CompressionStatistics getCompressionStatistics() {
+        return compressionStatistics;
+    }
+
+    /**
+     * Close all connections that have been expired or that have not been used
+     * for the configured idle time.
+     */
+    public void evictConnections() {
+        for (ApacheHttpTransport transport : transports.values()) {
+            ClientConnectionManager connectionManager = transport.getHttpClient().getConnectionManager();
+            connectionManager.closeExpiredConnections();
+            if (idleTimeout > 0) {
+                connectionManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Abort the request of the given <code>abortHandle</code> once the
+     * <code>deadline</code> expires, which closes its connection.
+     *
+     * @param abortHandle
+     *            The handle of the request.
+     * @param deadline
+     *            The deadline of the request.
+     * @return The timer, which has to be cancelled once the request has been
+     *         completed, or <code>null</code> if this pool has been closed.
+     */
+    ScheduledFuture<?> scheduleAbort(HttpAbortHandle abortHandle, Deadline deadline) {
+        try {
+            return evictionScheduler.schedule(abortHandle::abort,
+                    Math.max(0, deadline.getRemainingTime(TimeUnit.NANOSECONDS)), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Close all pooled connections and stop the eviction task.
+     */
+    @Override
+    public synchronized void close() {
+        evictionScheduler.shutdownNow();
+
+        for (ApacheHttpTransport transport : transports.values()) {
+            try {
+                transport.shutdown();
+            } catch (Exception e) {
+                LOGGER.debug("Could not shutdown the transport.", e);
+            }
+        }
+
+        transports.clear();
+        requestFactories.clear();
+    }
+
+    /**
+     * Create a new transport for the given endpoint whose connection manager
+     * keeps up to {@link #maxConnectionsPerEndpoint} connections alive.
+     *
+     * @param endpointUri
+     *            The endpoint to create the transport for.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification should be disabled.
+     * @return A new transport.
+     * @throws GeneralSecurityException
+     *             If the SSL verification could not be disabled.
+     */
+    private ApacheHttpTransport createTransport(URI endpointUri, boolean sslVerificationDisabled)
+            throws GeneralSecurityException {
+        LOGGER.debug("Creating a new connection pool for {}.", endpointUri);
+
+        ApacheHttpTransport.Builder builder = new ApacheHttpTransport.Builder();
+        // Disable SSL verification if needed
+        if (sslVerificationDisabled && "https".equals(endpointUri.getScheme())) {
+            builder.doNotValidateCertificate();
+        }
+
+        HttpParams httpParams = builder.getHttpParams();
+        ConnManagerParams.setMaxTotalConnections(httpParams, maxConnectionsPerEndpoint);
+        ConnManagerParams.setMaxConnectionsPerRoute(httpParams, new ConnPerRouteBean(maxConnectionsPerEndpoint));
+
+        ApacheHttpTransport transport = builder.build();
+        if (transport.getHttpClient() instanceof AbstractHttpClient) {
+            HttpCompressionInterceptor compressionInterceptor = new HttpCompressionInterceptor(compressionEnabled,
+                    compressionStatistics);
+            ((AbstractHttpClient) transport.getHttpClient()).addRequestInterceptor(compressionInterceptor);
+            ((AbstractHttpClient) transport.getHttpClient()).addResponseInterceptor(compressionInterceptor);
+            ((AbstractHttpClient) transport.getHttpClient()).addRequestInterceptor(new HttpAbortHandle.Interceptor());
+        }
+
+        return transport;
+    }
+}
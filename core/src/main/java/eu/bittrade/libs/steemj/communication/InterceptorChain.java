@@ -0,0 +1,24 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.util.concurrent.CompletableFuture;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+
+/**
+ * The remaining part of the {@link RequestInterceptor} chain of a request.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public interface InterceptorChain {
+    /**
+     * Pass the given <code>requestObject</code> to the next interceptor or
+     * send it to the node if there is no further interceptor.
+     *
+     * @param requestObject
+     *            The request to send, which may differ from the intercepted
+     *            one. Its id must not be changed.
+     * @return A future that will be completed with the raw response.
+     */
+    CompletableFuture<JsonRPCResponse> proceed(JsonRPCRequest requestObject);
+}
@@ -0,0 +1,959 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.ClientProtocolException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCBatchRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+import eu.bittrade.libs.steemj.communication.metrics.MetricsRecorder;
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.configuration.SteemJContext;
+import eu.bittrade.libs.steemj.enums.RequestPriority;
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+import eu.bittrade.libs.steemj.exceptions.SteemResponseException;
+import eu.bittrade.libs.steemj.exceptions.SteemTimeoutException;
+import eu.bittrade.libs.steemj.exceptions.SteemTransformationException;
+
+/**
+ * This class handles the communication to a Steem Node using the HTTP protocol
+ * and non-blocking I/O.
+ *
+ * <p>
+ * In contrast to the {@link HttpClient}, no thread is blocked while a request
+ * is in flight. All connections are handled by a small, shared group of I/O
+ * threads. Each endpoint gets up to
+ * {@link SteemJConfig#getMaxConnectionsPerEndpoint()} persistent HTTP/1.1
+ * connections. Requests exceeding this number are queued until a connection
+ * becomes available, so many concurrent requests share a handful of
+ * connections. Each {@link RequestPriority} has its own queue, so a broadcast
+ * does not wait behind all queued bulk reads (see {@link PriorityLanes}).
+ * </p>
+ *
+ * <p>
+ * This client is not used by default. It can be enabled by adding a
+ * {@link NioHttpClientFactory} in front of the
+ * {@link SteemJConfig#getClientFactories() configured client factories}.
+ * </p>
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class NioHttpClient extends AbstractClient {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NioHttpClient.class);
+
+    /** The number of threads performing the I/O of all connections. */
+    private static final int NUMBER_OF_IO_THREADS = Math.max(2,
+            Math.min(4, Runtime.getRuntime().availableProcessors()));
+    /** The scheduler used to enforce the connect and response timeouts. */
+    private static final ScheduledExecutorService TIMEOUT_SCHEDULER = Executors
+            .newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "steemj-nio-timeout");
+                thread.setDaemon(true);
+                return thread;
+            });
+    /** The group shared by the connections of all instances. */
+    private static AsynchronousChannelGroup channelGroup;
+
+    /** The connections of the different endpoints. */
+    private final ConcurrentMap<Pair<URI, Boolean>, EndpointConnections> endpoints;
+    /** The maximum number of connections opened to one endpoint. */
+    private final int maxConnectionsPerEndpoint;
+    /** Define if the nodes should compress their responses. */
+    private final boolean compressionEnabled;
+    /** The statistics of the received bytes. */
+    private final CompressionStatistics compressionStatistics;
+    /** The time in milliseconds to wait for a response. */
+    private final int responseTimeout;
+    /** The time in milliseconds after which an unused connection is closed. */
+    private final int idleTimeout;
+    /** The time in milliseconds to wait until a connection is established. */
+    private final int connectTimeout;
+    /** The recorder the sizes of the payloads are reported to. */
+    private final MetricsRecorder metricsRecorder;
+    /** The context providing the priorities of the requests. */
+    private final SteemJContext context;
+
+    /**
+     * Initialize a new NIO HTTP Client based on the settings of the current
+     * {@link SteemJConfig} instance.
+     */
+    public NioHttpClient() {
+        this(new CompressionStatistics());
+    }
+
+    /**
+     * Initialize a new NIO HTTP Client based on the settings of the current
+     * {@link SteemJConfig} instance.
+     *
+     * @param compressionStatistics
+     *            The statistics to add the received bytes to.
+     */
+    public NioHttpClient(CompressionStatistics compressionStatistics) {
+        this(SteemJConfig.getInstance().createContext(), compressionStatistics);
+    }
+
+    /**
+     * Initialize a new NIO HTTP Client based on the settings of the given
+     * <code>context</code>.
+     *
+     * @param context
+     *            The context providing the timeouts.
+     * @param compressionStatistics
+     *            The statistics to add the received bytes to.
+     */
+    public NioHttpClient(SteemJContext context, CompressionStatistics compressionStatistics) {
+        this(context, compressionStatistics, context.getMetricsRecorder());
+    }
+
+    /**
+     * Initialize a new NIO HTTP Client based on the settings of the given
+     * <code>context</code>.
+     *
+     * @param context
+     *            The context providing the timeouts, the connection limit and
+     *            the priorities of the requests.
+     * @param compressionStatistics
+     *            The statistics to add the received bytes to.
+     * @param metricsRecorder
+     *            The recorder the sizes of the payloads are reported to.
+     */
+    public NioHttpClient(SteemJContext context, CompressionStatistics compressionStatistics,
+            MetricsRecorder metricsRecorder) {
+        this(context.getMaxConnectionsPerEndpoint(), context.isCompressionEnabled(), context.getResponseTimeout(),
+                context.getIdleTimeout(), context.getConnectTimeout(), compressionStatistics, metricsRecorder,
+                context);
+    }
+
+    /**
+     * Initialize a new NIO HTTP Client.
+     *
+     * @param maxConnectionsPerEndpoint
+     *            The maximum number of connections opened to one endpoint.
+     * @param compressionEnabled
+     *            Define if the nodes should compress their responses.
+     * @param compressionStatistics
+     *            The statistics to add the received bytes to.
+     */
+    public NioHttpClient(int maxConnectionsPerEndpoint, boolean compressionEnabled,
+            CompressionStatistics compressionStatistics) {
+        this(maxConnectionsPerEndpoint, compressionEnabled, SteemJConfig.getInstance().getResponseTimeout(),
+                SteemJConfig.getInstance().getIdleTimeout(), compressionStatistics);
+    }
+
+    /**
+     * Initialize a new NIO HTTP Client.
+     *
+     * @param maxConnectionsPerEndpoint
+     *            The maximum number of connections opened to one endpoint.
+     * @param compressionEnabled
+     *            Define if the nodes should compress their responses.
+     * @param responseTimeout
+     *            The time in milliseconds to wait for a response. A value that
+     *            is 0 or negative disables the timeout.
+     * @param idleTimeout
+     *            The time in milliseconds after which an unused connection is
+     *            closed.
+     * @param compressionStatistics
+     *            The statistics to add the received bytes to.
+     */
+    public NioHttpClient(int maxConnectionsPerEndpoint, boolean compressionEnabled, int responseTimeout,
+            int idleTimeout, CompressionStatistics compressionStatistics) {
+        this(maxConnectionsPerEndpoint, compressionEnabled, responseTimeout, idleTimeout, compressionStatistics,
+                SteemJConfig.getInstance().getMetricsRecorder());
+    }
+
+    /**
+     * Initialize a new NIO HTTP Client.
+     *
+     * @param maxConnectionsPerEndpoint
+     *            The maximum number of connections opened to one endpoint.
+     * @param compressionEnabled
+     *            Define if the nodes should compress their responses.
+     * @param responseTimeout
+     *            The time in milliseconds to wait for a response. A value that
+     *            is 0 or negative disables the timeout.
+     * @param idleTimeout
+     *            The time in milliseconds after which an unused connection is
+     *            closed.
+     * @param compressionStatistics
+     *            The statistics to add the received bytes to.
+     * @param metricsRecorder
+     *            The recorder the sizes of the payloads are reported to.
+     */
+    public NioHttpClient(int maxConnectionsPerEndpoint, boolean compressionEnabled, int responseTimeout,
+            int idleTimeout, CompressionStatistics compressionStatistics, MetricsRecorder metricsRecorder) {
+        this(maxConnectionsPerEndpoint, compressionEnabled, responseTimeout, idleTimeout,
+                SteemJConfig.getInstance().getConnectTimeout(), compressionStatistics, metricsRecorder);
+    }
+
+    /**
+     * Initialize a new NIO HTTP Client. The priorities of the requests are
+     * based on the current {@link SteemJConfig} instance.
+     *
+     * @param maxConnectionsPerEndpoint
+     *            The maximum number of connections opened to one endpoint.
+     * @param compressionEnabled
+     *            Define if the nodes should compress their responses.
+     * @param responseTimeout
+     *            The time in milliseconds to wait for a response. A value that
+     *            is 0 or negative disables the timeout.
+     * @param idleTimeout
+     *            The time in milliseconds after which an unused connection is
+     *            closed.
+     * @param connectTimeout
+     *            The time in milliseconds to wait until a connection is
+     *            established. A value that is 0 or negative disables the
+     *            timeout.
+     * @param compressionStatistics
+     *            The statistics to add the received bytes to.
+     * @param metricsRecorder
+     *            The recorder the sizes of the payloads are reported to.
+     */
+    public NioHttpClient(int maxConnectionsPerEndpoint, boolean compressionEnabled, int responseTimeout,
+            int idleTimeout, int connectTimeout, CompressionStatistics compressionStatistics,
+            MetricsRecorder metricsRecorder) {
+        this(maxConnectionsPerEndpoint, compressionEnabled, responseTimeout, idleTimeout, connectTimeout,
+                compressionStatistics, metricsRecorder, SteemJConfig.getInstance().createContext());
+    }
+
+    /**
+     * Initialize a new NIO HTTP Client.
+     *
+     * @param maxConnectionsPerEndpoint
+     *            The maximum number of connections opened to one endpoint.
+     * @param compressionEnabled
+     *            Define if the nodes should compress their responses.
+     * @param responseTimeout
+     *            The time in milliseconds to wait for a response.
+     * @param idleTimeout
+     *            The time in milliseconds after which an unused connection is
+     *            closed.
+     * @param connectTimeout
+     *            The time in milliseconds to wait until a connection is
+     *            established.
+     * @param compressionStatistics
+     *            The statistics to add the received bytes to.
+     * @param metricsRecorder
+     *            The recorder the sizes of the payloads are reported to.
+     * @param context
+     *            The context providing the priorities of the requests.
+     */
+    private NioHttpClient(int maxConnectionsPerEndpoint, boolean compressionEnabled, int responseTimeout,
+            int idleTimeout, int connectTimeout, CompressionStatistics compressionStatistics,
+            MetricsRecorder metricsRecorder, SteemJContext context) {
+        if (maxConnectionsPerEndpoint <= 0) {
+            throw new IllegalArgumentException("The maximum number of connections per endpoint has to be positive.");
+        }
+
+        this.endpoints = new ConcurrentHashMap<>();
+        this.maxConnectionsPerEndpoint = maxConnectionsPerEndpoint;
+        this.compressionEnabled = compressionEnabled;
+        this.compressionStatistics = compressionStatistics;
+        this.responseTimeout = responseTimeout;
+        this.idleTimeout = idleTimeout;
+        this.connectTimeout = connectTimeout;
+        this.metricsRecorder = metricsRecorder;
+        this.context = context;
+    }
+
+    @Override
+    public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
+            boolean sslVerificationDisabled) throws SteemCommunicationException, SteemResponseException {
+        return await(invokeAndReadResponseAsync(requestObject, endpointUri, sslVerificationDisabled,
+                CALLING_THREAD_EXECUTOR));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The request is sent without blocking. Once the response has been
+     * received, it is decoded using the given <code>executor</code>.
+     * </p>
+     */
+    @Override
+    public CompletableFuture<JsonRPCResponse> invokeAndReadResponseAsync(JsonRPCRequest requestObject,
+            URI endpointUri, boolean sslVerificationDisabled, Executor executor) {
+        String payload;
+        try {
+            payload = requestObject.toJson();
+        } catch (JsonProcessingException e) {
+            CompletableFuture<JsonRPCResponse> response = new CompletableFuture<>();
+            response.completeExceptionally(new SteemCommunicationException("Could not serialize the request.", e));
+            return response;
+        }
+
+        return send(payload, requestObject.getDeadline(), requestObject.getPriority(context), endpointUri,
+                sslVerificationDisabled, executor,
+                parser -> HttpClient.readResponse(parser, requestObject));
+    }
+
+    @Override
+    public List<JsonRPCResponse> invokeAndReadResponse(JsonRPCBatchRequest batchRequest, URI endpointUri,
+            boolean sslVerificationDisabled) throws SteemCommunicationException, SteemResponseException {
+        return await(invokeAndReadResponseAsync(batchRequest, endpointUri, sslVerificationDisabled,
+                CALLING_THREAD_EXECUTOR));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The request is sent without blocking. Once the response has been
+     * received, it is decoded using the given <code>executor</code>.
+     * </p>
+     */
+    @Override
+    public CompletableFuture<List<JsonRPCResponse>> invokeAndReadResponseAsync(JsonRPCBatchRequest batchRequest,
+            URI endpointUri, boolean sslVerificationDisabled, Executor executor) {
+        String payload;
+        try {
+            payload = batchRequest.toJson();
+        } catch (JsonProcessingException e) {
+            CompletableFuture<List<JsonRPCResponse>> responses = new CompletableFuture<>();
+            responses.completeExceptionally(
+                    new SteemCommunicationException("Could not serialize the batch request.", e));
+            return responses;
+        }
+
+        return send(payload, batchRequest.getDeadline(), batchRequest.getPriority(context), endpointUri,
+                sslVerificationDisabled, executor,
+                parser -> HttpClient.readResponses(parser, batchRequest));
+    }
+
+    /**
+     * Close all connections of this client. Requests that are in flight or
+     * waiting for a connection fail. The client can still be used afterwards.
+     */
+    @Override
+    public void closeConnection() {
+        for (EndpointConnections endpointConnections : endpoints.values()) {
+            endpointConnections.close();
+        }
+    }
+
+    /**
+     * Get the number of connections currently open or opening to the given
+     * endpoint.
+     *
+     * @param endpointUri
+     *            The endpoint to get the number of connections for.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification is disabled for this endpoint.
+     * @return The number of connections (in use and idle).
+     */
+    public int getNumberOfConnections(URI endpointUri, boolean sslVerificationDisabled) {
+        EndpointConnections endpointConnections = endpoints
+                .get(new ImmutablePair<URI, Boolean>(endpointUri, sslVerificationDisabled));
+
+        return endpointConnections == null ? 0 : endpointConnections.getNumberOfConnections();
+    }
+
+    /**
+     * Send the given <code>payload</code> and decode the response using the
+     * given <code>responseReader</code>. Cancelling the returned future
+     * aborts the request and releases its connection.
+     *
+     * @param payload
+     *            The JSON to send.
+     * @param deadline
+     *            The deadline of the request or <code>null</code> if there is
+     *            none.
+     * @param priority
+     *            The priority of the request.
+     * @param endpointUri
+     *            The endpoint to send the payload to.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification should be disabled.
+     * @param executor
+     *            The executor used to decode the response.
+     * @param responseReader
+     *            Reads the result from the body of the response.
+     * @param <T>
+     *            The type of the result.
+     * @return A future that is completed with the result.
+     */
+    private <T> CompletableFuture<T> send(String payload, Deadline deadline, RequestPriority priority,
+            URI endpointUri, boolean sslVerificationDisabled, Executor executor, ResponseReader<T> responseReader) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        CompletableFuture<NioHttpResponse> response = post(payload, deadline, priority, endpointUri,
+                sslVerificationDisabled);
+        result.whenComplete((ignored, throwable) -> {
+            if (result.isCancelled()) {
+                response.cancel(false);
+            }
+        });
+
+        response.whenComplete((httpResponse, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+                return;
+            }
+
+            metricsRecorder.recordBytesSent(endpointUri, getUtf8Length(payload));
+
+            try {
+                executor.execute(() -> {
+                    try (JsonParser parser = createParser(httpResponse, endpointUri)) {
+                        result.complete(responseReader.read(parser));
+                    } catch (JsonMappingException e) {
+                        result.completeExceptionally(new SteemTransformationException(
+                                "Could not transform the response into the expected type.", e));
+                    } catch (IOException e) {
+                        result.completeExceptionally(
+                                new SteemCommunicationException("A problem occured while processing the request.", e));
+                    } catch (SteemCommunicationException | RuntimeException e) {
+                        result.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Send the given <code>payload</code> to the <code>endpointUri</code>
+     * using a pooled connection.
+     *
+     * @param payload
+     *            The JSON to send.
+     * @param deadline
+     *            The deadline of the request or <code>null</code> if there is
+     *            none.
+     * @param priority
+     *            The priority of the request.
+     * @param endpointUri
+     *            The endpoint to send the payload to.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification should be disabled.
+     * @return A future that is completed with the response of the node or
+     *         exceptionally with a {@link SteemCommunicationException} if the
+     *         request could not be sent or the node answered with an
+     *         unexpected status. Cancelling it removes the request from the
+     *         queue of the endpoint or closes the connection it has been sent
+     *         with.
+     */
+    private CompletableFuture<NioHttpResponse> post(String payload, Deadline deadline, RequestPriority priority,
+            URI endpointUri, boolean sslVerificationDisabled) {
+        LOGGER.debug("Sending {}.", payload);
+
+        Exchange exchange = new Exchange(createRequest(payload, endpointUri), priority);
+        endpoints.computeIfAbsent(new ImmutablePair<>(endpointUri, sslVerificationDisabled),
+                endpoint -> new EndpointConnections(endpointUri, sslVerificationDisabled)).submit(exchange);
+
+        int timeoutInMillis = deadline == null ? responseTimeout : deadline.limitTimeout(responseTimeout);
+        if (timeoutInMillis > 0) {
+            ScheduledFuture<?> timeout = TIMEOUT_SCHEDULER.schedule(
+                    () -> exchange.fail(new SteemTimeoutException("Timeout occured. The HTTP server was not able to "
+                            + "answer in " + timeoutInMillis + " millisecond(s).")),
+                    timeoutInMillis, TimeUnit.MILLISECONDS);
+            exchange.getResponse().whenComplete((response, throwable) -> timeout.cancel(false));
+        }
+
+        CompletableFuture<NioHttpResponse> result = new CompletableFuture<>();
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                exchange.fail(new CancellationException("The request has been cancelled."));
+            }
+        });
+
+        exchange.getResponse().whenComplete((response, throwable) -> {
+            if (throwable instanceof SteemCommunicationException) {
+                result.completeExceptionally(throwable);
+            } else if (throwable != null) {
+                result.completeExceptionally(
+                        new SteemCommunicationException("A problem occured while processing the request.", throwable));
+            } else if (response.getStatusCode() < 200 || response.getStatusCode() >= 300) {
+                result.completeExceptionally(new SteemCommunicationException(
+                        "A problem occured while processing the request.",
+                        new ClientProtocolException("Unexpected response status: " + response.getStatusCode())));
+            } else {
+                result.complete(response);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Create the HTTP request sending the given <code>payload</code>.
+     *
+     * @param payload
+     *            The JSON to send.
+     * @param endpointUri
+     *            The endpoint to send the payload to.
+     * @return The complete request.
+     */
+    private ByteBuffer createRequest(String payload, URI endpointUri) {
+        String path = endpointUri.getRawPath() == null || endpointUri.getRawPath().isEmpty() ? "/"
+                : endpointUri.getRawPath();
+        if (endpointUri.getRawQuery() != null) {
+            path += "?" + endpointUri.getRawQuery();
+        }
+
+        byte[] body = payload.getBytes(StandardCharsets.UTF_8);
+        StringBuilder head = new StringBuilder();
+        head.append("POST ").append(path).append(" HTTP/1.1\r\n");
+        head.append("Host: ").append(endpointUri.getHost());
+        if (endpointUri.getPort() > 0) {
+            head.append(':').append(endpointUri.getPort());
+        }
+        head.append("\r\nContent-Type: application/json; charset=UTF-8");
+        head.append("\r\nContent-Length: ").append(body.length);
+        head.append("\r\nAccept-Encoding: ").append(compressionEnabled ? "gzip, deflate" : "identity");
+        head.append("\r\n\r\n");
+
+        byte[] headBytes = head.toString().getBytes(StandardCharsets.ISO_8859_1);
+        ByteBuffer request = ByteBuffer.allocate(headBytes.length + body.length);
+        request.put(headBytes).put(body).flip();
+
+        return request;
+    }
+
+    /**
+     * Create a parser for the body of the given <code>httpResponse</code>
+     * after it has been decompressed.
+     *
+     * @param httpResponse
+     *            The response to read.
+     * @param endpointUri
+     *            The endpoint the response has been received from.
+     * @return The parser.
+     * @throws IOException
+     *             If the body could not be decompressed.
+     */
+    private JsonParser createParser(NioHttpResponse httpResponse, URI endpointUri) throws IOException {
+        byte[] body = httpResponse.getBody();
+        String contentEncoding = httpResponse.getHeader("Content-Encoding");
+        compressionStatistics.addCompressedBytes(body.length);
+
+        if (contentEncoding != null && !"identity".equalsIgnoreCase(contentEncoding.trim())) {
+            InputStream compressedBody;
+            if ("gzip".equalsIgnoreCase(contentEncoding.trim())) {
+                compressedBody = new GZIPInputStream(new ByteArrayInputStream(body));
+            } else if ("deflate".equalsIgnoreCase(contentEncoding.trim())) {
+                compressedBody = new InflaterInputStream(new ByteArrayInputStream(body));
+            } else {
+                throw new ClientProtocolException("Unsupported content encoding: " + contentEncoding);
+            }
+
+            ByteArrayOutputStream decompressedBody = new ByteArrayOutputStream(body.length * 4);
+            IOUtils.copy(compressedBody, decompressedBody);
+            body = decompressedBody.toByteArray();
+        }
+
+        compressionStatistics.addUncompressedBytes(body.length);
+        metricsRecorder.recordBytesReceived(endpointUri, body.length);
+
+        if (body.length == 0) {
+            throw new ClientProtocolException("The node returned an empty response.");
+        }
+
+        return CommunicationHandler.getObjectMapper().getFactory().createParser(body);
+    }
+
+    /**
+     * Get the channel group shared by all connections and create it if
+     * required.
+     *
+     * @return The channel group.
+     * @throws IOException
+     *             If the group could not be created.
+     */
+    private static synchronized AsynchronousChannelGroup getChannelGroup() throws IOException {
+        if (channelGroup == null) {
+            channelGroup = AsynchronousChannelGroup.withFixedThreadPool(NUMBER_OF_IO_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "steemj-nio");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        return channelGroup;
+    }
+
+    /**
+     * Reads the result of a request from the body of the HTTP response.
+     *
+     * @param <T>
+     *            The type of the result.
+     */
+    @FunctionalInterface
+    private interface ResponseReader<T> {
+        /**
+         * @param parser
+         *            The parser reading the body.
+         * @return The result.
+         * @throws SteemCommunicationException
+         *             If the result is not valid.
+         * @throws IOException
+         *             If the body could not be parsed.
+         */
+        T read(JsonParser parser) throws SteemCommunicationException, IOException;
+    }
+
+    /**
+     * A request waiting for a connection or for its response.
+     */
+    private static class Exchange {
+        /** The complete HTTP request. */
+        private final ByteBuffer request;
+        /** The priority used to queue the request. */
+        private final RequestPriority priority;
+        private final CompletableFuture<NioHttpResponse> response;
+        /** The connection used to send the request. */
+        private volatile NioHttpConnection connection;
+        /** Set once the request has been sent again after a stale connection. */
+        private boolean retried;
+
+        /**
+         * @param request
+         *            The complete HTTP request.
+         * @param priority
+         *            The priority used to queue the request.
+         */
+        Exchange(ByteBuffer request, RequestPriority priority) {
+            this.request = request;
+            this.priority = priority;
+            this.response = new CompletableFuture<>();
+        }
+
+        /**
+         * @return The future completed with the response of the node.
+         */
+        CompletableFuture<NioHttpResponse> getResponse() {
+            return response;
+        }
+
+        /**
+         * Fail this exchange and close its connection, so the connection is
+         * not blocked by a response nobody waits for.
+         *
+         * @param failure
+         *            The reason of the failure.
+         */
+        void fail(Throwable failure) {
+            if (response.completeExceptionally(failure)) {
+                NioHttpConnection currentConnection = connection;
+                if (currentConnection != null) {
+                    currentConnection.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * The connections to a single endpoint and the requests waiting for one of
+     * them.
+     */
+    private class EndpointConnections {
+        private final URI endpointUri;
+        private final boolean sslVerificationDisabled;
+        /** All open or opening connections. */
+        private final Set<NioHttpConnection> connections;
+        /** The unused connections, the most recently used first. */
+        private final Deque<NioHttpConnection> idleConnections;
+        /** The requests waiting for a connection. */
+        private final PriorityLanes<Exchange> waitingExchanges;
+        /** The number of connections that are open or being opened. */
+        private int numberOfConnections;
+
+        /**
+         * @param endpointUri
+         *            The endpoint to connect to.
+         * @param sslVerificationDisabled
+         *            Define if the SSL verification should be disabled.
+         */
+        EndpointConnections(URI endpointUri, boolean sslVerificationDisabled) {
+            this.endpointUri = endpointUri;
+            this.sslVerificationDisabled = sslVerificationDisabled;
+            this.connections = new HashSet<>();
+            this.idleConnections = new ArrayDeque<>();
+            this.waitingExchanges = new PriorityLanes<>(context.getPriorityWeights());
+        }
+
+        /**
+         * Send the given <code>exchange</code> using an idle connection, a new
+         * connection or as soon as a connection becomes available.
+         *
+         * @param exchange
+         *            The exchange to send.
+         */
+        void submit(Exchange exchange) {
+            NioHttpConnection connection;
+            synchronized (this) {
+                connection = pollIdleConnection();
+                if (connection == null) {
+                    if (numberOfConnections >= maxConnectionsPerEndpoint) {
+                        waitingExchanges.add(exchange, exchange.priority);
+                        return;
+                    }
+
+                    numberOfConnections++;
+                }
+            }
+
+            if (connection == null) {
+                connect(exchange);
+            } else {
+                execute(connection, exchange, true);
+            }
+        }
+
+        /**
+         * @return The number of connections that are open or being opened.
+         */
+        synchronized int getNumberOfConnections() {
+            return numberOfConnections;
+        }
+
+        /**
+         * Close all connections and fail all waiting requests.
+         */
+        void close() {
+            List<NioHttpConnection> connectionsToClose;
+            List<Exchange> exchangesToFail;
+            synchronized (this) {
+                connectionsToClose = new ArrayList<>(connections);
+                exchangesToFail = waitingExchanges.removeAll();
+            }
+
+            for (NioHttpConnection connection : connectionsToClose) {
+                connection.close();
+            }
+
+            for (Exchange exchange : exchangesToFail) {
+                exchange.fail(new SteemCommunicationException("The connections to the node have been closed."));
+            }
+        }
+
+        /**
+         * Open a new connection and send the given <code>exchange</code> once
+         * it is established. The caller has to reserve the connection in
+         * {@link #numberOfConnections}.
+         *
+         * @param exchange
+         *            The exchange to send.
+         */
+        private void connect(Exchange exchange) {
+            CompletableFuture<NioHttpConnection> connection;
+            try {
+                connection = NioHttpConnection.open(endpointUri, sslVerificationDisabled, getChannelGroup(),
+                        TIMEOUT_SCHEDULER, connectTimeout);
+            } catch (IOException e) {
+                connection = new CompletableFuture<>();
+                connection.completeExceptionally(e);
+            }
+
+            connection.whenComplete((newConnection, throwable) -> {
+                if (throwable != null) {
+                    synchronized (this) {
+                        numberOfConnections--;
+                    }
+
+                    exchange.fail(throwable);
+                    connectForWaitingExchange();
+                } else {
+                    synchronized (this) {
+                        connections.add(newConnection);
+                    }
+
+                    execute(newConnection, exchange, false);
+                }
+            });
+        }
+
+        /**
+         * Open a new connection for the next waiting exchange if the maximum
+         * number of connections has not been reached.
+         */
+        private void connectForWaitingExchange() {
+            Exchange exchange;
+            synchronized (this) {
+                if (numberOfConnections >= maxConnectionsPerEndpoint) {
+                    return;
+                }
+
+                exchange = pollWaitingExchange();
+                if (exchange == null) {
+                    return;
+                }
+
+                numberOfConnections++;
+            }
+
+            connect(exchange);
+        }
+
+        /**
+         * Send the given <code>exchange</code> using the given
+         * <code>connection</code>.
+         *
+         * @param connection
+         *            The connection to use.
+         * @param exchange
+         *            The exchange to send.
+         * @param reused
+         *            <code>true</code> if the connection has been used before.
+         */
+        private void execute(NioHttpConnection connection, Exchange exchange, boolean reused) {
+            if (exchange.getResponse().isDone()) {
+                // The exchange timed out while it was waiting.
+                release(connection);
+                return;
+            }
+
+            exchange.connection = connection;
+            connection.exchange(exchange.request.duplicate()).whenComplete((response, throwable) -> {
+                release(connection);
+
+                if (throwable == null) {
+                    exchange.getResponse().complete(response);
+                } else if (reused && !exchange.retried && throwable instanceof NoHttpResponseException) {
+                    // The node closed the idle connection before the request
+                    // arrived, so it has not been processed.
+                    LOGGER.debug("The connection to {} has been closed by the node. Retrying.", endpointUri);
+                    exchange.retried = true;
+                    exchange.connection = null;
+                    submit(exchange);
+                } else {
+                    exchange.fail(throwable);
+                }
+            });
+        }
+
+        /**
+         * Hand the given <code>connection</code> over to the next waiting
+         * exchange or keep it as idle connection. Connections that can not be
+         * reused are closed.
+         *
+         * @param connection
+         *            The connection that is no longer used by an exchange.
+         */
+        private void release(NioHttpConnection connection) {
+            Exchange exchange;
+            boolean reusable = connection.isReusable();
+            synchronized (this) {
+                if (!reusable) {
+                    connections.remove(connection);
+                    numberOfConnections--;
+                }
+
+                exchange = pollWaitingExchange();
+                if (exchange == null) {
+                    if (reusable) {
+                        idleConnections.push(connection);
+                    }
+                } else if (!reusable) {
+                    numberOfConnections++;
+                }
+            }
+
+            if (!reusable) {
+                connection.close();
+            }
+
+            if (exchange != null) {
+                if (reusable) {
+                    execute(connection, exchange, true);
+                } else {
+                    connect(exchange);
+                }
+            }
+        }
+
+        /**
+         * Get the most recently used idle connection that can still be used.
+         * Expired connections are closed. The caller has to hold the lock of
+         * this instance.
+         *
+         * @return The connection or <code>null</code> if there is none.
+         */
+        private NioHttpConnection pollIdleConnection() {
+            while (!idleConnections.isEmpty() && idleConnections.peekLast().isExpired(idleTimeout)) {
+                discard(idleConnections.pollLast());
+            }
+
+            NioHttpConnection connection;
+            while ((connection = idleConnections.pollFirst()) != null) {
+                if (connection.isReusable() && !connection.isExpired(idleTimeout)) {
+                    return connection;
+                }
+
+                discard(connection);
+            }
+
+            return null;
+        }
+
+        /**
+         * Close the given idle connection. The caller has to hold the lock of
+         * this instance.
+         *
+         * @param connection
+         *            The connection to close.
+         */
+        private void discard(NioHttpConnection connection) {
+            connection.close();
+            connections.remove(connection);
+            numberOfConnections--;
+        }
+
+        /**
+         * Get the next exchange that is still waiting for a response. The
+         * caller has to hold the lock of this instance.
+         *
+         * @return The exchange or <code>null</code> if there is none.
+         */
+        private Exchange pollWaitingExchange() {
+            Exchange exchange;
+            while ((exchange = waitingExchanges.poll()) != null) {
+                if (!exchange.getResponse().isDone()) {
+                    return exchange;
+                }
+            }
+
+            return null;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.net.URI;
+
+/**
+ * A {@link ClientFactory} creating non-blocking {@link NioHttpClient}
+ * instances for HTTP and HTTPS endpoints.
+ * 
+ * <p>
+ * This factory is not configured by default. To use it, add it in front of
+ * the built-in factories:
+ * </p>
+ * 
+ * <pre>
+ * SteemJConfig.getInstance().getClientFactories().add(0, new NioHttpClientFactory());
+ * </pre>
+ * 
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class NioHttpClientFactory implements ClientFactory {
+    @Override
+    public boolean supports(URI endpointUri) {
+        return endpointUri.getScheme() != null && endpointUri.getScheme().toLowerCase().matches("(http){1}[s]?");
+    }
+
+    @Override
+    public AbstractClient createClient(CommunicationHandler communicationHandler) {
+        return new NioHttpClient(communicationHandler.getContext(), communicationHandler.getCompressionStatistics(),
+                communicationHandler.getMetricsRecorder());
+    }
+}
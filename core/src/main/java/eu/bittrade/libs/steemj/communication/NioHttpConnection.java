@@ -0,0 +1,672 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.ProtocolException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.api.client.util.SslUtils;
+
+/**
+ * This class represents a single, persistent HTTP/1.1 connection used by the
+ * {@link NioHttpClient}. All reads and writes are performed asynchronously
+ * using an {@link AsynchronousSocketChannel}, so no thread is blocked while a
+ * request is in flight. HTTPS connections are encrypted using a
+ * {@link SSLEngine}.
+ *
+ * A connection handles one exchange at a time.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+class NioHttpConnection {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NioHttpConnection.class);
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
+    /** Completes the future passed as attachment with the result of a read or write. */
+    private static final FutureCompletionHandler<Integer> IO_HANDLER = new FutureCompletionHandler<>();
+    /** Completes the future passed as attachment once connected. */
+    private static final FutureCompletionHandler<Void> CONNECT_HANDLER = new FutureCompletionHandler<>();
+
+    private final AsynchronousSocketChannel channel;
+    /** The engine used to encrypt the connection or <code>null</code>. */
+    private final SSLEngine sslEngine;
+    /** Encrypted data received from the node, kept in read mode. */
+    private ByteBuffer netIn;
+    /** Encrypted data to send to the node. */
+    private ByteBuffer netOut;
+    /** Decrypted or plain data received from the node, kept in read mode. */
+    private ByteBuffer appIn;
+    private volatile boolean reusable;
+    private volatile long lastUsed;
+
+    /**
+     * Create a new {@link NioHttpConnection} instance.
+     *
+     * @param channel
+     *            The channel to use.
+     * @param sslEngine
+     *            The engine used to encrypt the connection or
+     *            <code>null</code> for a plain connection.
+     */
+    private NioHttpConnection(AsynchronousSocketChannel channel, SSLEngine sslEngine) {
+        this.channel = channel;
+        this.sslEngine = sslEngine;
+        this.reusable = true;
+        this.lastUsed = System.currentTimeMillis();
+
+        if (sslEngine == null) {
+            this.appIn = ByteBuffer.allocate(BUFFER_SIZE);
+        } else {
+            this.netIn = ByteBuffer.allocate(sslEngine.getSession().getPacketBufferSize());
+            this.netOut = ByteBuffer.allocate(sslEngine.getSession().getPacketBufferSize());
+            this.appIn = ByteBuffer.allocate(sslEngine.getSession().getApplicationBufferSize());
+            this.netIn.flip();
+        }
+
+        this.appIn.flip();
+    }
+
+    /**
+     * Open a new connection to the given endpoint.
+     *
+     * @param endpointUri
+     *            The endpoint to connect to.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification should be disabled.
+     * @param channelGroup
+     *            The group whose threads handle the I/O of the connection.
+     * @param scheduler
+     *            The scheduler used to enforce the <code>connectTimeout</code>.
+     * @param connectTimeout
+     *            The time in milliseconds after which the attempt to connect
+     *            is aborted. A value that is 0 or negative disables the
+     *            timeout.
+     * @return A future that is completed with the connection once it is ready
+     *         to send requests.
+     */
+    static CompletableFuture<NioHttpConnection> open(URI endpointUri, boolean sslVerificationDisabled,
+            AsynchronousChannelGroup channelGroup, ScheduledExecutorService scheduler, int connectTimeout) {
+        CompletableFuture<NioHttpConnection> result = new CompletableFuture<>();
+        boolean secure = "https".equalsIgnoreCase(endpointUri.getScheme());
+        int port = endpointUri.getPort() > 0 ? endpointUri.getPort() : (secure ? 443 : 80);
+
+        AsynchronousSocketChannel channel = null;
+        try {
+            channel = AsynchronousSocketChannel.open(channelGroup);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+
+            NioHttpConnection connection = new NioHttpConnection(channel,
+                    secure ? createSslEngine(endpointUri.getHost(), port, sslVerificationDisabled) : null);
+            LOGGER.debug("Opening a new connection to {}.", endpointUri);
+
+            CompletableFuture<Void> connected = new CompletableFuture<>();
+            channel.connect(new InetSocketAddress(endpointUri.getHost(), port), connected, CONNECT_HANDLER);
+
+            if (connectTimeout > 0) {
+                ScheduledFuture<?> timeout = scheduler.schedule(connection::close, connectTimeout,
+                        TimeUnit.MILLISECONDS);
+                connected.whenComplete((ignored, throwable) -> timeout.cancel(false));
+            }
+
+            connected.whenComplete((ignored, throwable) -> {
+                if (throwable != null) {
+                    connection.close();
+                    result.completeExceptionally(throwable);
+                } else if (connection.sslEngine == null) {
+                    result.complete(connection);
+                } else {
+                    connection.startHandshake(result);
+                }
+            });
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            closeQuietly(channel);
+            result.completeExceptionally(e);
+        }
+
+        return result;
+    }
+
+    /**
+     * Send the given <code>request</code> and read the response of the node.
+     *
+     * @param request
+     *            The complete HTTP request to send.
+     * @return A future that is completed with the response. It is completed
+     *         exceptionally with a {@link NoHttpResponseException} if the
+     *         connection has been closed before any byte of the response has
+     *         been received.
+     */
+    CompletableFuture<NioHttpResponse> exchange(ByteBuffer request) {
+        CompletableFuture<NioHttpResponse> result = new CompletableFuture<>();
+        NioHttpResponse response = new NioHttpResponse();
+
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        write(request, written);
+        written.whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                fail(result, response, throwable);
+            } else {
+                readResponse(response, result);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * @return <code>true</code> if the connection is still open and can be
+     *         used for another exchange.
+     */
+    boolean isReusable() {
+        return reusable && channel.isOpen();
+    }
+
+    /**
+     * Check if this connection has not been used for the given
+     * <code>idleTimeout</code>.
+     *
+     * @param idleTimeout
+     *            The time in milliseconds. A value that is 0 or negative
+     *            indicates that connections never expire.
+     * @return <code>true</code> if the connection should no longer be used.
+     */
+    boolean isExpired(long idleTimeout) {
+        return idleTimeout > 0 && System.currentTimeMillis() - lastUsed > idleTimeout;
+    }
+
+    /**
+     * Close this connection. An exchange that is in progress fails.
+     */
+    void close() {
+        reusable = false;
+        closeQuietly(channel);
+    }
+
+    /**
+     * Read data until the given <code>response</code> is complete.
+     *
+     * @param response
+     *            The response to feed with the received data.
+     * @param result
+     *            The future to complete with the response.
+     */
+    private void readResponse(NioHttpResponse response, CompletableFuture<NioHttpResponse> result) {
+        CompletableFuture<ByteBuffer> received = new CompletableFuture<>();
+        read(received);
+        received.whenComplete((data, throwable) -> {
+            if (throwable != null) {
+                fail(result, response, throwable);
+                return;
+            }
+
+            try {
+                if (data == null) {
+                    if (response.finish()) {
+                        close();
+                        result.complete(response);
+                    } else {
+                        fail(result, response, null);
+                    }
+                } else if (response.feed(data)) {
+                    // Data following the response can not be assigned to
+                    // any request.
+                    reusable = reusable && !data.hasRemaining() && response.isKeepAlive();
+                    lastUsed = System.currentTimeMillis();
+                    result.complete(response);
+                } else {
+                    readResponse(response, result);
+                }
+            } catch (ProtocolException e) {
+                fail(result, response, e);
+            }
+        });
+    }
+
+    /**
+     * Close this connection and fail the current exchange.
+     *
+     * @param result
+     *            The future of the exchange.
+     * @param response
+     *            The response received so far.
+     * @param cause
+     *            The reason of the failure or <code>null</code> if the node has
+     *            closed the connection.
+     */
+    private void fail(CompletableFuture<NioHttpResponse> result, NioHttpResponse response, Throwable cause) {
+        close();
+
+        if (response.isEmpty() && (cause == null || cause instanceof IOException)) {
+            NoHttpResponseException noHttpResponseException = new NoHttpResponseException(
+                    "The connection has been closed before a response has been received.");
+            noHttpResponseException.initCause(cause);
+            result.completeExceptionally(noHttpResponseException);
+        } else if (cause == null) {
+            result.completeExceptionally(
+                    new EOFException("The connection has been closed before the response was complete."));
+        } else {
+            result.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Read the next data received from the node.
+     *
+     * @param result
+     *            The future to complete with a buffer in read mode that
+     *            contains the received data or with <code>null</code> if the
+     *            connection has been closed by the node.
+     */
+    private void read(CompletableFuture<ByteBuffer> result) {
+        if (sslEngine != null) {
+            readTls(result);
+            return;
+        }
+
+        appIn.clear();
+        CompletableFuture<Integer> read = new CompletableFuture<>();
+        channel.read(appIn, read, IO_HANDLER);
+        read.whenComplete((numberOfBytes, throwable) -> {
+            appIn.flip();
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+            } else {
+                result.complete(numberOfBytes < 0 ? null : appIn);
+            }
+        });
+    }
+
+    /**
+     * Decrypt the next data received from the node.
+     *
+     * @param result
+     *            The future to complete with a buffer in read mode that
+     *            contains the decrypted data or with <code>null</code> if the
+     *            connection has been closed by the node.
+     */
+    private void readTls(CompletableFuture<ByteBuffer> result) {
+        try {
+            SSLEngineResult unwrapResult = unwrap();
+
+            switch (unwrapResult.getStatus()) {
+            case BUFFER_OVERFLOW:
+                appIn = enlarge(appIn, sslEngine.getSession().getApplicationBufferSize());
+                readTls(result);
+                break;
+            case BUFFER_UNDERFLOW:
+                if (appIn.hasRemaining()) {
+                    result.complete(appIn);
+                } else {
+                    readMoreTls(result);
+                }
+                break;
+            case CLOSED:
+                result.complete(appIn.hasRemaining() ? appIn : null);
+                break;
+            default:
+                if (appIn.hasRemaining()) {
+                    result.complete(appIn);
+                } else if (isHandshaking()) {
+                    // The node sent a post handshake message.
+                    CompletableFuture<Void> handshake = new CompletableFuture<>();
+                    continueHandshake(handshake);
+                    handshake.whenComplete((ignored, throwable) -> {
+                        if (throwable != null) {
+                            result.completeExceptionally(throwable);
+                        } else {
+                            readTls(result);
+                        }
+                    });
+                } else if (unwrapResult.bytesConsumed() == 0) {
+                    readMoreTls(result);
+                } else {
+                    readTls(result);
+                }
+                break;
+            }
+        } catch (SSLException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Receive more encrypted data and continue with
+     * {@link #readTls(CompletableFuture)}.
+     *
+     * @param result
+     *            The future to complete with the decrypted data.
+     */
+    private void readMoreTls(CompletableFuture<ByteBuffer> result) {
+        readNet().whenComplete((numberOfBytes, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+            } else if (numberOfBytes < 0) {
+                result.complete(null);
+            } else {
+                readTls(result);
+            }
+        });
+    }
+
+    /**
+     * Write all remaining bytes of the given <code>data</code> to the node.
+     *
+     * @param data
+     *            The data to write.
+     * @param result
+     *            The future to complete once all data has been written.
+     */
+    private void write(ByteBuffer data, CompletableFuture<Void> result) {
+        if (sslEngine == null) {
+            writeNet(data, result);
+            return;
+        }
+
+        if (!data.hasRemaining()) {
+            result.complete(null);
+            return;
+        }
+
+        try {
+            netOut.clear();
+            SSLEngineResult wrapResult = sslEngine.wrap(data, netOut);
+            netOut.flip();
+
+            if (wrapResult.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
+                netOut = ByteBuffer.allocate(netOut.capacity() * 2);
+                write(data, result);
+                return;
+            } else if (wrapResult.getStatus() == SSLEngineResult.Status.CLOSED) {
+                result.completeExceptionally(new SSLException("The TLS session has been closed."));
+                return;
+            }
+
+            CompletableFuture<Void> written = new CompletableFuture<>();
+            writeNet(netOut, written);
+            written.whenComplete((ignored, throwable) -> {
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else {
+                    write(data, result);
+                }
+            });
+        } catch (SSLException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Write all remaining bytes of the given <code>data</code> to the channel.
+     *
+     * @param data
+     *            The data to write.
+     * @param result
+     *            The future to complete once all data has been written.
+     */
+    private void writeNet(ByteBuffer data, CompletableFuture<Void> result) {
+        CompletableFuture<Integer> written = new CompletableFuture<>();
+        channel.write(data, written, IO_HANDLER);
+        written.whenComplete((numberOfBytes, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+            } else if (data.hasRemaining()) {
+                writeNet(data, result);
+            } else {
+                result.complete(null);
+            }
+        });
+    }
+
+    /**
+     * Read more encrypted data from the channel into {@link #netIn}.
+     *
+     * @return A future that is completed with the number of bytes read or -1
+     *         if the connection has been closed by the node.
+     */
+    private CompletableFuture<Integer> readNet() {
+        if (netIn.remaining() == netIn.capacity()) {
+            netIn = enlarge(netIn, sslEngine.getSession().getPacketBufferSize());
+        }
+
+        netIn.compact();
+        CompletableFuture<Integer> read = new CompletableFuture<>();
+        channel.read(netIn, read, IO_HANDLER);
+
+        return read.whenComplete((numberOfBytes, throwable) -> netIn.flip());
+    }
+
+    /**
+     * Decrypt the data in {@link #netIn} into {@link #appIn}.
+     *
+     * @return The result of the operation.
+     * @throws SSLException
+     *             If the data could not be decrypted.
+     */
+    private SSLEngineResult unwrap() throws SSLException {
+        appIn.compact();
+        try {
+            return sslEngine.unwrap(netIn, appIn);
+        } finally {
+            appIn.flip();
+        }
+    }
+
+    /**
+     * Start the TLS handshake.
+     *
+     * @param result
+     *            The future to complete with this connection once the
+     *            handshake is done.
+     */
+    private void startHandshake(CompletableFuture<NioHttpConnection> result) {
+        try {
+            sslEngine.beginHandshake();
+        } catch (SSLException e) {
+            close();
+            result.completeExceptionally(e);
+            return;
+        }
+
+        CompletableFuture<Void> handshake = new CompletableFuture<>();
+        continueHandshake(handshake);
+        handshake.whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                close();
+                result.completeExceptionally(throwable);
+            } else {
+                result.complete(this);
+            }
+        });
+    }
+
+    /**
+     * Perform the next steps of the TLS handshake until it is done.
+     *
+     * @param result
+     *            The future to complete once the handshake is done.
+     */
+    private void continueHandshake(CompletableFuture<Void> result) {
+        try {
+            HandshakeStatus handshakeStatus = sslEngine.getHandshakeStatus();
+
+            if (!isHandshaking()) {
+                result.complete(null);
+            } else if (handshakeStatus == HandshakeStatus.NEED_TASK) {
+                Runnable task;
+                while ((task = sslEngine.getDelegatedTask()) != null) {
+                    task.run();
+                }
+
+                continueHandshake(result);
+            } else if (handshakeStatus == HandshakeStatus.NEED_WRAP) {
+                netOut.clear();
+                SSLEngineResult wrapResult = sslEngine.wrap(EMPTY_BUFFER, netOut);
+                netOut.flip();
+
+                if (wrapResult.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
+                    netOut = ByteBuffer.allocate(netOut.capacity() * 2);
+                    continueHandshake(result);
+                    return;
+                }
+
+                CompletableFuture<Void> written = new CompletableFuture<>();
+                writeNet(netOut, written);
+                written.whenComplete((ignored, throwable) -> {
+                    if (throwable != null) {
+                        result.completeExceptionally(throwable);
+                    } else {
+                        continueHandshake(result);
+                    }
+                });
+            } else {
+                // Includes the states introduced by newer Java versions that
+                // require to unwrap again.
+                SSLEngineResult unwrapResult = unwrap();
+
+                switch (unwrapResult.getStatus()) {
+                case BUFFER_UNDERFLOW:
+                    readNet().whenComplete((numberOfBytes, throwable) -> {
+                        if (throwable != null) {
+                            result.completeExceptionally(throwable);
+                        } else if (numberOfBytes < 0) {
+                            result.completeExceptionally(
+                                    new EOFException("The connection has been closed during the TLS handshake."));
+                        } else {
+                            continueHandshake(result);
+                        }
+                    });
+                    break;
+                case BUFFER_OVERFLOW:
+                    appIn = enlarge(appIn, sslEngine.getSession().getApplicationBufferSize());
+                    continueHandshake(result);
+                    break;
+                case CLOSED:
+                    result.completeExceptionally(new SSLException("The node closed the TLS session."));
+                    break;
+                default:
+                    continueHandshake(result);
+                    break;
+                }
+            }
+        } catch (SSLException | RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the TLS handshake requires further steps.
+     */
+    private boolean isHandshaking() {
+        HandshakeStatus handshakeStatus = sslEngine.getHandshakeStatus();
+
+        return handshakeStatus != HandshakeStatus.FINISHED && handshakeStatus != HandshakeStatus.NOT_HANDSHAKING;
+    }
+
+    /**
+     * Close the given <code>channel</code> and log failures.
+     *
+     * @param channel
+     *            The channel to close or <code>null</code>.
+     */
+    private static void closeQuietly(AsynchronousSocketChannel channel) {
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.debug("Could not close the connection.", e);
+        }
+    }
+
+    /**
+     * Create a new, larger buffer with the content of the given buffer.
+     *
+     * @param buffer
+     *            The buffer in read mode.
+     * @param minimumCapacity
+     *            The minimum capacity of the new buffer.
+     * @return The new buffer in read mode.
+     */
+    private static ByteBuffer enlarge(ByteBuffer buffer, int minimumCapacity) {
+        ByteBuffer enlargedBuffer = ByteBuffer.allocate(Math.max(minimumCapacity, buffer.capacity() * 2));
+        enlargedBuffer.put(buffer);
+        enlargedBuffer.flip();
+
+        return enlargedBuffer;
+    }
+
+    /**
+     * Create the {@link SSLEngine} for a new connection.
+     *
+     * @param host
+     *            The host to connect to.
+     * @param port
+     *            The port to connect to.
+     * @param sslVerificationDisabled
+     *            Define if the certificate of the node should not be
+     *            verified.
+     * @return The engine.
+     * @throws GeneralSecurityException
+     *             If the engine could not be created.
+     */
+    private static SSLEngine createSslEngine(String host, int port, boolean sslVerificationDisabled)
+            throws GeneralSecurityException {
+        SSLContext sslContext = sslVerificationDisabled ? SslUtils.trustAllSSLContext() : SSLContext.getDefault();
+        SSLEngine sslEngine = sslContext.createSSLEngine(host, port);
+        sslEngine.setUseClientMode(true);
+
+        if (!sslVerificationDisabled) {
+            SSLParameters sslParameters = sslEngine.getSSLParameters();
+            sslParameters.setEndpointIdentificationAlgorithm("HTTPS");
+            sslEngine.setSSLParameters(sslParameters);
+        }
+
+        return sslEngine;
+    }
+
+    /**
+     * A {@link CompletionHandler} that completes the {@link CompletableFuture}
+     * passed as attachment with the result of the operation.
+     *
+     * @param <V>
+     *            The result type of the operation.
+     */
+    private static class FutureCompletionHandler<V> implements CompletionHandler<V, CompletableFuture<V>> {
+        @Override
+        public void completed(V result, CompletableFuture<V> future) {
+            future.complete(result);
+        }
+
+        @Override
+        public void failed(Throwable failure, CompletableFuture<V> future) {
+            future.completeExceptionally(failure);
+        }
+    }
+}
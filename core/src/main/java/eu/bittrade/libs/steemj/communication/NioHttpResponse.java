@@ -0,0 +1,277 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.http.ProtocolException;
+
+/**
+ * This class represents a HTTP/1.1 response received by a
+ * {@link NioHttpConnection}. The response is parsed incrementally from the
+ * data chunks read from the connection, so no thread has to wait for the
+ * complete response.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+class NioHttpResponse {
+    private static final int MAX_HEAD_SIZE = 64 * 1024;
+
+    /** The parts of the response the parser is currently waiting for. */
+    private enum State {
+        HEAD, BODY, CHUNK_SIZE, CHUNK_DATA, CHUNK_END, TRAILER, BODY_UNTIL_CLOSE, DONE
+    }
+
+    private State state = State.HEAD;
+    /** Collects the status line and headers or the current chunk line. */
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private final Map<String, String> headers = new HashMap<>();
+    private int headSize;
+    private String protocolVersion;
+    private int statusCode;
+    /** The number of body or chunk bytes that still have to be read. */
+    private long remainingBytes;
+
+    /**
+     * Add the given <code>data</code> received from the node to this
+     * response.
+     *
+     * @param data
+     *            The received data. All bytes that belong to this response
+     *            are consumed.
+     * @return <code>true</code> if the response is complete.
+     * @throws ProtocolException
+     *             If the data is no valid HTTP response.
+     */
+    boolean feed(ByteBuffer data) throws ProtocolException {
+        while (data.hasRemaining() && state != State.DONE) {
+            switch (state) {
+            case HEAD:
+                if (readLine(data)) {
+                    processHeadLine();
+                }
+                break;
+            case BODY:
+            case CHUNK_DATA:
+                int length = (int) Math.min(remainingBytes, data.remaining());
+                body.write(data.array(), data.arrayOffset() + data.position(), length);
+                data.position(data.position() + length);
+                remainingBytes -= length;
+                if (remainingBytes == 0) {
+                    state = state == State.BODY ? State.DONE : State.CHUNK_END;
+                }
+                break;
+            case CHUNK_SIZE:
+                if (readLine(data)) {
+                    processChunkSize();
+                }
+                break;
+            case CHUNK_END:
+                if (readLine(data)) {
+                    if (line.size() != 0) {
+                        throw new ProtocolException("Missing line break after chunk.");
+                    }
+                    state = State.CHUNK_SIZE;
+                }
+                break;
+            case TRAILER:
+                if (readLine(data)) {
+                    if (line.size() == 0) {
+                        state = State.DONE;
+                    }
+                    line.reset();
+                }
+                break;
+            case BODY_UNTIL_CLOSE:
+                body.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+                data.position(data.limit());
+                break;
+            default:
+                break;
+            }
+        }
+
+        return state == State.DONE;
+    }
+
+    /**
+     * Inform this response that the connection has been closed by the node.
+     *
+     * @return <code>true</code> if the response is complete, which is only the
+     *         case if its end is marked by closing the connection.
+     */
+    boolean finish() {
+        if (state == State.BODY_UNTIL_CLOSE) {
+            state = State.DONE;
+        }
+
+        return state == State.DONE;
+    }
+
+    /**
+     * @return <code>true</code> if no byte of this response has been received
+     *         yet.
+     */
+    boolean isEmpty() {
+        return state == State.HEAD && headSize == 0 && line.size() == 0;
+    }
+
+    /**
+     * @return The status code of this response.
+     */
+    int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Get the value of a header of this response.
+     *
+     * @param name
+     *            The case insensitive name of the header.
+     * @return The value of the header or <code>null</code> if the header has
+     *         not been sent.
+     */
+    String getHeader(String name) {
+        return headers.get(name.toLowerCase());
+    }
+
+    /**
+     * @return The body of this response, after the transfer encoding has been
+     *         removed.
+     */
+    byte[] getBody() {
+        return body.toByteArray();
+    }
+
+    /**
+     * @return <code>true</code> if the connection can be used for another
+     *         request after this response has been received.
+     */
+    boolean isKeepAlive() {
+        String connection = getHeader("Connection");
+
+        return state == State.DONE && "HTTP/1.1".equals(protocolVersion)
+                && (connection == null || !"close".equalsIgnoreCase(connection.trim()));
+    }
+
+    /**
+     * Read the <code>data</code> into the {@link #line} buffer until a line
+     * break is found. The line break itself is not added to the buffer.
+     *
+     * @param data
+     *            The data to read.
+     * @return <code>true</code> if a complete line has been read.
+     * @throws ProtocolException
+     *             If the head of the response is too large.
+     */
+    private boolean readLine(ByteBuffer data) throws ProtocolException {
+        while (data.hasRemaining()) {
+            byte value = data.get();
+            if (++headSize > MAX_HEAD_SIZE && state == State.HEAD) {
+                throw new ProtocolException("The head of the response is too large.");
+            }
+
+            if (value == '\n') {
+                return true;
+            } else if (value != '\r') {
+                line.write(value);
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Process the status line or header that has been read into the
+     * {@link #line} buffer.
+     *
+     * @throws ProtocolException
+     *             If the line is not valid.
+     */
+    private void processHeadLine() throws ProtocolException {
+        String headLine = new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+        line.reset();
+
+        if (protocolVersion == null) {
+            String[] statusLine = headLine.split(" ", 3);
+            if (statusLine.length < 2 || !statusLine[0].startsWith("HTTP/")) {
+                throw new ProtocolException("Invalid status line: " + headLine);
+            }
+
+            protocolVersion = statusLine[0];
+            try {
+                statusCode = Integer.parseInt(statusLine[1]);
+            } catch (NumberFormatException e) {
+                throw new ProtocolException("Invalid status line: " + headLine);
+            }
+        } else if (!headLine.isEmpty()) {
+            int separator = headLine.indexOf(':');
+            if (separator <= 0) {
+                throw new ProtocolException("Invalid header: " + headLine);
+            }
+
+            headers.put(headLine.substring(0, separator).trim().toLowerCase(),
+                    headLine.substring(separator + 1).trim());
+        } else if (statusCode >= 100 && statusCode < 200) {
+            // Skip informational responses and wait for the final one.
+            protocolVersion = null;
+            headers.clear();
+        } else {
+            startBody();
+        }
+    }
+
+    /**
+     * Decide how the body of the response is delimited after the head has
+     * been received completely.
+     *
+     * @throws ProtocolException
+     *             If the content length is not valid.
+     */
+    private void startBody() throws ProtocolException {
+        String transferEncoding = getHeader("Transfer-Encoding");
+        String contentLength = getHeader("Content-Length");
+
+        if (statusCode == 204 || statusCode == 304) {
+            state = State.DONE;
+        } else if (transferEncoding != null && transferEncoding.toLowerCase().contains("chunked")) {
+            state = State.CHUNK_SIZE;
+        } else if (contentLength != null) {
+            try {
+                remainingBytes = Long.parseLong(contentLength);
+            } catch (NumberFormatException e) {
+                throw new ProtocolException("Invalid content length: " + contentLength);
+            }
+
+            state = remainingBytes > 0 ? State.BODY : State.DONE;
+        } else {
+            state = State.BODY_UNTIL_CLOSE;
+        }
+    }
+
+    /**
+     * Process the chunk size that has been read into the {@link #line}
+     * buffer.
+     *
+     * @throws ProtocolException
+     *             If the chunk size is not valid.
+     */
+    private void processChunkSize() throws ProtocolException {
+        String chunkLine = new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+        line.reset();
+
+        int extension = chunkLine.indexOf(';');
+        String chunkSize = (extension < 0 ? chunkLine : chunkLine.substring(0, extension)).trim();
+
+        try {
+            remainingBytes = Long.parseLong(chunkSize, 16);
+        } catch (NumberFormatException e) {
+            throw new ProtocolException("Invalid chunk size: " + chunkLine);
+        }
+
+        state = remainingBytes > 0 ? State.CHUNK_DATA : State.TRAILER;
+    }
+}
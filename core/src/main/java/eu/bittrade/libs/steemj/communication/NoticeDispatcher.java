@@ -0,0 +1,230 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+
+/**
+ * This class routes the notices pushed by a node to the {@link NoticeListener
+ * listeners} of the matching subscriptions.
+ *
+ * <p>
+ * A notice has the form
+ * <code>{"method": "notice", "params": [callbackId, [arguments]]}</code>.
+ * The notices are transformed and delivered by a single thread, so the thread
+ * reading the responses from the connection is never blocked by a listener
+ * and each listener receives the notices in the order they have been pushed.
+ * The thread is stopped if no notice has been received for a minute.
+ * </p>
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+class NoticeDispatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NoticeDispatcher.class);
+
+    /** The listeners of the active subscriptions, stored by callback id. */
+    private final ConcurrentMap<Long, Registration<?>> registrations = new ConcurrentHashMap<>();
+    /** The source of the callback ids. */
+    private final AtomicLong lastCallbackId = new AtomicLong();
+    /** The thread delivering the notices. */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Create a new {@link NoticeDispatcher} instance.
+     */
+    NoticeDispatcher() {
+        this.executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<Runnable>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "steemj-notices");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Register a listener under a new callback id.
+     *
+     * @param noticeType
+     *            The type the notices are transformed to.
+     * @param listener
+     *            The listener to inform about the notices.
+     * @param <T>
+     *            The type the notices are transformed to.
+     * @return The callback id to register at the node.
+     */
+    <T> long register(JavaType noticeType, NoticeListener<T> listener) {
+        long callbackId = lastCallbackId.incrementAndGet();
+        registrations.put(callbackId, new Registration<>(noticeType, listener));
+
+        return callbackId;
+    }
+
+    /**
+     * Remove the listener registered under the given
+     * <code>callbackId</code>.
+     *
+     * @param callbackId
+     *            The callback id of the listener.
+     */
+    void unregister(long callbackId) {
+        registrations.remove(callbackId);
+    }
+
+    /**
+     * Remove the listener registered under the given <code>callbackId</code>
+     * and inform it that no further notices will be delivered. The listener
+     * is informed after the notices that have already been received.
+     *
+     * @param callbackId
+     *            The callback id of the listener.
+     * @param reason
+     *            The reason why the subscription has ended.
+     */
+    void end(long callbackId, SteemCommunicationException reason) {
+        Registration<?> registration = registrations.remove(callbackId);
+        if (registration == null) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> registration.end(reason, callbackId));
+        } catch (RejectedExecutionException e) {
+            LOGGER.error("Could not inform the listener of the callback id {} about its end.", callbackId, e);
+        }
+    }
+
+    /**
+     * @param callbackId
+     *            The callback id to check.
+     * @return <code>true</code> if a listener is registered under the given
+     *         <code>callbackId</code>.
+     */
+    boolean isRegistered(long callbackId) {
+        return registrations.containsKey(callbackId);
+    }
+
+    /**
+     * Hand the given <code>notice</code> over to the listener of its
+     * subscription without blocking the calling thread. Each argument of the
+     * notice is delivered separately.
+     *
+     * @param notice
+     *            The notice received from a node.
+     */
+    void dispatch(JsonNode notice) {
+        JsonNode parameters = notice.get(JsonRPCResponse.PARAMETERS_FIELD_NAME);
+        if (parameters == null || !parameters.isArray() || parameters.size() < 2) {
+            LOGGER.error("Received a notice without a callback id.");
+            LOGGER.debug("Invalid notice: {}", notice);
+            return;
+        }
+
+        long callbackId = parameters.get(0).asLong();
+        Registration<?> registration = registrations.get(callbackId);
+        if (registration == null) {
+            LOGGER.debug("Dropped a notice for the unknown callback id {}.", callbackId);
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                if (!isRegistered(callbackId)) {
+                    return;
+                }
+
+                JsonNode arguments = parameters.get(1);
+                if (arguments.isArray()) {
+                    for (JsonNode argument : arguments) {
+                        registration.deliver(argument, callbackId);
+                    }
+                } else {
+                    registration.deliver(arguments, callbackId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.error("Could not deliver a notice for the callback id {}.", callbackId, e);
+        }
+    }
+
+    /**
+     * A listener and the type its notices are transformed to.
+     *
+     * @param <T>
+     *            The type the notices are transformed to.
+     */
+    private static class Registration<T> {
+        private final JavaType noticeType;
+        private final NoticeListener<T> listener;
+
+        /**
+         * Create a new {@link Registration} instance.
+         *
+         * @param noticeType
+         *            The type the notices are transformed to.
+         * @param listener
+         *            The listener to inform about the notices.
+         */
+        Registration(JavaType noticeType, NoticeListener<T> listener) {
+            this.noticeType = noticeType;
+            this.listener = listener;
+        }
+
+        /**
+         * Transform the given <code>argument</code> and hand it over to the
+         * listener. Failures are logged, so they do not affect the delivery
+         * of other notices.
+         *
+         * @param argument
+         *            An argument of a notice.
+         * @param callbackId
+         *            The callback id of the subscription.
+         */
+        void deliver(JsonNode argument, long callbackId) {
+            T notice;
+            try {
+                notice = CommunicationHandler.getObjectMapper().readerFor(noticeType).readValue(argument);
+            } catch (IOException e) {
+                LOGGER.error("Could not transform the notice for the callback id {}.", callbackId, e);
+                return;
+            }
+
+            try {
+                listener.onNotice(notice);
+            } catch (RuntimeException e) {
+                LOGGER.error("The listener of the callback id {} failed.", callbackId, e);
+            }
+        }
+
+        /**
+         * Inform the listener that its subscription has ended. Failures are
+         * logged, so they do not affect the delivery of other notices.
+         *
+         * @param reason
+         *            The reason why the subscription has ended.
+         * @param callbackId
+         *            The callback id of the subscription.
+         */
+        void end(SteemCommunicationException reason, long callbackId) {
+            try {
+                listener.onSubscriptionEnded(reason);
+            } catch (RuntimeException e) {
+                LOGGER.error("The listener of the callback id {} failed.", callbackId, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package eu.bittrade.libs.steemj.communication;
+
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+
+/**
+ * A listener that is informed about the notices a node pushes for a
+ * {@link Subscription}, e.g. about each applied block.
+ *
+ * <p>
+ * Notices are delivered by a dedicated thread in the order they have been
+ * received, so a listener does not block the responses to other requests.
+ * Listeners should still return quickly, as a slow listener delays the
+ * notices of all subscriptions of the same connection.
+ * </p>
+ *
+ * @param <T>
+ *            The type the notices are transformed to.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public interface NoticeListener<T> {
+    /**
+     * Called for each notice received for the subscription of this listener.
+     *
+     * @param notice
+     *            The notice transformed into the type of this listener.
+     */
+    void onNotice(T notice);
+
+    /**
+     * Called once the node can no longer push notices for the subscription
+     * of this listener, e.g. because the connection has been closed or
+     * because the callback could not be registered at a new endpoint. The
+     * subscription is no longer {@link Subscription#isActive() active} at
+     * this point and no further notices are delivered. It is not called if
+     * the subscription has been {@link Subscription#cancel() cancelled}.
+     *
+     * @param reason
+     *            The reason why the subscription has ended.
+     */
+    default void onSubscriptionEnded(SteemCommunicationException reason) {
+        // Listeners that do not care about the end of a subscription do not
+        // have to implement this method.
+    }
+}
@@ -0,0 +1,67 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.util.concurrent.CompletableFuture;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+
+/**
+ * This class represents a request that has been sent over a shared connection
+ * and is waiting for its response. The response is matched to the request
+ * using the JSON-RPC <code>id</code>.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+class PendingRequest {
+    /** The request waiting for an answer. */
+    private final JsonRPCRequest request;
+    /** Completed as soon as a response or a failure has been received. */
+    private final CompletableFuture<JsonRPCResponse> response;
+
+    /**
+     * Create a new {@link PendingRequest} instance.
+     *
+     * @param request
+     *            The request waiting for an answer.
+     */
+    PendingRequest(JsonRPCRequest request) {
+        this.request = request;
+        this.response = new CompletableFuture<>();
+    }
+
+    /**
+     * @return The request waiting for an answer.
+     */
+    JsonRPCRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @return The future that will be completed with the response of this
+     *         request.
+     */
+    CompletableFuture<JsonRPCResponse> getResponse() {
+        return response;
+    }
+
+    /**
+     * Hand the received <code>response</code> over to the waiting caller.
+     *
+     * @param response
+     *            The response received for this request.
+     */
+    void complete(JsonRPCResponse response) {
+        this.response.complete(response);
+    }
+
+    /**
+     * Inform the waiting caller that no response will be received.
+     *
+     * @param failure
+     *            The reason why no response will be received.
+     */
+    void fail(SteemCommunicationException failure) {
+        this.response.completeExceptionally(failure);
+    }
+}
@@ -0,0 +1,158 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.glassfish.tyrus.core.extension.ExtendedExtension;
+import org.glassfish.tyrus.core.frame.Frame;
+
+/**
+ * A client side implementation of the WebSocket "permessage-deflate"
+ * extension (RFC 7692) for Tyrus.
+ *
+ * Messages received from the node are inflated while the frames are
+ * processed. Messages sent to the node are not compressed, which is allowed by
+ * the extension and avoids compressing the small requests.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class PerMessageDeflateExtension implements ExtendedExtension {
+    /** The name of the extension. */
+    public static final String NAME = "permessage-deflate";
+
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+    private static final String INFLATER_PROPERTY = PerMessageDeflateExtension.class.getName() + ".inflater";
+    private static final String NO_CONTEXT_TAKEOVER_PROPERTY = PerMessageDeflateExtension.class.getName()
+            + ".noContextTakeover";
+    private static final String MESSAGE_COMPRESSED_PROPERTY = PerMessageDeflateExtension.class.getName()
+            + ".messageCompressed";
+    /** The opcode of a frame continuing a fragmented message. */
+    private static final byte CONTINUATION_OPCODE = 0x00;
+    /** The bytes removed from the end of each compressed message. */
+    private static final byte[] MESSAGE_TAIL = { 0x00, 0x00, (byte) 0xff, (byte) 0xff };
+
+    /** The statistics to update. */
+    private final CompressionStatistics compressionStatistics;
+
+    /**
+     * Create a new {@link PerMessageDeflateExtension} instance.
+     *
+     * @param compressionStatistics
+     *            The statistics to add the received bytes to.
+     */
+    public PerMessageDeflateExtension(CompressionStatistics compressionStatistics) {
+        this.compressionStatistics = compressionStatistics;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public List<Parameter> getParameters() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Frame processIncoming(ExtensionContext context, Frame frame) {
+        if (frame.isControlFrame()) {
+            return frame;
+        }
+
+        // Only the first frame of a message marks it as compressed.
+        boolean compressed;
+        if (frame.getOpcode() != CONTINUATION_OPCODE) {
+            compressed = frame.isRsv1();
+            context.getProperties().put(MESSAGE_COMPRESSED_PROPERTY, compressed);
+        } else {
+            compressed = Boolean.TRUE.equals(context.getProperties().get(MESSAGE_COMPRESSED_PROPERTY));
+        }
+
+        byte[] payload = frame.getPayloadData();
+        compressionStatistics.addCompressedBytes(payload.length);
+
+        if (!compressed) {
+            compressionStatistics.addUncompressedBytes(payload.length);
+            return frame;
+        }
+
+        Inflater inflater = (Inflater) context.getProperties().computeIfAbsent(INFLATER_PROPERTY,
+                key -> new Inflater(true));
+        ByteArrayOutputStream inflatedPayload = new ByteArrayOutputStream(payload.length * 4);
+
+        try {
+            inflate(inflater, payload, inflatedPayload);
+            if (frame.isFin()) {
+                inflate(inflater, MESSAGE_TAIL, inflatedPayload);
+
+                if (Boolean.TRUE.equals(context.getProperties().get(NO_CONTEXT_TAKEOVER_PROPERTY))) {
+                    inflater.reset();
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Could not inflate the message received from the node.", e);
+        }
+
+        byte[] inflatedData = inflatedPayload.toByteArray();
+        compressionStatistics.addUncompressedBytes(inflatedData.length);
+
+        return Frame.builder(frame).rsv1(false).payloadData(inflatedData).payloadLength(inflatedData.length).build();
+    }
+
+    @Override
+    public Frame processOutgoing(ExtensionContext context, Frame frame) {
+        return frame;
+    }
+
+    @Override
+    public List<Parameter> onExtensionNegotiation(ExtensionContext context, List<Parameter> requestedParameters) {
+        // Only used on the server side.
+        return new ArrayList<>();
+    }
+
+    @Override
+    public void onHandshakeResponse(ExtensionContext context, List<Parameter> responseParameters) {
+        for (Parameter parameter : responseParameters) {
+            if (SERVER_NO_CONTEXT_TAKEOVER.equals(parameter.getName())) {
+                context.getProperties().put(NO_CONTEXT_TAKEOVER_PROPERTY, true);
+            }
+        }
+    }
+
+    @Override
+    public void destroy(ExtensionContext context) {
+        Object inflater = context.getProperties().remove(INFLATER_PROPERTY);
+        if (inflater != null) {
+            ((Inflater) inflater).end();
+        }
+    }
+
+    /**
+     * Inflate the given <code>input</code> and write the result to the
+     * <code>output</code>.
+     *
+     * @param inflater
+     *            The inflater, which keeps the compression context of the
+     *            connection.
+     * @param input
+     *            The compressed data.
+     * @param output
+     *            The stream to write the inflated data to.
+     * @throws DataFormatException
+     *             If the input is not valid.
+     */
+    private void inflate(Inflater inflater, byte[] input, ByteArrayOutputStream output) throws DataFormatException {
+        inflater.setInput(input);
+
+        byte[] buffer = new byte[8192];
+        int length;
+        while ((length = inflater.inflate(buffer)) > 0) {
+            output.write(buffer, 0, length);
+        }
+    }
+}
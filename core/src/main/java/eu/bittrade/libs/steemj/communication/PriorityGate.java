@@ -0,0 +1,145 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import eu.bittrade.libs.steemj.enums.RequestPriority;
+
+/**
+ * A fixed number of permits to use a shared resource, e.g. the pooled
+ * connections of an endpoint. Requests that do not get a permit wait in one
+ * queue per {@link RequestPriority}. The queues are served using weighted
+ * round-robin scheduling (see {@link PriorityLanes}).
+ *
+ * <p>
+ * The connection pool itself queues waiting requests in the order they
+ * arrived. By letting only as many requests lease a connection as the pool
+ * holds, the order in which the waiting requests get a connection is decided
+ * by their priority instead.
+ * </p>
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+class PriorityGate {
+    private final int permits;
+    private final PriorityLanes<CompletableFuture<Void>> waitingRequests;
+
+    private int usedPermits;
+
+    /**
+     * Create a new {@link PriorityGate} instance.
+     *
+     * @param permits
+     *            The number of permits.
+     * @param priorityWeights
+     *            The weight of the queue of each priority. Priorities without
+     *            a weight use their {@link RequestPriority#getDefaultWeight()
+     *            default weight}.
+     * @throws IllegalArgumentException
+     *             If the number of <code>permits</code> is not positive.
+     */
+    PriorityGate(int permits, Map<RequestPriority, Integer> priorityWeights) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("The number of permits has to be positive.");
+        }
+
+        this.permits = permits;
+        this.waitingRequests = new PriorityLanes<>(priorityWeights);
+    }
+
+    /**
+     * Request a permit. Each granted permit has to be given back by calling
+     * {@link #release()}.
+     *
+     * @param priority
+     *            The priority of the request, which defines the queue it
+     *            waits in.
+     * @return A future that is completed as soon as the permit has been
+     *         granted. If the caller does not want to wait any longer, it can
+     *         complete the future exceptionally (e.g. cancel it), which
+     *         removes it from the queue without granting a permit.
+     */
+    CompletableFuture<Void> acquire(RequestPriority priority) {
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+
+        synchronized (this) {
+            if (waitingRequests.isEmpty() && usedPermits < permits) {
+                usedPermits++;
+                permit.complete(null);
+
+                return permit;
+            }
+
+            waitingRequests.add(permit, priority);
+        }
+
+        permit.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                removeWaitingRequest(permit);
+            }
+        });
+
+        return permit;
+    }
+
+    /**
+     * Give back a permit and grant it to the next waiting request.
+     */
+    void release() {
+        synchronized (this) {
+            usedPermits--;
+        }
+
+        grantPermits();
+    }
+
+    /**
+     * @return The number of requests that are waiting for a permit.
+     */
+    synchronized int getQueueDepth() {
+        return waitingRequests.size();
+    }
+
+    /**
+     * Grant permits to the waiting requests as long as there are free
+     * permits. Requests that have stopped waiting in the meantime are
+     * skipped. The permits are completed without holding the lock, as
+     * completing them sends the waiting requests.
+     */
+    private void grantPermits() {
+        while (true) {
+            CompletableFuture<Void> permit;
+            synchronized (this) {
+                if (waitingRequests.isEmpty() || usedPermits >= permits) {
+                    return;
+                }
+
+                permit = waitingRequests.poll();
+                usedPermits++;
+            }
+
+            if (!permit.complete(null)) {
+                synchronized (this) {
+                    usedPermits--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove a request that stopped waiting for a permit from the queue.
+     *
+     * @param permit
+     *            The permit that is no longer needed.
+     */
+    private synchronized void removeWaitingRequest(CompletableFuture<Void> permit) {
+        waitingRequests.remove(permit);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
@@ -0,0 +1,261 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import eu.bittrade.libs.steemj.enums.RequestPriority;
+
+/**
+ * A queue that keeps a separate lane for each {@link RequestPriority}.
+ *
+ * <p>
+ * The lanes are served using smooth weighted round-robin scheduling: Out of
+ * a number of polls equal to the sum of the weights of all non-empty lanes,
+ * each lane is served a number of times equal to its weight, and the polls of
+ * a lane are spread evenly. This way, a request of a higher priority does not
+ * wait behind all requests of a lower priority, while the requests of a lower
+ * priority still make progress.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe. The callers have to synchronize the access.
+ * </p>
+ *
+ * @param <E>
+ *            The type of the queued elements.
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class PriorityLanes<E> {
+    private final Map<RequestPriority, Deque<E>> lanes;
+    private final Map<RequestPriority, Integer> weights;
+    /** The current credit of each lane, the lane with the most is served. */
+    private final Map<RequestPriority, Integer> credits;
+    private int size;
+
+    /**
+     * Create a new {@link PriorityLanes} instance using the
+     * {@link RequestPriority#getDefaultWeight() default weights}.
+     */
+    public PriorityLanes() {
+        this(new EnumMap<>(RequestPriority.class));
+    }
+
+    /**
+     * Create a new {@link PriorityLanes} instance.
+     *
+     * @param weights
+     *            The weight of each priority. Priorities without a weight use
+     *            their {@link RequestPriority#getDefaultWeight() default
+     *            weight}.
+     * @throws IllegalArgumentException
+     *             If one of the <code>weights</code> is not positive.
+     */
+    public PriorityLanes(Map<RequestPriority, Integer> weights) {
+        this.lanes = new EnumMap<>(RequestPriority.class);
+        this.weights = new EnumMap<>(RequestPriority.class);
+        this.credits = new EnumMap<>(RequestPriority.class);
+
+        for (RequestPriority priority : RequestPriority.values()) {
+            Integer weight = weights.get(priority);
+            if (weight == null) {
+                weight = priority.getDefaultWeight();
+            } else if (weight <= 0) {
+                throw new IllegalArgumentException("The weight of the priority " + priority + " has to be positive.");
+            }
+
+            this.lanes.put(priority, new ArrayDeque<>());
+            this.weights.put(priority, weight);
+            this.credits.put(priority, 0);
+        }
+    }
+
+    /**
+     * Add the given <code>element</code> to the end of the lane of the given
+     * <code>priority</code>.
+     *
+     * @param element
+     *            The element to add.
+     * @param priority
+     *            The priority of the element.
+     */
+    public void add(E element, RequestPriority priority) {
+        lanes.get(priority).addLast(element);
+        size++;
+    }
+
+    /**
+     * Remove the next element from the lane that is due.
+     *
+     * @return The next element or <code>null</code> if all lanes are empty.
+     */
+    public E poll() {
+        return poll(element -> true);
+    }
+
+    /**
+     * Remove the first element accepted by the given <code>filter</code> from
+     * the lane that is due. Only lanes containing such an element take part
+     * in the scheduling.
+     *
+     * @param filter
+     *            Decides which elements may be removed.
+     * @return The next accepted element or <code>null</code> if no lane
+     *         contains an accepted element.
+     */
+    public E poll(Predicate<? super E> filter) {
+        if (size == 0) {
+            return null;
+        }
+
+        RequestPriority selectedPriority = null;
+        int totalWeight = 0;
+        for (RequestPriority priority : RequestPriority.values()) {
+            if (!contains(lanes.get(priority), filter)) {
+                continue;
+            }
+
+            int weight = weights.get(priority);
+            credits.put(priority, credits.get(priority) + weight);
+            totalWeight += weight;
+
+            // On a tie, the higher priority wins as it is checked first.
+            if (selectedPriority == null || credits.get(priority) > credits.get(selectedPriority)) {
+                selectedPriority = priority;
+            }
+        }
+
+        if (selectedPriority == null) {
+            return null;
+        }
+
+        credits.put(selectedPriority, credits.get(selectedPriority) - totalWeight);
+
+        Deque<E> lane = lanes.get(selectedPriority);
+        E element = null;
+        for (Iterator<E> iterator = lane.iterator(); iterator.hasNext();) {
+            E candidate = iterator.next();
+            if (filter.test(candidate)) {
+                iterator.remove();
+                element = candidate;
+                break;
+            }
+        }
+
+        size--;
+        if (lane.isEmpty()) {
+            // An idle lane must not save up credit for later.
+            credits.put(selectedPriority, 0);
+        }
+
+        return element;
+    }
+
+    /**
+     * Remove the given <code>element</code> from its lane.
+     *
+     * @param element
+     *            The element to remove.
+     * @return <code>true</code> if the element has been queued.
+     */
+    public boolean remove(Object element) {
+        for (Map.Entry<RequestPriority, Deque<E>> lane : lanes.entrySet()) {
+            if (lane.getValue().remove(element)) {
+                size--;
+                if (lane.getValue().isEmpty()) {
+                    credits.put(lane.getKey(), 0);
+                }
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Remove all elements from all lanes.
+     *
+     * @return The removed elements, ordered by their priority.
+     */
+    public List<E> removeAll() {
+        List<E> elements = new ArrayList<>(size);
+        for (RequestPriority priority : RequestPriority.values()) {
+            elements.addAll(lanes.get(priority));
+            lanes.get(priority).clear();
+            credits.put(priority, 0);
+        }
+
+        size = 0;
+        return elements;
+    }
+
+    /**
+     * @return A snapshot of the elements in all lanes, ordered by their
+     *         priority.
+     */
+    public List<E> getElements() {
+        List<E> elements = new ArrayList<>(size);
+        for (RequestPriority priority : RequestPriority.values()) {
+            elements.addAll(lanes.get(priority));
+        }
+
+        return elements;
+    }
+
+    /**
+     * @return <code>true</code> if all lanes are empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The number of elements in all lanes.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param priority
+     *            The priority of the lane.
+     * @return The number of elements in the lane of the given
+     *         <code>priority</code>.
+     */
+    public int size(RequestPriority priority) {
+        return lanes.get(priority).size();
+    }
+
+    /**
+     * Check if the given <code>lane</code> contains an element accepted by
+     * the <code>filter</code>.
+     *
+     * @param lane
+     *            The lane to check.
+     * @param filter
+     *            Decides which elements are accepted.
+     * @return <code>true</code> if an element is accepted.
+     */
+    private boolean contains(Deque<E> lane, Predicate<? super E> filter) {
+        for (E element : lane) {
+            if (filter.test(element)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
@@ -0,0 +1,69 @@
+package eu.bittrade.libs.steemj.communication;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * This class defines the budget of a client side rate limit.
+ *
+ * The budget is enforced by a token bucket: It holds up to
+ * <code>burstSize</code> permits and is refilled with
+ * <code>permitsPerSecond</code> permits per second. Each request takes one
+ * permit, so up to <code>burstSize</code> requests can be sent at once, while
+ * the long term rate never exceeds <code>permitsPerSecond</code>.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class RateLimit {
+    private final double permitsPerSecond;
+    private final int burstSize;
+
+    /**
+     * Create a new {@link RateLimit} instance that allows a burst of one
+     * second worth of requests.
+     *
+     * @param permitsPerSecond
+     *            The number of requests allowed per second.
+     */
+    public RateLimit(double permitsPerSecond) {
+        this(permitsPerSecond, (int) Math.max(1, Math.ceil(permitsPerSecond)));
+    }
+
+    /**
+     * Create a new {@link RateLimit} instance.
+     *
+     * @param permitsPerSecond
+     *            The number of requests allowed per second.
+     * @param burstSize
+     *            The number of requests that can be sent at once after the
+     *            budget has not been used for a while.
+     */
+    public RateLimit(double permitsPerSecond, int burstSize) {
+        if (permitsPerSecond <= 0 || Double.isNaN(permitsPerSecond) || Double.isInfinite(permitsPerSecond)) {
+            throw new IllegalArgumentException("The number of permits per second has to be positive.");
+        } else if (burstSize <= 0) {
+            throw new IllegalArgumentException("The burst size has to be positive.");
+        }
+
+        this.permitsPerSecond = permitsPerSecond;
+        this.burstSize = burstSize;
+    }
+
+    /**
+     * @return The number of requests allowed per second.
+     */
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    /**
+     * @return The number of requests that can be sent at once.
+     */
+    public int getBurstSize() {
+        return burstSize;
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
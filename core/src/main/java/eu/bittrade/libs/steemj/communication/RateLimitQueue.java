@@ -0,0 +1,233 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCBatchRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.configuration.SteemJContext;
+
+/**
+ * This class holds the calls to a single endpoint that wait for their
+ * {@link RateLimit rate limits}.
+ *
+ * <p>
+ * Each waiting call has reserved a point in time at which its permits are
+ * available. Once such a point in time is reached, the call that is sent is
+ * chosen by the priority of the waiting calls (see {@link PriorityLanes})
+ * instead of the order of the reservations, so a broadcast does not wait
+ * behind all bulk reads that arrived before it. As the chosen call only takes
+ * over the permit of the endpoint limit, it has to wait until its own API and
+ * method limits allow it.
+ * </p>
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+class RateLimitQueue {
+    private final URI endpointUri;
+    private final RateLimiter rateLimiter;
+    private final ScheduledExecutorService scheduler;
+    private final SteemJContext context;
+    private final PriorityLanes<WaitingCall> waitingCalls;
+    /** The timers of the points in time at which a waiting call is sent. */
+    private final List<Slot> slots;
+
+    /**
+     * Create a new {@link RateLimitQueue} instance.
+     *
+     * @param endpointUri
+     *            The endpoint the calls are sent to.
+     * @param rateLimiter
+     *            The rate limiter the permits have been reserved from.
+     * @param scheduler
+     *            The scheduler used to wait for the permits.
+     * @param context
+     *            The context providing the priorities of the requests and the
+     *            weight of the queue of each priority.
+     */
+    RateLimitQueue(URI endpointUri, RateLimiter rateLimiter, ScheduledExecutorService scheduler,
+            SteemJContext context) {
+        this.endpointUri = endpointUri;
+        this.rateLimiter = rateLimiter;
+        this.scheduler = scheduler;
+        this.context = context;
+        this.waitingCalls = new PriorityLanes<>(context.getPriorityWeights());
+        this.slots = new ArrayList<>();
+    }
+
+    /**
+     * Add a call whose permits have been reserved.
+     *
+     * @param requests
+     *            The requests sent by the call.
+     * @param reservation
+     *            The permits reserved for the call.
+     * @param send
+     *            Sends the call. It is executed by the scheduler, so it must
+     *            not block.
+     * @return A handle to {@link #remove(Object) remove} the call if it is no
+     *         longer needed.
+     * @throws RejectedExecutionException
+     *             If the scheduler has been shut down. The call has not been
+     *             added in this case.
+     */
+    synchronized Object add(List<JsonRPCRequest> requests, RateLimiter.Reservation reservation, Runnable send) {
+        long now = System.nanoTime();
+        WaitingCall waitingCall = new WaitingCall(requests, now + reservation.getRequestWait(), send);
+
+        schedule(now + reservation.getWait());
+        waitingCalls.add(waitingCall, JsonRPCBatchRequest.getHighestPriority(requests, context));
+
+        return waitingCall;
+    }
+
+    /**
+     * Remove a call that has not been sent yet and give its permits back.
+     *
+     * @param handle
+     *            The handle returned by
+     *            {@link #add(List, RateLimiter.Reservation, Runnable)}.
+     * @return <code>true</code> if the call has been removed before it has
+     *         been sent.
+     */
+    boolean remove(Object handle) {
+        WaitingCall waitingCall = (WaitingCall) handle;
+        boolean slotCancelled = false;
+        synchronized (this) {
+            if (!waitingCalls.remove(waitingCall)) {
+                return false;
+            }
+
+            // One point in time less is needed. The latest one is given up,
+            // as it is the least useful for the remaining calls.
+            Slot latestSlot = null;
+            for (Slot slot : slots) {
+                if (latestSlot == null || slot.time - latestSlot.time > 0) {
+                    latestSlot = slot;
+                }
+            }
+
+            if (latestSlot != null && latestSlot.timer.cancel(false)) {
+                slots.remove(latestSlot);
+                slotCancelled = true;
+            }
+        }
+
+        rateLimiter.refund(slotCancelled ? endpointUri : null, waitingCall.requests);
+        return true;
+    }
+
+    /**
+     * @return The number of calls waiting for their rate limits.
+     */
+    synchronized int size() {
+        return waitingCalls.size();
+    }
+
+    /**
+     * Schedule a point in time at which a waiting call is sent.
+     *
+     * @param time
+     *            The point in time as a value of {@link System#nanoTime()}.
+     */
+    private void schedule(long time) {
+        Slot slot = new Slot(time);
+        slot.timer = scheduler.schedule(() -> send(slot), Math.max(0, time - System.nanoTime()),
+                TimeUnit.NANOSECONDS);
+        slots.add(slot);
+    }
+
+    /**
+     * Send the waiting call that is due at the point in time of the given
+     * <code>slot</code>. If no call is allowed to be sent by its own limits
+     * yet, the slot is moved to the point in time at which the first one is.
+     *
+     * @param slot
+     *            The slot whose point in time has been reached.
+     */
+    private void send(Slot slot) {
+        WaitingCall waitingCall;
+        synchronized (this) {
+            slots.remove(slot);
+
+            long now = System.nanoTime();
+            waitingCall = waitingCalls.poll(call -> call.readyTime - now <= 0);
+            if (waitingCall == null) {
+                if (!waitingCalls.isEmpty()) {
+                    try {
+                        schedule(getEarliestReadyTime());
+                    } catch (RejectedExecutionException e) {
+                        // The handler has been closed.
+                    }
+                }
+
+                return;
+            }
+        }
+
+        waitingCall.send.run();
+    }
+
+    /**
+     * @return The earliest point in time at which the own limits of a waiting
+     *         call allow to send it.
+     */
+    private long getEarliestReadyTime() {
+        List<WaitingCall> calls = waitingCalls.getElements();
+        long earliestReadyTime = calls.get(0).readyTime;
+        for (WaitingCall call : calls) {
+            if (call.readyTime - earliestReadyTime < 0) {
+                earliestReadyTime = call.readyTime;
+            }
+        }
+
+        return earliestReadyTime;
+    }
+
+    /**
+     * A call waiting for its rate limits.
+     */
+    private static final class WaitingCall {
+        private final List<JsonRPCRequest> requests;
+        /** The point in time at which the API and method limits allow it. */
+        private final long readyTime;
+        private final Runnable send;
+
+        /**
+         * @param requests
+         *            The requests sent by the call.
+         * @param readyTime
+         *            The point in time at which the API and method limits
+         *            allow the call.
+         * @param send
+         *            Sends the call.
+         */
+        WaitingCall(List<JsonRPCRequest> requests, long readyTime, Runnable send) {
+            this.requests = Collections.unmodifiableList(new ArrayList<>(requests));
+            this.readyTime = readyTime;
+            this.send = send;
+        }
+    }
+
+    /**
+     * A point in time at which the endpoint limit allows to send a call.
+     */
+    private static final class Slot {
+        private final long time;
+        private ScheduledFuture<?> timer;
+
+        /**
+         * @param time
+         *            The point in time as a value of {@link System#nanoTime()}.
+         */
+        Slot(long time) {
+            this.time = time;
+        }
+    }
+}
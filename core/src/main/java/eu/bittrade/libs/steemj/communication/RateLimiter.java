@@ -0,0 +1,240 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.configuration.SteemJContext;
+import eu.bittrade.libs.steemj.exceptions.SteemRateLimitException;
+
+/**
+ * This class enforces the {@link RateLimit rate limits} of a
+ * {@link SteemJContext}: One {@link TokenBucket} per endpoint, per API and per
+ * method.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+class RateLimiter {
+    private final ConcurrentMap<Object, TokenBucket> tokenBuckets = new ConcurrentHashMap<>();
+    /** The context providing the rate limits. */
+    private final SteemJContext context;
+
+    /**
+     * Create a new {@link RateLimiter} instance.
+     *
+     * @param context
+     *            The context providing the rate limits.
+     */
+    RateLimiter(SteemJContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Reserve the permits required to send the given <code>requests</code> to
+     * the <code>endpoint</code> in a single HTTP request or WebSocket message.
+     * The endpoint limit is charged once, while the API and method limits are
+     * charged for each request.
+     *
+     * @param endpoint
+     *            The endpoint the requests will be sent to.
+     * @param requests
+     *            The requests to send.
+     * @param maxWait
+     *            The maximum time in milliseconds the caller is willing to wait
+     *            for the permits.
+     * @return The time in nanoseconds the caller has to wait before the
+     *         requests may be sent.
+     * @throws SteemRateLimitException
+     *             If one of the limits does not allow to send the requests
+     *             within <code>maxWait</code>. No permits are reserved in this
+     *             case.
+     */
+    long reserve(URI endpoint, List<JsonRPCRequest> requests, long maxWait) throws SteemRateLimitException {
+        return reservePermits(endpoint, requests, maxWait).getWait();
+    }
+
+    /**
+     * Reserve the permits required to send the given <code>requests</code> to
+     * the <code>endpoint</code> (see {@link #reserve(URI, List, long)}).
+     *
+     * @param endpoint
+     *            The endpoint the requests will be sent to.
+     * @param requests
+     *            The requests to send.
+     * @param maxWait
+     *            The maximum time in milliseconds the caller is willing to wait
+     *            for the permits.
+     * @return The reservation telling how long the caller has to wait.
+     * @throws SteemRateLimitException
+     *             If one of the limits does not allow to send the requests
+     *             within <code>maxWait</code>. No permits are reserved in this
+     *             case.
+     */
+    Reservation reservePermits(URI endpoint, List<JsonRPCRequest> requests, long maxWait)
+            throws SteemRateLimitException {
+        long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWait);
+
+        List<TokenBucket> reservedBuckets = new ArrayList<>();
+        long endpointWait = reserve(endpoint, context.getEndpointRateLimit(), maxWaitNanos, reservedBuckets);
+        long requestWait = 0;
+
+        for (JsonRPCRequest request : requests) {
+            if (endpointWait >= 0 && requestWait >= 0 && request.getSteemApi() != null) {
+                requestWait = combine(requestWait, reserve(request.getSteemApi(),
+                        context.getApiRateLimit(request.getSteemApi()), maxWaitNanos, reservedBuckets));
+            }
+
+            if (endpointWait >= 0 && requestWait >= 0 && request.getApiMethod() != null) {
+                requestWait = combine(requestWait, reserve(request.getApiMethod(),
+                        context.getMethodRateLimit(request.getApiMethod()), maxWaitNanos, reservedBuckets));
+            }
+        }
+
+        if (endpointWait < 0 || requestWait < 0) {
+            for (TokenBucket tokenBucket : reservedBuckets) {
+                tokenBucket.refund(1);
+            }
+
+            throw new SteemRateLimitException("The rate limit does not allow to send the request to " + endpoint
+                    + " within " + maxWait + " ms.");
+        }
+
+        return new Reservation(endpointWait, requestWait);
+    }
+
+    /**
+     * Give back the permits of a reservation whose requests have not been
+     * sent.
+     *
+     * @param endpoint
+     *            The endpoint the requests would have been sent to or
+     *            <code>null</code> to keep the permit of the endpoint limit.
+     * @param requests
+     *            The requests that have not been sent.
+     */
+    void refund(URI endpoint, List<JsonRPCRequest> requests) {
+        refund(endpoint);
+
+        for (JsonRPCRequest request : requests) {
+            refund(request.getSteemApi());
+            refund(request.getApiMethod());
+        }
+    }
+
+    /**
+     * Reserve a single permit of the bucket with the given <code>key</code>.
+     *
+     * @param key
+     *            The endpoint, API or method.
+     * @param rateLimit
+     *            The configured rate limit for the <code>key</code>.
+     * @param maxWait
+     *            The maximum wait time in nanoseconds.
+     * @param reservedBuckets
+     *            The buckets a permit has been reserved from so far.
+     * @return The time in nanoseconds to wait or -1 if the permit is not
+     *         available in time.
+     */
+    private long reserve(Object key, RateLimit rateLimit, long maxWait, List<TokenBucket> reservedBuckets) {
+        if (rateLimit == null) {
+            tokenBuckets.remove(key);
+            return 0;
+        }
+
+        TokenBucket tokenBucket = tokenBuckets.compute(key, (bucketKey, existingTokenBucket) -> {
+            if (existingTokenBucket == null || existingTokenBucket.getRateLimit() != rateLimit) {
+                // The limit has been changed in the meantime.
+                return new TokenBucket(rateLimit);
+            }
+
+            return existingTokenBucket;
+        });
+
+        long wait = tokenBucket.reserve(1, maxWait);
+        if (wait >= 0) {
+            reservedBuckets.add(tokenBucket);
+        }
+
+        return wait;
+    }
+
+    /**
+     * Combine the wait times of two reservations.
+     *
+     * @param wait
+     *            The wait time of the reservations so far.
+     * @param additionalWait
+     *            The wait time of another reservation.
+     * @return The longer wait time or -1 if one of the reservations has been
+     *         refused.
+     */
+    private static long combine(long wait, long additionalWait) {
+        if (wait < 0 || additionalWait < 0) {
+            return -1;
+        }
+
+        return Math.max(wait, additionalWait);
+    }
+
+    /**
+     * Give back a single permit of the bucket with the given <code>key</code>.
+     *
+     * @param key
+     *            The endpoint, API or method.
+     */
+    private void refund(Object key) {
+        if (key == null) {
+            return;
+        }
+
+        TokenBucket tokenBucket = tokenBuckets.get(key);
+        if (tokenBucket != null) {
+            tokenBucket.refund(1);
+        }
+    }
+
+    /**
+     * The permits reserved for a call.
+     */
+    static final class Reservation {
+        /** The time in nanoseconds until the endpoint limit allows the call. */
+        private final long endpointWait;
+        /** The time in nanoseconds until the API and method limits allow it. */
+        private final long requestWait;
+
+        /**
+         * @param endpointWait
+         *            The time in nanoseconds until the endpoint limit allows
+         *            the call.
+         * @param requestWait
+         *            The time in nanoseconds until the API and method limits
+         *            of the requests allow the call.
+         */
+        Reservation(long endpointWait, long requestWait) {
+            this.endpointWait = endpointWait;
+            this.requestWait = requestWait;
+        }
+
+        /**
+         * @return The time in nanoseconds the caller has to wait before the
+         *         call may be sent.
+         */
+        long getWait() {
+            return Math.max(endpointWait, requestWait);
+        }
+
+        /**
+         * @return The time in nanoseconds until the API and method limits of
+         *         the requests allow the call. The call may be sent before its
+         *         {@link #getWait() wait time} has passed if another call to
+         *         the same endpoint gives its endpoint permit up.
+         */
+        long getRequestWait() {
+            return requestWait;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLDecoder;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCBatchRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+import eu.bittrade.libs.steemj.exceptions.SteemResponseException;
+
+/**
+ * This client sends the requests to a real endpoint and appends each request
+ * together with the raw response of the node to a {@link RecordingFile}. The
+ * recording can be served back by the {@link ReplayClient}, e.g. to benchmark
+ * the client side code offline.
+ *
+ * <p>
+ * The file and the endpoint are defined by the URI of the endpoint, which
+ * uses the <code>record</code> scheme:
+ * <code>record:///path/to/file?endpoint=https://api.steemit.com</code>. The
+ * requests are sent by the client of the first other
+ * {@link SteemJConfig#getClientFactories() configured factory} that supports
+ * the endpoint.
+ * </p>
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class RecordingClient extends AbstractClient {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecordingClient.class);
+    /** The scheme of the endpoints handled by this client. */
+    public static final String SCHEME = "record";
+    /** The query parameter defining the endpoint to record. */
+    public static final String ENDPOINT_PARAMETER = "endpoint";
+
+    /** The handler the clients sending the requests are created for. */
+    private final CommunicationHandler communicationHandler;
+    /** The clients sending the requests, per factory. */
+    private final ConcurrentMap<ClientFactory, AbstractClient> delegates = new ConcurrentHashMap<>();
+    /** The open recordings, per file. */
+    private final ConcurrentMap<File, RecordingFile> recordingFiles = new ConcurrentHashMap<>();
+
+    /**
+     * Initialize a new recording client.
+     *
+     * @param communicationHandler
+     *            The handler the clients sending the requests are created
+     *            for.
+     */
+    public RecordingClient(CommunicationHandler communicationHandler) {
+        this.communicationHandler = communicationHandler;
+    }
+
+    @Override
+    public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
+            boolean sslVerificationDisabled) throws SteemCommunicationException, SteemResponseException {
+        return await(invokeAndReadResponseAsync(requestObject, endpointUri, sslVerificationDisabled,
+                CALLING_THREAD_EXECUTOR));
+    }
+
+    @Override
+    public CompletableFuture<JsonRPCResponse> invokeAndReadResponseAsync(JsonRPCRequest requestObject,
+            URI endpointUri, boolean sslVerificationDisabled, Executor executor) {
+        try {
+            URI targetUri = getTargetUri(endpointUri);
+            RecordingFile recordingFile = getRecordingFile(endpointUri);
+            // The result is not decoded while reading, so the raw response
+            // contains the result field.
+            JsonRPCRequest rawRequest = requestObject.copy();
+            rawRequest.setResultType(null);
+
+            long timestamp = System.currentTimeMillis();
+            long startTime = System.nanoTime();
+            return getDelegate(targetUri)
+                    .invokeAndReadResponseAsync(rawRequest, targetUri, sslVerificationDisabled, executor)
+                    .thenApply(response -> {
+                        record(recordingFile, timestamp, System.nanoTime() - startTime, rawRequest, response);
+                        return response;
+                    });
+        } catch (SteemCommunicationException | RuntimeException e) {
+            CompletableFuture<JsonRPCResponse> response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+            return response;
+        }
+    }
+
+    @Override
+    public List<JsonRPCResponse> invokeAndReadResponse(JsonRPCBatchRequest batchRequest, URI endpointUri,
+            boolean sslVerificationDisabled) throws SteemCommunicationException, SteemResponseException {
+        return await(invokeAndReadResponseAsync(batchRequest, endpointUri, sslVerificationDisabled,
+                CALLING_THREAD_EXECUTOR));
+    }
+
+    @Override
+    public CompletableFuture<List<JsonRPCResponse>> invokeAndReadResponseAsync(JsonRPCBatchRequest batchRequest,
+            URI endpointUri, boolean sslVerificationDisabled, Executor executor) {
+        try {
+            URI targetUri = getTargetUri(endpointUri);
+            RecordingFile recordingFile = getRecordingFile(endpointUri);
+            List<JsonRPCRequest> rawRequests = new ArrayList<>(batchRequest.size());
+            for (JsonRPCRequest requestObject : batchRequest.getRequests()) {
+                JsonRPCRequest rawRequest = requestObject.copy();
+                rawRequest.setResultType(null);
+                rawRequests.add(rawRequest);
+            }
+
+            long timestamp = System.currentTimeMillis();
+            long startTime = System.nanoTime();
+            return getDelegate(targetUri).invokeAndReadResponseAsync(new JsonRPCBatchRequest(rawRequests), targetUri,
+                    sslVerificationDisabled, executor).thenApply(responses -> {
+                        long latency = System.nanoTime() - startTime;
+                        for (int i = 0; i < responses.size(); i++) {
+                            record(recordingFile, timestamp, latency, rawRequests.get(i), responses.get(i));
+                        }
+
+                        return responses;
+                    });
+        } catch (SteemCommunicationException | RuntimeException e) {
+            CompletableFuture<List<JsonRPCResponse>> responses = new CompletableFuture<>();
+            responses.completeExceptionally(e);
+            return responses;
+        }
+    }
+
+    @Override
+    public void closeConnection() throws IOException {
+        IOException closeException = null;
+        for (AbstractClient delegate : delegates.values()) {
+            try {
+                delegate.closeConnection();
+            } catch (IOException e) {
+                closeException = e;
+            }
+        }
+
+        delegates.clear();
+
+        for (RecordingFile recordingFile : recordingFiles.values()) {
+            try {
+                recordingFile.close();
+            } catch (IOException e) {
+                closeException = e;
+            }
+        }
+
+        recordingFiles.clear();
+
+        if (closeException != null) {
+            throw closeException;
+        }
+    }
+
+    /**
+     * Get the file a <code>record</code> or <code>replay</code> endpoint
+     * refers to.
+     *
+     * @param endpointUri
+     *            The endpoint.
+     * @return The file.
+     * @throws SteemCommunicationException
+     *             If the endpoint does not define a file.
+     */
+    static File getFile(URI endpointUri) throws SteemCommunicationException {
+        if (endpointUri.getPath() == null || endpointUri.getPath().isEmpty()) {
+            throw new SteemCommunicationException("The endpoint " + endpointUri + " does not define a file.");
+        }
+
+        return new File(endpointUri.getPath());
+    }
+
+    /**
+     * Get the value of a query parameter of the given <code>endpointUri</code>.
+     *
+     * @param endpointUri
+     *            The endpoint.
+     * @param name
+     *            The name of the parameter.
+     * @return The decoded value or <code>null</code> if the parameter is not
+     *         set.
+     */
+    static String getParameter(URI endpointUri, String name) {
+        if (endpointUri.getRawQuery() == null) {
+            return null;
+        }
+
+        for (String parameter : endpointUri.getRawQuery().split("&")) {
+            String[] nameAndValue = parameter.split("=", 2);
+            if (nameAndValue.length == 2 && nameAndValue[0].equals(name)) {
+                try {
+                    return URLDecoder.decode(nameAndValue[1], "UTF-8");
+                } catch (UnsupportedEncodingException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Get the endpoint a <code>record</code> endpoint sends the requests to.
+     *
+     * @param endpointUri
+     *            The <code>record</code> endpoint.
+     * @return The endpoint to record.
+     * @throws SteemCommunicationException
+     *             If the endpoint to record is missing or invalid.
+     */
+    private static URI getTargetUri(URI endpointUri) throws SteemCommunicationException {
+        String targetUri = getParameter(endpointUri, ENDPOINT_PARAMETER);
+        if (targetUri == null) {
+            throw new SteemCommunicationException(
+                    "The endpoint " + endpointUri + " does not define the '" + ENDPOINT_PARAMETER + "' to record.");
+        }
+
+        try {
+            return new URI(targetUri);
+        } catch (URISyntaxException e) {
+            throw new SteemCommunicationException("The endpoint to record is invalid: " + targetUri, e);
+        }
+    }
+
+    /**
+     * Get the recording the exchanges with the given <code>endpointUri</code>
+     * are appended to.
+     *
+     * @param endpointUri
+     *            The <code>record</code> endpoint.
+     * @return The recording.
+     * @throws SteemCommunicationException
+     *             If the file could not be opened.
+     */
+    private RecordingFile getRecordingFile(URI endpointUri) throws SteemCommunicationException {
+        File file = getFile(endpointUri);
+        RecordingFile recordingFile = recordingFiles.get(file);
+        if (recordingFile != null) {
+            return recordingFile;
+        }
+
+        synchronized (recordingFiles) {
+            recordingFile = recordingFiles.get(file);
+            if (recordingFile == null) {
+                try {
+                    recordingFile = new RecordingFile(file);
+                } catch (IOException e) {
+                    throw new SteemCommunicationException("Could not open the recording " + file + ".", e);
+                }
+
+                recordingFiles.put(file, recordingFile);
+            }
+
+            return recordingFile;
+        }
+    }
+
+    /**
+     * Get the client that sends the requests to the given
+     * <code>targetUri</code>.
+     *
+     * @param targetUri
+     *            The endpoint to record.
+     * @return The client.
+     * @throws InvalidParameterException
+     *             If no {@link AbstractClient} implementation for the protocol
+     *             of the endpoint is available.
+     */
+    private AbstractClient getDelegate(URI targetUri) {
+        for (ClientFactory clientFactory : communicationHandler.getContext().getClientFactories()) {
+            if (!(clientFactory instanceof RecordingClientFactory) && clientFactory.supports(targetUri)) {
+                return delegates.computeIfAbsent(clientFactory,
+                        factory -> factory.createClient(communicationHandler));
+            }
+        }
+
+        throw new InvalidParameterException(
+                "No client implementation for the following protocol available: " + targetUri.getScheme());
+    }
+
+    /**
+     * Append the given exchange to the <code>recordingFile</code>. A failure
+     * is logged, but does not fail the request.
+     *
+     * @param recordingFile
+     *            The recording to append to.
+     * @param timestamp
+     *            The time the request has been sent in milliseconds since the
+     *            epoch.
+     * @param latency
+     *            The time in nanoseconds it took to receive the response.
+     * @param requestObject
+     *            The request.
+     * @param response
+     *            The raw response.
+     */
+    private static void record(RecordingFile recordingFile, long timestamp, long latency,
+            JsonRPCRequest requestObject, JsonRPCResponse response) {
+        try {
+            recordingFile.append(timestamp, latency, requestObject.toJson(), response.getRawJsonResponse().toString());
+        } catch (IOException e) {
+            LOGGER.warn("Could not record the response to the request with the id {}.", requestObject.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.net.URI;
+
+/**
+ * A {@link ClientFactory} creating {@link RecordingClient} instances for
+ * endpoints using the <code>record</code> scheme.
+ * 
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class RecordingClientFactory implements ClientFactory {
+    @Override
+    public boolean supports(URI endpointUri) {
+        return RecordingClient.SCHEME.equalsIgnoreCase(endpointUri.getScheme());
+    }
+
+    @Override
+    public AbstractClient createClient(CommunicationHandler communicationHandler) {
+        return new RecordingClient(communicationHandler);
+    }
+}
@@ -0,0 +1,256 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+
+/**
+ * An append-only file containing the requests recorded by the
+ * {@link RecordingClient} together with the raw responses of the node.
+ *
+ * <p>
+ * Each exchange is stored as a single record:
+ * </p>
+ *
+ * <ul>
+ * <li>The record version (1 byte).</li>
+ * <li>The time the request has been sent in milliseconds since the epoch (8
+ * bytes).</li>
+ * <li>The time in nanoseconds it took to receive the response (8 bytes).</li>
+ * <li>The length of the deflated payload (4 bytes).</li>
+ * <li>The deflated payload, which contains the length prefixed UTF-8 encoded
+ * request and response.</li>
+ * </ul>
+ *
+ * Each record is written using a single write operation, so several
+ * recording clients can append to the same file.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+class RecordingFile implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecordingFile.class);
+    private static final byte VERSION = 1;
+
+    private final FileOutputStream outputStream;
+
+    /**
+     * Open the given <code>file</code> for appending. The file is created if
+     * it does not exist.
+     *
+     * @param file
+     *            The file to append to.
+     * @throws IOException
+     *             If the file can't be opened.
+     */
+    RecordingFile(File file) throws IOException {
+        this.outputStream = new FileOutputStream(file, true);
+    }
+
+    /**
+     * Append an exchange to the file.
+     *
+     * @param timestamp
+     *            The time the request has been sent in milliseconds since the
+     *            epoch.
+     * @param latency
+     *            The time in nanoseconds it took to receive the response.
+     * @param request
+     *            The request as JSON.
+     * @param response
+     *            The raw response as JSON.
+     * @throws IOException
+     *             If the exchange could not be written.
+     */
+    synchronized void append(long timestamp, long latency, String request, String response) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (DataOutputStream payloadOutput = new DataOutputStream(new DeflaterOutputStream(payload))) {
+            writeString(payloadOutput, request);
+            writeString(payloadOutput, response);
+        }
+
+        ByteArrayOutputStream record = new ByteArrayOutputStream(payload.size() + 21);
+        DataOutputStream recordOutput = new DataOutputStream(record);
+        recordOutput.writeByte(VERSION);
+        recordOutput.writeLong(timestamp);
+        recordOutput.writeLong(latency);
+        recordOutput.writeInt(payload.size());
+        payload.writeTo(recordOutput);
+        recordOutput.flush();
+
+        outputStream.write(record.toByteArray());
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        outputStream.close();
+    }
+
+    /**
+     * Read all exchanges of the given <code>file</code>. A record that has
+     * been written incompletely, e.g. because the recording process has been
+     * killed, is ignored.
+     *
+     * @param file
+     *            The file to read.
+     * @return The exchanges in the order they have been recorded.
+     * @throws IOException
+     *             If the file can't be read or is no recording.
+     */
+    static List<Exchange> read(File file) throws IOException {
+        List<Exchange> exchanges = new ArrayList<>();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            int version;
+            while ((version = input.read()) != -1) {
+                if (version != VERSION) {
+                    throw new IOException("The file " + file + " contains a record of the unknown version " + version
+                            + " at position " + exchanges.size() + ".");
+                }
+
+                try {
+                    long timestamp = input.readLong();
+                    long latency = input.readLong();
+                    byte[] payload = new byte[input.readInt()];
+                    input.readFully(payload);
+
+                    try (DataInputStream payloadInput = new DataInputStream(
+                            new InflaterInputStream(new ByteArrayInputStream(payload)))) {
+                        exchanges.add(new Exchange(timestamp, latency, readString(payloadInput),
+                                readString(payloadInput)));
+                    }
+                } catch (EOFException e) {
+                    LOGGER.warn("Ignoring the incomplete last record of {}.", file);
+                    break;
+                }
+            }
+        }
+
+        return exchanges;
+    }
+
+    /**
+     * Get the key used to match a replayed request with the recorded ones.
+     * Requests match if they call the same method of the same api using the
+     * same parameters.
+     *
+     * @param request
+     *            The request as JSON.
+     * @return The key.
+     * @throws IOException
+     *             If the request is no valid JSON.
+     */
+    static String getKey(String request) throws IOException {
+        JsonNode params = CommunicationHandler.getObjectMapper().readTree(request)
+                .get(JsonRPCResponse.PARAMETERS_FIELD_NAME);
+        return params == null ? "" : params.toString();
+    }
+
+    /**
+     * Write the given <code>value</code> as length prefixed UTF-8.
+     *
+     * @param output
+     *            The stream to write to.
+     * @param value
+     *            The value to write.
+     * @throws IOException
+     *             If the value could not be written.
+     */
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Read a value written by {@link #writeString(DataOutputStream, String)}.
+     *
+     * @param input
+     *            The stream to read from.
+     * @return The value.
+     * @throws IOException
+     *             If the value could not be read.
+     */
+    private static String readString(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A recorded request together with the raw response of the node.
+     */
+    static class Exchange {
+        private final long timestamp;
+        private final long latency;
+        private final String request;
+        private final String response;
+
+        /**
+         * Create a new {@link Exchange} instance.
+         *
+         * @param timestamp
+         *            The time the request has been sent in milliseconds since
+         *            the epoch.
+         * @param latency
+         *            The time in nanoseconds it took to receive the response.
+         * @param request
+         *            The request as JSON.
+         * @param response
+         *            The raw response as JSON.
+         */
+        Exchange(long timestamp, long latency, String request, String response) {
+            this.timestamp = timestamp;
+            this.latency = latency;
+            this.request = request;
+            this.response = response;
+        }
+
+        /**
+         * @return The time the request has been sent in milliseconds since the
+         *         epoch.
+         */
+        long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * @return The time in nanoseconds it took to receive the response.
+         */
+        long getLatency() {
+            return latency;
+        }
+
+        /**
+         * @return The request as JSON.
+         */
+        String getRequest() {
+            return request;
+        }
+
+        /**
+         * @return The raw response as JSON.
+         */
+        String getResponse() {
+            return response;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import eu.bittrade.libs.steemj.communication.RecordingFile.Exchange;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCBatchRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+import eu.bittrade.libs.steemj.exceptions.SteemResponseException;
+
+/**
+ * This client answers the requests using the responses recorded by the
+ * {@link RecordingClient} without connecting to a node, e.g. to benchmark the
+ * client side code offline.
+ *
+ * <p>
+ * The file is defined by the URI of the endpoint, which uses the
+ * <code>replay</code> scheme: <code>replay:///path/to/file</code>. By
+ * default, the responses are served as fast as possible. Adding
+ * <code>?pacing=recorded</code> delays each response by the time it took the
+ * node to answer while recording.
+ * </p>
+ *
+ * <p>
+ * A request is answered with a response recorded for the same method, api and
+ * parameters, while the id is replaced by the one of the request. If the same
+ * request has been recorded several times, the responses are served in the
+ * recorded order and the last one is repeated afterwards.
+ * </p>
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class ReplayClient extends AbstractClient {
+    /** The scheme of the endpoints handled by this client. */
+    public static final String SCHEME = "replay";
+    /** The query parameter defining the pacing of the responses. */
+    public static final String PACING_PARAMETER = "pacing";
+    /** The pacing that delays each response by its recorded latency. */
+    public static final String RECORDED_PACING = "recorded";
+
+    /** The recordings that have been loaded, per file. */
+    private final ConcurrentMap<File, Recording> recordings = new ConcurrentHashMap<>();
+    /** The scheduler used to delay the responses, if they are paced. */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Initialize a new replay client.
+     */
+    public ReplayClient() {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "steemj-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
+            boolean sslVerificationDisabled) throws SteemCommunicationException, SteemResponseException {
+        return await(invokeAndReadResponseAsync(requestObject, endpointUri, sslVerificationDisabled,
+                CALLING_THREAD_EXECUTOR));
+    }
+
+    @Override
+    public CompletableFuture<JsonRPCResponse> invokeAndReadResponseAsync(JsonRPCRequest requestObject,
+            URI endpointUri, boolean sslVerificationDisabled, Executor executor) {
+        CompletableFuture<JsonRPCResponse> response = new CompletableFuture<>();
+        try {
+            Exchange exchange = getRecording(endpointUri).next(requestObject);
+            complete(response, () -> createResponse(exchange, requestObject), getDelay(endpointUri, exchange),
+                    executor);
+        } catch (SteemCommunicationException | RuntimeException e) {
+            response.completeExceptionally(e);
+        }
+
+        return response;
+    }
+
+    @Override
+    public List<JsonRPCResponse> invokeAndReadResponse(JsonRPCBatchRequest batchRequest, URI endpointUri,
+            boolean sslVerificationDisabled) throws SteemCommunicationException, SteemResponseException {
+        return await(invokeAndReadResponseAsync(batchRequest, endpointUri, sslVerificationDisabled,
+                CALLING_THREAD_EXECUTOR));
+    }
+
+    @Override
+    public CompletableFuture<List<JsonRPCResponse>> invokeAndReadResponseAsync(JsonRPCBatchRequest batchRequest,
+            URI endpointUri, boolean sslVerificationDisabled, Executor executor) {
+        CompletableFuture<List<JsonRPCResponse>> responses = new CompletableFuture<>();
+        try {
+            Recording recording = getRecording(endpointUri);
+            List<Exchange> exchanges = new ArrayList<>(batchRequest.size());
+            long delay = 0;
+            for (JsonRPCRequest requestObject : batchRequest.getRequests()) {
+                Exchange exchange = recording.next(requestObject);
+                exchanges.add(exchange);
+                delay = Math.max(delay, getDelay(endpointUri, exchange));
+            }
+
+            complete(responses, () -> {
+                List<JsonRPCResponse> batchResponses = new ArrayList<>(exchanges.size());
+                for (int i = 0; i < exchanges.size(); i++) {
+                    batchResponses.add(createResponse(exchanges.get(i), batchRequest.getRequests().get(i)));
+                }
+
+                return batchResponses;
+            }, delay, executor);
+        } catch (SteemCommunicationException | RuntimeException e) {
+            responses.completeExceptionally(e);
+        }
+
+        return responses;
+    }
+
+    @Override
+    public void closeConnection() throws IOException {
+        scheduler.shutdownNow();
+        recordings.clear();
+    }
+
+    /**
+     * Get the recording a <code>replay</code> endpoint refers to. The file is
+     * read when the endpoint is used for the first time.
+     *
+     * @param endpointUri
+     *            The <code>replay</code> endpoint.
+     * @return The recording.
+     * @throws SteemCommunicationException
+     *             If the file could not be read.
+     */
+    private Recording getRecording(URI endpointUri) throws SteemCommunicationException {
+        File file = RecordingClient.getFile(endpointUri);
+        Recording recording = recordings.get(file);
+        if (recording != null) {
+            return recording;
+        }
+
+        synchronized (recordings) {
+            recording = recordings.get(file);
+            if (recording == null) {
+                try {
+                    recording = new Recording(RecordingFile.read(file));
+                } catch (IOException e) {
+                    throw new SteemCommunicationException("Could not read the recording " + file + ".", e);
+                }
+
+                recordings.put(file, recording);
+            }
+
+            return recording;
+        }
+    }
+
+    /**
+     * Get the time in nanoseconds the response of the given
+     * <code>exchange</code> is delayed.
+     *
+     * @param endpointUri
+     *            The <code>replay</code> endpoint.
+     * @param exchange
+     *            The recorded exchange.
+     * @return The delay.
+     * @throws SteemCommunicationException
+     *             If the endpoint defines an unknown pacing.
+     */
+    private static long getDelay(URI endpointUri, Exchange exchange) throws SteemCommunicationException {
+        String pacing = RecordingClient.getParameter(endpointUri, PACING_PARAMETER);
+        if (pacing == null) {
+            return 0;
+        } else if (RECORDED_PACING.equals(pacing)) {
+            return exchange.getLatency();
+        }
+
+        throw new SteemCommunicationException("The endpoint " + endpointUri + " defines the unknown pacing '" + pacing
+                + "'. Only '" + RECORDED_PACING + "' is supported.");
+    }
+
+    /**
+     * Complete the given <code>future</code> with the value created by the
+     * <code>supplier</code> after the given <code>delay</code>.
+     *
+     * @param future
+     *            The future to complete.
+     * @param supplier
+     *            Creates the value.
+     * @param delay
+     *            The delay in nanoseconds.
+     * @param executor
+     *            The {@link Executor} used to create the value.
+     * @param <T>
+     *            The type of the value.
+     */
+    private <T> void complete(CompletableFuture<T> future, ResponseSupplier<T> supplier, long delay,
+            Executor executor) {
+        Runnable completion = () -> {
+            try {
+                future.complete(supplier.get());
+            } catch (SteemResponseException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        };
+
+        try {
+            if (delay > 0) {
+                scheduler.schedule(() -> {
+                    try {
+                        executor.execute(completion);
+                    } catch (RejectedExecutionException e) {
+                        future.completeExceptionally(e);
+                    }
+                }, delay, TimeUnit.NANOSECONDS);
+            } else {
+                executor.execute(completion);
+            }
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Create the response to the given <code>requestObject</code> from the
+     * recorded <code>exchange</code>. The result is decoded into the
+     * {@link JsonRPCRequest#getResultType() expected type} while reading, as
+     * done by the other clients.
+     *
+     * @param exchange
+     *            The recorded exchange.
+     * @param requestObject
+     *            The request to answer.
+     * @return The response.
+     * @throws SteemResponseException
+     *             If the recorded response could not be read.
+     */
+    private static JsonRPCResponse createResponse(Exchange exchange, JsonRPCRequest requestObject)
+            throws SteemResponseException {
+        try (JsonParser parser = CommunicationHandler.getObjectMapper().getFactory()
+                .createParser(exchange.getResponse())) {
+            JsonRPCResponse response = JsonRPCResponse.readFrom(parser, requestObject.getResultType());
+            if (response.getRawJsonResponse() instanceof ObjectNode) {
+                ((ObjectNode) response.getRawJsonResponse()).put(JsonRPCResponse.ID_FIELD_NAME,
+                        requestObject.getId());
+            }
+
+            return response;
+        } catch (IOException e) {
+            throw new SteemResponseException("Could not read the recorded response: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates a value that is used to complete a future.
+     *
+     * @param <T>
+     *            The type of the value.
+     */
+    private interface ResponseSupplier<T> {
+        /**
+         * @return The value.
+         * @throws SteemResponseException
+         *             If the value could not be created.
+         */
+        T get() throws SteemResponseException;
+    }
+
+    /**
+     * The recorded exchanges of a file, grouped by their requests.
+     */
+    private static class Recording {
+        private final Map<String, Deque<Exchange>> exchanges = new HashMap<>();
+
+        /**
+         * Create a new {@link Recording} instance.
+         *
+         * @param recordedExchanges
+         *            The exchanges in the order they have been recorded.
+         * @throws IOException
+         *             If a recorded request is no valid JSON.
+         */
+        Recording(List<Exchange> recordedExchanges) throws IOException {
+            for (Exchange exchange : recordedExchanges) {
+                exchanges.computeIfAbsent(RecordingFile.getKey(exchange.getRequest()), key -> new ArrayDeque<>())
+                        .add(exchange);
+            }
+        }
+
+        /**
+         * Get the exchange used to answer the given <code>requestObject</code>.
+         *
+         * @param requestObject
+         *            The request to answer.
+         * @return The exchange.
+         * @throws SteemCommunicationException
+         *             If no response to the request has been recorded.
+         */
+        synchronized Exchange next(JsonRPCRequest requestObject) throws SteemCommunicationException {
+            Deque<Exchange> recordedExchanges;
+            try {
+                recordedExchanges = exchanges.get(RecordingFile.getKey(requestObject.toJson()));
+            } catch (IOException e) {
+                throw new SteemCommunicationException("Could not transform the request into JSON.", e);
+            }
+
+            if (recordedExchanges == null) {
+                throw new SteemCommunicationException("No response has been recorded for the "
+                        + requestObject.getApiMethod() + " request with the id " + requestObject.getId() + ".");
+            }
+
+            return recordedExchanges.size() > 1 ? recordedExchanges.poll() : recordedExchanges.peek();
+        }
+    }
+}
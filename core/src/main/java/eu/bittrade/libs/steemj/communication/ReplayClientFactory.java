@@ -0,0 +1,21 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.net.URI;
+
+/**
+ * A {@link ClientFactory} creating {@link ReplayClient} instances for
+ * endpoints using the <code>replay</code> scheme.
+ * 
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class ReplayClientFactory implements ClientFactory {
+    @Override
+    public boolean supports(URI endpointUri) {
+        return ReplayClient.SCHEME.equalsIgnoreCase(endpointUri.getScheme());
+    }
+
+    @Override
+    public AbstractClient createClient(CommunicationHandler communicationHandler) {
+        return new ReplayClient();
+    }
+}
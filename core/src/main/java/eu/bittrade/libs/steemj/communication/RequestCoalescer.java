@@ -0,0 +1,168 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+import eu.bittrade.libs.steemj.exceptions.SteemResponseException;
+
+/**
+ * This class lets concurrent, identical requests share a single call. The
+ * first caller for a key (the leader) performs the call, while all callers
+ * that arrive before the call has been completed receive its result. As soon
+ * as the call has been completed, the next caller for the same key performs
+ * a new call, so results are never cached.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+class RequestCoalescer {
+    /** The calls in flight, identified by their key. */
+    private final ConcurrentMap<Object, CompletableFuture<?>> inFlightCalls = new ConcurrentHashMap<>();
+
+    /**
+     * A blocking call that may fail with the exceptions of a request.
+     *
+     * @param <R>
+     *            The type of the result.
+     */
+    @FunctionalInterface
+    interface Call<R> {
+        /**
+         * Perform the call.
+         *
+         * @return The result of the call.
+         * @throws SteemCommunicationException
+         *             If there is a connection problem.
+         * @throws SteemResponseException
+         *             If the Server returned an error object.
+         */
+        R call() throws SteemCommunicationException, SteemResponseException;
+    }
+
+    /**
+     * Create the key that identifies the given <code>requestObject</code>.
+     * Two requests have the same key if they target the same API and method
+     * with the same parameters and expect the same result type. The id of the
+     * requests is ignored.
+     *
+     * @param requestObject
+     *            The request to create the key for.
+     * @param mapper
+     *            The mapper used to serialize the parameters of the request.
+     * @return The key or <code>null</code> if the parameters of the request
+     *         could not be serialized.
+     */
+    static Object createKey(JsonRPCRequest requestObject, ObjectMapper mapper) {
+        try {
+            return Arrays.asList(requestObject.getSteemApi(), requestObject.getApiMethod(),
+                    mapper.writeValueAsString(requestObject.getAdditionalParameters()),
+                    requestObject.getResultType());
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Perform the <code>call</code> unless a call with the same
+     * <code>key</code> is already in flight, in which case its result is
+     * used.
+     *
+     * @param key
+     *            The key that identifies the call.
+     * @param call
+     *            Supplies the future of the call if no call with the same
+     *            <code>key</code> is in flight.
+     * @param <R>
+     *            The type of the result.
+     * @return A future that is completed with the result of the call.
+     *         Cancelling it does not affect the other callers.
+     */
+    <R> CompletableFuture<R> coalesce(Object key, Supplier<CompletableFuture<R>> call) {
+        CompletableFuture<R> promise = new CompletableFuture<>();
+        @SuppressWarnings("unchecked")
+        CompletableFuture<R> inFlightCall = (CompletableFuture<R>) inFlightCalls.putIfAbsent(key, promise);
+        if (inFlightCall != null) {
+            return inFlightCall.thenApply(Function.identity());
+        }
+
+        CompletableFuture<R> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+        }
+
+        result.whenComplete((value, throwable) -> {
+            inFlightCalls.remove(key, promise);
+
+            if (throwable == null) {
+                promise.complete(value);
+            } else if (throwable instanceof CompletionException && throwable.getCause() != null) {
+                promise.completeExceptionally(throwable.getCause());
+            } else {
+                promise.completeExceptionally(throwable);
+            }
+        });
+
+        return promise.thenApply(Function.identity());
+    }
+
+    /**
+     * Perform the <code>call</code> in the calling thread unless a call with
+     * the same <code>key</code> is already in flight, in which case the
+     * calling thread waits for its result.
+     *
+     * @param key
+     *            The key that identifies the call.
+     * @param call
+     *            The call to perform if no call with the same
+     *            <code>key</code> is in flight.
+     * @param <R>
+     *            The type of the result.
+     * @return The result of the call.
+     * @throws SteemCommunicationException
+     *             If there is a connection problem.
+     * @throws SteemResponseException
+     *             If the Server returned an error object.
+     */
+    <R> R coalesceBlocking(Object key, Call<R> call) throws SteemCommunicationException, SteemResponseException {
+        CompletableFuture<R> promise = new CompletableFuture<>();
+        @SuppressWarnings("unchecked")
+        CompletableFuture<R> inFlightCall = (CompletableFuture<R>) inFlightCalls.putIfAbsent(key, promise);
+        if (inFlightCall != null) {
+            // Waiting on a dependent stage, so an interrupted caller does not
+            // cancel the call for the others.
+            return AbstractClient.await(inFlightCall.thenApply(Function.identity()));
+        }
+
+        try {
+            R result = call.call();
+            inFlightCalls.remove(key, promise);
+            promise.complete(result);
+
+            return result;
+        } catch (SteemCommunicationException | SteemResponseException | RuntimeException | Error e) {
+            inFlightCalls.remove(key, promise);
+            promise.completeExceptionally(e);
+
+            throw e;
+        }
+    }
+
+    /**
+     * @return The number of calls that are currently in flight.
+     */
+    int getNumberOfInFlightCalls() {
+        return inFlightCalls.size();
+    }
+}
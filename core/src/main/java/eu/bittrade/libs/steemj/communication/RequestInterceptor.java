@@ -0,0 +1,63 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+
+/**
+ * An interceptor that is called for each request the
+ * {@link CommunicationHandler} sends to a node, e.g. to cache, audit, sample
+ * or tag requests.
+ *
+ * <p>
+ * The {@link SteemJConfig#getRequestInterceptors() configured interceptors}
+ * form a chain: Each interceptor sees the request before it is sent and
+ * decides to either pass it, or a modified copy, to the next interceptor by
+ * calling {@link InterceptorChain#proceed(JsonRPCRequest)}, or to answer it
+ * on its own by returning a completed future (e.g. with a cached response).
+ * The future returned by {@link InterceptorChain#proceed(JsonRPCRequest)}
+ * provides the raw response before it is transformed into Java objects.
+ * </p>
+ *
+ * <p>
+ * Interceptors are called for every attempt of a request, so a retried or
+ * hedged request passes them more than once. The requests of a batch pass the
+ * interceptors one by one and only those that have been passed on are sent as
+ * batch. Additional interceptors can be registered through the
+ * {@link java.util.ServiceLoader} mechanism by listing them in a
+ * <code>META-INF/services/eu.bittrade.libs.steemj.communication.RequestInterceptor</code>
+ * file.
+ * </p>
+ *
+ * <pre>
+ * public CompletableFuture&lt;JsonRPCResponse&gt; intercept(JsonRPCRequest requestObject, URI endpointUri,
+ *         InterceptorChain chain) {
+ *     long startTime = System.currentTimeMillis();
+ *     return chain.proceed(requestObject).whenComplete((response, throwable) -&gt; LOGGER.info("{} took {} ms.",
+ *             requestObject.getApiMethod(), System.currentTimeMillis() - startTime));
+ * }
+ * </pre>
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public interface RequestInterceptor {
+    /**
+     * Intercept the given <code>requestObject</code>. This method is called
+     * by the thread sending the request and must not block.
+     *
+     * @param requestObject
+     *            The request that is about to be sent.
+     * @param endpointUri
+     *            The endpoint the request will be sent to.
+     * @param chain
+     *            Passes the request to the next interceptor or, if this is the
+     *            last one, sends it to the <code>endpointUri</code>.
+     * @return A future that will be completed with the raw response to the
+     *         <code>requestObject</code>.
+     */
+    CompletableFuture<JsonRPCResponse> intercept(JsonRPCRequest requestObject, URI endpointUri,
+            InterceptorChain chain);
+}
@@ -0,0 +1,193 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+import eu.bittrade.libs.steemj.exceptions.SteemRateLimitException;
+import eu.bittrade.libs.steemj.exceptions.SteemResponseException;
+import eu.bittrade.libs.steemj.exceptions.SteemTransformationException;
+
+/**
+ * This class defines if and when a failed request is retried.
+ *
+ * A request is retried as long as the number of attempts and the total
+ * deadline have not been exceeded and the failure is considered as transient.
+ * Connection problems and timeouts are transient, while errors returned by the
+ * node are only retried if their error code has been configured as retryable.
+ * The time between two attempts grows exponentially and contains a random
+ * part, so that clients do not retry in lockstep.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class RetryPolicy {
+    /** The default maximum number of attempts, including the first one. */
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+    /** The default time in milliseconds after which no retry is started. */
+    public static final long DEFAULT_DEADLINE = 30000L;
+    /** The default delay in milliseconds before the first retry. */
+    public static final long DEFAULT_INITIAL_BACKOFF = 100L;
+    /** The default maximum delay in milliseconds between two attempts. */
+    public static final long DEFAULT_MAX_BACKOFF = 5000L;
+    /** The JSON-RPC "internal error" code used by overloaded nodes. */
+    public static final int INTERNAL_ERROR_CODE = -32603;
+
+    private final int maxAttempts;
+    private final long deadline;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final Set<Integer> retryableErrorCodes;
+
+    /**
+     * Create a new {@link RetryPolicy} instance using the default values.
+     */
+    public RetryPolicy() {
+        this(DEFAULT_MAX_ATTEMPTS, DEFAULT_DEADLINE, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF,
+                new HashSet<>(Arrays.asList(INTERNAL_ERROR_CODE)));
+    }
+
+    /**
+     * Create a new {@link RetryPolicy} instance.
+     *
+     * @param maxAttempts
+     *            The maximum number of attempts, including the first one. Use 1
+     *            to disable retries.
+     * @param deadline
+     *            The time in milliseconds since the first attempt after which
+     *            no retry is started.
+     * @param initialBackoff
+     *            The delay in milliseconds before the first retry.
+     * @param maxBackoff
+     *            The maximum delay in milliseconds between two attempts.
+     * @param retryableErrorCodes
+     *            The error codes of {@link SteemResponseException
+     *            SteemResponseExceptions} that should be retried.
+     * @throws IllegalArgumentException
+     *             If one of the parameters is not valid.
+     */
+    public RetryPolicy(int maxAttempts, long deadline, long initialBackoff, long maxBackoff,
+            Set<Integer> retryableErrorCodes) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("The maximum number of attempts has to be positive.");
+        } else if (deadline < 0 || initialBackoff < 0) {
+            throw new IllegalArgumentException("The deadline and the initial backoff can't be negative.");
+        } else if (maxBackoff < initialBackoff) {
+            throw new IllegalArgumentException("The maximum backoff can't be smaller than the initial backoff.");
+        }
+
+        this.maxAttempts = maxAttempts;
+        this.deadline = deadline;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retryableErrorCodes = retryableErrorCodes == null ? Collections.emptySet()
+                : Collections.unmodifiableSet(new HashSet<>(retryableErrorCodes));
+    }
+
+    /**
+     * Check if the given <code>failure</code> is transient so that the request
+     * could succeed if it is sent again.
+     *
+     * @param failure
+     *            The failure to check.
+     * @return <code>true</code> if the failure is transient.
+     */
+    public boolean isRetryable(Throwable failure) {
+        if (failure instanceof SteemTransformationException) {
+            // The response has been received but could not be parsed, so
+            // sending the request again will not help.
+            return false;
+        } else if (failure instanceof SteemRateLimitException) {
+            // The request has not been sent, as it would have exceeded the
+            // configured rate limit, so sending it again right away would
+            // exceed it as well.
+            return false;
+        } else if (failure instanceof SteemCommunicationException) {
+            return true;
+        } else if (failure instanceof SteemResponseException) {
+            Integer code = ((SteemResponseException) failure).getCode();
+            return code != null && retryableErrorCodes.contains(code);
+        }
+
+        return false;
+    }
+
+    /**
+     * Get the delay before the next attempt.
+     *
+     * @param attempt
+     *            The number of the attempt that has just failed, starting with
+     *            1.
+     * @param elapsedTime
+     *            The time in milliseconds since the first attempt has been
+     *            started.
+     * @param failure
+     *            The failure of the last attempt.
+     * @return The delay in milliseconds before the next attempt or -1 if the
+     *         request should not be retried.
+     */
+    public long getRetryDelay(int attempt, long elapsedTime, Throwable failure) {
+        if (attempt >= maxAttempts || !isRetryable(failure)) {
+            return -1;
+        }
+
+        // Use "equal jitter": Half of the exponential backoff is fixed, the
+        // other half is random.
+        long backoff = initialBackoff << Math.min(attempt - 1, 30);
+        if (backoff <= 0 || backoff > maxBackoff) {
+            backoff = maxBackoff;
+        }
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+
+        if (elapsedTime + delay >= deadline) {
+            return -1;
+        }
+
+        return delay;
+    }
+
+    /**
+     * @return The maximum number of attempts, including the first one.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @return The time in milliseconds since the first attempt after which no
+     *         retry is started.
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * @return The delay in milliseconds before the first retry.
+     */
+    public long getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * @return The maximum delay in milliseconds between two attempts.
+     */
+    public long getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * @return An unmodifiable set of error codes that should be retried.
+     */
+    public Set<Integer> getRetryableErrorCodes() {
+        return retryableErrorCodes;
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
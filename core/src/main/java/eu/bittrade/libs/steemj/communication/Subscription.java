@@ -0,0 +1,102 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.net.URI;
+
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+
+/**
+ * This class represents a callback that has been registered at a node, which
+ * pushes notices to the {@link NoticeListener} of the subscription until it is
+ * cancelled.
+ *
+ * <p>
+ * If the client connects to another endpoint or replaces a closed connection,
+ * the callback is registered again using the new connection. The
+ * subscription ends if this is not possible or if the connection is closed
+ * without being replaced. In this case, it is no longer {@link #isActive()
+ * active} and its listener is informed by
+ * {@link NoticeListener#onSubscriptionEnded(eu.bittrade.libs.steemj.exceptions.SteemCommunicationException)}.
+ * </p>
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class Subscription {
+    /** The dispatcher the listener of this subscription is registered at. */
+    private final NoticeDispatcher noticeDispatcher;
+    /** The id the node uses to refer to this subscription. */
+    private final long callbackId;
+    /** The method used to register the callback. */
+    private final RequestMethods callbackMethod;
+    /** The endpoint the callback is currently registered at. */
+    private volatile URI endpointUri;
+
+    /**
+     * Create a new {@link Subscription} instance.
+     *
+     * @param noticeDispatcher
+     *            The dispatcher the listener of this subscription is
+     *            registered at.
+     * @param callbackId
+     *            The id the node uses to refer to this subscription.
+     * @param callbackMethod
+     *            The method used to register the callback.
+     * @param endpointUri
+     *            The endpoint the callback has been registered at.
+     */
+    Subscription(NoticeDispatcher noticeDispatcher, long callbackId, RequestMethods callbackMethod,
+            URI endpointUri) {
+        this.noticeDispatcher = noticeDispatcher;
+        this.callbackId = callbackId;
+        this.callbackMethod = callbackMethod;
+        this.endpointUri = endpointUri;
+    }
+
+    /**
+     * @return The id the node uses to refer to this subscription.
+     */
+    public long getCallbackId() {
+        return callbackId;
+    }
+
+    /**
+     * @return The method used to register the callback.
+     */
+    public RequestMethods getCallbackMethod() {
+        return callbackMethod;
+    }
+
+    /**
+     * @return The endpoint the callback is currently registered at.
+     */
+    public URI getEndpointUri() {
+        return endpointUri;
+    }
+
+    /**
+     * @return <code>true</code> if the listener of this subscription is still
+     *         informed about new notices, <code>false</code> if it has been
+     *         cancelled or has ended.
+     */
+    public boolean isActive() {
+        return noticeDispatcher.isRegistered(callbackId);
+    }
+
+    /**
+     * Stop informing the listener of this subscription. As the Steem API does
+     * not allow to cancel a single callback, notices the node still pushes
+     * for this subscription are dropped.
+     */
+    public void cancel() {
+        noticeDispatcher.unregister(callbackId);
+    }
+
+    /**
+     * Update the endpoint the callback is registered at.
+     *
+     * @param endpointUri
+     *            The endpoint the callback has been registered at again.
+     */
+    void setEndpointUri(URI endpointUri) {
+        this.endpointUri = endpointUri;
+    }
+}
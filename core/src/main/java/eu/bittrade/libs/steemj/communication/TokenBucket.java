@@ -0,0 +1,101 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket that enforces a {@link RateLimit}.
+ *
+ * Permits can be reserved in advance: If not enough permits are available,
+ * they are taken anyway and the caller is told how long to wait until the
+ * bucket would have contained them. This way, waiting callers are served in
+ * the order of their reservations without holding a thread.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+class TokenBucket {
+    private final RateLimit rateLimit;
+
+    /** The available permits, which is negative if permits are reserved. */
+    private double availablePermits;
+    private long lastRefillTime;
+
+    /**
+     * Create a new, full token bucket.
+     *
+     * @param rateLimit
+     *            The rate limit to enforce.
+     */
+    TokenBucket(RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+        this.availablePermits = rateLimit.getBurstSize();
+        this.lastRefillTime = System.nanoTime();
+    }
+
+    /**
+     * Reserve the given number of <code>permits</code>.
+     *
+     * @param permits
+     *            The number of permits to reserve.
+     * @param maxWait
+     *            The maximum time in nanoseconds the caller is willing to wait
+     *            for the permits.
+     * @return The time in nanoseconds the caller has to wait before the
+     *         permits may be used or -1 if the permits would not be available
+     *         within <code>maxWait</code>, in which case nothing has been
+     *         reserved.
+     */
+    synchronized long reserve(int permits, long maxWait) {
+        refill();
+
+        long wait = 0;
+        if (availablePermits < permits) {
+            wait = (long) Math.ceil(
+                    (permits - availablePermits) / rateLimit.getPermitsPerSecond() * TimeUnit.SECONDS.toNanos(1));
+            if (wait > maxWait) {
+                return -1;
+            }
+        }
+
+        availablePermits -= permits;
+
+        return wait;
+    }
+
+    /**
+     * Give back permits that have been reserved but not used.
+     *
+     * @param permits
+     *            The number of permits to give back.
+     */
+    synchronized void refund(int permits) {
+        refill();
+        availablePermits = Math.min(rateLimit.getBurstSize(), availablePermits + permits);
+    }
+
+    /**
+     * @return The number of permits that are available right now, which is
+     *         negative if more permits than available have been reserved.
+     */
+    synchronized double getAvailablePermits() {
+        refill();
+
+        return availablePermits;
+    }
+
+    /**
+     * @return The rate limit enforced by this bucket.
+     */
+    RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    /**
+     * Add the permits that have been earned since the last refill.
+     */
+    private void refill() {
+        long now = System.nanoTime();
+        availablePermits = Math.min(rateLimit.getBurstSize(), availablePermits
+                + (now - lastRefillTime) * rateLimit.getPermitsPerSecond() / TimeUnit.SECONDS.toNanos(1));
+        lastRefillTime = now;
+    }
+}
@@ -2,13 +2,27 @@ package eu.bittrade.libs.steemj.communication;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.concurrent.CountDownLatch;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
-import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLSession;
+import javax.websocket.ClientEndpointConfig;
+import javax.websocket.CloseReason;
+import javax.websocket.CloseReason.CloseCodes;
 import javax.websocket.DeploymentException;
-import javax.websocket.EncodeException;
+import javax.websocket.Extension;
 import javax.websocket.Session;
 
 import org.glassfish.tyrus.client.ClientManager;
@@ -18,9 +32,18 @@ import org.glassfish.tyrus.client.SslEngineConfigurator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCBatchRequest;
 import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
 import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+import eu.bittrade.libs.steemj.communication.metrics.MetricsRecorder;
 import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.configuration.SteemJContext;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
 import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
 import eu.bittrade.libs.steemj.exceptions.SteemResponseException;
 import eu.bittrade.libs.steemj.exceptions.SteemTimeoutException;
@@ -29,99 +52,533 @@ import eu.bittrade.libs.steemj.exceptions.SteemTimeoutException;
  * This class handles the communication to a Steem Node using the WebSocket
  * protocol.
  * 
+ * <p>
+ * If enabled, an open session is kept alive by pings (see
+ * {@link SteemJConfig#setWebsocketPingInterval(long)}). A session that has
+ * been closed without being requested, e.g. by the node or because a ping has
+ * not been answered, is replaced in the background. The requests that were in
+ * flight are sent again using the new session, so callers do not have to wait
+ * for a new connection or to handle the failure themselves.
+ * </p>
+ * 
+ * <p>
+ * The callbacks of the active subscriptions are registered again whenever a
+ * new session is established, including a session to another endpoint. A
+ * subscription ends if its callback can't be registered again or if the
+ * session is closed without being replaced.
+ * </p>
+ * 
  * @author <a href="http://steemit.com/@dez1337">dez1337</a>
  */
 public class WebsocketClient extends AbstractClient {
     private static final Logger LOGGER = LoggerFactory.getLogger(WebsocketClient.class);
+    /** The scheduler used to fail requests that exceed the response timeout. */
+    private static final ScheduledExecutorService TIMEOUT_SCHEDULER = Executors
+            .newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "steemj-websocket-timeout");
+                thread.setDaemon(true);
+                return thread;
+            });
+    /**
+     * The minimum time between two attempts to resume a closed session in
+     * milliseconds, so a node that closes each new session is not flooded
+     * with connection attempts.
+     */
+    private static final long MIN_RESUME_INTERVAL = 1000L;
+    /** The user property marking a session that has been closed on purpose. */
+    private static final String CLOSED_ON_PURPOSE_PROPERTY = "steemj.closedOnPurpose";
+    /** The user property marking a session that has been replaced by a new one. */
+    private static final String REPLACED_PROPERTY = "steemj.replaced";
+    /** The user property holding the keep-alive of a session. */
+    private static final String KEEP_ALIVE_PROPERTY = "steemj.keepAlive";
 
     /** The client. */
     private ClientManager client;
-    /** A {@link CountDownLatch} used to indicate that a message is expected. */
-    private CountDownLatch responseCountDownLatch;
+    /**
+     * The requests that have been sent and are waiting for their response,
+     * stored by their id.
+     */
+    private final ConcurrentMap<Long, PendingRequest> pendingRequests;
+    /** A lock used to serialize writes to the shared session. */
+    private final Object sendLock;
     /** The current session. */
-    private Session session;
+    private volatile Session session;
     /**
      * The {@link WebsocketEndpoint} instance that will handle the incoming
      * messages.
      */
     private WebsocketEndpoint websocketEndpoint;
     /** The endpoint this client instance is currently connected to. */
-    private URI currentEndpointUri;
+    private volatile URI currentEndpointUri;
+    /** The statistics of the received bytes. */
+    private final CompressionStatistics compressionStatistics;
+    /** The context providing the timeouts and the endpoint configuration. */
+    private final SteemJContext context;
+    /** The recorder the sizes of the messages are reported to. */
+    private final MetricsRecorder metricsRecorder;
+    /** Routes the notices pushed by the node to the subscriptions. */
+    private final NoticeDispatcher noticeDispatcher;
+    /**
+     * The executor used to decode the received messages and to resume closed
+     * sessions.
+     */
+    private final Executor decodeExecutor;
+    /**
+     * The interval in which pings are sent in milliseconds or 0 if no pings
+     * are sent.
+     */
+    private final long pingInterval;
+    /** The subscriptions registered by this client, stored by their id. */
+    private final ConcurrentMap<Long, Subscription> subscriptions;
+    /** Define if the SSL verification is disabled for the current endpoint. */
+    private volatile boolean sslVerificationDisabled;
+    /** The time of the last attempt to resume a session. */
+    private volatile long lastResumeTime;
 
     /**
      * Initialize a new Websocket Client.
      */
     public WebsocketClient() {
+        this(new CompressionStatistics());
+    }
+
+    /**
+     * Initialize a new Websocket Client.
+     * 
+     * @param compressionStatistics
+     *            The statistics to add the received bytes to if compression
+     *            is enabled.
+     */
+    public WebsocketClient(CompressionStatistics compressionStatistics) {
+        this(SteemJConfig.getInstance().createContext(), compressionStatistics);
+    }
+
+    /**
+     * Initialize a new Websocket Client.
+     * 
+     * @param context
+     *            The context providing the timeouts and the endpoint
+     *            configuration.
+     * @param compressionStatistics
+     *            The statistics to add the received bytes to if compression
+     *            is enabled.
+     */
+    public WebsocketClient(SteemJContext context, CompressionStatistics compressionStatistics) {
+        this(context, compressionStatistics, context.getMetricsRecorder());
+    }
+
+    /**
+     * Initialize a new Websocket Client.
+     * 
+     * @param context
+     *            The context providing the timeouts and the endpoint
+     *            configuration.
+     * @param compressionStatistics
+     *            The statistics to add the received bytes to if compression
+     *            is enabled.
+     * @param metricsRecorder
+     *            The recorder the sizes of the messages are reported to.
+     */
+    public WebsocketClient(SteemJContext context, CompressionStatistics compressionStatistics,
+            MetricsRecorder metricsRecorder) {
+        this(context, compressionStatistics, metricsRecorder, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Initialize a new Websocket Client.
+     * 
+     * @param context
+     *            The context providing the timeouts and the endpoint
+     *            configuration.
+     * @param compressionStatistics
+     *            The statistics to add the received bytes to if compression
+     *            is enabled.
+     * @param metricsRecorder
+     *            The recorder the sizes of the messages are reported to.
+     * @param decodeExecutor
+     *            The {@link Executor} used to decode the received messages,
+     *            so the thread reading the session is not blocked by large
+     *            responses, and to resume closed sessions.
+     */
+    public WebsocketClient(SteemJContext context, CompressionStatistics compressionStatistics,
+            MetricsRecorder metricsRecorder, Executor decodeExecutor) {
         // Initialize fields.
         this.client = ClientManager.createClient();
+        this.context = context;
 
-        this.client.setDefaultMaxSessionIdleTimeout(SteemJConfig.getInstance().getIdleTimeout());
-        this.client.getProperties().put(ClientProperties.RECONNECT_HANDLER, new WebsocketReconnectHandler());
+        this.client.setDefaultMaxSessionIdleTimeout(context.getIdleTimeout());
+        this.client.getProperties().put(ClientProperties.INCOMING_BUFFER_SIZE, context.getMaxWebsocketFrameSize());
+        if (context.getConnectTimeout() > 0) {
+            this.client.getProperties().put(ClientProperties.HANDSHAKE_TIMEOUT, context.getConnectTimeout());
+        }
 
         this.websocketEndpoint = new WebsocketEndpoint(this);
-        this.responseCountDownLatch = new CountDownLatch(1);
+        this.pendingRequests = new ConcurrentHashMap<>();
+        this.sendLock = new Object();
+        this.compressionStatistics = compressionStatistics;
+        this.metricsRecorder = metricsRecorder;
+        this.noticeDispatcher = new NoticeDispatcher();
+        this.decodeExecutor = decodeExecutor;
+        this.subscriptions = new ConcurrentHashMap<>();
+        this.lastResumeTime = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(MIN_RESUME_INTERVAL);
+
+        long configuredPingInterval = context.getWebsocketPingInterval();
+        if (configuredPingInterval > 0 && context.getIdleTimeout() > 0
+                && configuredPingInterval >= context.getIdleTimeout()) {
+            // Sending a ping restarts the idle timeout, so the session is
+            // never closed due to inactivity.
+            configuredPingInterval = Math.max(1, context.getIdleTimeout() / 2);
+        }
+
+        this.pingInterval = Math.max(0, configuredPingInterval);
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>
+     * This method can be called by multiple threads at the same time. All
+     * requests share the same session and the responses are matched to the
+     * waiting callers using the id of the request.
+     * </p>
+     */
     @Override
     public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
             boolean sslVerificationDisabled) throws SteemCommunicationException, SteemResponseException {
-        if (session == null || !session.isOpen() || currentEndpointUri == null
-                || !currentEndpointUri.equals(endpointUri)) {
-            connect(endpointUri, sslVerificationDisabled);
-            // "Save" the URI we are currently connected to.
-            currentEndpointUri = endpointUri;
-        }
+        return await(
+                invokeAndReadResponseAsync(requestObject, endpointUri, sslVerificationDisabled, CALLING_THREAD_EXECUTOR));
+    }
 
-        responseCountDownLatch = new CountDownLatch(1);
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>
+     * The request is written to the session without blocking. The returned
+     * future is completed by the thread receiving the response, so no thread
+     * is blocked while the request is in flight. The <code>executor</code> is
+     * only used to establish a new connection if required. Cancelling the
+     * returned future stops to wait for the response.
+     * </p>
+     */
+    @Override
+    public CompletableFuture<JsonRPCResponse> invokeAndReadResponseAsync(JsonRPCRequest requestObject,
+            URI endpointUri, boolean sslVerificationDisabled, Executor executor) {
+        Session currentSession = session;
+        if (currentSession != null && currentSession.isOpen() && endpointUri.equals(currentEndpointUri)) {
+            return sendRequest(requestObject, currentSession);
+        }
 
+        CompletableFuture<JsonRPCResponse> response = new CompletableFuture<>();
         try {
-            String request = requestObject.toJson();
-            LOGGER.debug("Sending {}.", request);
-            session.getBasicRemote().sendObject(request);
-        } catch (IOException | EncodeException e) {
-            // Throw an Exception and let the CommunicationHandler handle the
-            // reconnect to another node.
-            throw new SteemCommunicationException("Could not transfer the data to the Steem Node. - Reconnecting.", e);
+            executor.execute(() -> {
+                if (response.isDone()) {
+                    // The caller is no longer interested in the response.
+                    return;
+                }
+
+                try {
+                    forwardResult(sendRequest(requestObject, getOrCreateSession(endpointUri, sslVerificationDisabled)),
+                            response);
+                } catch (SteemCommunicationException | RuntimeException e) {
+                    response.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            response.completeExceptionally(e);
         }
 
+        return response;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>
+     * All requests of the <code>batchRequest</code> are written using a single
+     * frame while the responses are matched to their requests using their
+     * ids.
+     * </p>
+     */
+    @Override
+    public List<JsonRPCResponse> invokeAndReadResponse(JsonRPCBatchRequest batchRequest, URI endpointUri,
+            boolean sslVerificationDisabled) throws SteemCommunicationException, SteemResponseException {
+        return await(invokeAndReadResponseAsync(batchRequest, endpointUri, sslVerificationDisabled,
+                CALLING_THREAD_EXECUTOR));
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>
+     * All requests of the <code>batchRequest</code> are written using a single
+     * frame without blocking. The <code>executor</code> is only used to
+     * establish a new connection if required. Cancelling the returned future
+     * stops to wait for the responses.
+     * </p>
+     */
+    @Override
+    public CompletableFuture<List<JsonRPCResponse>> invokeAndReadResponseAsync(JsonRPCBatchRequest batchRequest,
+            URI endpointUri, boolean sslVerificationDisabled, Executor executor) {
+        Session currentSession = session;
+        if (currentSession != null && currentSession.isOpen() && endpointUri.equals(currentEndpointUri)) {
+            return sendBatchRequest(batchRequest, currentSession);
+        }
+
+        CompletableFuture<List<JsonRPCResponse>> responses = new CompletableFuture<>();
         try {
-            // Wait until we received a response from the Server.
-            do {
-                if (SteemJConfig.getInstance().getResponseTimeout() == 0) {
-                    responseCountDownLatch.await();
-                } else {
-                    if (!responseCountDownLatch.await(SteemJConfig.getInstance().getResponseTimeout(),
-                            TimeUnit.MILLISECONDS)) {
-                        throw new SteemTimeoutException(
-                                "Timeout occured. The WebSocket server was not able to answer in "
-                                        + SteemJConfig.getInstance().getResponseTimeout() + " millisecond(s).");
-                    }
+            executor.execute(() -> {
+                if (responses.isDone()) {
+                    // The caller is no longer interested in the responses.
+                    return;
+                }
+
+                try {
+                    forwardResult(
+                            sendBatchRequest(batchRequest, getOrCreateSession(endpointUri, sslVerificationDisabled)),
+                            responses);
+                } catch (SteemCommunicationException | RuntimeException e) {
+                    responses.completeExceptionally(e);
                 }
-            } while (websocketEndpoint.getLatestResponse() == null);
-        } catch (InterruptedException e) {
-            LOGGER.warn("Thread has been interrupted.", e);
-            Thread.currentThread().interrupt();
+            });
+        } catch (RejectedExecutionException e) {
+            responses.completeExceptionally(e);
         }
 
-        return websocketEndpoint.getLatestResponse();
+        return responses;
+    }
+
+    /**
+     * Register a callback at the given <code>endpointUri</code>, so the node
+     * pushes notices to the given <code>listener</code> instead of being
+     * polled.
+     * 
+     * <p>
+     * The callback is registered again whenever this client establishes a new
+     * session, e.g. because the session has been replaced in the background
+     * or because another endpoint has been used. The subscription ends if
+     * this fails or if the session is closed without being replaced, see
+     * {@link NoticeListener#onSubscriptionEnded(SteemCommunicationException)}.
+     * </p>
+     * 
+     * @param callbackMethod
+     *            The method used to register the callback, e.g.
+     *            {@link RequestMethods#SET_BLOCK_APPLIED_CALLBACK}.
+     * @param noticeType
+     *            The type the notices are transformed to.
+     * @param listener
+     *            The listener to inform about the notices.
+     * @param endpointUri
+     *            The endpoint to register the callback at.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification should be disabled.
+     * @param executor
+     *            The {@link Executor} used to establish a new connection if
+     *            required.
+     * @param <T>
+     *            The type the notices are transformed to.
+     * @return A future that is completed with the subscription as soon as
+     *         the node has accepted the callback. It is completed
+     *         exceptionally with a {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} if the callback could not be
+     *         registered.
+     */
+    public <T> CompletableFuture<Subscription> subscribe(RequestMethods callbackMethod, JavaType noticeType,
+            NoticeListener<T> listener, URI endpointUri, boolean sslVerificationDisabled, Executor executor) {
+        long callbackId = noticeDispatcher.register(noticeType, listener);
+        JsonRPCRequest requestObject = createCallbackRequest(callbackMethod, callbackId);
+
+        CompletableFuture<Subscription> subscription = new CompletableFuture<>();
+        invokeAndReadResponseAsync(requestObject, endpointUri, sslVerificationDisabled, executor)
+                .whenComplete((response, throwable) -> {
+                    if (throwable == null && !response.isError()) {
+                        Subscription newSubscription = new Subscription(noticeDispatcher, callbackId,
+                                callbackMethod, endpointUri);
+                        subscriptions.put(callbackId, newSubscription);
+                        subscription.complete(newSubscription);
+                        return;
+                    }
+
+                    noticeDispatcher.unregister(callbackId);
+                    if (throwable != null) {
+                        subscription.completeExceptionally(throwable);
+                    } else {
+                        try {
+                            subscription.completeExceptionally(response.handleError(requestObject.getId()));
+                        } catch (SteemCommunicationException e) {
+                            subscription.completeExceptionally(e);
+                        }
+                    }
+                });
+
+        return subscription;
     }
 
     @Override
     public void closeConnection() throws IOException {
-        if (session != null && session.isOpen()) {
+        Session currentSession = session;
+        if (currentSession != null && currentSession.isOpen()) {
             LOGGER.debug("Closing existing session.");
-            session.close();
+            currentSession.getUserProperties().put(CLOSED_ON_PURPOSE_PROPERTY, Boolean.TRUE);
+            currentSession.close();
         }
     }
 
     /**
-     * Get the {@link CountDownLatch} used by this instance to change its
-     * counter.
+     * Hand the given <code>notice</code> over to the listener of its
+     * subscription without blocking the calling thread.
      * 
-     * @return The {@link CountDownLatch} used by this instance.
+     * @param notice
+     *            The notice pushed by the node.
+     */
+    protected void dispatchNotice(JsonNode notice) {
+        noticeDispatcher.dispatch(notice);
+    }
+
+    /**
+     * Inform all callers that are still waiting for a response that no
+     * response will be received, e.g. because the session has been closed.
+     * 
+     * @param reason
+     *            The reason why no response will be received.
+     */
+    protected void failPendingRequests(String reason) {
+        for (Long id : pendingRequests.keySet()) {
+            PendingRequest pendingRequest = pendingRequests.remove(id);
+            if (pendingRequest != null) {
+                pendingRequest.fail(new SteemCommunicationException(reason));
+            }
+        }
+    }
+
+    /**
+     * End all active subscriptions, as the given <code>closedSession</code>
+     * has been closed and is not replaced. Nothing happens if the session has
+     * been replaced by a new one, as the subscriptions have been registered
+     * using the new session in this case.
+     * 
+     * @param closedSession
+     *            The session that has been closed.
+     * @param reason
+     *            The reason why the subscriptions end.
+     */
+    void endSubscriptions(Session closedSession, String reason) {
+        if (!Boolean.TRUE.equals(closedSession.getUserProperties().get(REPLACED_PROPERTY))) {
+            endSubscriptions(new SteemCommunicationException(reason));
+        }
+    }
+
+    /**
+     * Start to send pings using the given, newly opened <code>newSession</code>
+     * if pings are enabled.
+     * 
+     * @param newSession
+     *            The session to keep alive.
+     */
+    void startKeepAlive(Session newSession) {
+        if (pingInterval > 0) {
+            WebsocketKeepAlive keepAlive = new WebsocketKeepAlive(this, newSession, pingInterval);
+            newSession.getUserProperties().put(KEEP_ALIVE_PROPERTY, keepAlive);
+            keepAlive.start(TIMEOUT_SCHEDULER);
+        }
+    }
+
+    /**
+     * Stop to send pings using the given <code>closedSession</code>.
+     * 
+     * @param closedSession
+     *            The session that has been closed.
+     */
+    void stopKeepAlive(Session closedSession) {
+        Object keepAlive = closedSession.getUserProperties().get(KEEP_ALIVE_PROPERTY);
+        if (keepAlive instanceof WebsocketKeepAlive) {
+            ((WebsocketKeepAlive) keepAlive).stop();
+        }
+    }
+
+    /**
+     * Write a ping to the given <code>currentSession</code>.
+     * 
+     * @param currentSession
+     *            The session to write to.
+     * @return <code>true</code> if the ping has been written.
+     */
+    boolean sendPing(Session currentSession) {
+        try {
+            synchronized (sendLock) {
+                currentSession.getAsyncRemote().sendPing(ByteBuffer.allocate(0));
+            }
+
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            LOGGER.debug("Could not send a ping.", e);
+            return false;
+        }
+    }
+
+    /**
+     * Close the given <code>brokenSession</code> without waiting for the node,
+     * so it is replaced in the background.
+     * 
+     * @param brokenSession
+     *            The session that does not answer anymore.
+     */
+    void abandonSession(Session brokenSession) {
+        Runnable close = () -> {
+            try {
+                brokenSession.close(new CloseReason(CloseCodes.GOING_AWAY, "The node did not answer a ping."));
+            } catch (IOException e) {
+                LOGGER.debug("Could not close the broken session.", e);
+            }
+        };
+
+        try {
+            decodeExecutor.execute(close);
+        } catch (RejectedExecutionException e) {
+            close.run();
+        }
+    }
+
+    /**
+     * Check if the given <code>closedSession</code> has to be replaced in the
+     * background. This is the case if it has not been closed on purpose and
+     * if either pings are enabled or the session should never be closed due
+     * to inactivity.
+     * 
+     * @param closedSession
+     *            The session that has been closed.
+     * @return <code>true</code> if the session has to be replaced.
+     */
+    boolean isResumable(Session closedSession) {
+        return !Boolean.TRUE.equals(closedSession.getUserProperties().get(CLOSED_ON_PURPOSE_PROPERTY))
+                && (pingInterval > 0 || context.getIdleTimeout() <= 0);
+    }
+
+    /**
+     * Replace the closed session in the background. All requests that are
+     * still waiting for a response are sent again using the new session and
+     * the callbacks of the active subscriptions are registered again. If no
+     * new session can be established, the waiting requests are failed, so the
+     * CommunicationHandler can use another node, and the subscriptions end.
      */
-    protected CountDownLatch getResponseCountDownLatch() {
-        return this.responseCountDownLatch;
+    void resumeSession() {
+        List<PendingRequest> requestsInFlight = new ArrayList<>(pendingRequests.values());
+        Runnable resume = () -> {
+            try {
+                decodeExecutor.execute(() -> resume(requestsInFlight));
+            } catch (RejectedExecutionException e) {
+                SteemCommunicationException failure = new SteemCommunicationException(
+                        "The connection has been closed and could not be resumed.", e);
+                failAll(requestsInFlight, failure);
+                endSubscriptions(failure);
+            }
+        };
+
+        long delay = MIN_RESUME_INTERVAL - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastResumeTime);
+        if (delay > 0) {
+            TIMEOUT_SCHEDULER.schedule(resume, delay, TimeUnit.MILLISECONDS);
+        } else {
+            resume.run();
+        }
     }
 
     /**
@@ -133,6 +590,50 @@ public class WebsocketClient extends AbstractClient {
         return session;
     }
 
+    /**
+     * Report the size of a part of a message received from the current
+     * endpoint.
+     * 
+     * @param numberOfBytes
+     *            The number of bytes received.
+     */
+    protected void recordBytesReceived(int numberOfBytes) {
+        URI endpointUri = currentEndpointUri;
+        if (endpointUri != null) {
+            metricsRecorder.recordBytesReceived(endpointUri, numberOfBytes);
+        }
+    }
+
+    /**
+     * Create the handler decoding the messages of a new session.
+     * 
+     * @return A new decoder.
+     */
+    WebsocketMessageDecoder createMessageDecoder() {
+        return new WebsocketMessageDecoder(this, decodeExecutor);
+    }
+
+    /**
+     * Take the request waiting for the response with the given
+     * <code>id</code>, so the response can be handed over to it once it has
+     * been decoded.
+     * 
+     * @param id
+     *            The id of the request the response belongs to.
+     * @return The waiting request or <code>null</code> if the response was
+     *         unexpected.
+     */
+    PendingRequest takePendingRequest(long id) {
+        return pendingRequests.remove(id);
+    }
+
+    /**
+     * @return The number of requests that are waiting for a response.
+     */
+    int getPendingRequestCount() {
+        return pendingRequests.size();
+    }
+
     /**
      * Update the {@link Session} this instance should use.
      * 
@@ -143,6 +644,363 @@ public class WebsocketClient extends AbstractClient {
         this.session = session;
     }
 
+    /**
+     * Establish a new session to the current endpoint and send the given
+     * <code>requestsInFlight</code> again. The callbacks of the active
+     * subscriptions are registered again by establishing the session.
+     * 
+     * @param requestsInFlight
+     *            The requests that were waiting for a response when the
+     *            previous session has been closed.
+     */
+    private void resume(List<PendingRequest> requestsInFlight) {
+        lastResumeTime = System.nanoTime();
+        URI endpointUri = currentEndpointUri;
+
+        Session resumedSession;
+        try {
+            LOGGER.info("Resuming the session to {}.", endpointUri);
+            resumedSession = getOrCreateSession(endpointUri, sslVerificationDisabled);
+        } catch (SteemCommunicationException | RuntimeException e) {
+            LOGGER.warn("Could not resume the session to {}.", endpointUri, e);
+            SteemCommunicationException failure = new SteemCommunicationException(
+                    "The connection has been closed and could not be resumed.", e);
+            failAll(requestsInFlight, failure);
+            endSubscriptions(failure);
+            return;
+        }
+
+        for (PendingRequest pendingRequest : requestsInFlight) {
+            if (!pendingRequest.getResponse().isDone()) {
+                try {
+                    sendText(pendingRequest.getRequest().toJson(), Collections.singletonList(pendingRequest),
+                            resumedSession);
+                } catch (JsonProcessingException e) {
+                    pendingRequest.fail(new SteemCommunicationException("Could not serialize the request.", e));
+                }
+            }
+        }
+    }
+
+    /**
+     * Register the callbacks of the active subscriptions using the given,
+     * newly established <code>newSession</code>. A subscription whose
+     * callback is not accepted by the node ends.
+     * 
+     * @param newSession
+     *            The new session.
+     * @param endpointUri
+     *            The endpoint the new session is connected to.
+     */
+    private void registerCallbacks(Session newSession, URI endpointUri) {
+        for (Subscription subscription : subscriptions.values()) {
+            long callbackId = subscription.getCallbackId();
+            if (!subscription.isActive()) {
+                // The subscription has been cancelled.
+                subscriptions.remove(callbackId);
+                continue;
+            }
+
+            sendRequest(createCallbackRequest(subscription.getCallbackMethod(), callbackId), newSession)
+                    .whenComplete((response, throwable) -> {
+                        if (throwable == null && !response.isError()) {
+                            subscription.setEndpointUri(endpointUri);
+                            return;
+                        }
+
+                        LOGGER.warn("Could not register the callback {} at {} again.", callbackId, endpointUri);
+                        subscriptions.remove(callbackId);
+                        noticeDispatcher.end(callbackId, new SteemCommunicationException(
+                                "Could not register the callback at " + endpointUri + " again.", throwable));
+                    });
+        }
+    }
+
+    /**
+     * End all active subscriptions and inform their listeners.
+     * 
+     * @param reason
+     *            The reason why the subscriptions end.
+     */
+    private void endSubscriptions(SteemCommunicationException reason) {
+        for (Long callbackId : subscriptions.keySet()) {
+            if (subscriptions.remove(callbackId) != null) {
+                noticeDispatcher.end(callbackId, reason);
+            }
+        }
+    }
+
+    /**
+     * Complete the <code>target</code> with the result of the
+     * <code>source</code> and cancel the <code>source</code> if the
+     * <code>target</code> is cancelled.
+     * 
+     * @param source
+     *            The future providing the result.
+     * @param target
+     *            The future handed out to the caller.
+     * @param <T>
+     *            The type of the result.
+     */
+    private static <T> void forwardResult(CompletableFuture<T> source, CompletableFuture<T> target) {
+        source.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                target.completeExceptionally(throwable);
+            } else {
+                target.complete(result);
+            }
+        });
+        target.whenComplete((result, throwable) -> {
+            if (target.isCancelled()) {
+                source.cancel(false);
+            }
+        });
+    }
+
+    /**
+     * Create the request registering a callback.
+     * 
+     * @param callbackMethod
+     *            The method used to register the callback.
+     * @param callbackId
+     *            The id the node uses to refer to the callback.
+     * @return The request.
+     */
+    private static JsonRPCRequest createCallbackRequest(RequestMethods callbackMethod, long callbackId) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(callbackMethod);
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        Object[] parameters = { callbackId };
+        requestObject.setAdditionalParameters(parameters);
+
+        return requestObject;
+    }
+
+    /**
+     * Register the given <code>requestObject</code> as pending and write it to
+     * the <code>currentSession</code>.
+     * 
+     * @param requestObject
+     *            The request to send.
+     * @param currentSession
+     *            The session to send the request with.
+     * @return A future that is completed as soon as the response has been
+     *         received, the response timeout has been reached or the request
+     *         could not be sent.
+     */
+    private CompletableFuture<JsonRPCResponse> sendRequest(JsonRPCRequest requestObject, Session currentSession) {
+        PendingRequest pendingRequest = registerPendingRequest(requestObject);
+
+        if (!pendingRequest.getResponse().isDone()) {
+            try {
+                sendText(requestObject.toJson(), Collections.singletonList(pendingRequest), currentSession);
+            } catch (JsonProcessingException e) {
+                pendingRequest.fail(new SteemCommunicationException("Could not serialize the request.", e));
+            }
+        }
+
+        return pendingRequest.getResponse();
+    }
+
+    /**
+     * Register all requests of the <code>batchRequest</code> as pending and
+     * write them to the <code>currentSession</code> using a single frame.
+     * 
+     * @param batchRequest
+     *            The requests to send.
+     * @param currentSession
+     *            The session to send the requests with.
+     * @return A future that is completed as soon as all responses have been
+     *         received or exceptionally as soon as one of the requests failed.
+     */
+    private CompletableFuture<List<JsonRPCResponse>> sendBatchRequest(JsonRPCBatchRequest batchRequest,
+            Session currentSession) {
+        List<PendingRequest> batchPendingRequests = new ArrayList<>(batchRequest.size());
+        for (JsonRPCRequest requestObject : batchRequest.getRequests()) {
+            batchPendingRequests.add(registerPendingRequest(requestObject));
+        }
+
+        try {
+            sendText(batchRequest.toJson(), batchPendingRequests, currentSession);
+        } catch (JsonProcessingException e) {
+            failAll(batchPendingRequests, new SteemCommunicationException("Could not serialize the request.", e));
+        }
+
+        CompletableFuture<List<JsonRPCResponse>> responses = new CompletableFuture<>();
+        responses.whenComplete((result, throwable) -> {
+            if (responses.isCancelled()) {
+                failAll(batchPendingRequests, new SteemCommunicationException("The batch request has been cancelled."));
+            }
+        });
+
+        CompletableFuture<?>[] batchResponses = new CompletableFuture<?>[batchPendingRequests.size()];
+        for (int i = 0; i < batchPendingRequests.size(); i++) {
+            batchResponses[i] = batchPendingRequests.get(i).getResponse();
+            // Fail fast and release the remaining ids as soon as one of the
+            // requests failed.
+            batchResponses[i].whenComplete((result, throwable) -> {
+                if (throwable != null && responses.completeExceptionally(throwable)) {
+                    failAll(batchPendingRequests, new SteemCommunicationException(
+                            "Another request of the same batch failed.", throwable));
+                }
+            });
+        }
+
+        CompletableFuture.allOf(batchResponses).thenRun(() -> {
+            List<JsonRPCResponse> result = new ArrayList<>(batchPendingRequests.size());
+            for (PendingRequest pendingRequest : batchPendingRequests) {
+                result.add(pendingRequest.getResponse().join());
+            }
+
+            responses.complete(result);
+        });
+
+        return responses;
+    }
+
+    /**
+     * Register the given <code>requestObject</code> as waiting for a response
+     * and start its response timeout, which is limited to the deadline of the
+     * request.
+     * 
+     * @param requestObject
+     *            The request to register.
+     * @return The pending request. Its response is already failed if another
+     *         request with the same id is waiting for a response.
+     */
+    private PendingRequest registerPendingRequest(JsonRPCRequest requestObject) {
+        PendingRequest pendingRequest = new PendingRequest(requestObject);
+        long id = requestObject.getId();
+
+        if (pendingRequests.putIfAbsent(id, pendingRequest) != null) {
+            pendingRequest.fail(new SteemCommunicationException(
+                    "Another request with the id " + id + " is already waiting for a response."));
+            return pendingRequest;
+        }
+
+        pendingRequest.getResponse().whenComplete((result, throwable) -> pendingRequests.remove(id, pendingRequest));
+
+        Deadline deadline = requestObject.getDeadline();
+        int responseTimeout = deadline == null ? context.getResponseTimeout()
+                : deadline.limitTimeout(context.getResponseTimeout());
+        if (responseTimeout > 0) {
+            ScheduledFuture<?> timeout = TIMEOUT_SCHEDULER.schedule(
+                    () -> pendingRequest.fail(new SteemTimeoutException(
+                            "Timeout occured. The WebSocket server was not able to answer in " + responseTimeout
+                                    + " millisecond(s).")),
+                    responseTimeout, TimeUnit.MILLISECONDS);
+            pendingRequest.getResponse().whenComplete((result, throwable) -> timeout.cancel(false));
+        }
+
+        return pendingRequest;
+    }
+
+    /**
+     * Write the given <code>payload</code> to the <code>currentSession</code>.
+     * If the payload can not be written, the given
+     * <code>affectedRequests</code> are failed.
+     * 
+     * @param payload
+     *            The JSON to send.
+     * @param affectedRequests
+     *            The requests contained in the <code>payload</code>.
+     * @param currentSession
+     *            The session to write to.
+     */
+    private void sendText(String payload, List<PendingRequest> affectedRequests, Session currentSession) {
+        try {
+            LOGGER.debug("Sending {}.", payload);
+            URI endpointUri = currentEndpointUri;
+            if (endpointUri != null) {
+                metricsRecorder.recordBytesSent(endpointUri, getUtf8Length(payload));
+            }
+
+            synchronized (sendLock) {
+                currentSession.getAsyncRemote().sendText(payload, result -> {
+                    if (!result.isOK()) {
+                        // Let the CommunicationHandler handle the reconnect to
+                        // another node.
+                        failAll(affectedRequests, new SteemCommunicationException(
+                                "Could not transfer the data to the Steem Node. - Reconnecting.",
+                                result.getException()));
+                    }
+                });
+            }
+        } catch (IllegalStateException e) {
+            // Let the CommunicationHandler handle the reconnect to another
+            // node.
+            failAll(affectedRequests,
+                    new SteemCommunicationException("Could not transfer the data to the Steem Node. - Reconnecting.", e));
+        }
+    }
+
+    /**
+     * Fail all given <code>requests</code> that are still waiting for a
+     * response.
+     * 
+     * @param requests
+     *            The requests to fail.
+     * @param failure
+     *            The reason why no response will be received.
+     */
+    private static void failAll(List<PendingRequest> requests, SteemCommunicationException failure) {
+        for (PendingRequest pendingRequest : requests) {
+            pendingRequest.fail(failure);
+        }
+    }
+
+    /**
+     * Get the currently open session to the given <code>endpointUri</code> or
+     * establish a new one if there is none.
+     * 
+     * @throws SteemCommunicationException
+     *             If no connection could be established.
+     */
+    private synchronized Session getOrCreateSession(URI endpointUri, boolean sslVerificationDisabled)
+            throws SteemCommunicationException {
+        if (session == null || !session.isOpen() || currentEndpointUri == null
+                || !currentEndpointUri.equals(endpointUri)) {
+            connect(endpointUri, sslVerificationDisabled);
+            // "Save" the URI we are currently connected to.
+            currentEndpointUri = endpointUri;
+            this.sslVerificationDisabled = sslVerificationDisabled;
+            registerCallbacks(session, endpointUri);
+        }
+
+        return session;
+    }
+
+    /**
+     * Get the configured {@link ClientEndpointConfig}. If compression is
+     * enabled, the "permessage-deflate" extension is added to a copy of it.
+     * 
+     * @return The configuration used to connect to a node.
+     */
+    private ClientEndpointConfig getClientEndpointConfig() {
+        ClientEndpointConfig clientEndpointConfig = context.getClientEndpointConfig();
+
+        if (!context.isCompressionEnabled()) {
+            return clientEndpointConfig;
+        }
+
+        for (Extension extension : clientEndpointConfig.getExtensions()) {
+            if (PerMessageDeflateExtension.NAME.equals(extension.getName())) {
+                return clientEndpointConfig;
+            }
+        }
+
+        List<Extension> extensions = new ArrayList<>(clientEndpointConfig.getExtensions());
+        extensions.add(new PerMessageDeflateExtension(compressionStatistics));
+
+        ClientEndpointConfig compressingConfig = ClientEndpointConfig.Builder.create()
+                .preferredSubprotocols(clientEndpointConfig.getPreferredSubprotocols()).extensions(extensions)
+                .encoders(clientEndpointConfig.getEncoders()).decoders(clientEndpointConfig.getDecoders())
+                .configurator(clientEndpointConfig.getConfigurator()).build();
+        compressingConfig.getUserProperties().putAll(clientEndpointConfig.getUserProperties());
+
+        return compressingConfig;
+    }
+
     /**
      * This method establishes a new connection to the web socket Server.
      * 
@@ -156,26 +1014,23 @@ public class WebsocketClient extends AbstractClient {
         // property when connecting to a SSL secured node.
         if (sslVerificationDisabled && endpointURI.getScheme().equals("wss")) {
             SslEngineConfigurator sslEngineConfigurator = new SslEngineConfigurator(new SslContextConfigurator());
-            sslEngineConfigurator.setHostnameVerifier(new HostnameVerifier() {
-                // Could be "sslEngineConfigurator.setHostnameVerifier((String
-                // host, SSLSession sslSession) -> true);" when Java 8 is used.
-                @Override
-                public boolean verify(String host, SSLSession sslSession) {
-                    return true;
-                }
-            });
+            sslEngineConfigurator.setHostnameVerifier((String host, SSLSession sslSession) -> true);
 
             client.getProperties().put(ClientProperties.SSL_ENGINE_CONFIGURATOR, sslEngineConfigurator);
         }
 
         try {
-            // Close the current session in case it is still open.
+            // Close the current session in case it is still open. The active
+            // subscriptions are moved to the new session.
+            Session previousSession = session;
+            if (previousSession != null) {
+                previousSession.getUserProperties().put(REPLACED_PROPERTY, Boolean.TRUE);
+            }
             closeConnection();
 
             LOGGER.info("Connecting to {}.", endpointURI);
 
-            session = client.connectToServer(websocketEndpoint, SteemJConfig.getInstance().getClientEndpointConfig(),
-                    endpointURI);
+            session = client.connectToServer(websocketEndpoint, getClientEndpointConfig(), endpointURI);
         } catch (DeploymentException | IOException e) {
             // Throw an Exception and let the CommunicationHandler handle the
             // reconnect to another node.
@@ -0,0 +1,22 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.net.URI;
+
+/**
+ * A {@link ClientFactory} creating {@link WebsocketClient} instances for
+ * WebSocket endpoints.
+ * 
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class WebsocketClientFactory implements ClientFactory {
+    @Override
+    public boolean supports(URI endpointUri) {
+        return endpointUri.getScheme() != null && endpointUri.getScheme().toLowerCase().matches("(ws){1}[s]?");
+    }
+
+    @Override
+    public AbstractClient createClient(CommunicationHandler communicationHandler) {
+        return new WebsocketClient(communicationHandler.getContext(), communicationHandler.getCompressionStatistics(),
+                communicationHandler.getMetricsRecorder(), communicationHandler.getExecutor());
+    }
+}
@@ -1,31 +1,28 @@
 package eu.bittrade.libs.steemj.communication;
 
-import java.io.IOException;
-
 import javax.websocket.CloseReason;
 import javax.websocket.Endpoint;
 import javax.websocket.EndpointConfig;
-import javax.websocket.MessageHandler;
 import javax.websocket.Session;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
-import eu.bittrade.libs.steemj.exceptions.SteemResponseException;
-
 /**
- * This class handles a WebSocket connection.
+ * This class handles a WebSocket connection. The messages received by a
+ * session are decoded while they are received, see
+ * {@link WebsocketMessageDecoder}, and the session is kept alive by a
+ * {@link WebsocketKeepAlive}.
  * 
  * @author <a href="http://steemit.com/@dez1337">dez1337</a>
  */
-public class WebsocketEndpoint extends Endpoint implements MessageHandler.Whole<String> {
+public class WebsocketEndpoint extends Endpoint {
     private static final Logger LOGGER = LoggerFactory.getLogger(WebsocketEndpoint.class);
 
-    /** The latest response received from a Steem Node. */
-    private String latestResponse;
     /** The {@link WebsocketClient} whose session object should be updated. */
     private WebsocketClient websocketClient;
+    /** The decoder of the messages of the current session. */
+    private volatile WebsocketMessageDecoder messageDecoder;
 
     /**
      * Create a new {@link WebsocketEndpoint} instance.
@@ -38,30 +35,29 @@ public class WebsocketEndpoint extends Endpoint implements MessageHandler.Whole<
         this.websocketClient = websocketClient;
     }
 
-    /**
-     * Pull the latest response.
-     * 
-     * @return In case a response has already been received a new
-     *         {@link JsonRPCResponse} instance that wraps the response,
-     *         otherwise the method will return <code>null</code>.
-     * @throws SteemResponseException
-     *             In case the response can not be parsed as a tree.
-     */
-    protected JsonRPCResponse getLatestResponse() throws SteemResponseException {
-        try {
-            if (latestResponse != null)
-                return new JsonRPCResponse(CommunicationHandler.getObjectMapper().readTree(latestResponse));
-
-            return null;
-        } catch (IOException e) {
-            throw new SteemResponseException("Unable to parse the response.", e);
-        }
-    }
-
     @Override
     public void onClose(Session session, CloseReason closeReason) {
         LOGGER.info("Connection has been closed (Code: {}, Reason: {}).", closeReason.getCloseCode(),
                 closeReason.getReasonPhrase());
+
+        String reason = "The connection has been closed before a response was received (Code: "
+                + closeReason.getCloseCode() + ", Reason: " + closeReason.getReasonPhrase() + ").";
+
+        this.websocketClient.stopKeepAlive(session);
+        Runnable afterClose = this.websocketClient.isResumable(session) ? this.websocketClient::resumeSession
+                : () -> {
+                    this.websocketClient.failPendingRequests(reason);
+                    this.websocketClient.endSubscriptions(session, reason);
+                };
+
+        // Responses that have been received before the session has been
+        // closed are still handed over.
+        WebsocketMessageDecoder currentDecoder = this.messageDecoder;
+        if (currentDecoder != null) {
+            currentDecoder.afterDecoding(afterClose);
+        } else {
+            afterClose.run();
+        }
     }
 
     @Override
@@ -72,21 +68,10 @@ public class WebsocketEndpoint extends Endpoint implements MessageHandler.Whole<
     @Override
     public void onOpen(Session session, EndpointConfig config) {
         this.websocketClient.setSession(session);
-        this.websocketClient.getSession().addMessageHandler(this);
+        this.messageDecoder = this.websocketClient.createMessageDecoder();
+        this.websocketClient.getSession().addMessageHandler(String.class, this.messageDecoder);
+        this.websocketClient.startKeepAlive(session);
 
         LOGGER.info("Connection has been established.");
     }
-
-    @Override
-    public void onMessage(String message) {
-        latestResponse = message;
-
-        if (this.websocketClient.getResponseCountDownLatch().getCount() > 0) {
-            this.websocketClient.getResponseCountDownLatch().countDown();
-        } else {
-            // Sadly it is not possible to throw an exception here, so the
-            // only useful thing we can do is to log it.
-            LOGGER.error("Received an unexpected message.");
-        }
-    }
 }
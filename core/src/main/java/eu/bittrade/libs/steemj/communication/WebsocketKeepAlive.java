@@ -0,0 +1,104 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.websocket.MessageHandler;
+import javax.websocket.PongMessage;
+import javax.websocket.Session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class keeps a WebSocket session alive by sending a ping in a fixed
+ * interval.
+ *
+ * <p>
+ * Each ping has to be answered before the next one is sent. If a node does
+ * not answer in time, the connection is considered broken and the session is
+ * closed, so the {@link WebsocketClient} replaces it before a caller has to
+ * wait for it.
+ * </p>
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+class WebsocketKeepAlive implements Runnable, MessageHandler.Whole<PongMessage> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebsocketKeepAlive.class);
+
+    /** The client used to send the pings. */
+    private final WebsocketClient websocketClient;
+    /** The session to keep alive. */
+    private final Session session;
+    /** The interval in which the pings are sent in milliseconds. */
+    private final long pingInterval;
+    /** Indicates that the last ping has not been answered yet. */
+    private volatile boolean awaitingPong;
+    /** The task sending the pings. */
+    private volatile ScheduledFuture<?> pingTask;
+
+    /**
+     * Create a new {@link WebsocketKeepAlive} instance.
+     *
+     * @param websocketClient
+     *            The client used to send the pings.
+     * @param session
+     *            The session to keep alive.
+     * @param pingInterval
+     *            The interval in which the pings are sent in milliseconds.
+     */
+    WebsocketKeepAlive(WebsocketClient websocketClient, Session session, long pingInterval) {
+        this.websocketClient = websocketClient;
+        this.session = session;
+        this.pingInterval = pingInterval;
+    }
+
+    /**
+     * Start to send pings using the given <code>scheduler</code>.
+     *
+     * @param scheduler
+     *            The scheduler used to send the pings.
+     */
+    void start(ScheduledExecutorService scheduler) {
+        session.addMessageHandler(PongMessage.class, this);
+        pingTask = scheduler.scheduleWithFixedDelay(this, pingInterval, pingInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop to send pings.
+     */
+    void stop() {
+        ScheduledFuture<?> currentPingTask = pingTask;
+        if (currentPingTask != null) {
+            currentPingTask.cancel(false);
+        }
+    }
+
+    @Override
+    public void run() {
+        if (!session.isOpen()) {
+            stop();
+            return;
+        }
+
+        if (awaitingPong) {
+            LOGGER.warn("The node did not answer a ping within {} millisecond(s). Replacing the session.",
+                    pingInterval);
+            stop();
+            websocketClient.abandonSession(session);
+            return;
+        }
+
+        awaitingPong = true;
+        if (!websocketClient.sendPing(session)) {
+            stop();
+            websocketClient.abandonSession(session);
+        }
+    }
+
+    @Override
+    public void onMessage(PongMessage pongMessage) {
+        awaitingPong = false;
+    }
+}
@@ -0,0 +1,412 @@
+package eu.bittrade.libs.steemj.communication;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.websocket.MessageHandler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+
+/**
+ * This class decodes the text messages of a WebSocket session while they are
+ * received.
+ *
+ * <p>
+ * The parts of a message are handed over by the thread reading the session
+ * and are fed into a non-blocking JSON parser by a worker of the
+ * {@link Executor} given to the {@link WebsocketClient}, so neither a String
+ * of the whole message nor a tree of the whole message is created. The parts
+ * are processed in the order they have been received. Each response is split
+ * into its tokens while it is received and the result is decoded into the
+ * type expected by the waiting caller afterwards by another worker, so large
+ * responses (e.g. of <code>get_state</code> or
+ * <code>get_account_history</code>) do not delay the responses received after
+ * them. Notices are handed over to the subscriptions in the order they have
+ * been received.
+ * </p>
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+class WebsocketMessageDecoder implements MessageHandler.Partial<String> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebsocketMessageDecoder.class);
+
+    /** The client the decoded responses are handed over to. */
+    private final WebsocketClient websocketClient;
+    /** The executor the messages are decoded with. */
+    private final Executor executor;
+    /** The parts received but not decoded yet. */
+    private final Queue<MessagePart> parts = new ConcurrentLinkedQueue<>();
+    /** Indicates that a worker is decoding the received parts. */
+    private final AtomicBoolean decoding = new AtomicBoolean();
+
+    /** The high surrogate at the end of the previous part, if any. */
+    private char pendingHighSurrogate;
+    /** The parser of the current message. */
+    private JsonParser parser;
+    /** Indicates that the current message is invalid and has to be skipped. */
+    private boolean skipMessage;
+    /** The nesting depth of the current token. */
+    private int depth;
+    /** The tokens of the current response. */
+    private TokenBuffer response;
+    /** The depth of the object of the current response. */
+    private int responseDepth;
+    /** The id of the current response. */
+    private Long responseId;
+    /** The method of the current response, which is set for notices. */
+    private String responseMethod;
+    /** The name of the last field of the current response. */
+    private String fieldName;
+
+    /**
+     * Create a new {@link WebsocketMessageDecoder} instance.
+     *
+     * @param websocketClient
+     *            The client the decoded responses are handed over to.
+     * @param executor
+     *            The executor the messages are decoded with.
+     */
+    WebsocketMessageDecoder(WebsocketClient websocketClient, Executor executor) {
+        this.websocketClient = websocketClient;
+        this.executor = executor;
+    }
+
+    @Override
+    public void onMessage(String partialMessage, boolean last) {
+        // Tyrus may split a message between the two chars of a surrogate
+        // pair, which can not be encoded on their own.
+        StringBuilder text = new StringBuilder(partialMessage.length() + 1);
+        if (pendingHighSurrogate != 0) {
+            text.append(pendingHighSurrogate);
+            pendingHighSurrogate = 0;
+        }
+
+        text.append(partialMessage);
+        if (!last && text.length() > 0 && Character.isHighSurrogate(text.charAt(text.length() - 1))) {
+            pendingHighSurrogate = text.charAt(text.length() - 1);
+            text.setLength(text.length() - 1);
+        }
+
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        websocketClient.recordBytesReceived(bytes.length);
+
+        parts.add(new MessagePart(bytes, last));
+        scheduleDecoding();
+    }
+
+    /**
+     * Run the given <code>action</code> once all parts received so far have
+     * been decoded and their responses have been handed over.
+     *
+     * @param action
+     *            The action to run.
+     */
+    void afterDecoding(Runnable action) {
+        parts.add(new MessagePart(action));
+        scheduleDecoding();
+    }
+
+    /**
+     * Let a worker decode the received parts unless a worker is already
+     * doing so.
+     */
+    private void scheduleDecoding() {
+        if (!decoding.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            executor.execute(this::decodeParts);
+        } catch (RejectedExecutionException e) {
+            // The executor has been shut down, so decode the parts in the
+            // current thread.
+            decodeParts();
+        }
+    }
+
+    /**
+     * Decode all parts received so far.
+     */
+    private void decodeParts() {
+        MessagePart part;
+        while ((part = parts.poll()) != null) {
+            decode(part);
+        }
+
+        decoding.set(false);
+        if (!parts.isEmpty()) {
+            scheduleDecoding();
+        }
+    }
+
+    /**
+     * Feed the given part into the parser of the current message and hand
+     * over all responses that have been completed by it.
+     *
+     * @param part
+     *            The part to decode.
+     */
+    private void decode(MessagePart part) {
+        if (part.getAction() != null) {
+            part.getAction().run();
+            return;
+        }
+
+        if (!skipMessage) {
+            try {
+                if (parser == null) {
+                    parser = CommunicationHandler.getObjectMapper().getFactory().createNonBlockingByteArrayParser();
+                }
+
+                ByteArrayFeeder feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+                feeder.feedInput(part.getBytes(), 0, part.getBytes().length);
+                if (part.isLast()) {
+                    feeder.endOfInput();
+                }
+
+                readTokens();
+            } catch (IOException e) {
+                // Sadly it is not possible to throw an exception here, so the
+                // only useful thing we can do is to log it.
+                LOGGER.error("Unable to parse the response.", e);
+                skipMessage = true;
+            }
+        }
+
+        if (part.isLast()) {
+            if (!skipMessage && depth != 0) {
+                LOGGER.error("Received an incomplete message.");
+            }
+
+            closeParser();
+            skipMessage = false;
+            depth = 0;
+            response = null;
+        }
+    }
+
+    /**
+     * Read the tokens available so far. A message contains a single response,
+     * a single notice or an array of them.
+     *
+     * @throws IOException
+     *             If the message is no valid JSON.
+     */
+    private void readTokens() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (token == JsonToken.START_OBJECT && response == null) {
+                startResponse();
+            } else if (response == null && (token != JsonToken.START_ARRAY || depth != 0)
+                    && token != JsonToken.END_ARRAY) {
+                LOGGER.error("Received an unexpected message.");
+                skipMessage = true;
+                return;
+            }
+
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+
+            if (response != null) {
+                readResponseToken(token);
+            }
+        }
+    }
+
+    /**
+     * Start to collect the tokens of a new response.
+     */
+    private void startResponse() {
+        response = new TokenBuffer(CommunicationHandler.getObjectMapper(), false);
+        responseDepth = depth + 1;
+        responseId = null;
+        responseMethod = null;
+        fieldName = null;
+    }
+
+    /**
+     * Add the current token to the current response and hand the response
+     * over once it is complete.
+     *
+     * @param token
+     *            The current token.
+     * @throws IOException
+     *             If the token could not be read.
+     */
+    private void readResponseToken(JsonToken token) throws IOException {
+        response.copyCurrentEvent(parser);
+
+        if (depth == responseDepth && token == JsonToken.FIELD_NAME) {
+            fieldName = parser.getCurrentName();
+        } else if (depth == responseDepth && token.isScalarValue()) {
+            if (JsonRPCResponse.ID_FIELD_NAME.equals(fieldName) && token != JsonToken.VALUE_NULL) {
+                responseId = parser.getValueAsLong();
+            } else if (JsonRPCResponse.METHOD_FIELD_NAME.equals(fieldName)) {
+                responseMethod = parser.getValueAsString();
+            }
+        } else if (depth == responseDepth - 1 && token == JsonToken.END_OBJECT) {
+            handleResponse(response, responseId, responseMethod);
+            response = null;
+        }
+    }
+
+    /**
+     * Hand over the given complete <code>tokens</code>. Notices are handed
+     * over to the subscriptions directly, while the result of a response is
+     * decoded by another worker.
+     *
+     * @param tokens
+     *            The tokens of a single response or notice.
+     * @param id
+     *            The id of the response or <code>null</code> if there is none.
+     * @param method
+     *            The method of the message or <code>null</code> if there is
+     *            none.
+     * @throws IOException
+     *             If a notice could not be read.
+     */
+    private void handleResponse(TokenBuffer tokens, Long id, String method) throws IOException {
+        ObjectMapper mapper = CommunicationHandler.getObjectMapper();
+        if (JsonRPCResponse.CALLBACK_METHOD_NAME.equals(method)) {
+            websocketClient.dispatchNotice(mapper.readTree(tokens.asParser(mapper)));
+            return;
+        }
+
+        if (id == null) {
+            LOGGER.error("Received an unexpected message.");
+            LOGGER.debug("Unexpected message: {}", mapper.readTree(tokens.asParser(mapper)));
+            return;
+        }
+
+        PendingRequest pendingRequest = websocketClient.takePendingRequest(id);
+        if (pendingRequest == null) {
+            LOGGER.error("Received an unexpected message.");
+            LOGGER.debug("Unexpected message with the id {}.", id);
+            return;
+        }
+
+        try {
+            executor.execute(() -> completeResponse(tokens, pendingRequest));
+        } catch (RejectedExecutionException e) {
+            completeResponse(tokens, pendingRequest);
+        }
+    }
+
+    /**
+     * Decode the given <code>tokens</code> into the type expected by the
+     * <code>pendingRequest</code> and hand the response over.
+     *
+     * @param tokens
+     *            The tokens of a single response.
+     * @param pendingRequest
+     *            The request waiting for the response.
+     */
+    private static void completeResponse(TokenBuffer tokens, PendingRequest pendingRequest) {
+        ObjectMapper mapper = CommunicationHandler.getObjectMapper();
+        try {
+            try {
+                pendingRequest.complete(JsonRPCResponse.readFrom(tokens.asParser(mapper),
+                        pendingRequest.getRequest().getResultType()));
+            } catch (IOException e) {
+                // Let the CommunicationHandler report that the result does not
+                // match the expected type.
+                pendingRequest.complete(JsonRPCResponse.readFrom(tokens.asParser(mapper), null));
+            }
+        } catch (IOException e) {
+            pendingRequest.fail(new SteemCommunicationException("Unable to parse the response.", e));
+        }
+    }
+
+    /**
+     * Close the parser of the current message.
+     */
+    private void closeParser() {
+        if (parser != null) {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close the parser.", e);
+            }
+
+            parser = null;
+        }
+    }
+
+    /**
+     * A part of a text message encoded as UTF-8 or an action that has to be
+     * run after the previous parts have been decoded.
+     */
+    private static class MessagePart {
+        private final byte[] bytes;
+        private final boolean last;
+        private final Runnable action;
+
+        /**
+         * Create a new {@link MessagePart} instance.
+         *
+         * @param bytes
+         *            The UTF-8 encoded text.
+         * @param last
+         *            <code>true</code> if this is the last part of the
+         *            message.
+         */
+        MessagePart(byte[] bytes, boolean last) {
+            this.bytes = bytes;
+            this.last = last;
+            this.action = null;
+        }
+
+        /**
+         * Create a new {@link MessagePart} instance.
+         *
+         * @param action
+         *            The action to run after the previous parts have been
+         *            decoded.
+         */
+        MessagePart(Runnable action) {
+            this.bytes = null;
+            this.last = false;
+            this.action = action;
+        }
+
+        /**
+         * @return The UTF-8 encoded text.
+         */
+        byte[] getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return <code>true</code> if this is the last part of the message.
+         */
+        boolean isLast() {
+            return last;
+        }
+
+        /**
+         * @return The action to run or <code>null</code> if this is a part of
+         *         a message.
+         */
+        Runnable getAction() {
+            return action;
+        }
+    }
+}
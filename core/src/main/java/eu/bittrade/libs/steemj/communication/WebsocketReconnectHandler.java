@@ -12,7 +12,11 @@ import eu.bittrade.libs.steemj.configuration.SteemJConfig;
  * This class handles connection issues.
  * 
  * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ * @deprecated The {@link WebsocketClient} replaces closed sessions itself and
+ *             sends the requests that were in flight again, so this handler
+ *             is no longer installed.
  */
+@Deprecated
 public class WebsocketReconnectHandler extends ReconnectHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(WebsocketReconnectHandler.class);
 
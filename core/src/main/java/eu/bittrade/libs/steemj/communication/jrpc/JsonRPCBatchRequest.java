@@ -0,0 +1,282 @@
+package eu.bittrade.libs.steemj.communication.jrpc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import eu.bittrade.libs.steemj.communication.CommunicationHandler;
+import eu.bittrade.libs.steemj.communication.Deadline;
+import eu.bittrade.libs.steemj.configuration.SteemJContext;
+import eu.bittrade.libs.steemj.enums.RequestPriority;
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+
+/**
+ * A wrapper object that carries multiple {@link JsonRPCRequest} instances which
+ * are sent to the node as one JSON-RPC 2.0 batch, meaning as a single JSON
+ * array in one HTTP request or WebSocket frame.
+ *
+ * The node answers with an array of responses that is not required to have
+ * the same order as the requests, so the responses are matched to their
+ * requests using the <code>id</code>.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class JsonRPCBatchRequest {
+    /** The requests that are part of this batch. */
+    private final List<JsonRPCRequest> requests;
+
+    /**
+     * Instantiate a new, empty batch.
+     */
+    public JsonRPCBatchRequest() {
+        this.requests = new ArrayList<>();
+    }
+
+    /**
+     * Instantiate a new batch containing the given <code>requests</code>.
+     *
+     * @param requests
+     *            The requests to add to this batch.
+     */
+    public JsonRPCBatchRequest(List<JsonRPCRequest> requests) {
+        this.requests = new ArrayList<>(requests);
+    }
+
+    /**
+     * Add a request to this batch.
+     *
+     * @param request
+     *            The request to add.
+     */
+    public void addRequest(JsonRPCRequest request) {
+        this.requests.add(request);
+    }
+
+    /**
+     * Get the requests of this batch in the order they have been added.
+     *
+     * @return An unmodifiable view of the requests of this batch.
+     */
+    public List<JsonRPCRequest> getRequests() {
+        return Collections.unmodifiableList(requests);
+    }
+
+    /**
+     * @return The number of requests in this batch.
+     */
+    public int size() {
+        return requests.size();
+    }
+
+    /**
+     * @return <code>true</code> if this batch does not contain any request.
+     */
+    public boolean isEmpty() {
+        return requests.isEmpty();
+    }
+
+    /**
+     * Split this batch into batches containing <code>maxBatchSize</code>
+     * requests at most. The order of the requests is preserved.
+     *
+     * @param maxBatchSize
+     *            The maximum number of requests per batch.
+     * @return A list of batches. If this batch is not larger than
+     *         <code>maxBatchSize</code>, the list only contains this instance.
+     */
+    public List<JsonRPCBatchRequest> split(int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("The maximum batch size has to be positive.");
+        }
+
+        List<JsonRPCBatchRequest> batches = new ArrayList<>();
+        if (requests.size() <= maxBatchSize) {
+            batches.add(this);
+            return batches;
+        }
+
+        for (int i = 0; i < requests.size(); i += maxBatchSize) {
+            batches.add(new JsonRPCBatchRequest(requests.subList(i, Math.min(i + maxBatchSize, requests.size()))));
+        }
+
+        return batches;
+    }
+
+    /**
+     * Assign the elements of the JSON array returned by the node to the
+     * requests of this batch.
+     *
+     * @param rawJsonResponse
+     *            The JSON array returned by the node.
+     * @return The responses in the same order as the requests of this batch.
+     * @throws SteemCommunicationException
+     *             If the node did not answer with an array or if the response
+     *             for one of the requests is missing.
+     */
+    public List<JsonRPCResponse> matchResponses(JsonNode rawJsonResponse) throws SteemCommunicationException {
+        if (rawJsonResponse == null || !rawJsonResponse.isArray()) {
+            throw new SteemCommunicationException(
+                    "Expected an array of responses for a batch request, but received: " + rawJsonResponse);
+        }
+
+        List<JsonRPCResponse> unorderedResponses = new ArrayList<>(rawJsonResponse.size());
+        for (JsonNode response : rawJsonResponse) {
+            unorderedResponses.add(new JsonRPCResponse(response));
+        }
+
+        return matchResponses(unorderedResponses);
+    }
+
+    /**
+     * Assign the responses returned by the node to the requests of this batch.
+     *
+     * @param unorderedResponses
+     *            The responses in the order they have been returned by the
+     *            node.
+     * @return The responses in the same order as the requests of this batch.
+     * @throws SteemCommunicationException
+     *             If the response for one of the requests is missing.
+     */
+    public List<JsonRPCResponse> matchResponses(List<JsonRPCResponse> unorderedResponses)
+            throws SteemCommunicationException {
+        Map<Long, JsonRPCResponse> responsesById = new HashMap<>();
+        for (JsonRPCResponse response : unorderedResponses) {
+            JsonNode id = response.getRawJsonResponse().get(JsonRPCResponse.ID_FIELD_NAME);
+            if (id != null && !id.isNull()) {
+                responsesById.put(id.asLong(), response);
+            }
+        }
+
+        List<JsonRPCResponse> responses = new ArrayList<>(requests.size());
+        for (JsonRPCRequest request : requests) {
+            JsonRPCResponse response = responsesById.get(request.getId());
+            if (response == null) {
+                throw new SteemCommunicationException(
+                        "The batch response does not contain an answer for the request with the id "
+                                + request.getId() + ".");
+            }
+
+            responses.add(response);
+        }
+
+        return responses;
+    }
+
+    /**
+     * Get the result type shared by all requests of this batch. As the id of a
+     * response may follow its result, a result can only be decoded while
+     * reading if all requests expect the same type.
+     *
+     * @return The result type of all requests or <code>null</code> if the
+     *         requests expect different or unknown types.
+     */
+    public JavaType getResultType() {
+        JavaType resultType = null;
+        for (JsonRPCRequest request : requests) {
+            if (request.getResultType() == null
+                    || (resultType != null && !resultType.equals(request.getResultType()))) {
+                return null;
+            }
+
+            resultType = request.getResultType();
+        }
+
+        return resultType;
+    }
+
+    /**
+     * Get the deadline of the request that expires first, as the responses
+     * to all requests of this batch are received together.
+     *
+     * @return The earliest deadline or <code>null</code> if no request has a
+     *         deadline.
+     */
+    public Deadline getDeadline() {
+        Deadline deadline = null;
+        for (JsonRPCRequest request : requests) {
+            if (request.getDeadline() != null) {
+                deadline = request.getDeadline().earliest(deadline);
+            }
+        }
+
+        return deadline;
+    }
+
+    /**
+     * Get the highest priority of all requests of this batch, as the
+     * responses to all requests of this batch are received together. The
+     * priorities are based on the current
+     * {@link eu.bittrade.libs.steemj.configuration.SteemJConfig SteemJConfig}
+     * instance (see {@link JsonRPCRequest#getPriority()}).
+     *
+     * @return The highest priority or {@link RequestPriority#INTERACTIVE} if
+     *         this batch is empty.
+     */
+    public RequestPriority getPriority() {
+        RequestPriority priority = null;
+        for (JsonRPCRequest request : requests) {
+            if (priority == null || request.getPriority().compareTo(priority) < 0) {
+                priority = request.getPriority();
+            }
+        }
+
+        return priority == null ? RequestPriority.INTERACTIVE : priority;
+    }
+
+    /**
+     * Get the highest priority of all requests of this batch (see
+     * {@link JsonRPCRequest#getPriority(SteemJContext)}).
+     *
+     * @param context
+     *            The context of the handler sending this batch.
+     * @return The highest priority or {@link RequestPriority#INTERACTIVE} if
+     *         this batch is empty.
+     */
+    public RequestPriority getPriority(SteemJContext context) {
+        return getHighestPriority(requests, context);
+    }
+
+    /**
+     * Get the highest priority of the given <code>requests</code>.
+     *
+     * @param requests
+     *            The requests to check.
+     * @param context
+     *            The context of the handler sending the requests.
+     * @return The highest priority or {@link RequestPriority#INTERACTIVE} if
+     *         there are no requests.
+     */
+    public static RequestPriority getHighestPriority(List<JsonRPCRequest> requests, SteemJContext context) {
+        RequestPriority priority = null;
+        for (JsonRPCRequest request : requests) {
+            RequestPriority requestPriority = request.getPriority(context);
+            if (priority == null || requestPriority.compareTo(priority) < 0) {
+                priority = requestPriority;
+            }
+        }
+
+        return priority == null ? RequestPriority.INTERACTIVE : priority;
+    }
+
+    /**
+     * @return The json representation of this object.
+     * @throws JsonProcessingException
+     *             If the object can not be transformed into valid json.
+     */
+    public String toJson() throws JsonProcessingException {
+        return CommunicationHandler.getObjectMapper().writeValueAsString(requests);
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
@@ -1,15 +1,21 @@
 package eu.bittrade.libs.steemj.communication.jrpc;
 
 import java.util.Random;
+import java.util.Set;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
 
 import eu.bittrade.libs.steemj.communication.CommunicationHandler;
+import eu.bittrade.libs.steemj.communication.Deadline;
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.configuration.SteemJContext;
 import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.RequestPriority;
 import eu.bittrade.libs.steemj.enums.SteemApiType;
 
 /**
@@ -34,6 +40,12 @@ public class JsonRPCRequest {
     private RequestMethods apiMethod;
     @JsonIgnore
     private Object additionalParameters;
+    @JsonIgnore
+    private JavaType resultType;
+    @JsonIgnore
+    private Deadline deadline;
+    @JsonIgnore
+    private RequestPriority priority;
 
     private long id;
 
@@ -101,6 +113,110 @@ public class JsonRPCRequest {
         this.additionalParameters = userParameters;
     }
 
+    /**
+     * Get the type the result of this request is expected to have.
+     * 
+     * @return The expected result type or <code>null</code> if unknown.
+     */
+    public JavaType getResultType() {
+        return resultType;
+    }
+
+    /**
+     * Define the type the result of this request is expected to have. Clients
+     * use this information to decode the result directly while reading the
+     * response. This is done by the {@link CommunicationHandler} before the
+     * request is sent.
+     * 
+     * @param resultType
+     *            The expected result type.
+     */
+    public void setResultType(JavaType resultType) {
+        this.resultType = resultType;
+    }
+
+    /**
+     * Get the point in time until which the result of this request is needed.
+     * 
+     * @return The deadline or <code>null</code> if there is none.
+     */
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Define the point in time until which the result of this request is
+     * needed. Once the deadline has expired, the request is aborted, no
+     * matter if it is still waiting for a response or for a retry.
+     * 
+     * @param deadline
+     *            The deadline or <code>null</code> to only apply the response
+     *            timeout.
+     */
+    public void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Get the priority of this request based on the
+     * {@link SteemJConfig#getBulkMethods() bulk methods} of the current
+     * {@link SteemJConfig} instance (see
+     * {@link #getPriority(SteemJContext)}).
+     * 
+     * @return The priority of this request.
+     */
+    public RequestPriority getPriority() {
+        return getPriority(SteemJConfig.getInstance().getBulkMethods());
+    }
+
+    /**
+     * Get the priority of this request. If no priority has been set, it is
+     * derived from the api and the method of this request: Broadcasts have
+     * the {@link RequestPriority#BROADCAST broadcast} priority, the
+     * {@link SteemJContext#getBulkMethods() bulk methods} of the given
+     * <code>context</code> have the {@link RequestPriority#BULK bulk} priority
+     * and all other requests have the {@link RequestPriority#INTERACTIVE
+     * interactive} priority.
+     * 
+     * @param context
+     *            The context of the handler sending this request.
+     * @return The priority of this request.
+     */
+    public RequestPriority getPriority(SteemJContext context) {
+        return getPriority(context.getBulkMethods());
+    }
+
+    /**
+     * @param bulkMethods
+     *            The methods whose requests are bulk reads.
+     * @return The priority of this request.
+     */
+    private RequestPriority getPriority(Set<RequestMethods> bulkMethods) {
+        if (priority != null) {
+            return priority;
+        } else if (steemApi == SteemApiType.NETWORK_BROADCAST_API
+                || (apiMethod != null && apiMethod.name().startsWith("BROADCAST_"))) {
+            return RequestPriority.BROADCAST;
+        } else if (apiMethod != null && bulkMethods.contains(apiMethod)) {
+            return RequestPriority.BULK;
+        }
+
+        return RequestPriority.INTERACTIVE;
+    }
+
+    /**
+     * Override the priority derived from the api and the method of this
+     * request, e.g. to send a single request of a crawler with the
+     * {@link RequestPriority#INTERACTIVE interactive} priority.
+     * 
+     * @param priority
+     *            The priority or <code>null</code> to derive it from the api
+     *            and the method.
+     */
+    public void setPriority(RequestPriority priority) {
+        this.priority = priority;
+    }
+
     /**
      * Get the complete list of parameters used for this request.
      * 
@@ -142,6 +258,26 @@ public class JsonRPCRequest {
         return id;
     }
 
+    /**
+     * Create a copy of this request that has the same id, api, method,
+     * parameters, result type, deadline and priority. Changing the copy does not
+     * affect this request.
+     * 
+     * @return The copy.
+     */
+    public JsonRPCRequest copy() {
+        JsonRPCRequest copy = new JsonRPCRequest();
+        copy.id = id;
+        copy.steemApi = steemApi;
+        copy.apiMethod = apiMethod;
+        copy.additionalParameters = additionalParameters;
+        copy.resultType = resultType;
+        copy.deadline = deadline;
+        copy.priority = priority;
+
+        return copy;
+    }
+
     /**
      * @return The json representation of this object.
      * @throws JsonProcessingException
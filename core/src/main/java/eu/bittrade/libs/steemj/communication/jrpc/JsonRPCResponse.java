@@ -1,5 +1,6 @@
 package eu.bittrade.libs.steemj.communication.jrpc;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -7,8 +8,11 @@ import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import eu.bittrade.libs.steemj.communication.CommunicationHandler;
@@ -45,6 +49,12 @@ public class JsonRPCResponse {
 
     /** The raw JSON String returned by a node. */
     private JsonNode rawJsonResponse;
+    /** The result field, if it has already been decoded while reading. */
+    private Object decodedResult;
+    /** The type the {@link #decodedResult} has been decoded to. */
+    private JavaType decodedResultType;
+    /** The time in nanoseconds spent to parse the response. */
+    private long decodeTime;
 
     /**
      * Create a new {@link JsonRPCResponse} instance.
@@ -54,7 +64,94 @@ public class JsonRPCResponse {
      *            {@link JsonRPCResponse} instance.
      */
     public JsonRPCResponse(JsonNode rawJsonResponse) {
+        this(rawJsonResponse, 0);
+    }
+
+    /**
+     * Create a new {@link JsonRPCResponse} instance.
+     * 
+     * @param rawJsonResponse
+     *            The raw JSON response that should be wrapped by this
+     *            {@link JsonRPCResponse} instance.
+     * @param decodeTime
+     *            The time in nanoseconds that has been spent to parse the
+     *            <code>rawJsonResponse</code>.
+     */
+    public JsonRPCResponse(JsonNode rawJsonResponse, long decodeTime) {
         this.rawJsonResponse = rawJsonResponse;
+        this.decodeTime = decodeTime;
+    }
+
+    /**
+     * Create a new {@link JsonRPCResponse} instance whose result field has
+     * already been decoded.
+     * 
+     * @param envelope
+     *            All fields of the response except of the result field.
+     * @param decodedResult
+     *            The decoded result field.
+     * @param decodedResultType
+     *            The type the result field has been decoded to.
+     * @param decodeTime
+     *            The time in nanoseconds that has been spent to read the
+     *            response.
+     */
+    private JsonRPCResponse(ObjectNode envelope, Object decodedResult, JavaType decodedResultType,
+            long decodeTime) {
+        this.rawJsonResponse = envelope;
+        this.decodedResult = decodedResult;
+        this.decodedResultType = decodedResultType;
+        this.decodeTime = decodeTime;
+    }
+
+    /**
+     * Read a single response from the given <code>parser</code>.
+     * 
+     * <p>
+     * The envelope fields (id, error, ...) are read token by token, while the
+     * result field is bound directly to the <code>resultType</code>. This
+     * avoids the intermediate String and tree representations of the result,
+     * which can be large for blocks or account histories.
+     * </p>
+     * 
+     * @param parser
+     *            The parser to read from. It has to point to the start of the
+     *            response or to the token before.
+     * @param resultType
+     *            The type the result field should be decoded to or
+     *            <code>null</code> to read the whole response as tree.
+     * @return The response.
+     * @throws IOException
+     *             If the response could not be read or if the result could not
+     *             be decoded into the <code>resultType</code>.
+     */
+    public static JsonRPCResponse readFrom(JsonParser parser, JavaType resultType) throws IOException {
+        ObjectMapper mapper = CommunicationHandler.getObjectMapper();
+        long startTime = System.nanoTime();
+
+        if (!parser.hasCurrentToken()) {
+            parser.nextToken();
+        }
+
+        if (resultType == null || parser.getCurrentToken() != JsonToken.START_OBJECT) {
+            JsonNode rawJsonResponse = mapper.readTree(parser);
+            return new JsonRPCResponse(rawJsonResponse, System.nanoTime() - startTime);
+        }
+
+        ObjectNode envelope = mapper.createObjectNode();
+        Object decodedResult = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+
+            if (RESULT_FIELD_NAME.equals(fieldName) && valueToken != JsonToken.VALUE_NULL) {
+                decodedResult = mapper.readValue(parser, resultType);
+            } else {
+                envelope.set(fieldName, mapper.readTree(parser));
+            }
+        }
+
+        return new JsonRPCResponse(envelope, decodedResult, resultType, System.nanoTime() - startTime);
     }
 
     /**
@@ -62,12 +159,27 @@ public class JsonRPCResponse {
      * instance.
      * 
      * @return The raw JSON response that is wrapped by this
-     *         {@link JsonRPCResponse} instance.
+     *         {@link JsonRPCResponse} instance. If the result has already been
+     *         decoded while reading (see
+     *         {@link #readFrom(JsonParser, JavaType)}), the result field is not
+     *         part of the returned JSON.
      */
     public JsonNode getRawJsonResponse() {
         return rawJsonResponse;
     }
 
+    /**
+     * Get the time that has been spent to parse this response. If the
+     * response has been read while it was received (see
+     * {@link #readFrom(JsonParser, JavaType)}), this includes the time spent
+     * waiting for the remaining bytes of the response.
+     * 
+     * @return The decode time in nanoseconds.
+     */
+    public long getDecodeTime() {
+        return decodeTime;
+    }
+
     // #########################################################################
     // ## HANDLE RESULTS #######################################################
     // #########################################################################
@@ -93,7 +205,7 @@ public class JsonRPCResponse {
      *         not.
      */
     private boolean isResult() {
-        return rawJsonResponse.has(RESULT_FIELD_NAME);
+        return decodedResult != null || rawJsonResponse.has(RESULT_FIELD_NAME);
     }
 
     /**
@@ -106,7 +218,7 @@ public class JsonRPCResponse {
     private boolean isResultEmpty() {
         ObjectNode responseAsObject = ObjectNode.class.cast(rawJsonResponse);
 
-        if (!isFieldNullOrEmpty(RESULT_FIELD_NAME, responseAsObject))
+        if (decodedResult != null || !isFieldNullOrEmpty(RESULT_FIELD_NAME, responseAsObject))
             return false;
 
         LOGGER.debug("The response is empty.");
@@ -143,6 +255,7 @@ public class JsonRPCResponse {
      *             or if the response could not be transformed into the expected
      *             <code>type</code>.
      */
+    @SuppressWarnings("unchecked")
     public <T> List<T> handleResult(JavaType type, long id) throws SteemCommunicationException {
         if (isResponseValid()) {
             if (!isResult()) {
@@ -156,9 +269,14 @@ public class JsonRPCResponse {
                             "The id of this response does not match the expected id. This can cause an unexpected behavior.");
                 }
 
-                if (!isResultEmpty())
+                if (decodedResult != null && type.equals(decodedResultType)) {
+                    return (List<T>) decodedResult;
+                } else if (decodedResult != null) {
+                    return CommunicationHandler.getObjectMapper().convertValue(decodedResult, type);
+                } else if (!isResultEmpty()) {
                     return CommunicationHandler.getObjectMapper().convertValue(responseAsObject.get(RESULT_FIELD_NAME),
                             type);
+                }
             }
         }
 
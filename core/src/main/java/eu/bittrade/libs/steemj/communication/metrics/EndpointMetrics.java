@@ -0,0 +1,118 @@
+package eu.bittrade.libs.steemj.communication.metrics;
+
+import java.net.URI;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * The counters the {@link MetricsRegistry} keeps for a single endpoint.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class EndpointMetrics {
+    private final URI endpointUri;
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder failovers = new LongAdder();
+
+    /**
+     * Create a new {@link EndpointMetrics} instance.
+     *
+     * @param endpointUri
+     *            The endpoint to count for.
+     */
+    public EndpointMetrics(URI endpointUri) {
+        this.endpointUri = endpointUri;
+    }
+
+    /**
+     * @return The endpoint this instance counts for.
+     */
+    public URI getEndpointUri() {
+        return endpointUri;
+    }
+
+    /**
+     * @return The number of bytes sent to the endpoint.
+     */
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    /**
+     * @return The number of bytes received from the endpoint.
+     */
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    /**
+     * @return The number of failed requests to the endpoint that have been
+     *         retried.
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * @return The number of requests the endpoint did not answer in time.
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * @return The number of failed requests to the endpoint that have been
+     *         retried using another endpoint.
+     */
+    public long getFailovers() {
+        return failovers.sum();
+    }
+
+    /**
+     * @param numberOfBytes
+     *            The number of bytes to add to the sent bytes.
+     */
+    void addBytesSent(long numberOfBytes) {
+        bytesSent.add(numberOfBytes);
+    }
+
+    /**
+     * @param numberOfBytes
+     *            The number of bytes to add to the received bytes.
+     */
+    void addBytesReceived(long numberOfBytes) {
+        bytesReceived.add(numberOfBytes);
+    }
+
+    /**
+     * Count a retried request.
+     */
+    void addRetry() {
+        retries.increment();
+    }
+
+    /**
+     * Count a request that has not been answered in time.
+     */
+    void addTimeout() {
+        timeouts.increment();
+    }
+
+    /**
+     * Count a request that has been retried using another endpoint.
+     */
+    void addFailover() {
+        failovers.increment();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this).append("endpointUri", endpointUri).append("bytesSent", getBytesSent())
+                .append("bytesReceived", getBytesReceived()).append("retries", getRetries())
+                .append("timeouts", getTimeouts()).append("failovers", getFailovers()).toString();
+    }
+}
@@ -0,0 +1,161 @@
+package eu.bittrade.libs.steemj.communication.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * A histogram of durations using log-linear buckets like the HdrHistogram:
+ * Each power of two is divided into {@link #SUB_BUCKET_COUNT} / 2 buckets of
+ * the same width, so the relative error of a reported value is below
+ * 2 / {@link #SUB_BUCKET_COUNT} for any magnitude, while the memory used is
+ * fixed.
+ *
+ * Values are recorded without locking and can be read while other threads
+ * record new ones.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class LatencyHistogram {
+    /** The number of values below the first power of two bucket. */
+    public static final int SUB_BUCKET_COUNT = 64;
+
+    private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKET_COUNT);
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int NUMBER_OF_BUCKETS = SUB_BUCKET_COUNT
+            + (Long.SIZE - 1 - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUMBER_OF_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Add a value to this histogram.
+     *
+     * @param value
+     *            The value to add. Negative values are recorded as 0.
+     */
+    public void record(long value) {
+        long positiveValue = Math.max(0, value);
+
+        counts.incrementAndGet(getBucketIndex(positiveValue));
+        count.increment();
+        total.add(positiveValue);
+        max.accumulateAndGet(positiveValue, Math::max);
+    }
+
+    /**
+     * @return The number of recorded values.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return The sum of all recorded values.
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * @return The highest recorded value or 0 if no value has been recorded.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return The average of the recorded values or 0 if no value has been
+     *         recorded.
+     */
+    public double getMean() {
+        long numberOfValues = count.sum();
+
+        return numberOfValues == 0 ? 0 : (double) total.sum() / numberOfValues;
+    }
+
+    /**
+     * Get the value below or equal to which the given <code>percentile</code>
+     * of the recorded values fall.
+     *
+     * @param percentile
+     *            The percentile between 0 and 100, e.g. 99 for the 99th
+     *            percentile.
+     * @return The highest value of the bucket containing the percentile or 0
+     *         if no value has been recorded.
+     * @throws IllegalArgumentException
+     *             If the <code>percentile</code> is not between 0 and 100.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile has to be between 0 and 100.");
+        }
+
+        long numberOfValues = 0;
+        long[] snapshot = new long[NUMBER_OF_BUCKETS];
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            numberOfValues += snapshot[i];
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * numberOfValues));
+        long seenValues = 0;
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            seenValues += snapshot[i];
+            if (seenValues >= rank) {
+                return Math.min(getHighestValue(i), max.get());
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Get the bucket the given <code>value</code> is counted in.
+     *
+     * @param value
+     *            A value that is not negative.
+     * @return The index of the bucket.
+     */
+    static int getBucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        // The number of bits to drop so the value fits into the upper half of
+        // the sub buckets.
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_SUB_BUCKET_COUNT
+                + (int) (value >>> shift) - HALF_SUB_BUCKET_COUNT;
+    }
+
+    /**
+     * Get the highest value counted in the bucket with the given
+     * <code>index</code>.
+     *
+     * @param index
+     *            The index of the bucket.
+     * @return The highest value of the bucket.
+     */
+    static long getHighestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = (index - SUB_BUCKET_COUNT) / HALF_SUB_BUCKET_COUNT + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this).append("count", getCount()).append("mean", getMean())
+                .append("max", getMax()).toString();
+    }
+}
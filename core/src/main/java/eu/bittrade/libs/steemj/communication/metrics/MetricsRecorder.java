@@ -0,0 +1,92 @@
+package eu.bittrade.libs.steemj.communication.metrics;
+
+import java.net.URI;
+
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+
+/**
+ * The interface the {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+ * CommunicationHandler} and its clients report their measurements to.
+ *
+ * The built-in {@link MetricsRegistry} keeps the measurements in memory, so
+ * they can be read by a dashboard adapter. An adapter for a metrics library
+ * can also implement this interface directly and register itself using
+ * {@link eu.bittrade.libs.steemj.configuration.SteemJConfig#setMetricsRecorder(MetricsRecorder)
+ * setMetricsRecorder()}. All methods are called from the threads performing
+ * the requests, so implementations have to be thread safe and should return
+ * quickly.
+ *
+ * All durations are given in nanoseconds.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public interface MetricsRecorder {
+    /**
+     * Record the time between sending a request and receiving its response,
+     * without the time spent to decode the response.
+     *
+     * @param endpoint
+     *            The endpoint the request has been sent to.
+     * @param method
+     *            The method that has been called.
+     * @param latency
+     *            The network time of the request.
+     */
+    void recordLatency(URI endpoint, RequestMethods method, long latency);
+
+    /**
+     * Record the time spent to transform a response into Java objects.
+     *
+     * @param method
+     *            The method whose response has been decoded.
+     * @param decodeTime
+     *            The time spent to decode the response.
+     */
+    void recordDecodeTime(RequestMethods method, long decodeTime);
+
+    /**
+     * Record the size of a JSON payload sent to a node.
+     *
+     * @param endpoint
+     *            The endpoint the payload has been sent to.
+     * @param numberOfBytes
+     *            The size of the payload before it has been compressed.
+     */
+    void recordBytesSent(URI endpoint, long numberOfBytes);
+
+    /**
+     * Record the size of a JSON payload received from a node.
+     *
+     * @param endpoint
+     *            The endpoint the payload has been received from.
+     * @param numberOfBytes
+     *            The size of the payload after it has been decompressed.
+     */
+    void recordBytesReceived(URI endpoint, long numberOfBytes);
+
+    /**
+     * Record that a request is retried after it has failed.
+     *
+     * @param endpoint
+     *            The endpoint the failed attempt has been sent to.
+     */
+    void recordRetry(URI endpoint);
+
+    /**
+     * Record that no response has been received in time.
+     *
+     * @param endpoint
+     *            The endpoint that did not answer in time.
+     */
+    void recordTimeout(URI endpoint);
+
+    /**
+     * Record that a failed request is retried using another endpoint.
+     *
+     * @param endpoint
+     *            The endpoint the failed attempt has been sent to.
+     * @param newEndpoint
+     *            The endpoint the request is sent to next.
+     */
+    void recordFailover(URI endpoint, URI newEndpoint);
+}
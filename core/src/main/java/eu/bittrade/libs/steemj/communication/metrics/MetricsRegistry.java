@@ -0,0 +1,124 @@
+package eu.bittrade.libs.steemj.communication.metrics;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+
+/**
+ * The built-in {@link MetricsRecorder} that keeps all measurements in memory:
+ *
+ * <ul>
+ * <li>A {@link LatencyHistogram} of the network time per
+ * {@link RequestMethods method}.</li>
+ * <li>A {@link LatencyHistogram} of the decode time per
+ * {@link RequestMethods method}.</li>
+ * <li>The bytes sent and received, the retries, the timeouts and the
+ * failovers per endpoint (see {@link EndpointMetrics}).</li>
+ * </ul>
+ *
+ * A dashboard adapter can read the current values at any time, e.g. by
+ * polling {@link #getLatencyHistograms()} and {@link #getEndpointMetrics()}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class MetricsRegistry implements MetricsRecorder {
+    private final ConcurrentMap<RequestMethods, LatencyHistogram> latencyHistograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<RequestMethods, LatencyHistogram> decodeTimeHistograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<URI, EndpointMetrics> endpointMetrics = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordLatency(URI endpoint, RequestMethods method, long latency) {
+        latencyHistograms.computeIfAbsent(method, key -> new LatencyHistogram()).record(latency);
+    }
+
+    @Override
+    public void recordDecodeTime(RequestMethods method, long decodeTime) {
+        decodeTimeHistograms.computeIfAbsent(method, key -> new LatencyHistogram()).record(decodeTime);
+    }
+
+    @Override
+    public void recordBytesSent(URI endpoint, long numberOfBytes) {
+        getEndpointMetrics(endpoint).addBytesSent(numberOfBytes);
+    }
+
+    @Override
+    public void recordBytesReceived(URI endpoint, long numberOfBytes) {
+        getEndpointMetrics(endpoint).addBytesReceived(numberOfBytes);
+    }
+
+    @Override
+    public void recordRetry(URI endpoint) {
+        getEndpointMetrics(endpoint).addRetry();
+    }
+
+    @Override
+    public void recordTimeout(URI endpoint) {
+        getEndpointMetrics(endpoint).addTimeout();
+    }
+
+    @Override
+    public void recordFailover(URI endpoint, URI newEndpoint) {
+        getEndpointMetrics(endpoint).addFailover();
+    }
+
+    /**
+     * @return An unmodifiable view of the network time histograms of all
+     *         methods that have been called so far.
+     */
+    public Map<RequestMethods, LatencyHistogram> getLatencyHistograms() {
+        return Collections.unmodifiableMap(latencyHistograms);
+    }
+
+    /**
+     * @return An unmodifiable view of the decode time histograms of all
+     *         methods whose responses have been decoded so far.
+     */
+    public Map<RequestMethods, LatencyHistogram> getDecodeTimeHistograms() {
+        return Collections.unmodifiableMap(decodeTimeHistograms);
+    }
+
+    /**
+     * @return An unmodifiable view of the counters of all endpoints that have
+     *         been used so far.
+     */
+    public Map<URI, EndpointMetrics> getEndpointMetrics() {
+        return Collections.unmodifiableMap(endpointMetrics);
+    }
+
+    /**
+     * Get the counters of the given <code>endpoint</code>.
+     *
+     * @param endpoint
+     *            The endpoint to get the counters for.
+     * @return The counters of the endpoint, which are created if the endpoint
+     *         has not been used before.
+     */
+    public EndpointMetrics getEndpointMetrics(URI endpoint) {
+        return endpointMetrics.computeIfAbsent(endpoint, EndpointMetrics::new);
+    }
+
+    /**
+     * @return The number of bytes sent to all endpoints.
+     */
+    public long getBytesSent() {
+        return endpointMetrics.values().stream().mapToLong(EndpointMetrics::getBytesSent).sum();
+    }
+
+    /**
+     * @return The number of bytes received from all endpoints.
+     */
+    public long getBytesReceived() {
+        return endpointMetrics.values().stream().mapToLong(EndpointMetrics::getBytesReceived).sum();
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
@@ -0,0 +1,138 @@
+package eu.bittrade.libs.steemj.communication.selection;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * A circuit breaker guarding a single endpoint.
+ *
+ * The breaker is {@link State#CLOSED closed} as long as the endpoint works.
+ * After a configured number of consecutive failures it {@link State#OPEN
+ * opens}, so the endpoint is no longer used and does not add latency to every
+ * call. Once the configured open duration has passed, the breaker becomes
+ * {@link State#HALF_OPEN half open} and a single trial request is admitted:
+ * Its success closes the breaker while its failure opens it again. Until the
+ * outcome of the trial request has been recorded, the breaker is open for
+ * all other requests. If no outcome is recorded within the open duration,
+ * another trial request is admitted.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class CircuitBreaker {
+    /** The default number of consecutive failures that open the breaker. */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+    /** The default time in milliseconds the breaker stays open. */
+    public static final long DEFAULT_OPEN_DURATION = 30000L;
+
+    /**
+     * The states a {@link CircuitBreaker} can be in.
+     */
+    public enum State {
+        /** Requests are allowed. */
+        CLOSED,
+        /** Requests are not allowed. */
+        OPEN,
+        /** A trial request is allowed. */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDuration;
+
+    private int consecutiveFailures;
+    private boolean open;
+    private long openedAt;
+
+    /**
+     * Create a new {@link CircuitBreaker} instance using the
+     * {@link #DEFAULT_FAILURE_THRESHOLD} and the
+     * {@link #DEFAULT_OPEN_DURATION}.
+     */
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION);
+    }
+
+    /**
+     * Create a new {@link CircuitBreaker} instance.
+     *
+     * @param failureThreshold
+     *            The number of consecutive failures that open the breaker.
+     * @param openDuration
+     *            The time in milliseconds the breaker stays open before a trial
+     *            request is allowed.
+     */
+    public CircuitBreaker(int failureThreshold, long openDuration) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("The failure threshold has to be positive.");
+        } else if (openDuration < 0) {
+            throw new IllegalArgumentException("The open duration can't be negative.");
+        }
+
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * Record a successful request, which closes the breaker.
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        open = false;
+    }
+
+    /**
+     * Record a failed request. The breaker opens if the failure threshold has
+     * been reached or if the trial request of a half open breaker failed.
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+
+        if (consecutiveFailures >= failureThreshold || open) {
+            open = true;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * @return The current state of this breaker.
+     */
+    public synchronized State getState() {
+        if (!open) {
+            return State.CLOSED;
+        } else if (System.currentTimeMillis() - openedAt >= openDuration) {
+            return State.HALF_OPEN;
+        }
+
+        return State.OPEN;
+    }
+
+    /**
+     * Ask the breaker if a request may be sent to the guarded endpoint. A
+     * half open breaker admits only the first caller as its trial request and
+     * is open for all others until the outcome of the trial request has been
+     * recorded.
+     *
+     * @return <code>true</code> if a request may be sent to the guarded
+     *         endpoint.
+     */
+    public synchronized boolean allowsRequests() {
+        State state = getState();
+        if (state == State.HALF_OPEN) {
+            openedAt = System.currentTimeMillis();
+            return true;
+        }
+
+        return state == State.CLOSED;
+    }
+
+    /**
+     * @return The number of failures since the last successful request.
+     */
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
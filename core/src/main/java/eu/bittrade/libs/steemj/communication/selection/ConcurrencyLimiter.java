@@ -0,0 +1,317 @@
+package eu.bittrade.libs.steemj.communication.selection;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import eu.bittrade.libs.steemj.communication.PriorityLanes;
+import eu.bittrade.libs.steemj.enums.RequestPriority;
+
+/**
+ * An adaptive limit for the number of concurrent requests to a single
+ * endpoint.
+ *
+ * The limit follows the additive increase, multiplicative decrease (AIMD)
+ * scheme: Once a number of requests equal to the limit has succeeded while
+ * the limit was used to at least one half, the limit grows by one. A failed
+ * request or a recent latency that exceeds
+ * {@link #DEFAULT_LATENCY_TOLERANCE} times the baseline latency decreases the
+ * limit by the {@link #DEFAULT_BACKOFF_RATIO}.
+ *
+ * Both latencies are exponentially weighted moving averages: The recent
+ * latency reacts to new samples within a few requests, while the baseline
+ * latency follows rising latencies only slowly. This way, the limit stops
+ * growing as soon as the endpoint starts to queue requests, but a permanent
+ * change of the latency (e.g. a new network route) is accepted after a
+ * while. Only one decrease is applied for all requests that have been in
+ * flight at the same time, so a single slow phase does not collapse the
+ * limit.
+ *
+ * Requests that exceed the limit wait until another request completes. Each
+ * {@link RequestPriority} has its own queue and the queues are served using
+ * weighted round-robin scheduling (see {@link PriorityLanes}), so a broadcast
+ * does not wait behind all queued bulk reads.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class ConcurrencyLimiter {
+    /** The default limit before any request has been completed. */
+    public static final int DEFAULT_INITIAL_LIMIT = 10;
+    /** The default upper bound of the limit. */
+    public static final int DEFAULT_MAX_LIMIT = 200;
+    /** The factor applied to the limit if the endpoint is overloaded. */
+    public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+    /**
+     * The factor by which the latency may exceed the baseline latency before
+     * the endpoint is considered as overloaded.
+     */
+    public static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+    /** The weight of a new sample for the baseline latency if it rises. */
+    private static final double BASELINE_SMOOTHING_FACTOR = 0.01;
+    /** The weight of a new sample for the recent latency. */
+    private static final double RECENT_SMOOTHING_FACTOR = 0.1;
+
+    private final int maxLimit;
+    private final PriorityLanes<CompletableFuture<Void>> waitingRequests;
+
+    private double limit;
+    private int inFlight;
+    private double baselineLatency;
+    private double recentLatency;
+    private long lastDecreaseTime;
+
+    /**
+     * Create a new {@link ConcurrencyLimiter} instance using the
+     * {@link #DEFAULT_INITIAL_LIMIT} and the {@link #DEFAULT_MAX_LIMIT}.
+     */
+    public ConcurrencyLimiter() {
+        this(DEFAULT_INITIAL_LIMIT, DEFAULT_MAX_LIMIT);
+    }
+
+    /**
+     * Create a new {@link ConcurrencyLimiter} instance.
+     *
+     * @param initialLimit
+     *            The limit before any request has been completed.
+     * @param maxLimit
+     *            The upper bound of the limit.
+     */
+    public ConcurrencyLimiter(int initialLimit, int maxLimit) {
+        this(initialLimit, maxLimit, new EnumMap<>(RequestPriority.class));
+    }
+
+    /**
+     * Create a new {@link ConcurrencyLimiter} instance.
+     *
+     * @param initialLimit
+     *            The limit before any request has been completed.
+     * @param maxLimit
+     *            The upper bound of the limit.
+     * @param priorityWeights
+     *            The weight of the queue of each priority. Priorities without
+     *            a weight use their {@link RequestPriority#getDefaultWeight()
+     *            default weight}.
+     */
+    public ConcurrencyLimiter(int initialLimit, int maxLimit, Map<RequestPriority, Integer> priorityWeights) {
+        if (maxLimit <= 0) {
+            throw new IllegalArgumentException("The maximum limit has to be positive.");
+        } else if (initialLimit <= 0 || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("The initial limit has to be in the range of [1, maxLimit].");
+        }
+
+        this.limit = initialLimit;
+        this.maxLimit = maxLimit;
+        this.waitingRequests = new PriorityLanes<>(priorityWeights);
+        this.lastDecreaseTime = System.nanoTime();
+    }
+
+    /**
+     * Request a permit to send a request with the
+     * {@link RequestPriority#INTERACTIVE interactive} priority (see
+     * {@link #acquire(RequestPriority)}).
+     *
+     * @return A future that is completed as soon as the permit has been
+     *         granted.
+     */
+    public CompletableFuture<Void> acquire() {
+        return acquire(RequestPriority.INTERACTIVE);
+    }
+
+    /**
+     * Request a permit to send a request. Each granted permit has to be given
+     * back by calling {@link #recordSuccess(double)},
+     * {@link #recordFailure(double)} or {@link #recordCancellation()} once the
+     * request has been completed.
+     *
+     * @param priority
+     *            The priority of the request, which defines the queue it
+     *            waits in.
+     * @return A future that is completed as soon as the permit has been
+     *         granted. If the caller does not want to wait any longer, it can
+     *         complete the future exceptionally (e.g. cancel it), which
+     *         removes it from the queue without granting a permit.
+     */
+    public CompletableFuture<Void> acquire(RequestPriority priority) {
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+
+        synchronized (this) {
+            if (waitingRequests.isEmpty() && inFlight < getLimit()) {
+                inFlight++;
+                permit.complete(null);
+
+                return permit;
+            }
+
+            waitingRequests.add(permit, priority);
+        }
+
+        permit.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                removeWaitingRequest(permit);
+            }
+        });
+
+        return permit;
+    }
+
+    /**
+     * Give back a permit after a successful request and adapt the limit.
+     *
+     * @param latency
+     *            The time in milliseconds it took to receive the response.
+     */
+    public void recordSuccess(double latency) {
+        synchronized (this) {
+            int usedPermits = inFlight;
+            inFlight--;
+
+            if (baselineLatency == 0) {
+                baselineLatency = latency;
+                recentLatency = latency;
+            } else {
+                // The baseline follows falling latencies quickly, but rising
+                // latencies only slowly (once per limit), e.g. if the network
+                // route has changed.
+                baselineLatency += (latency < baselineLatency ? RECENT_SMOOTHING_FACTOR
+                        : BASELINE_SMOOTHING_FACTOR / limit) * (latency - baselineLatency);
+                recentLatency += RECENT_SMOOTHING_FACTOR * (latency - recentLatency);
+            }
+
+            if (recentLatency > DEFAULT_LATENCY_TOLERANCE * baselineLatency) {
+                decrease(latency);
+            } else if (usedPermits * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+
+        grantPermits();
+    }
+
+    /**
+     * Give back a permit after a failed request and decrease the limit.
+     *
+     * @param latency
+     *            The time in milliseconds until the request failed.
+     */
+    public void recordFailure(double latency) {
+        synchronized (this) {
+            inFlight--;
+            decrease(latency);
+        }
+
+        grantPermits();
+    }
+
+    /**
+     * Give back a permit after a request whose outcome is unknown, e.g.
+     * because it has been cancelled. The limit is not changed.
+     */
+    public void recordCancellation() {
+        synchronized (this) {
+            inFlight--;
+        }
+
+        grantPermits();
+    }
+
+    /**
+     * @return The current number of concurrent requests allowed, which is at
+     *         least 1.
+     */
+    public synchronized int getLimit() {
+        return Math.max(1, (int) limit);
+    }
+
+    /**
+     * @return The number of requests that are currently in flight.
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return The number of requests that are waiting for a permit.
+     */
+    public synchronized int getQueueDepth() {
+        return waitingRequests.size();
+    }
+
+    /**
+     * @param priority
+     *            The priority of the requests.
+     * @return The number of requests of the given <code>priority</code> that
+     *         are waiting for a permit.
+     */
+    public synchronized int getQueueDepth(RequestPriority priority) {
+        return waitingRequests.size(priority);
+    }
+
+    /**
+     * @return The latency in milliseconds the endpoint has without being
+     *         overloaded or 0 if no request has been completed yet.
+     */
+    public synchronized double getBaselineLatency() {
+        return baselineLatency;
+    }
+
+    /**
+     * Decrease the limit unless the request has been sent before the last
+     * decrease, as its outcome has already been taken into account.
+     *
+     * @param latency
+     *            The time in milliseconds the request took.
+     */
+    private void decrease(double latency) {
+        long now = System.nanoTime();
+        if (now - TimeUnit.MILLISECONDS.toNanos((long) latency) < lastDecreaseTime) {
+            return;
+        }
+
+        limit = Math.max(1, limit * DEFAULT_BACKOFF_RATIO);
+        lastDecreaseTime = now;
+    }
+
+    /**
+     * Grant permits to the waiting requests as long as the limit allows it.
+     * Requests that have stopped waiting in the meantime are skipped. The
+     * permits are completed without holding the lock, as completing them
+     * sends the waiting requests.
+     */
+    private void grantPermits() {
+        while (true) {
+            CompletableFuture<Void> permit;
+            synchronized (this) {
+                if (waitingRequests.isEmpty() || inFlight >= getLimit()) {
+                    return;
+                }
+
+                permit = waitingRequests.poll();
+                inFlight++;
+            }
+
+            if (!permit.complete(null)) {
+                synchronized (this) {
+                    inFlight--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove a request that stopped waiting for a permit from the queue.
+     *
+     * @param permit
+     *            The permit that is no longer needed.
+     */
+    private synchronized void removeWaitingRequest(CompletableFuture<Void> permit) {
+        waitingRequests.remove(permit);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
@@ -0,0 +1,28 @@
+package eu.bittrade.libs.steemj.communication.selection;
+
+import java.net.URI;
+
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+import eu.bittrade.libs.steemj.exceptions.SteemResponseException;
+
+/**
+ * A cheap request used to check if an unhealthy endpoint has recovered.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public interface EndpointProbe {
+    /**
+     * Send a probe request to the given endpoint and wait for the answer.
+     *
+     * @param endpointUri
+     *            The endpoint to probe.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification should be disabled.
+     * @throws SteemCommunicationException
+     *             If the endpoint could not be reached.
+     * @throws SteemResponseException
+     *             If the endpoint answered with an error.
+     */
+    void probe(URI endpointUri, boolean sslVerificationDisabled)
+            throws SteemCommunicationException, SteemResponseException;
+}
@@ -0,0 +1,26 @@
+package eu.bittrade.libs.steemj.communication.selection;
+
+import java.util.List;
+
+/**
+ * A strategy that decides which of the configured endpoints should be used
+ * for the next request. Custom strategies can be configured using
+ * {@link eu.bittrade.libs.steemj.configuration.SteemJConfig#setEndpointSelectionStrategy(EndpointSelectionStrategy)
+ * setEndpointSelectionStrategy}.
+ *
+ * Implementations have to be thread safe as they may be called by multiple
+ * threads at the same time.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public interface EndpointSelectionStrategy {
+    /**
+     * Select the endpoint to send the next request to.
+     *
+     * @param endpoints
+     *            The statistics of all configured endpoints in the order they
+     *            have been configured. The list is never empty.
+     * @return One element of the <code>endpoints</code> list.
+     */
+    EndpointStatistics selectEndpoint(List<EndpointStatistics> endpoints);
+}
@@ -0,0 +1,340 @@
+package eu.bittrade.libs.steemj.communication.selection;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.configuration.SteemJContext;
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+import eu.bittrade.libs.steemj.exceptions.SteemResponseException;
+
+/**
+ * This class keeps the {@link EndpointStatistics} of all configured endpoints
+ * and uses an {@link EndpointSelectionStrategy} to decide which endpoint
+ * should be used for the next request.
+ *
+ * Endpoints whose {@link CircuitBreaker} is open are not used by the default
+ * strategy until the breaker becomes half open. A half open breaker admits a
+ * single trial request, so the selected endpoint is skipped if its breaker
+ * does not admit the request and another endpoint does. To detect a recovery
+ * earlier, unhealthy endpoints are probed in the background using an
+ * {@link EndpointProbe}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class EndpointSelector implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EndpointSelector.class);
+
+    /** The strategy used to select an endpoint. */
+    private final EndpointSelectionStrategy strategy;
+    /** The probe used to check unhealthy endpoints. */
+    private final EndpointProbe probe;
+    /** The scheduler used to probe unhealthy endpoints. */
+    private final ScheduledExecutorService probeScheduler;
+    /** Supplies the endpoints to select from. */
+    private final Supplier<List<Pair<URI, Boolean>>> endpoints;
+    /** The context providing the settings of new endpoints. */
+    private final SteemJContext context;
+    /** The statistics of the configured endpoints. */
+    private volatile EndpointSnapshot snapshot;
+
+    /**
+     * Create a new {@link EndpointSelector} instance.
+     *
+     * @param strategy
+     *            The strategy used to select an endpoint.
+     * @param probe
+     *            The probe used to check if unhealthy endpoints have recovered
+     *            or <code>null</code> to disable probing.
+     * @param probeInterval
+     *            The interval in milliseconds in which unhealthy endpoints are
+     *            probed. A value that is 0 or negative disables probing.
+     */
+    public EndpointSelector(EndpointSelectionStrategy strategy, EndpointProbe probe, long probeInterval) {
+        this(strategy, probe, probeInterval, () -> SteemJConfig.getInstance().getEndpointURIs());
+    }
+
+    /**
+     * Create a new {@link EndpointSelector} instance. The circuit breaker and
+     * concurrency limiter settings are taken from the current
+     * {@link SteemJConfig} instance.
+     *
+     * @param strategy
+     *            The strategy used to select an endpoint.
+     * @param probe
+     *            The probe used to check if unhealthy endpoints have recovered
+     *            or <code>null</code> to disable probing.
+     * @param probeInterval
+     *            The interval in milliseconds in which unhealthy endpoints are
+     *            probed. A value that is 0 or negative disables probing.
+     * @param endpoints
+     *            Supplies the endpoints to select from. It is asked each time
+     *            an endpoint is selected, so the endpoints may change.
+     */
+    public EndpointSelector(EndpointSelectionStrategy strategy, EndpointProbe probe, long probeInterval,
+            Supplier<List<Pair<URI, Boolean>>> endpoints) {
+        this(strategy, probe, probeInterval, endpoints, SteemJConfig.getInstance().createContext());
+    }
+
+    /**
+     * Create a new {@link EndpointSelector} instance that uses the strategy,
+     * the probe interval and the limits of the given <code>context</code>.
+     *
+     * @param context
+     *            The context providing the settings.
+     * @param probe
+     *            The probe used to check if unhealthy endpoints have recovered
+     *            or <code>null</code> to disable probing.
+     * @param endpoints
+     *            Supplies the endpoints to select from. It is asked each time
+     *            an endpoint is selected, so the endpoints may change.
+     */
+    public EndpointSelector(SteemJContext context, EndpointProbe probe,
+            Supplier<List<Pair<URI, Boolean>>> endpoints) {
+        this(context.getEndpointSelectionStrategy(), probe, context.getEndpointProbeInterval(), endpoints, context);
+    }
+
+    /**
+     * Create a new {@link EndpointSelector} instance.
+     *
+     * @param strategy
+     *            The strategy used to select an endpoint.
+     * @param probe
+     *            The probe used to check if unhealthy endpoints have recovered
+     *            or <code>null</code> to disable probing.
+     * @param probeInterval
+     *            The interval in milliseconds in which unhealthy endpoints are
+     *            probed. A value that is 0 or negative disables probing.
+     * @param endpoints
+     *            Supplies the endpoints to select from.
+     * @param context
+     *            The context providing the circuit breaker and concurrency
+     *            limiter settings of new endpoints.
+     */
+    private EndpointSelector(EndpointSelectionStrategy strategy, EndpointProbe probe, long probeInterval,
+            Supplier<List<Pair<URI, Boolean>>> endpoints, SteemJContext context) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("An endpoint selection strategy is required.");
+        }
+
+        this.strategy = strategy;
+        this.probe = probe;
+        this.endpoints = endpoints;
+        this.context = context;
+        this.snapshot = new EndpointSnapshot(null, new ArrayList<>());
+
+        if (probe != null && probeInterval > 0) {
+            this.probeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "steemj-endpoint-probe");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.probeScheduler.scheduleWithFixedDelay(this::probeUnhealthyEndpoints, probeInterval, probeInterval,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.probeScheduler = null;
+        }
+    }
+
+    /**
+     * Select the endpoint to send the next request to.
+     *
+     * @return The statistics of the selected endpoint, which should be updated
+     *         with the outcome of the request.
+     * @throws IllegalStateException
+     *             If no endpoint has been configured.
+     */
+    public EndpointStatistics selectEndpoint() {
+        List<EndpointStatistics> currentStatistics = getEndpointStatistics();
+
+        if (currentStatistics.isEmpty()) {
+            throw new IllegalStateException("No endpoint has been configured.");
+        }
+
+        return selectEndpoint(currentStatistics);
+    }
+
+    /**
+     * Select the endpoint to send the next request to out of the endpoints
+     * accepted by the given <code>filter</code>.
+     *
+     * @param filter
+     *            Decides which endpoints may be selected.
+     * @return The statistics of the selected endpoint or <code>null</code> if
+     *         no endpoint has been accepted by the <code>filter</code>.
+     */
+    public EndpointStatistics selectEndpoint(Predicate<EndpointStatistics> filter) {
+        List<EndpointStatistics> candidates = new ArrayList<>();
+        for (EndpointStatistics endpoint : getEndpointStatistics()) {
+            if (filter.test(endpoint)) {
+                candidates.add(endpoint);
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return null;
+        }
+
+        return selectEndpoint(candidates);
+    }
+
+    /**
+     * Let the strategy select one of the <code>candidates</code> whose circuit
+     * breaker admits the request. If no breaker admits it, the strategy
+     * selects one of all <code>candidates</code>.
+     *
+     * @param candidates
+     *            The endpoints to select from.
+     * @return The statistics of the selected endpoint.
+     */
+    private EndpointStatistics selectEndpoint(List<EndpointStatistics> candidates) {
+        List<EndpointStatistics> remainingCandidates = new ArrayList<>(candidates);
+        while (!remainingCandidates.isEmpty()) {
+            EndpointStatistics endpoint = strategy.selectEndpoint(remainingCandidates);
+            if (endpoint.getCircuitBreaker().allowsRequests()) {
+                return endpoint;
+            }
+
+            remainingCandidates.remove(endpoint);
+        }
+
+        return strategy.selectEndpoint(candidates);
+    }
+
+    /**
+     * Get the statistics of all configured endpoints. If the supplied
+     * endpoints have changed, the statistics of endpoints that are still
+     * configured are kept.
+     *
+     * @return An unmodifiable list containing the statistics of all configured
+     *         endpoints in the order they have been configured.
+     */
+    public List<EndpointStatistics> getEndpointStatistics() {
+        List<Pair<URI, Boolean>> currentEndpoints = endpoints.get();
+
+        EndpointSnapshot currentSnapshot = snapshot;
+        if (currentSnapshot.matches(currentEndpoints)) {
+            return currentSnapshot.statistics;
+        }
+
+        synchronized (this) {
+            if (!snapshot.matches(currentEndpoints)) {
+                List<EndpointStatistics> updatedStatistics = new ArrayList<>(currentEndpoints.size());
+                for (Pair<URI, Boolean> endpoint : currentEndpoints) {
+                    updatedStatistics.add(findOrCreateStatistics(endpoint));
+                }
+
+                snapshot = new EndpointSnapshot(currentEndpoints, updatedStatistics);
+            }
+
+            return snapshot.statistics;
+        }
+    }
+
+    /**
+     * Send a probe request to all unhealthy endpoints and record the outcome.
+     */
+    public void probeUnhealthyEndpoints() {
+        for (EndpointStatistics endpoint : getEndpointStatistics()) {
+            if (endpoint.isHealthy()) {
+                continue;
+            }
+
+            long startTime = System.nanoTime();
+            try {
+                probe.probe(endpoint.getEndpointUri(), endpoint.isSslVerificationDisabled());
+                endpoint.recordSuccess(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+
+                LOGGER.info("The endpoint {} has recovered.", endpoint.getEndpointUri());
+            } catch (SteemCommunicationException | SteemResponseException | RuntimeException e) {
+                endpoint.recordFailure();
+
+                LOGGER.debug("The endpoint {} is still unhealthy.", endpoint.getEndpointUri(), e);
+            }
+        }
+    }
+
+    /**
+     * Stop probing unhealthy endpoints.
+     */
+    @Override
+    public void close() {
+        if (probeScheduler != null) {
+            probeScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Get the existing statistics of the given <code>endpoint</code> or create
+     * new ones.
+     *
+     * @param endpoint
+     *            The endpoint to get the statistics for.
+     * @return The statistics of the endpoint.
+     */
+    private EndpointStatistics findOrCreateStatistics(Pair<URI, Boolean> endpoint) {
+        for (EndpointStatistics existingStatistics : snapshot.statistics) {
+            if (existingStatistics.getEndpointUri().equals(endpoint.getLeft())
+                    && existingStatistics.isSslVerificationDisabled() == endpoint.getRight()) {
+                return existingStatistics;
+            }
+        }
+
+        return new EndpointStatistics(endpoint.getLeft(), endpoint.getRight(),
+                EndpointStatistics.DEFAULT_SMOOTHING_FACTOR,
+                new CircuitBreaker(context.getCircuitBreakerFailureThreshold(),
+                        context.getCircuitBreakerOpenDuration()),
+                new ConcurrencyLimiter(
+                        Math.min(ConcurrencyLimiter.DEFAULT_INITIAL_LIMIT, context.getMaxConcurrencyLimit()),
+                        context.getMaxConcurrencyLimit(), context.getPriorityWeights()));
+    }
+
+    /**
+     * The statistics created for a list of supplied endpoints.
+     */
+    private static final class EndpointSnapshot {
+        /** The supplied list of endpoints. */
+        private final List<Pair<URI, Boolean>> suppliedEndpoints;
+        /** A copy of the supplied endpoints at the time of the snapshot. */
+        private final List<Pair<URI, Boolean>> configuredEndpoints;
+        /** The statistics of the configured endpoints. */
+        private final List<EndpointStatistics> statistics;
+
+        /**
+         * @param suppliedEndpoints
+         *            The supplied list of endpoints or <code>null</code> if no
+         *            endpoints have been supplied yet.
+         * @param statistics
+         *            The statistics of the supplied endpoints.
+         */
+        private EndpointSnapshot(List<Pair<URI, Boolean>> suppliedEndpoints, List<EndpointStatistics> statistics) {
+            this.suppliedEndpoints = suppliedEndpoints;
+            this.configuredEndpoints = suppliedEndpoints == null ? Collections.emptyList()
+                    : new ArrayList<>(suppliedEndpoints);
+            this.statistics = Collections.unmodifiableList(statistics);
+        }
+
+        /**
+         * @param currentEndpoints
+         *            The endpoints supplied now.
+         * @return <code>true</code> if the same list has been supplied and it
+         *         has not been changed in place, e.g. by
+         *         {@link SteemJConfig#addEndpointURI(URI)}.
+         */
+        private boolean matches(List<Pair<URI, Boolean>> currentEndpoints) {
+            return suppliedEndpoints == currentEndpoints && configuredEndpoints.equals(currentEndpoints);
+        }
+    }
+}
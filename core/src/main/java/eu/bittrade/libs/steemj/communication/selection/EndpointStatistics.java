@@ -0,0 +1,246 @@
+package eu.bittrade.libs.steemj.communication.selection;
+
+import java.net.URI;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * This class tracks the latency and the error rate of a single endpoint. Both
+ * values are exponentially weighted moving averages (EWMA), so recent
+ * requests have a higher impact than old ones. In addition, the latencies of
+ * the last {@link #LATENCY_WINDOW_SIZE} successful requests are kept to
+ * calculate percentiles.
+ *
+ * Each endpoint is guarded by a {@link CircuitBreaker}. The endpoint is
+ * considered unhealthy while its breaker is open. The number of concurrent
+ * requests to the endpoint can be limited by its {@link ConcurrencyLimiter}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class EndpointStatistics {
+    /** The weight of a new sample. */
+    public static final double DEFAULT_SMOOTHING_FACTOR = 0.3;
+    /** The number of recent latencies used to calculate percentiles. */
+    public static final int LATENCY_WINDOW_SIZE = 100;
+
+    private final URI endpointUri;
+    private final boolean sslVerificationDisabled;
+    private final double smoothingFactor;
+    private final CircuitBreaker circuitBreaker;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final double[] recentLatencies = new double[LATENCY_WINDOW_SIZE];
+
+    private double averageLatency;
+    private double errorRate;
+    private long numberOfSamples;
+    private long lastSuccessTime;
+    private long lastFailureTime;
+
+    /**
+     * Create a new {@link EndpointStatistics} instance using the default
+     * smoothing factor and a {@link CircuitBreaker} with default settings.
+     *
+     * @param endpointUri
+     *            The endpoint to track.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification is disabled for this endpoint.
+     */
+    public EndpointStatistics(URI endpointUri, boolean sslVerificationDisabled) {
+        this(endpointUri, sslVerificationDisabled, DEFAULT_SMOOTHING_FACTOR, new CircuitBreaker());
+    }
+
+    /**
+     * Create a new {@link EndpointStatistics} instance.
+     *
+     * @param endpointUri
+     *            The endpoint to track.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification is disabled for this endpoint.
+     * @param smoothingFactor
+     *            The weight of a new sample between 0 (exclusive) and 1
+     *            (inclusive).
+     * @param circuitBreaker
+     *            The circuit breaker guarding this endpoint.
+     */
+    public EndpointStatistics(URI endpointUri, boolean sslVerificationDisabled, double smoothingFactor,
+            CircuitBreaker circuitBreaker) {
+        this(endpointUri, sslVerificationDisabled, smoothingFactor, circuitBreaker, new ConcurrencyLimiter());
+    }
+
+    /**
+     * Create a new {@link EndpointStatistics} instance.
+     *
+     * @param endpointUri
+     *            The endpoint to track.
+     * @param sslVerificationDisabled
+     *            Define if the SSL verification is disabled for this endpoint.
+     * @param smoothingFactor
+     *            The weight of a new sample between 0 (exclusive) and 1
+     *            (inclusive).
+     * @param circuitBreaker
+     *            The circuit breaker guarding this endpoint.
+     * @param concurrencyLimiter
+     *            The limiter for the number of concurrent requests to this
+     *            endpoint.
+     */
+    public EndpointStatistics(URI endpointUri, boolean sslVerificationDisabled, double smoothingFactor,
+            CircuitBreaker circuitBreaker, ConcurrencyLimiter concurrencyLimiter) {
+        if (smoothingFactor <= 0 || smoothingFactor > 1) {
+            throw new IllegalArgumentException("The smoothing factor has to be in the range of (0, 1].");
+        } else if (circuitBreaker == null) {
+            throw new IllegalArgumentException("A circuit breaker is required.");
+        } else if (concurrencyLimiter == null) {
+            throw new IllegalArgumentException("A concurrency limiter is required.");
+        }
+
+        this.endpointUri = endpointUri;
+        this.sslVerificationDisabled = sslVerificationDisabled;
+        this.smoothingFactor = smoothingFactor;
+        this.circuitBreaker = circuitBreaker;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    /**
+     * Record a successful request.
+     *
+     * @param latency
+     *            The time in milliseconds it took to receive the response.
+     */
+    public synchronized void recordSuccess(double latency) {
+        averageLatency = numberOfSamples == 0 ? latency
+                : smoothingFactor * latency + (1 - smoothingFactor) * averageLatency;
+        errorRate = (1 - smoothingFactor) * errorRate;
+        recentLatencies[(int) (numberOfSamples % LATENCY_WINDOW_SIZE)] = latency;
+        numberOfSamples++;
+        lastSuccessTime = System.currentTimeMillis();
+        circuitBreaker.recordSuccess();
+    }
+
+    /**
+     * Record a failed request.
+     */
+    public synchronized void recordFailure() {
+        errorRate = smoothingFactor + (1 - smoothingFactor) * errorRate;
+        lastFailureTime = System.currentTimeMillis();
+        circuitBreaker.recordFailure();
+    }
+
+    /**
+     * @return The endpoint tracked by this instance.
+     */
+    public URI getEndpointUri() {
+        return endpointUri;
+    }
+
+    /**
+     * @return <code>true</code> if the SSL verification is disabled for this
+     *         endpoint.
+     */
+    public boolean isSslVerificationDisabled() {
+        return sslVerificationDisabled;
+    }
+
+    /**
+     * @return The average latency in milliseconds or 0 if no successful
+     *         request has been recorded yet.
+     */
+    public synchronized double getAverageLatency() {
+        return averageLatency;
+    }
+
+    /**
+     * Get the latency that has not been exceeded by the given
+     * <code>percentile</code> of the recent successful requests.
+     *
+     * @param percentile
+     *            The percentile between 0 (exclusive) and 1 (inclusive), e.g.
+     *            0.95 for the 95th percentile.
+     * @return The latency in milliseconds or 0 if no successful request has
+     *         been recorded yet.
+     * @throws IllegalArgumentException
+     *             If the <code>percentile</code> is not in the range of (0, 1].
+     */
+    public synchronized double getLatencyPercentile(double percentile) {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("The percentile has to be in the range of (0, 1].");
+        } else if (numberOfSamples == 0) {
+            return 0;
+        }
+
+        double[] sortedLatencies = Arrays.copyOf(recentLatencies,
+                (int) Math.min(numberOfSamples, LATENCY_WINDOW_SIZE));
+        Arrays.sort(sortedLatencies);
+
+        return sortedLatencies[(int) Math.ceil(percentile * sortedLatencies.length) - 1];
+    }
+
+    /**
+     * @return The average error rate between 0 (no errors) and 1 (only
+     *         errors).
+     */
+    public synchronized double getErrorRate() {
+        return errorRate;
+    }
+
+    /**
+     * @return The number of successful requests recorded so far.
+     */
+    public synchronized long getNumberOfSamples() {
+        return numberOfSamples;
+    }
+
+    /**
+     * @return The number of failures since the last successful request.
+     */
+    public int getConsecutiveFailures() {
+        return circuitBreaker.getConsecutiveFailures();
+    }
+
+    /**
+     * @return The time in milliseconds since the epoch the last success has
+     *         been recorded or 0 if no success has been recorded yet.
+     */
+    public synchronized long getLastSuccessTime() {
+        return lastSuccessTime;
+    }
+
+    /**
+     * @return The time in milliseconds since the epoch the last failure has
+     *         been recorded or 0 if no failure has been recorded yet.
+     */
+    public synchronized long getLastFailureTime() {
+        return lastFailureTime;
+    }
+
+    /**
+     * @return The circuit breaker guarding this endpoint.
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * @return The limiter for the number of concurrent requests to this
+     *         endpoint.
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * Check the circuit breaker of this endpoint without asking it to admit a
+     * request (see {@link CircuitBreaker#allowsRequests()}).
+     *
+     * @return <code>true</code> if the circuit breaker of this endpoint is not
+     *         open.
+     */
+    public boolean isHealthy() {
+        return circuitBreaker.getState() != CircuitBreaker.State.OPEN;
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
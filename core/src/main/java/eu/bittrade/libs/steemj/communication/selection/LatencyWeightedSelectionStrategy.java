@@ -0,0 +1,134 @@
+package eu.bittrade.libs.steemj.communication.selection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link EndpointSelectionStrategy} that routes requests to the healthy
+ * endpoint with the lowest average latency. The latency is weighted by the
+ * error rate of the endpoint, so a fast but flaky node is not preferred over
+ * a slightly slower, reliable one.
+ *
+ * Endpoints that have not been used yet are selected first so that every
+ * endpoint gets measured. They are selected in turns, so concurrent requests
+ * at startup are spread across them. The score of an endpoint is halved each
+ * time the configured half life passes without a new sample, so an endpoint
+ * that has been slow once is tried again after a while and can recover. If no
+ * endpoint is healthy, the endpoint whose last failure is the oldest one is
+ * selected.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class LatencyWeightedSelectionStrategy implements EndpointSelectionStrategy {
+    /** The default factor used to penalize the error rate of an endpoint. */
+    public static final double DEFAULT_ERROR_PENALTY = 10;
+    /** The default time in milliseconds after which a score is halved. */
+    public static final long DEFAULT_SAMPLE_HALF_LIFE = 60000L;
+
+    private final double errorPenalty;
+    private final long sampleHalfLife;
+    /** The number of selections among endpoints without samples so far. */
+    private final AtomicInteger unmeasuredSelector = new AtomicInteger();
+
+    /**
+     * Create a new {@link LatencyWeightedSelectionStrategy} instance using the
+     * {@link #DEFAULT_ERROR_PENALTY} and the
+     * {@link #DEFAULT_SAMPLE_HALF_LIFE}.
+     */
+    public LatencyWeightedSelectionStrategy() {
+        this(DEFAULT_ERROR_PENALTY);
+    }
+
+    /**
+     * Create a new {@link LatencyWeightedSelectionStrategy} instance using the
+     * {@link #DEFAULT_SAMPLE_HALF_LIFE}.
+     *
+     * @param errorPenalty
+     *            The factor used to penalize the error rate of an endpoint. An
+     *            endpoint with an error rate of 1 is treated as if its latency
+     *            would be <code>1 + errorPenalty</code> times higher.
+     */
+    public LatencyWeightedSelectionStrategy(double errorPenalty) {
+        this(errorPenalty, DEFAULT_SAMPLE_HALF_LIFE);
+    }
+
+    /**
+     * Create a new {@link LatencyWeightedSelectionStrategy} instance.
+     *
+     * @param errorPenalty
+     *            The factor used to penalize the error rate of an endpoint. An
+     *            endpoint with an error rate of 1 is treated as if its latency
+     *            would be <code>1 + errorPenalty</code> times higher.
+     * @param sampleHalfLife
+     *            The time in milliseconds after which the score of an endpoint
+     *            without new samples is halved. A value of 0 disables the
+     *            decay.
+     */
+    public LatencyWeightedSelectionStrategy(double errorPenalty, long sampleHalfLife) {
+        if (errorPenalty < 0) {
+            throw new IllegalArgumentException("The error penalty can't be negative.");
+        } else if (sampleHalfLife < 0) {
+            throw new IllegalArgumentException("The sample half life can't be negative.");
+        }
+
+        this.errorPenalty = errorPenalty;
+        this.sampleHalfLife = sampleHalfLife;
+    }
+
+    @Override
+    public EndpointStatistics selectEndpoint(List<EndpointStatistics> endpoints) {
+        List<EndpointStatistics> unmeasuredEndpoints = new ArrayList<>();
+        EndpointStatistics bestEndpoint = null;
+        double bestScore = Double.MAX_VALUE;
+        long now = System.currentTimeMillis();
+
+        for (EndpointStatistics endpoint : endpoints) {
+            if (!endpoint.isHealthy()) {
+                continue;
+            } else if (endpoint.getNumberOfSamples() == 0) {
+                unmeasuredEndpoints.add(endpoint);
+                continue;
+            }
+
+            double score = endpoint.getAverageLatency() * (1 + errorPenalty * endpoint.getErrorRate())
+                    * getDecay(now - Math.max(endpoint.getLastSuccessTime(), endpoint.getLastFailureTime()));
+            if (score < bestScore) {
+                bestScore = score;
+                bestEndpoint = endpoint;
+            }
+        }
+
+        if (!unmeasuredEndpoints.isEmpty()) {
+            return unmeasuredEndpoints
+                    .get(Math.floorMod(unmeasuredSelector.getAndIncrement(), unmeasuredEndpoints.size()));
+        } else if (bestEndpoint != null) {
+            return bestEndpoint;
+        }
+
+        // All endpoints are unhealthy, so use the one that failed least
+        // recently.
+        bestEndpoint = endpoints.get(0);
+        for (EndpointStatistics endpoint : endpoints) {
+            if (endpoint.getLastFailureTime() < bestEndpoint.getLastFailureTime()) {
+                bestEndpoint = endpoint;
+            }
+        }
+
+        return bestEndpoint;
+    }
+
+    /**
+     * @param age
+     *            The time in milliseconds since the last sample of an
+     *            endpoint.
+     * @return The factor the score of the endpoint is multiplied with.
+     */
+    private double getDecay(long age) {
+        if (sampleHalfLife == 0 || age <= 0) {
+            return 1;
+        }
+
+        return Math.pow(0.5, (double) age / sampleHalfLife);
+    }
+}
@@ -0,0 +1,22 @@
+package eu.bittrade.libs.steemj.communication.selection;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link EndpointSelectionStrategy} that rotates across all configured
+ * endpoints, independent of their latency or health. Endpoints whose circuit
+ * breaker is open are still skipped by the {@link EndpointSelector} as long as
+ * another endpoint admits the request.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class RoundRobinSelectionStrategy implements EndpointSelectionStrategy {
+    /** The number of selections performed so far. */
+    private final AtomicInteger selector = new AtomicInteger();
+
+    @Override
+    public EndpointStatistics selectEndpoint(List<EndpointStatistics> endpoints) {
+        return endpoints.get(Math.floorMod(selector.getAndIncrement(), endpoints.size()));
+    }
+}
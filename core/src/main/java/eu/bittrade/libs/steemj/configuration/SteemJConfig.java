@@ -6,8 +6,15 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.Executor;
 
 import javax.websocket.ClientEndpointConfig;
 
@@ -17,9 +24,26 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import eu.bittrade.libs.steemj.SteemJ;
+import eu.bittrade.libs.steemj.communication.ClientFactory;
+import eu.bittrade.libs.steemj.communication.HttpClientFactory;
+import eu.bittrade.libs.steemj.communication.RateLimit;
+import eu.bittrade.libs.steemj.communication.RecordingClientFactory;
+import eu.bittrade.libs.steemj.communication.ReplayClientFactory;
+import eu.bittrade.libs.steemj.communication.RequestInterceptor;
+import eu.bittrade.libs.steemj.communication.RetryPolicy;
+import eu.bittrade.libs.steemj.communication.WebsocketClientFactory;
+import eu.bittrade.libs.steemj.communication.metrics.MetricsRecorder;
+import eu.bittrade.libs.steemj.communication.metrics.MetricsRegistry;
+import eu.bittrade.libs.steemj.communication.selection.CircuitBreaker;
+import eu.bittrade.libs.steemj.communication.selection.ConcurrencyLimiter;
+import eu.bittrade.libs.steemj.communication.selection.EndpointSelectionStrategy;
+import eu.bittrade.libs.steemj.communication.selection.LatencyWeightedSelectionStrategy;
 import eu.bittrade.libs.steemj.enums.AddressPrefixType;
 import eu.bittrade.libs.steemj.enums.AssetSymbolType;
 import eu.bittrade.libs.steemj.enums.PrivateKeyType;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.RequestPriority;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
 import eu.bittrade.libs.steemj.enums.SynchronizationType;
 import eu.bittrade.libs.steemj.enums.ValidationType;
 import eu.bittrade.libs.steemj.exceptions.SteemTimeoutException;
@@ -44,7 +68,7 @@ public class SteemJConfig {
     /** The SteemJ App-Name */
     private static final String STEEMJ_NAME = SteemJ.class.getPackage().getImplementationTitle();
     /** The inner {@link SteemJConfig} instance. */
-    private static SteemJConfig steemJConfigInstance;
+    private static volatile SteemJConfig steemJConfigInstance;
 
     /**
      * Receive a {@link eu.bittrade.libs.steemj.configuration.SteemJConfig
@@ -53,11 +77,18 @@ public class SteemJConfig {
      * @return A SteemJConfig instance.
      */
     public static SteemJConfig getInstance() {
-        if (steemJConfigInstance == null) {
-            steemJConfigInstance = new SteemJConfig();
+        SteemJConfig instance = steemJConfigInstance;
+        if (instance == null) {
+            synchronized (SteemJConfig.class) {
+                instance = steemJConfigInstance;
+                if (instance == null) {
+                    instance = new SteemJConfig();
+                    steemJConfigInstance = instance;
+                }
+            }
         }
 
-        return steemJConfigInstance;
+        return instance;
     }
 
     /**
@@ -67,17 +98,62 @@ public class SteemJConfig {
      * 
      * @return A SteemJConfig instance.
      */
-    public static SteemJConfig getNewInstance() {
+    public static synchronized SteemJConfig getNewInstance() {
         steemJConfigInstance = new SteemJConfig();
         return steemJConfigInstance;
     }
 
+    /**
+     * Create an immutable snapshot of the current settings, which can be
+     * passed to a {@link eu.bittrade.libs.steemj.SteemJ SteemJ} instance to
+     * make it independent of later changes of this configuration.
+     * 
+     * @return A new {@link SteemJContext} instance.
+     */
+    public SteemJContext createContext() {
+        return new SteemJContext(this);
+    }
+
     private ClientEndpointConfig clientEndpointConfig;
     private List<Pair<URI, Boolean>> endpointURIs;
     private int responseTimeout;
     private int idleTimeout;
+    private int connectTimeout;
+    private int maxConnectionsPerEndpoint;
+    private long connectionEvictionInterval;
+    private Executor asyncExecutor;
+    private int maxBatchSize;
+    private int maxWebsocketFrameSize;
+    private long websocketPingInterval;
+    private EndpointSelectionStrategy endpointSelectionStrategy;
+    private long endpointProbeInterval;
+    private boolean connectionWarmUpEnabled;
+    private long connectionWarmUpTimeout;
+    private int circuitBreakerFailureThreshold;
+    private long circuitBreakerOpenDuration;
+    private boolean concurrencyLimitingEnabled;
+    private int maxConcurrencyLimit;
+    private long concurrencyLimitMaxWait;
+    private RateLimit endpointRateLimit;
+    private Map<SteemApiType, RateLimit> apiRateLimits;
+    private Map<RequestMethods, RateLimit> methodRateLimits;
+    private long rateLimitMaxWait;
+    private RetryPolicy retryPolicy;
+    private boolean hedgingEnabled;
+    private Set<RequestMethods> hedgedMethods;
+    private double hedgingPercentile;
+    private Set<RequestMethods> coalescedMethods;
+    private Set<RequestMethods> bulkMethods;
+    private Map<RequestPriority, Integer> priorityWeights;
+    private boolean compressionEnabled;
+    private List<ClientFactory> clientFactories;
+    private List<RequestInterceptor> requestInterceptors;
+    private MetricsRecorder metricsRecorder;
     private String dateTimePattern;
     private long maximumExpirationDateOffset;
+    private long referenceBlockRefreshInterval;
+    private long referenceBlockIdleTimeout;
+    private long maxReferenceBlockAge;
     private String timeZoneId;
     private AccountName apiUsername;
     private char[] apiPassword;
@@ -108,10 +184,58 @@ public class SteemJConfig {
         }
         this.responseTimeout = 1000;
         this.idleTimeout = 60000;
+        this.connectTimeout = 5000;
+        this.maxConnectionsPerEndpoint = 20;
+        this.connectionEvictionInterval = 5000L;
+        this.maxBatchSize = 50;
+        this.maxWebsocketFrameSize = 64 * 1024 * 1024;
+        this.websocketPingInterval = 30000L;
+        this.endpointSelectionStrategy = new LatencyWeightedSelectionStrategy();
+        this.endpointProbeInterval = 10000L;
+        this.connectionWarmUpEnabled = false;
+        this.connectionWarmUpTimeout = 5000L;
+        this.circuitBreakerFailureThreshold = CircuitBreaker.DEFAULT_FAILURE_THRESHOLD;
+        this.circuitBreakerOpenDuration = CircuitBreaker.DEFAULT_OPEN_DURATION;
+        this.concurrencyLimitingEnabled = false;
+        this.maxConcurrencyLimit = ConcurrencyLimiter.DEFAULT_MAX_LIMIT;
+        this.concurrencyLimitMaxWait = 1000L;
+        this.endpointRateLimit = null;
+        this.apiRateLimits = new EnumMap<>(SteemApiType.class);
+        this.methodRateLimits = new EnumMap<>(RequestMethods.class);
+        this.rateLimitMaxWait = 10000L;
+        this.retryPolicy = new RetryPolicy();
+        this.hedgingEnabled = false;
+        this.hedgedMethods = EnumSet.of(RequestMethods.GET_BLOCK, RequestMethods.GET_BLOCK_HEADER,
+                RequestMethods.GET_DYNAMIC_GLOBAL_PROPERTIES, RequestMethods.GET_CONTENT);
+        this.hedgingPercentile = 0.95;
+        this.coalescedMethods = EnumSet.noneOf(RequestMethods.class);
+        this.bulkMethods = EnumSet.of(RequestMethods.GET_BLOCK, RequestMethods.GET_BLOCK_HEADER,
+                RequestMethods.GET_OPS_IN_BLOCK, RequestMethods.GET_ACCOUNT_HISTORY);
+        this.priorityWeights = new EnumMap<>(RequestPriority.class);
+        for (RequestPriority priority : RequestPriority.values()) {
+            this.priorityWeights.put(priority, priority.getDefaultWeight());
+        }
+        this.compressionEnabled = true;
+        this.clientFactories = new ArrayList<>();
+        for (ClientFactory clientFactory : ServiceLoader.load(ClientFactory.class)) {
+            this.clientFactories.add(clientFactory);
+        }
+        this.clientFactories.add(new HttpClientFactory());
+        this.clientFactories.add(new WebsocketClientFactory());
+        this.clientFactories.add(new RecordingClientFactory());
+        this.clientFactories.add(new ReplayClientFactory());
+        this.requestInterceptors = new ArrayList<>();
+        for (RequestInterceptor requestInterceptor : ServiceLoader.load(RequestInterceptor.class)) {
+            this.requestInterceptors.add(requestInterceptor);
+        }
+        this.metricsRecorder = new MetricsRegistry();
         this.dateTimePattern = "yyyy-MM-dd'T'HH:mm:ss";
         this.apiUsername = new AccountName(System.getProperty("steemj.api.username", ""));
         this.apiPassword = System.getProperty("steemj.api.password", "").toCharArray();
         this.maximumExpirationDateOffset = 3600000L;
+        this.referenceBlockRefreshInterval = 3000L;
+        this.referenceBlockIdleTimeout = 60000L;
+        this.maxReferenceBlockAge = 10000L;
         this.timeZoneId = "GMT";
         this.encodingCharset = StandardCharsets.UTF_8;
         this.privateKeyStorage = new PrivateKeyStorage();
@@ -248,6 +372,43 @@ public class SteemJConfig {
         return maximumExpirationDateOffset;
     }
 
+    /**
+     * Get the interval in which the reference block used to build
+     * transactions is refreshed in the background (see
+     * {@link eu.bittrade.libs.steemj.ReferenceBlockProvider
+     * ReferenceBlockProvider}). By default, it matches the block interval of
+     * three seconds.
+     * 
+     * @return The refresh interval in milliseconds.
+     */
+    public long getReferenceBlockRefreshInterval() {
+        return referenceBlockRefreshInterval;
+    }
+
+    /**
+     * Get the time after which the background refresh of the reference block
+     * stops if no reference block has been requested in the meantime (see
+     * {@link eu.bittrade.libs.steemj.ReferenceBlockProvider
+     * ReferenceBlockProvider}). It is started again with the next request for
+     * a reference block. By default, it stops after one minute.
+     * 
+     * @return The idle timeout in milliseconds.
+     */
+    public long getReferenceBlockIdleTimeout() {
+        return referenceBlockIdleTimeout;
+    }
+
+    /**
+     * Get the maximum age of a reference block that is used to build a
+     * transaction. If the last reference block is older, it is requested from
+     * the node before the transaction is built.
+     * 
+     * @return The maximum age in milliseconds.
+     */
+    public long getMaxReferenceBlockAge() {
+        return maxReferenceBlockAge;
+    }
+
     /**
      * Get the private key storage to manage the private keys for one or
      * multiple accounts.
@@ -301,6 +462,384 @@ public class SteemJConfig {
         return idleTimeout;
     }
 
+    /**
+     * Get the configured, maximum time that SteemJ will wait until a
+     * connection to an endpoint has been established. A value that is 0 or
+     * negative indicates that SteemJ will wait until the operating system
+     * gives up.
+     * 
+     * @return Time in milliseconds
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Get the configured maximum number of HTTP connections that SteemJ will
+     * keep open to a single endpoint.
+     * 
+     * @return The maximum number of connections per endpoint.
+     */
+    public int getMaxConnectionsPerEndpoint() {
+        return maxConnectionsPerEndpoint;
+    }
+
+    /**
+     * Get the configured interval in which SteemJ checks for pooled HTTP
+     * connections that have been unused for longer than the
+     * <code>idleTimeout</code> and closes them.
+     * 
+     * @return The eviction interval in milliseconds.
+     */
+    public long getConnectionEvictionInterval() {
+        return connectionEvictionInterval;
+    }
+
+    /**
+     * Get the {@link Executor} used to perform asynchronous requests. If no
+     * executor has been configured, <code>null</code> is returned and each
+     * {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     * CommunicationHandler} will create its own thread pool.
+     * 
+     * @return The configured executor or <code>null</code>.
+     */
+    public Executor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * Get the maximum number of requests SteemJ sends to a node within one
+     * JSON-RPC batch. Larger batches are split into multiple batches.
+     * 
+     * @return The maximum number of requests per batch.
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Get the maximum size of a single WebSocket frame received from a node.
+     * The frames are decoded while they are received, so this only limits
+     * the buffer used to assemble a frame.
+     * 
+     * @return The maximum frame size in bytes.
+     */
+    public int getMaxWebsocketFrameSize() {
+        return maxWebsocketFrameSize;
+    }
+
+    /**
+     * Get the interval in which SteemJ sends a ping to keep an open WebSocket
+     * session alive and to detect a broken one. A value that is 0 or negative
+     * indicates that no pings are sent.
+     * 
+     * @return The ping interval in milliseconds.
+     */
+    public long getWebsocketPingInterval() {
+        return websocketPingInterval;
+    }
+
+    /**
+     * Get the strategy used to select the endpoint for the next request.
+     * 
+     * @return The configured endpoint selection strategy.
+     */
+    public EndpointSelectionStrategy getEndpointSelectionStrategy() {
+        return endpointSelectionStrategy;
+    }
+
+    /**
+     * Get the interval in which endpoints that are considered as unhealthy are
+     * probed in the background to check if they have recovered.
+     * 
+     * @return The probe interval in milliseconds.
+     */
+    public long getEndpointProbeInterval() {
+        return endpointProbeInterval;
+    }
+
+    /**
+     * Check if connections to all configured endpoints are opened in parallel
+     * when a {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     * CommunicationHandler} is created, so the first requests do not have to
+     * pay for DNS lookups and TCP, TLS or WebSocket handshakes. The latency of
+     * the warm-up requests is recorded in the endpoint statistics.
+     * 
+     * @return <code>true</code> if the connection warm-up is enabled.
+     */
+    public boolean isConnectionWarmUpEnabled() {
+        return connectionWarmUpEnabled;
+    }
+
+    /**
+     * Get the maximum time the creation of a
+     * {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     * CommunicationHandler} waits for the connection warm-up. Endpoints that
+     * did not answer in time are warmed up in the background.
+     * 
+     * @return The warm-up timeout in milliseconds.
+     */
+    public long getConnectionWarmUpTimeout() {
+        return connectionWarmUpTimeout;
+    }
+
+    /**
+     * Get the number of consecutive failures after which the circuit breaker
+     * of an endpoint opens.
+     * 
+     * @return The circuit breaker failure threshold.
+     */
+    public int getCircuitBreakerFailureThreshold() {
+        return circuitBreakerFailureThreshold;
+    }
+
+    /**
+     * Get the time an open circuit breaker waits before the endpoint is tried
+     * again.
+     * 
+     * @return The open duration in milliseconds.
+     */
+    public long getCircuitBreakerOpenDuration() {
+        return circuitBreakerOpenDuration;
+    }
+
+    /**
+     * Check if the number of concurrent requests per endpoint is limited. If
+     * enabled, each endpoint gets an adaptive limit (see
+     * {@link ConcurrencyLimiter}), which grows as long as the latency of the
+     * endpoint stays low and shrinks if the endpoint fails or slows down.
+     * Requests that exceed the limit wait up to the
+     * {@link #getConcurrencyLimitMaxWait() configured time} for a permit.
+     * 
+     * @return <code>true</code> if concurrency limiting is enabled.
+     */
+    public boolean isConcurrencyLimitingEnabled() {
+        return concurrencyLimitingEnabled;
+    }
+
+    /**
+     * Get the upper bound of the adaptive concurrency limit of an endpoint.
+     * 
+     * @return The maximum number of concurrent requests per endpoint.
+     */
+    public int getMaxConcurrencyLimit() {
+        return maxConcurrencyLimit;
+    }
+
+    /**
+     * Get the maximum time a request waits for a permit of the concurrency
+     * limiter before it fails with a
+     * {@link eu.bittrade.libs.steemj.exceptions.SteemTimeoutException
+     * SteemTimeoutException}.
+     * 
+     * @return The maximum wait time in milliseconds.
+     */
+    public long getConcurrencyLimitMaxWait() {
+        return concurrencyLimitMaxWait;
+    }
+
+    /**
+     * Get the rate limit that is applied to each endpoint separately. Batches
+     * count as a single request for this limit.
+     * 
+     * @return The rate limit per endpoint or <code>null</code> if the number
+     *         of requests per endpoint is not limited.
+     */
+    public RateLimit getEndpointRateLimit() {
+        return endpointRateLimit;
+    }
+
+    /**
+     * Get the rate limit for all requests to the given <code>api</code>. The
+     * limit is shared by all endpoints and each request of a batch counts
+     * separately.
+     * 
+     * @param api
+     *            The API to get the rate limit for.
+     * @return The rate limit of the API or <code>null</code> if the number of
+     *         requests to the API is not limited.
+     */
+    public RateLimit getApiRateLimit(SteemApiType api) {
+        return apiRateLimits.get(api);
+    }
+
+    /**
+     * Get the rate limit for all requests of the given <code>method</code>.
+     * The limit is shared by all endpoints and each request of a batch counts
+     * separately.
+     * 
+     * @param method
+     *            The method to get the rate limit for.
+     * @return The rate limit of the method or <code>null</code> if the number
+     *         of requests of the method is not limited.
+     */
+    public RateLimit getMethodRateLimit(RequestMethods method) {
+        return methodRateLimits.get(method);
+    }
+
+    /**
+     * Get the maximum time a request waits until all of its rate limits allow
+     * to send it. If a rate limit would require a longer wait, the request
+     * fails immediately with a
+     * {@link eu.bittrade.libs.steemj.exceptions.SteemRateLimitException
+     * SteemRateLimitException}, which is not retried. A value of 0 lets all
+     * requests fail fast instead of waiting.
+     * 
+     * @return The maximum wait time in milliseconds.
+     */
+    public long getRateLimitMaxWait() {
+        return rateLimitMaxWait;
+    }
+
+    /**
+     * Get the policy that defines if and when a failed request is retried.
+     * 
+     * @return The configured retry policy.
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Check if read requests are hedged. If enabled, a request for one of the
+     * {@link #getHedgedMethods() hedged methods} is sent to a second endpoint
+     * if the first endpoint has not answered within the
+     * {@link #getHedgingPercentile() configured percentile} of its recent
+     * latencies. The first successful response is used.
+     * 
+     * @return <code>true</code> if hedging is enabled.
+     */
+    public boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+
+    /**
+     * Get the methods whose requests may be hedged.
+     * 
+     * @return An unmodifiable set of methods that may be hedged.
+     */
+    public Set<RequestMethods> getHedgedMethods() {
+        return Collections.unmodifiableSet(hedgedMethods);
+    }
+
+    /**
+     * Get the methods whose concurrent, identical requests are coalesced. If
+     * a request for one of these methods is performed while an identical
+     * request (same API, method and parameters) is still in flight, no new
+     * request is sent. Instead, both callers receive the result of the
+     * request in flight.
+     * 
+     * By default, no requests are coalesced.
+     * 
+     * @return An unmodifiable set of methods whose requests are coalesced.
+     */
+    public Set<RequestMethods> getCoalescedMethods() {
+        return Collections.unmodifiableSet(coalescedMethods);
+    }
+
+    /**
+     * Get the methods whose requests are sent with the
+     * {@link RequestPriority#BULK bulk} priority by default. Broadcasts are
+     * always sent with the {@link RequestPriority#BROADCAST broadcast}
+     * priority and all other requests with the
+     * {@link RequestPriority#INTERACTIVE interactive} priority, unless a
+     * priority has been set for a request explicitly.
+     * 
+     * @return An unmodifiable set of methods whose requests are bulk reads.
+     */
+    public Set<RequestMethods> getBulkMethods() {
+        return Collections.unmodifiableSet(bulkMethods);
+    }
+
+    /**
+     * Get the weight of the given <code>priority</code>. If requests of
+     * different priorities wait for the same endpoint, the requests of each
+     * priority are sent in proportion to the weight of their priority.
+     * 
+     * @param priority
+     *            The priority to get the weight for.
+     * @return The weight of the priority.
+     */
+    public int getPriorityWeight(RequestPriority priority) {
+        return priorityWeights.get(priority);
+    }
+
+    /**
+     * Get the weights of all priorities (see
+     * {@link #getPriorityWeight(RequestPriority)}).
+     * 
+     * @return An unmodifiable map of the weight of each priority.
+     */
+    public Map<RequestPriority, Integer> getPriorityWeights() {
+        return Collections.unmodifiableMap(priorityWeights);
+    }
+
+    /**
+     * Get the percentile of the recent latencies of an endpoint after which a
+     * hedged request is sent to a second endpoint.
+     * 
+     * @return The hedging percentile.
+     */
+    public double getHedgingPercentile() {
+        return hedgingPercentile;
+    }
+
+    /**
+     * Check if the nodes are asked to compress their responses. HTTP
+     * endpoints are asked for gzip or deflate encoded responses, while
+     * WebSocket endpoints are asked for the "permessage-deflate" extension.
+     * 
+     * @return <code>true</code> if compression is enabled.
+     */
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    /**
+     * Get the factories used to create the clients for the configured
+     * endpoints. For each endpoint, the first factory that
+     * {@link ClientFactory#supports(URI) supports} it is used.
+     * 
+     * By default, the factories registered through the {@link ServiceLoader}
+     * mechanism are followed by a {@link HttpClientFactory}, a
+     * {@link WebsocketClientFactory}, a {@link RecordingClientFactory} and a
+     * {@link ReplayClientFactory}. The latter two handle endpoints using the
+     * <code>record</code> and <code>replay</code> schemes, which allow to
+     * record the responses of a node and to serve them back offline.
+     * 
+     * @return The list of client factories, which can be modified.
+     */
+    public List<ClientFactory> getClientFactories() {
+        return clientFactories;
+    }
+
+    /**
+     * Get the interceptors that are called for each request, in the order
+     * they are called. This setting only takes effect for
+     * {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     * CommunicationHandler} instances created afterwards.
+     * 
+     * By default, the list contains the interceptors registered through the
+     * {@link ServiceLoader} mechanism.
+     * 
+     * @return The list of request interceptors, which can be modified.
+     */
+    public List<RequestInterceptor> getRequestInterceptors() {
+        return requestInterceptors;
+    }
+
+    /**
+     * Get the recorder the latencies, payload sizes and errors of the requests
+     * are reported to. By default, this is a {@link MetricsRegistry} shared by
+     * all {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     * CommunicationHandler} instances.
+     * 
+     * @return The metrics recorder.
+     */
+    public MetricsRecorder getMetricsRecorder() {
+        return metricsRecorder;
+    }
+
     /**
      * Get the currently configured time zone id.
      * 
@@ -435,6 +974,48 @@ public class SteemJConfig {
         this.maximumExpirationDateOffset = maximumExpirationDateOffset;
     }
 
+    /**
+     * Override the default interval in which the reference block is refreshed
+     * in the background. A value that is 0 or negative disables the
+     * background refresh, so the reference block is only requested when it
+     * is older than the {@link #getMaxReferenceBlockAge() maximum age}. This
+     * setting only takes effect for
+     * {@link eu.bittrade.libs.steemj.ReferenceBlockProvider
+     * ReferenceBlockProvider} instances that start refreshing afterwards.
+     * 
+     * @param referenceBlockRefreshInterval
+     *            The refresh interval in milliseconds.
+     */
+    public void setReferenceBlockRefreshInterval(long referenceBlockRefreshInterval) {
+        this.referenceBlockRefreshInterval = referenceBlockRefreshInterval;
+    }
+
+    /**
+     * Override the default time after which the background refresh of the
+     * reference block stops if no reference block has been requested. A value
+     * that is 0 or negative keeps refreshing until the
+     * {@link eu.bittrade.libs.steemj.ReferenceBlockProvider
+     * ReferenceBlockProvider} is closed.
+     * 
+     * @param referenceBlockIdleTimeout
+     *            The idle timeout in milliseconds.
+     */
+    public void setReferenceBlockIdleTimeout(long referenceBlockIdleTimeout) {
+        this.referenceBlockIdleTimeout = referenceBlockIdleTimeout;
+    }
+
+    /**
+     * Override the default maximum age of a reference block that is used to
+     * build a transaction. A value that is 0 or negative forces a request to
+     * the node for each transaction.
+     * 
+     * @param maxReferenceBlockAge
+     *            The maximum age in milliseconds.
+     */
+    public void setMaxReferenceBlockAge(long maxReferenceBlockAge) {
+        this.maxReferenceBlockAge = maxReferenceBlockAge;
+    }
+
     /**
      * Set the address prefix. This prefix is used to parse keys in their WIF
      * format.
@@ -489,6 +1070,583 @@ public class SteemJConfig {
         this.idleTimeout = idleTimeout;
     }
 
+    /**
+     * Override the default, maximum time that SteemJ will wait until a
+     * connection to an endpoint has been established. A value that is 0 or
+     * negative indicates that SteemJ will wait until the operating system
+     * gives up.
+     *
+     * @param connectTimeout
+     *            Time in milliseconds.
+     */
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * Override the default, maximum number of HTTP connections that SteemJ
+     * will keep open to a single endpoint. Please be aware that this setting
+     * is only used for HTTP endpoints and only takes effect for
+     * {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     * CommunicationHandler} instances created afterwards.
+     * 
+     * @param maxConnectionsPerEndpoint
+     *            The maximum number of connections per endpoint.
+     * @throws IllegalArgumentException
+     *             If the value is 0 or negative.
+     */
+    public void setMaxConnectionsPerEndpoint(int maxConnectionsPerEndpoint) {
+        if (maxConnectionsPerEndpoint <= 0) {
+            throw new IllegalArgumentException("The maximum number of connections per endpoint has to be positive.");
+        }
+
+        this.maxConnectionsPerEndpoint = maxConnectionsPerEndpoint;
+    }
+
+    /**
+     * Override the default interval in which SteemJ checks for pooled HTTP
+     * connections that have been unused for longer than the
+     * <code>idleTimeout</code> and closes them. A value that is 0 or negative
+     * disables the eviction.
+     * 
+     * @param connectionEvictionInterval
+     *            The eviction interval in milliseconds.
+     */
+    public void setConnectionEvictionInterval(long connectionEvictionInterval) {
+        this.connectionEvictionInterval = connectionEvictionInterval;
+    }
+
+    /**
+     * Define the {@link Executor} used to perform asynchronous requests and to
+     * transform their responses. The executor is not shut down by SteemJ. If
+     * set to <code>null</code>, each
+     * {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     * CommunicationHandler} will create its own thread pool. This setting only
+     * takes effect for CommunicationHandler instances created afterwards.
+     * 
+     * @param asyncExecutor
+     *            The executor to use.
+     */
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * Override the default, maximum number of requests SteemJ sends to a node
+     * within one JSON-RPC batch. Larger batches are split into multiple
+     * batches. Most public nodes reject batches with more than 50 to 100
+     * requests.
+     * 
+     * @param maxBatchSize
+     *            The maximum number of requests per batch.
+     * @throws IllegalArgumentException
+     *             If the value is 0 or negative.
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("The maximum batch size has to be positive.");
+        }
+
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Override the default, maximum size of a single WebSocket frame received
+     * from a node (64 MiB). Larger frames close the session. Nodes send each
+     * response as one frame, so this has to be larger than the largest
+     * expected response (e.g. of <code>get_state</code>). The value is
+     * applied to WebSocket clients created afterwards.
+     * 
+     * @param maxWebsocketFrameSize
+     *            The maximum frame size in bytes.
+     * @throws IllegalArgumentException
+     *             If the value is 0 or negative.
+     */
+    public void setMaxWebsocketFrameSize(int maxWebsocketFrameSize) {
+        if (maxWebsocketFrameSize <= 0) {
+            throw new IllegalArgumentException("The maximum WebSocket frame size has to be positive.");
+        }
+
+        this.maxWebsocketFrameSize = maxWebsocketFrameSize;
+    }
+
+    /**
+     * Override the default interval in which SteemJ sends a ping to keep an
+     * open WebSocket session alive (30 seconds). A session is kept open as
+     * long as the node answers the pings, so it is no longer closed after the
+     * <code>idleTimeout</code>. If the interval is not shorter than the
+     * <code>idleTimeout</code>, half of the <code>idleTimeout</code> is used.
+     * A session that does not answer a ping in time or that has been closed
+     * by the node is replaced in the background and the requests in flight
+     * are sent again. A value that is 0 or negative disables the pings. The
+     * value is applied to WebSocket clients created afterwards.
+     * 
+     * @param websocketPingInterval
+     *            The ping interval in milliseconds.
+     */
+    public void setWebsocketPingInterval(long websocketPingInterval) {
+        this.websocketPingInterval = websocketPingInterval;
+    }
+
+    /**
+     * Override the default strategy used to select the endpoint for the next
+     * request. By default, a {@link LatencyWeightedSelectionStrategy} is used
+     * which routes requests to the fastest, healthy endpoint. Use a
+     * {@link eu.bittrade.libs.steemj.communication.selection.RoundRobinSelectionStrategy
+     * RoundRobinSelectionStrategy} to rotate across all endpoints instead.
+     * This setting only takes effect for
+     * {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     * CommunicationHandler} instances created afterwards.
+     * 
+     * @param endpointSelectionStrategy
+     *            The strategy to use.
+     * @throws IllegalArgumentException
+     *             If the strategy is <code>null</code>.
+     */
+    public void setEndpointSelectionStrategy(EndpointSelectionStrategy endpointSelectionStrategy) {
+        if (endpointSelectionStrategy == null) {
+            throw new IllegalArgumentException("The endpoint selection strategy can't be null.");
+        }
+
+        this.endpointSelectionStrategy = endpointSelectionStrategy;
+    }
+
+    /**
+     * Override the default interval in which endpoints that are considered as
+     * unhealthy are probed in the background. A value that is 0 or negative
+     * disables probing. This setting only takes effect for
+     * {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     * CommunicationHandler} instances created afterwards.
+     * 
+     * @param endpointProbeInterval
+     *            The probe interval in milliseconds.
+     */
+    public void setEndpointProbeInterval(long endpointProbeInterval) {
+        this.endpointProbeInterval = endpointProbeInterval;
+    }
+
+    /**
+     * Define if connections to all configured endpoints should be opened when
+     * a {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     * CommunicationHandler} is created (see
+     * {@link #isConnectionWarmUpEnabled()}).
+     * 
+     * @param connectionWarmUpEnabled
+     *            <code>true</code> to enable the connection warm-up.
+     */
+    public void setConnectionWarmUpEnabled(boolean connectionWarmUpEnabled) {
+        this.connectionWarmUpEnabled = connectionWarmUpEnabled;
+    }
+
+    /**
+     * Override the default maximum time the creation of a
+     * {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     * CommunicationHandler} waits for the connection warm-up. A value of 0
+     * lets the warm-up run in the background only.
+     * 
+     * @param connectionWarmUpTimeout
+     *            The warm-up timeout in milliseconds.
+     * @throws IllegalArgumentException
+     *             If the <code>connectionWarmUpTimeout</code> is negative.
+     */
+    public void setConnectionWarmUpTimeout(long connectionWarmUpTimeout) {
+        if (connectionWarmUpTimeout < 0) {
+            throw new IllegalArgumentException("The connection warm-up timeout can't be negative.");
+        }
+
+        this.connectionWarmUpTimeout = connectionWarmUpTimeout;
+    }
+
+    /**
+     * Override the default number of consecutive failures after which the
+     * circuit breaker of an endpoint opens. This setting only takes effect for
+     * endpoints that are added afterwards.
+     * 
+     * @param circuitBreakerFailureThreshold
+     *            The circuit breaker failure threshold.
+     * @throws IllegalArgumentException
+     *             If the <code>circuitBreakerFailureThreshold</code> is not
+     *             positive.
+     */
+    public void setCircuitBreakerFailureThreshold(int circuitBreakerFailureThreshold) {
+        if (circuitBreakerFailureThreshold <= 0) {
+            throw new IllegalArgumentException("The circuit breaker failure threshold has to be positive.");
+        }
+
+        this.circuitBreakerFailureThreshold = circuitBreakerFailureThreshold;
+    }
+
+    /**
+     * Override the default time an open circuit breaker waits before the
+     * endpoint is tried again. This setting only takes effect for endpoints
+     * that are added afterwards.
+     * 
+     * @param circuitBreakerOpenDuration
+     *            The open duration in milliseconds.
+     * @throws IllegalArgumentException
+     *             If the <code>circuitBreakerOpenDuration</code> is negative.
+     */
+    public void setCircuitBreakerOpenDuration(long circuitBreakerOpenDuration) {
+        if (circuitBreakerOpenDuration < 0) {
+            throw new IllegalArgumentException("The circuit breaker open duration can't be negative.");
+        }
+
+        this.circuitBreakerOpenDuration = circuitBreakerOpenDuration;
+    }
+
+    /**
+     * Define if the number of concurrent requests per endpoint should be
+     * limited (see {@link #isConcurrencyLimitingEnabled()}).
+     * 
+     * @param concurrencyLimitingEnabled
+     *            <code>true</code> to enable concurrency limiting.
+     */
+    public void setConcurrencyLimitingEnabled(boolean concurrencyLimitingEnabled) {
+        this.concurrencyLimitingEnabled = concurrencyLimitingEnabled;
+    }
+
+    /**
+     * Override the default upper bound of the adaptive concurrency limit of an
+     * endpoint. This setting only takes effect for endpoints that are added
+     * afterwards.
+     * 
+     * @param maxConcurrencyLimit
+     *            The maximum number of concurrent requests per endpoint.
+     * @throws IllegalArgumentException
+     *             If the <code>maxConcurrencyLimit</code> is not positive.
+     */
+    public void setMaxConcurrencyLimit(int maxConcurrencyLimit) {
+        if (maxConcurrencyLimit <= 0) {
+            throw new IllegalArgumentException("The maximum concurrency limit has to be positive.");
+        }
+
+        this.maxConcurrencyLimit = maxConcurrencyLimit;
+    }
+
+    /**
+     * Override the default maximum time a request waits for a permit of the
+     * concurrency limiter.
+     * 
+     * @param concurrencyLimitMaxWait
+     *            The maximum wait time in milliseconds.
+     * @throws IllegalArgumentException
+     *             If the <code>concurrencyLimitMaxWait</code> is negative.
+     */
+    public void setConcurrencyLimitMaxWait(long concurrencyLimitMaxWait) {
+        if (concurrencyLimitMaxWait < 0) {
+            throw new IllegalArgumentException("The concurrency limit wait time can't be negative.");
+        }
+
+        this.concurrencyLimitMaxWait = concurrencyLimitMaxWait;
+    }
+
+    /**
+     * Limit the number of requests that are sent to each endpoint (see
+     * {@link #getEndpointRateLimit()}).
+     * 
+     * @param endpointRateLimit
+     *            The rate limit per endpoint or <code>null</code> to remove
+     *            the limit.
+     */
+    public void setEndpointRateLimit(RateLimit endpointRateLimit) {
+        this.endpointRateLimit = endpointRateLimit;
+    }
+
+    /**
+     * Limit the number of requests that are sent to the given
+     * <code>api</code> (see {@link #getApiRateLimit(SteemApiType)}).
+     * 
+     * @param api
+     *            The API to limit.
+     * @param rateLimit
+     *            The rate limit of the API or <code>null</code> to remove the
+     *            limit.
+     * @throws IllegalArgumentException
+     *             If the <code>api</code> is <code>null</code>.
+     */
+    public void setApiRateLimit(SteemApiType api, RateLimit rateLimit) {
+        if (api == null) {
+            throw new IllegalArgumentException("The API can't be null.");
+        }
+
+        Map<SteemApiType, RateLimit> rateLimits = new EnumMap<>(apiRateLimits);
+        if (rateLimit == null) {
+            rateLimits.remove(api);
+        } else {
+            rateLimits.put(api, rateLimit);
+        }
+
+        this.apiRateLimits = rateLimits;
+    }
+
+    /**
+     * Limit the number of requests of the given <code>method</code> (see
+     * {@link #getMethodRateLimit(RequestMethods)}).
+     * 
+     * @param method
+     *            The method to limit.
+     * @param rateLimit
+     *            The rate limit of the method or <code>null</code> to remove
+     *            the limit.
+     * @throws IllegalArgumentException
+     *             If the <code>method</code> is <code>null</code>.
+     */
+    public void setMethodRateLimit(RequestMethods method, RateLimit rateLimit) {
+        if (method == null) {
+            throw new IllegalArgumentException("The method can't be null.");
+        }
+
+        Map<RequestMethods, RateLimit> rateLimits = new EnumMap<>(methodRateLimits);
+        if (rateLimit == null) {
+            rateLimits.remove(method);
+        } else {
+            rateLimits.put(method, rateLimit);
+        }
+
+        this.methodRateLimits = rateLimits;
+    }
+
+    /**
+     * Override the default maximum time a request waits for its rate limits
+     * (see {@link #getRateLimitMaxWait()}).
+     * 
+     * @param rateLimitMaxWait
+     *            The maximum wait time in milliseconds or 0 to fail fast.
+     * @throws IllegalArgumentException
+     *             If the <code>rateLimitMaxWait</code> is negative.
+     */
+    public void setRateLimitMaxWait(long rateLimitMaxWait) {
+        if (rateLimitMaxWait < 0) {
+            throw new IllegalArgumentException("The rate limit wait time can't be negative.");
+        }
+
+        this.rateLimitMaxWait = rateLimitMaxWait;
+    }
+
+    /**
+     * Override the default policy that defines if and when a failed request is
+     * retried. Use a policy with a single attempt to disable retries.
+     * 
+     * @param retryPolicy
+     *            The retry policy to use.
+     * @throws IllegalArgumentException
+     *             If the <code>retryPolicy</code> is null.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        if (retryPolicy == null) {
+            throw new IllegalArgumentException("The retry policy can't be null.");
+        }
+
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Define if read requests should be hedged (see
+     * {@link #isHedgingEnabled()}). Hedging reduces the impact of a single
+     * slow node at the cost of additional requests.
+     * 
+     * @param hedgingEnabled
+     *            <code>true</code> to enable hedging.
+     */
+    public void setHedgingEnabled(boolean hedgingEnabled) {
+        this.hedgingEnabled = hedgingEnabled;
+    }
+
+    /**
+     * Override the default methods whose requests may be hedged. Only methods
+     * without side effects should be hedged, as the same request may be
+     * processed by two nodes.
+     * 
+     * @param hedgedMethods
+     *            The methods whose requests may be hedged.
+     * @throws IllegalArgumentException
+     *             If the <code>hedgedMethods</code> contain a broadcast
+     *             method.
+     */
+    public void setHedgedMethods(Set<RequestMethods> hedgedMethods) {
+        EnumSet<RequestMethods> methods = EnumSet.noneOf(RequestMethods.class);
+        if (hedgedMethods != null) {
+            methods.addAll(hedgedMethods);
+        }
+
+        for (RequestMethods method : methods) {
+            if (method.name().startsWith("BROADCAST_")) {
+                throw new IllegalArgumentException("The broadcast method " + method + " can't be hedged.");
+            }
+        }
+
+        this.hedgedMethods = methods;
+    }
+
+    /**
+     * Override the methods whose concurrent, identical requests are coalesced
+     * (see {@link #getCoalescedMethods()}). As all callers share the same
+     * result, it must not be modified. A typical candidate is
+     * {@link RequestMethods#GET_DYNAMIC_GLOBAL_PROPERTIES}, which is requested
+     * before each transaction is signed.
+     * 
+     * @param coalescedMethods
+     *            The methods whose requests are coalesced.
+     * @throws IllegalArgumentException
+     *             If the <code>coalescedMethods</code> contain a broadcast
+     *             method.
+     */
+    public void setCoalescedMethods(Set<RequestMethods> coalescedMethods) {
+        EnumSet<RequestMethods> methods = EnumSet.noneOf(RequestMethods.class);
+        if (coalescedMethods != null) {
+            methods.addAll(coalescedMethods);
+        }
+
+        for (RequestMethods method : methods) {
+            if (method.name().startsWith("BROADCAST_")) {
+                throw new IllegalArgumentException("The broadcast method " + method + " can't be coalesced.");
+            }
+        }
+
+        this.coalescedMethods = methods;
+    }
+
+    /**
+     * Override the default methods whose requests are sent with the
+     * {@link RequestPriority#BULK bulk} priority (see
+     * {@link #getBulkMethods()}).
+     * 
+     * @param bulkMethods
+     *            The methods whose requests are bulk reads.
+     * @throws IllegalArgumentException
+     *             If the <code>bulkMethods</code> contain a broadcast method.
+     */
+    public void setBulkMethods(Set<RequestMethods> bulkMethods) {
+        EnumSet<RequestMethods> methods = EnumSet.noneOf(RequestMethods.class);
+        if (bulkMethods != null) {
+            methods.addAll(bulkMethods);
+        }
+
+        for (RequestMethods method : methods) {
+            if (method.name().startsWith("BROADCAST_")) {
+                throw new IllegalArgumentException("The broadcast method " + method + " can't be a bulk method.");
+            }
+        }
+
+        this.bulkMethods = methods;
+    }
+
+    /**
+     * Override the default weight of the given <code>priority</code> (see
+     * {@link #getPriorityWeight(RequestPriority)}). The weight is applied to
+     * endpoints that are connected after the change.
+     * 
+     * @param priority
+     *            The priority to set the weight for.
+     * @param weight
+     *            The new weight.
+     * @throws IllegalArgumentException
+     *             If the <code>priority</code> is <code>null</code> or the
+     *             <code>weight</code> is not positive.
+     */
+    public void setPriorityWeight(RequestPriority priority, int weight) {
+        if (priority == null) {
+            throw new IllegalArgumentException("The priority can't be null.");
+        } else if (weight <= 0) {
+            throw new IllegalArgumentException("The weight has to be positive.");
+        }
+
+        Map<RequestPriority, Integer> weights = new EnumMap<>(priorityWeights);
+        weights.put(priority, weight);
+
+        this.priorityWeights = weights;
+    }
+
+    /**
+     * Override the default percentile of the recent latencies of an endpoint
+     * after which a hedged request is sent to a second endpoint. A higher
+     * percentile causes less additional requests.
+     * 
+     * @param hedgingPercentile
+     *            The hedging percentile between 0 (exclusive) and 1
+     *            (inclusive), e.g. 0.95 for the 95th percentile.
+     * @throws IllegalArgumentException
+     *             If the <code>hedgingPercentile</code> is not in the range of
+     *             (0, 1].
+     */
+    public void setHedgingPercentile(double hedgingPercentile) {
+        if (hedgingPercentile <= 0 || hedgingPercentile > 1) {
+            throw new IllegalArgumentException("The hedging percentile has to be in the range of (0, 1].");
+        }
+
+        this.hedgingPercentile = hedgingPercentile;
+    }
+
+    /**
+     * Define if the nodes should be asked to compress their responses (see
+     * {@link #isCompressionEnabled()}). Compression saves bandwidth for large
+     * responses like blocks or account histories at the cost of some CPU
+     * time. This setting only takes effect for
+     * {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     * CommunicationHandler} instances created afterwards.
+     * 
+     * @param compressionEnabled
+     *            <code>true</code> to enable compression.
+     */
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    /**
+     * Override the factories used to create the clients for the configured
+     * endpoints (see {@link #getClientFactories()}). This setting only takes
+     * effect for {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     * CommunicationHandler} instances created afterwards.
+     * 
+     * @param clientFactories
+     *            The factories to use in the order they should be asked.
+     * @throws IllegalArgumentException
+     *             If no factory has been provided.
+     */
+    public void setClientFactories(List<ClientFactory> clientFactories) {
+        if (clientFactories == null || clientFactories.isEmpty()) {
+            throw new IllegalArgumentException("At least one client factory has to be provided.");
+        }
+
+        this.clientFactories = new ArrayList<>(clientFactories);
+    }
+
+    /**
+     * Override the interceptors that are called for each request (see
+     * {@link #getRequestInterceptors()}).
+     * 
+     * @param requestInterceptors
+     *            The interceptors in the order they should be called.
+     * @throws IllegalArgumentException
+     *             If the <code>requestInterceptors</code> are null.
+     */
+    public void setRequestInterceptors(List<RequestInterceptor> requestInterceptors) {
+        if (requestInterceptors == null) {
+            throw new IllegalArgumentException("The request interceptors can't be null.");
+        }
+
+        this.requestInterceptors = new ArrayList<>(requestInterceptors);
+    }
+
+    /**
+     * Override the recorder the metrics of the requests are reported to, e.g.
+     * to forward them to a metrics library. This setting only takes effect
+     * for {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     * CommunicationHandler} instances created afterwards.
+     * 
+     * @param metricsRecorder
+     *            The metrics recorder to use.
+     * @throws IllegalArgumentException
+     *             If the <code>metricsRecorder</code> is null.
+     */
+    public void setMetricsRecorder(MetricsRecorder metricsRecorder) {
+        if (metricsRecorder == null) {
+            throw new IllegalArgumentException("The metrics recorder can't be null.");
+        }
+
+        this.metricsRecorder = metricsRecorder;
+    }
+
     /**
      * Override the currently configured <code>endpointURIs</code>.
      * 
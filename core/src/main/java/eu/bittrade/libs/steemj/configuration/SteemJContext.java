@@ -0,0 +1,689 @@
+package eu.bittrade.libs.steemj.configuration;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import javax.websocket.ClientEndpointConfig;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.tuple.Pair;
+
+import eu.bittrade.libs.steemj.communication.ClientFactory;
+import eu.bittrade.libs.steemj.communication.RateLimit;
+import eu.bittrade.libs.steemj.communication.RequestInterceptor;
+import eu.bittrade.libs.steemj.communication.RetryPolicy;
+import eu.bittrade.libs.steemj.communication.metrics.MetricsRecorder;
+import eu.bittrade.libs.steemj.communication.selection.EndpointSelectionStrategy;
+import eu.bittrade.libs.steemj.enums.AddressPrefixType;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.RequestPriority;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
+import eu.bittrade.libs.steemj.enums.ValidationType;
+import eu.bittrade.libs.steemj.protocol.AccountName;
+
+/**
+ * An immutable snapshot of the settings that identify the chain a client
+ * talks to and how it connects to it.
+ *
+ * While the {@link SteemJConfig} is a single, mutable instance shared by the
+ * whole JVM, a context belongs to a single
+ * {@link eu.bittrade.libs.steemj.SteemJ SteemJ} or
+ * {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+ * CommunicationHandler} instance. This allows to run several differently
+ * configured clients in parallel, e.g. one for the main network and one for a
+ * test network:
+ *
+ * <pre>
+ * SteemJContext testnet = SteemJConfig.getInstance().createContext().withChainId(TESTNET_CHAIN_ID)
+ *         .withAddressPrefix(AddressPrefixType.TST).withEndpointURIs(testnetEndpoints);
+ * SteemJ testnetClient = new SteemJ(testnet);
+ * </pre>
+ *
+ * Besides the chain and the timeouts, a context holds the policies applied to
+ * the requests (e.g. retries, hedging, rate and concurrency limits), the
+ * client factories, request interceptors and the metrics recorder. Each
+ * component created for a {@link eu.bittrade.libs.steemj.SteemJ SteemJ} or
+ * {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+ * CommunicationHandler} instance reads its settings from the context of that
+ * instance.
+ *
+ * The address prefix is used for the public keys created by
+ * {@link eu.bittrade.libs.steemj.protocol.PublicKey#PublicKey(eu.bittrade.crypto.core.ECKey, AddressPrefixType)
+ * PublicKey}, while the maximum expiration date offset is used for the
+ * transactions a {@link eu.bittrade.libs.steemj.SteemJ SteemJ} instance
+ * creates and signs. The charset used to serialize transactions and the
+ * format of the dates sent to and received from the nodes are still taken
+ * from the {@link SteemJConfig}, as they are shared by all clients of the JVM.
+ *
+ * As a context never changes, it can be read from any thread without
+ * synchronization. The {@link PrivateKeyStorage}, the executor, the factories,
+ * the interceptors and the metrics recorder are shared with the
+ * {@link SteemJConfig} the context has been created from.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public final class SteemJContext {
+    private final List<Pair<URI, Boolean>> endpointURIs;
+    private final String chainId;
+    private final AddressPrefixType addressPrefix;
+    private final String dateTimePattern;
+    private final String timeZoneId;
+    private final ValidationType validationLevel;
+    private final long maximumExpirationDateOffset;
+    private final int responseTimeout;
+    private final int idleTimeout;
+    private final int connectTimeout;
+    private final boolean compressionEnabled;
+    private final ClientEndpointConfig clientEndpointConfig;
+    private final PrivateKeyStorage privateKeyStorage;
+    private final AccountName defaultAccount;
+    private final short steemJWeight;
+    private final long referenceBlockRefreshInterval;
+    private final long referenceBlockIdleTimeout;
+    private final long maxReferenceBlockAge;
+    private final int maxConnectionsPerEndpoint;
+    private final long connectionEvictionInterval;
+    private final Executor asyncExecutor;
+    private final int maxBatchSize;
+    private final int maxWebsocketFrameSize;
+    private final long websocketPingInterval;
+    private final EndpointSelectionStrategy endpointSelectionStrategy;
+    private final long endpointProbeInterval;
+    private final boolean connectionWarmUpEnabled;
+    private final long connectionWarmUpTimeout;
+    private final int circuitBreakerFailureThreshold;
+    private final long circuitBreakerOpenDuration;
+    private final boolean concurrencyLimitingEnabled;
+    private final int maxConcurrencyLimit;
+    private final long concurrencyLimitMaxWait;
+    private final RateLimit endpointRateLimit;
+    private final Map<SteemApiType, RateLimit> apiRateLimits;
+    private final Map<RequestMethods, RateLimit> methodRateLimits;
+    private final long rateLimitMaxWait;
+    private final RetryPolicy retryPolicy;
+    private final boolean hedgingEnabled;
+    private final Set<RequestMethods> hedgedMethods;
+    private final double hedgingPercentile;
+    private final Set<RequestMethods> coalescedMethods;
+    private final Set<RequestMethods> bulkMethods;
+    private final Map<RequestPriority, Integer> priorityWeights;
+    private final List<ClientFactory> clientFactories;
+    private final List<RequestInterceptor> requestInterceptors;
+    private final MetricsRecorder metricsRecorder;
+
+    /**
+     * Create a new {@link SteemJContext} instance holding the current settings
+     * of the given <code>steemJConfig</code>.
+     *
+     * @param steemJConfig
+     *            The configuration to take the settings from.
+     */
+    public SteemJContext(SteemJConfig steemJConfig) {
+        this.endpointURIs = Collections.unmodifiableList(new ArrayList<>(steemJConfig.getEndpointURIs()));
+        this.chainId = steemJConfig.getChainId();
+        this.addressPrefix = steemJConfig.getAddressPrefix();
+        this.dateTimePattern = steemJConfig.getDateTimePattern();
+        this.timeZoneId = steemJConfig.getTimeZoneId();
+        this.validationLevel = steemJConfig.getValidationLevel();
+        this.maximumExpirationDateOffset = steemJConfig.getMaximumExpirationDateOffset();
+        this.responseTimeout = steemJConfig.getResponseTimeout();
+        this.idleTimeout = steemJConfig.getIdleTimeout();
+        this.connectTimeout = steemJConfig.getConnectTimeout();
+        this.compressionEnabled = steemJConfig.isCompressionEnabled();
+        this.clientEndpointConfig = steemJConfig.getClientEndpointConfig();
+        this.privateKeyStorage = steemJConfig.getPrivateKeyStorage();
+        this.defaultAccount = steemJConfig.getDefaultAccount();
+        this.steemJWeight = steemJConfig.getSteemJWeight();
+        this.referenceBlockRefreshInterval = steemJConfig.getReferenceBlockRefreshInterval();
+        this.referenceBlockIdleTimeout = steemJConfig.getReferenceBlockIdleTimeout();
+        this.maxReferenceBlockAge = steemJConfig.getMaxReferenceBlockAge();
+        this.maxConnectionsPerEndpoint = steemJConfig.getMaxConnectionsPerEndpoint();
+        this.connectionEvictionInterval = steemJConfig.getConnectionEvictionInterval();
+        this.asyncExecutor = steemJConfig.getAsyncExecutor();
+        this.maxBatchSize = steemJConfig.getMaxBatchSize();
+        this.maxWebsocketFrameSize = steemJConfig.getMaxWebsocketFrameSize();
+        this.websocketPingInterval = steemJConfig.getWebsocketPingInterval();
+        this.endpointSelectionStrategy = steemJConfig.getEndpointSelectionStrategy();
+        this.endpointProbeInterval = steemJConfig.getEndpointProbeInterval();
+        this.connectionWarmUpEnabled = steemJConfig.isConnectionWarmUpEnabled();
+        this.connectionWarmUpTimeout = steemJConfig.getConnectionWarmUpTimeout();
+        this.circuitBreakerFailureThreshold = steemJConfig.getCircuitBreakerFailureThreshold();
+        this.circuitBreakerOpenDuration = steemJConfig.getCircuitBreakerOpenDuration();
+        this.concurrencyLimitingEnabled = steemJConfig.isConcurrencyLimitingEnabled();
+        this.maxConcurrencyLimit = steemJConfig.getMaxConcurrencyLimit();
+        this.concurrencyLimitMaxWait = steemJConfig.getConcurrencyLimitMaxWait();
+        this.endpointRateLimit = steemJConfig.getEndpointRateLimit();
+        this.rateLimitMaxWait = steemJConfig.getRateLimitMaxWait();
+        this.retryPolicy = steemJConfig.getRetryPolicy();
+        this.hedgingEnabled = steemJConfig.isHedgingEnabled();
+        this.hedgedMethods = copyOf(steemJConfig.getHedgedMethods());
+        this.hedgingPercentile = steemJConfig.getHedgingPercentile();
+        this.coalescedMethods = copyOf(steemJConfig.getCoalescedMethods());
+        this.bulkMethods = copyOf(steemJConfig.getBulkMethods());
+        this.priorityWeights = Collections.unmodifiableMap(new EnumMap<>(steemJConfig.getPriorityWeights()));
+        this.clientFactories = Collections.unmodifiableList(new ArrayList<>(steemJConfig.getClientFactories()));
+        this.requestInterceptors = Collections
+                .unmodifiableList(new ArrayList<>(steemJConfig.getRequestInterceptors()));
+        this.metricsRecorder = steemJConfig.getMetricsRecorder();
+
+        Map<SteemApiType, RateLimit> configuredApiRateLimits = new EnumMap<>(SteemApiType.class);
+        for (SteemApiType api : SteemApiType.values()) {
+            if (steemJConfig.getApiRateLimit(api) != null) {
+                configuredApiRateLimits.put(api, steemJConfig.getApiRateLimit(api));
+            }
+        }
+        this.apiRateLimits = Collections.unmodifiableMap(configuredApiRateLimits);
+
+        Map<RequestMethods, RateLimit> configuredMethodRateLimits = new EnumMap<>(RequestMethods.class);
+        for (RequestMethods method : RequestMethods.values()) {
+            if (steemJConfig.getMethodRateLimit(method) != null) {
+                configuredMethodRateLimits.put(method, steemJConfig.getMethodRateLimit(method));
+            }
+        }
+        this.methodRateLimits = Collections.unmodifiableMap(configuredMethodRateLimits);
+    }
+
+    /**
+     * Create a copy of the given <code>template</code> that only differs in
+     * the settings that identify the chain.
+     *
+     * @param template
+     *            The context to take all other settings from.
+     * @param endpointURIs
+     *            The endpoints to send requests to.
+     * @param chainId
+     *            The chain id used to sign transactions.
+     * @param addressPrefix
+     *            The prefix of public keys.
+     * @param privateKeyStorage
+     *            The storage of the keys used to sign transactions.
+     */
+    private SteemJContext(SteemJContext template, List<Pair<URI, Boolean>> endpointURIs, String chainId,
+            AddressPrefixType addressPrefix, PrivateKeyStorage privateKeyStorage) {
+        this.endpointURIs = Collections.unmodifiableList(new ArrayList<>(endpointURIs));
+        this.chainId = chainId;
+        this.addressPrefix = addressPrefix;
+        this.dateTimePattern = template.dateTimePattern;
+        this.timeZoneId = template.timeZoneId;
+        this.validationLevel = template.validationLevel;
+        this.maximumExpirationDateOffset = template.maximumExpirationDateOffset;
+        this.responseTimeout = template.responseTimeout;
+        this.idleTimeout = template.idleTimeout;
+        this.connectTimeout = template.connectTimeout;
+        this.compressionEnabled = template.compressionEnabled;
+        this.clientEndpointConfig = template.clientEndpointConfig;
+        this.privateKeyStorage = privateKeyStorage;
+        this.defaultAccount = template.defaultAccount;
+        this.steemJWeight = template.steemJWeight;
+        this.referenceBlockRefreshInterval = template.referenceBlockRefreshInterval;
+        this.referenceBlockIdleTimeout = template.referenceBlockIdleTimeout;
+        this.maxReferenceBlockAge = template.maxReferenceBlockAge;
+        this.maxConnectionsPerEndpoint = template.maxConnectionsPerEndpoint;
+        this.connectionEvictionInterval = template.connectionEvictionInterval;
+        this.asyncExecutor = template.asyncExecutor;
+        this.maxBatchSize = template.maxBatchSize;
+        this.maxWebsocketFrameSize = template.maxWebsocketFrameSize;
+        this.websocketPingInterval = template.websocketPingInterval;
+        this.endpointSelectionStrategy = template.endpointSelectionStrategy;
+        this.endpointProbeInterval = template.endpointProbeInterval;
+        this.connectionWarmUpEnabled = template.connectionWarmUpEnabled;
+        this.connectionWarmUpTimeout = template.connectionWarmUpTimeout;
+        this.circuitBreakerFailureThreshold = template.circuitBreakerFailureThreshold;
+        this.circuitBreakerOpenDuration = template.circuitBreakerOpenDuration;
+        this.concurrencyLimitingEnabled = template.concurrencyLimitingEnabled;
+        this.maxConcurrencyLimit = template.maxConcurrencyLimit;
+        this.concurrencyLimitMaxWait = template.concurrencyLimitMaxWait;
+        this.endpointRateLimit = template.endpointRateLimit;
+        this.apiRateLimits = template.apiRateLimits;
+        this.methodRateLimits = template.methodRateLimits;
+        this.rateLimitMaxWait = template.rateLimitMaxWait;
+        this.retryPolicy = template.retryPolicy;
+        this.hedgingEnabled = template.hedgingEnabled;
+        this.hedgedMethods = template.hedgedMethods;
+        this.hedgingPercentile = template.hedgingPercentile;
+        this.coalescedMethods = template.coalescedMethods;
+        this.bulkMethods = template.bulkMethods;
+        this.priorityWeights = template.priorityWeights;
+        this.clientFactories = template.clientFactories;
+        this.requestInterceptors = template.requestInterceptors;
+        this.metricsRecorder = template.metricsRecorder;
+    }
+
+    /**
+     * Create a copy of this context that uses other endpoints.
+     *
+     * @param endpointURIs
+     *            The endpoints to send requests to and if the SSL verification
+     *            should be disabled for them.
+     * @return The new context.
+     * @throws IllegalArgumentException
+     *             If the <code>endpointURIs</code> are empty.
+     */
+    public SteemJContext withEndpointURIs(List<Pair<URI, Boolean>> endpointURIs) {
+        if (endpointURIs == null || endpointURIs.isEmpty()) {
+            throw new IllegalArgumentException("At least one endpoint has to be provided.");
+        }
+
+        return new SteemJContext(this, endpointURIs, chainId, addressPrefix, privateKeyStorage);
+    }
+
+    /**
+     * Create a copy of this context that signs transactions for another chain.
+     *
+     * @param chainId
+     *            The chain id used to sign transactions.
+     * @return The new context.
+     */
+    public SteemJContext withChainId(String chainId) {
+        return new SteemJContext(this, endpointURIs, chainId, addressPrefix, privateKeyStorage);
+    }
+
+    /**
+     * Create a copy of this context that uses another address prefix.
+     *
+     * @param addressPrefix
+     *            The prefix of public keys.
+     * @return The new context.
+     */
+    public SteemJContext withAddressPrefix(AddressPrefixType addressPrefix) {
+        return new SteemJContext(this, endpointURIs, chainId, addressPrefix, privateKeyStorage);
+    }
+
+    /**
+     * Create a copy of this context that uses another key storage.
+     *
+     * @param privateKeyStorage
+     *            The storage of the keys used to sign transactions.
+     * @return The new context.
+     */
+    public SteemJContext withPrivateKeyStorage(PrivateKeyStorage privateKeyStorage) {
+        return new SteemJContext(this, endpointURIs, chainId, addressPrefix, privateKeyStorage);
+    }
+
+    /**
+     * @return An unmodifiable list of the endpoints to send requests to.
+     */
+    public List<Pair<URI, Boolean>> getEndpointURIs() {
+        return endpointURIs;
+    }
+
+    /**
+     * @return The chain id used to sign transactions.
+     */
+    public String getChainId() {
+        return chainId;
+    }
+
+    /**
+     * @return The prefix of public keys.
+     */
+    public AddressPrefixType getAddressPrefix() {
+        return addressPrefix;
+    }
+
+    /**
+     * @return The pattern used to parse the dates passed to a
+     *         {@link eu.bittrade.libs.steemj.SteemJ SteemJ} instance.
+     */
+    public String getDateTimePattern() {
+        return dateTimePattern;
+    }
+
+    /**
+     * @return The id of the time zone of the dates passed to a
+     *         {@link eu.bittrade.libs.steemj.SteemJ SteemJ} instance.
+     */
+    public String getTimeZoneId() {
+        return timeZoneId;
+    }
+
+    /**
+     * @return The validation level applied to operations.
+     */
+    public ValidationType getValidationLevel() {
+        return validationLevel;
+    }
+
+    /**
+     * @return The maximum offset in milliseconds between now and the
+     *         expiration date of a transaction.
+     */
+    public long getMaximumExpirationDateOffset() {
+        return maximumExpirationDateOffset;
+    }
+
+    /**
+     * @return The time in milliseconds to wait for a response.
+     */
+    public int getResponseTimeout() {
+        return responseTimeout;
+    }
+
+    /**
+     * @return The time in milliseconds after which an unused connection is
+     *         closed.
+     */
+    public int getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * @return The time in milliseconds to wait until a connection has been
+     *         established.
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * @return <code>true</code> if the nodes are asked to compress their
+     *         responses.
+     */
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    /**
+     * @return The configuration of WebSocket connections.
+     */
+    public ClientEndpointConfig getClientEndpointConfig() {
+        return clientEndpointConfig;
+    }
+
+    /**
+     * @return The storage of the keys used to sign transactions.
+     */
+    public PrivateKeyStorage getPrivateKeyStorage() {
+        return privateKeyStorage;
+    }
+
+    /**
+     * @return The account used by the simplified operations of
+     *         {@link eu.bittrade.libs.steemj.SteemJ SteemJ}.
+     */
+    public AccountName getDefaultAccount() {
+        return defaultAccount;
+    }
+
+    /**
+     * @return The beneficiary weight of SteemJ for new posts and comments.
+     */
+    public short getSteemJWeight() {
+        return steemJWeight;
+    }
+
+    /**
+     * @return The interval in milliseconds in which the reference block is
+     *         refreshed in the background.
+     */
+    public long getReferenceBlockRefreshInterval() {
+        return referenceBlockRefreshInterval;
+    }
+
+    /**
+     * @return The time in milliseconds after which the background refresh of
+     *         the reference block stops if no reference block has been
+     *         requested.
+     */
+    public long getReferenceBlockIdleTimeout() {
+        return referenceBlockIdleTimeout;
+    }
+
+    /**
+     * @return The maximum age in milliseconds of a reference block that is
+     *         used to build a transaction.
+     */
+    public long getMaxReferenceBlockAge() {
+        return maxReferenceBlockAge;
+    }
+
+    /**
+     * @return The maximum number of connections opened to one endpoint.
+     */
+    public int getMaxConnectionsPerEndpoint() {
+        return maxConnectionsPerEndpoint;
+    }
+
+    /**
+     * @return The interval in milliseconds in which idle and expired
+     *         connections are evicted.
+     */
+    public long getConnectionEvictionInterval() {
+        return connectionEvictionInterval;
+    }
+
+    /**
+     * @return The executor used to perform asynchronous requests or
+     *         <code>null</code> if each handler creates its own.
+     */
+    public Executor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * @return The maximum number of requests sent in a single batch.
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * @return The maximum size in bytes of a received WebSocket frame.
+     */
+    public int getMaxWebsocketFrameSize() {
+        return maxWebsocketFrameSize;
+    }
+
+    /**
+     * @return The interval in milliseconds in which idle WebSocket sessions
+     *         are pinged.
+     */
+    public long getWebsocketPingInterval() {
+        return websocketPingInterval;
+    }
+
+    /**
+     * @return The strategy used to select the endpoint of a request.
+     */
+    public EndpointSelectionStrategy getEndpointSelectionStrategy() {
+        return endpointSelectionStrategy;
+    }
+
+    /**
+     * @return The interval in milliseconds in which unhealthy endpoints are
+     *         probed.
+     */
+    public long getEndpointProbeInterval() {
+        return endpointProbeInterval;
+    }
+
+    /**
+     * @return <code>true</code> if the connections to all endpoints are
+     *         opened when a handler is created.
+     */
+    public boolean isConnectionWarmUpEnabled() {
+        return connectionWarmUpEnabled;
+    }
+
+    /**
+     * @return The time in milliseconds a handler waits for the warm up of its
+     *         connections.
+     */
+    public long getConnectionWarmUpTimeout() {
+        return connectionWarmUpTimeout;
+    }
+
+    /**
+     * @return The number of consecutive failures after which the circuit
+     *         breaker of an endpoint opens.
+     */
+    public int getCircuitBreakerFailureThreshold() {
+        return circuitBreakerFailureThreshold;
+    }
+
+    /**
+     * @return The time in milliseconds the circuit breaker of an endpoint
+     *         stays open.
+     */
+    public long getCircuitBreakerOpenDuration() {
+        return circuitBreakerOpenDuration;
+    }
+
+    /**
+     * @return <code>true</code> if the number of concurrent requests per
+     *         endpoint is limited.
+     */
+    public boolean isConcurrencyLimitingEnabled() {
+        return concurrencyLimitingEnabled;
+    }
+
+    /**
+     * @return The upper bound of the concurrency limit of an endpoint.
+     */
+    public int getMaxConcurrencyLimit() {
+        return maxConcurrencyLimit;
+    }
+
+    /**
+     * @return The maximum time in milliseconds a request waits for a permit
+     *         of the concurrency limiter.
+     */
+    public long getConcurrencyLimitMaxWait() {
+        return concurrencyLimitMaxWait;
+    }
+
+    /**
+     * @return The rate limit per endpoint or <code>null</code> if the number
+     *         of requests per endpoint is not limited.
+     */
+    public RateLimit getEndpointRateLimit() {
+        return endpointRateLimit;
+    }
+
+    /**
+     * @param api
+     *            The API to get the rate limit for.
+     * @return The rate limit of the API or <code>null</code> if the number of
+     *         requests to the API is not limited.
+     */
+    public RateLimit getApiRateLimit(SteemApiType api) {
+        return apiRateLimits.get(api);
+    }
+
+    /**
+     * @param method
+     *            The method to get the rate limit for.
+     * @return The rate limit of the method or <code>null</code> if the number
+     *         of requests of the method is not limited.
+     */
+    public RateLimit getMethodRateLimit(RequestMethods method) {
+        return methodRateLimits.get(method);
+    }
+
+    /**
+     * @return The maximum time in milliseconds a request waits until all of
+     *         its rate limits allow to send it.
+     */
+    public long getRateLimitMaxWait() {
+        return rateLimitMaxWait;
+    }
+
+    /**
+     * @return The policy that defines if and when a failed request is retried.
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * @return <code>true</code> if read requests are hedged.
+     */
+    public boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+
+    /**
+     * @return An unmodifiable set of methods that may be hedged.
+     */
+    public Set<RequestMethods> getHedgedMethods() {
+        return hedgedMethods;
+    }
+
+    /**
+     * @return The percentile of the recent latencies of an endpoint after
+     *         which a hedged request is sent.
+     */
+    public double getHedgingPercentile() {
+        return hedgingPercentile;
+    }
+
+    /**
+     * @return An unmodifiable set of methods whose requests are coalesced.
+     */
+    public Set<RequestMethods> getCoalescedMethods() {
+        return coalescedMethods;
+    }
+
+    /**
+     * @return An unmodifiable set of methods whose requests are bulk reads.
+     */
+    public Set<RequestMethods> getBulkMethods() {
+        return bulkMethods;
+    }
+
+    /**
+     * @return An unmodifiable map of the weight of each priority.
+     */
+    public Map<RequestPriority, Integer> getPriorityWeights() {
+        return priorityWeights;
+    }
+
+    /**
+     * @return An unmodifiable list of the factories used to create the
+     *         clients for the endpoints.
+     */
+    public List<ClientFactory> getClientFactories() {
+        return clientFactories;
+    }
+
+    /**
+     * @return An unmodifiable list of the interceptors that are called for
+     *         each request, in the order they are called.
+     */
+    public List<RequestInterceptor> getRequestInterceptors() {
+        return requestInterceptors;
+    }
+
+    /**
+     * @return The recorder the latencies, payload sizes and errors of the
+     *         requests are reported to.
+     */
+    public MetricsRecorder getMetricsRecorder() {
+        return metricsRecorder;
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+
+    /**
+     * @param methods
+     *            The methods to copy.
+     * @return An unmodifiable copy of the given <code>methods</code>.
+     */
+    private static Set<RequestMethods> copyOf(Collection<RequestMethods> methods) {
+        Set<RequestMethods> copy = EnumSet.noneOf(RequestMethods.class);
+        copy.addAll(methods);
+
+        return Collections.unmodifiableSet(copy);
+    }
+}
@@ -149,6 +149,10 @@ public enum RequestMethods {
     VERIFY_ACCOUNT_AUTHORITY,
     /** */
     VERIFY_SIGNATURES,
+    /** Register a callback that is notified about each applied block. */
+    SET_BLOCK_APPLIED_CALLBACK,
+    /** Register a callback that is notified about each pending transaction. */
+    SET_PENDING_TRANSACTION_CALLBACK,
     // tags_api
     /** */
     GET_TRENDING_TAGS,
@@ -0,0 +1,52 @@
+package eu.bittrade.libs.steemj.enums;
+
+/**
+ * An enumeration for the priority classes of requests. Requests of different
+ * priorities wait in separate queues, which are served using weighted
+ * round-robin scheduling: A queue is served more often the higher the
+ * {@link eu.bittrade.libs.steemj.configuration.SteemJConfig#getPriorityWeight(RequestPriority)
+ * weight} of its priority is, but no queue is starved.
+ * 
+ * <p>
+ * The priority is applied wherever a request waits for an endpoint: For its
+ * rate limits, for a pooled HTTP connection, for a permit of the concurrency
+ * limiter and for a connection of the non-blocking HTTP client. A custom
+ * {@link eu.bittrade.libs.steemj.configuration.SteemJConfig#getAsyncExecutor()
+ * executor} with a bounded number of threads still runs its tasks in the
+ * order they have been submitted.
+ * </p>
+ * 
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public enum RequestPriority {
+    /** Indicates a request that broadcasts a transaction. */
+    BROADCAST(16),
+    /** Indicates a read request whose result is waited for by a user. */
+    INTERACTIVE(4),
+    /**
+     * Indicates a read request that is part of a bulk operation, e.g. a
+     * crawler requesting one block after another.
+     */
+    BULK(1);
+
+    private final int defaultWeight;
+
+    /**
+     * @param defaultWeight
+     *            The share of the queue of this priority if no other weight
+     *            has been configured.
+     */
+    private RequestPriority(int defaultWeight) {
+        this.defaultWeight = defaultWeight;
+    }
+
+    /**
+     * Get the share of the queue of this priority if no other weight has been
+     * configured.
+     * 
+     * @return The default weight.
+     */
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+}
@@ -0,0 +1,19 @@
+package eu.bittrade.libs.steemj.exceptions;
+
+/**
+ * A custom Exception to handle requests that have not been sent because a
+ * client side rate limit has been exceeded.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class SteemRateLimitException extends SteemCommunicationException {
+    private static final long serialVersionUID = -2917146383297215040L;
+
+    public SteemRateLimitException(String message) {
+        super(message);
+    }
+
+    public SteemRateLimitException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
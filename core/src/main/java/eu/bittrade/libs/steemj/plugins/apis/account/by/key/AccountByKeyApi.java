@@ -1,5 +1,7 @@
 package eu.bittrade.libs.steemj.plugins.apis.account.by.key;
 
+import java.util.concurrent.CompletableFuture;
+
 import eu.bittrade.libs.steemj.communication.CommunicationHandler;
 import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
 import eu.bittrade.libs.steemj.enums.RequestMethods;
@@ -55,4 +57,34 @@ public class AccountByKeyApi {
 
         return communicationHandler.performRequest(requestObject, GetKeyReferencesReturn.class).get(0);
     }
+
+    /**
+     * Asynchronous variant of {@link #getKeyReferences(CommunicationHandler,
+     * GetKeyReferencesArgs)}. The request is sent without blocking the calling
+     * thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @param publicKeys
+     *            An array containing one or more public keys.
+     * @return A {@link CompletableFuture} that will be completed with a list of
+     *         arrays containing the matching account names. It is completed
+     *         exceptionally with a {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<GetKeyReferencesReturn> getKeyReferencesAsync(
+            CommunicationHandler communicationHandler, GetKeyReferencesArgs publicKeys) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_KEY_REFERENCES);
+        requestObject.setSteemApi(SteemApiType.ACCOUNT_BY_KEY_API);
+        Object[] parameters = { publicKeys };
+        requestObject.setAdditionalParameters(parameters);
+
+        return communicationHandler.performRequestAsync(requestObject, GetKeyReferencesReturn.class)
+                .thenApply(result -> result.get(0));
+    }
 }
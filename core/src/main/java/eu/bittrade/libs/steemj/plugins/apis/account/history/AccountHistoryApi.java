@@ -1,5 +1,7 @@
 package eu.bittrade.libs.steemj.plugins.apis.account.history;
 
+import java.util.concurrent.CompletableFuture;
+
 import eu.bittrade.libs.steemj.communication.CommunicationHandler;
 import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
 import eu.bittrade.libs.steemj.enums.RequestMethods;
@@ -64,6 +66,40 @@ public class AccountHistoryApi {
         return communicationHandler.performRequest(requestObject, GetOpsInBlockReturn.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of {@link #getOpsInBlock(CommunicationHandler,
+     * GetOpsInBlockArgs)}. The request is sent without blocking the calling
+     * thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @param blockNumber
+     *            Height of the block whose generated virtual operations should
+     *            be returned.
+     * @param onlyVirtual
+     *            Define if only virtual operations should be returned
+     *            (<code>true</code>) or not (<code>false</code>).
+     * @return A {@link CompletableFuture} that will be completed with a
+     *         sequence of operations included/generated within a particular
+     *         block. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<GetOpsInBlockReturn> getOpsInBlockAsync(CommunicationHandler communicationHandler,
+            GetOpsInBlockArgs getOpsInBlockArgs) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_OPS_IN_BLOCK);
+        requestObject.setSteemApi(SteemApiType.ACCOUNT_HISTORY_API);
+        requestObject.setAdditionalParameters(getOpsInBlockArgs);
+
+        return communicationHandler.performRequestAsync(requestObject, GetOpsInBlockReturn.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * Find a transaction by its <code>transactionId</code>.
      * 
@@ -101,6 +137,36 @@ public class AccountHistoryApi {
         return communicationHandler.performRequest(requestObject, AnnotatedSignedTransaction.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of {@link #getTransaction(CommunicationHandler,
+     * GetAccountHistoryArgs)}. The request is sent without blocking the calling
+     * thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @param transactionId
+     *            The <code>transactionId</code> to search for.
+     * @return A {@link CompletableFuture} that will be completed with a
+     *         sequence of operations included/generated within a particular
+     *         block. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<AnnotatedSignedTransaction> getTransactionAsync(
+            CommunicationHandler communicationHandler, GetAccountHistoryArgs getTransactionArgs) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_TRANSACTION);
+        requestObject.setSteemApi(SteemApiType.ACCOUNT_HISTORY_API);
+        requestObject.setAdditionalParameters(getTransactionArgs);
+
+        return communicationHandler.performRequestAsync(requestObject, AnnotatedSignedTransaction.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * Get all operations performed by the specified <code>accountName</code>.
      * 
@@ -141,4 +207,38 @@ public class AccountHistoryApi {
 
         return communicationHandler.performRequest(requestObject, GetAccountHistoryReturn.class).get(0);
     }
+
+    /**
+     * Asynchronous variant of {@link #getAccountHistory(CommunicationHandler,
+     * GetAccountHistoryArgs)}. The request is sent without blocking the calling
+     * thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @param accountName
+     *            The user name of the account.
+     * @param from
+     *            The starting point.
+     * @param limit
+     *            The maximum number of entries.
+     * @return A {@link CompletableFuture} that will be completed with a map
+     *         containing the activities. The key is the id of the activity. It
+     *         is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<GetAccountHistoryReturn> getAccountHistoryAsync(
+            CommunicationHandler communicationHandler, GetAccountHistoryArgs getAccountHistoryArgs) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setSteemApi(SteemApiType.ACCOUNT_HISTORY_API);
+        requestObject.setApiMethod(RequestMethods.GET_ACCOUNT_HISTORY);
+        requestObject.setAdditionalParameters(getAccountHistoryArgs);
+
+        return communicationHandler.performRequestAsync(requestObject, GetAccountHistoryReturn.class)
+                .thenApply(result -> result.get(0));
+    }
 }
@@ -1,6 +1,11 @@
 package eu.bittrade.libs.steemj.plugins.apis.block;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import eu.bittrade.libs.steemj.communication.CommunicationHandler;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCBatchRequest;
 import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
 import eu.bittrade.libs.steemj.enums.RequestMethods;
 import eu.bittrade.libs.steemj.enums.SteemApiType;
@@ -31,9 +36,10 @@ public class BlockApi {
      *            CommunicationHandler} instance that should be used to send the
      *            request.
      * @param getBlockHeaderArgs
-     *            TODO
-     * @return The referenced full, signed block, or <code>null</code> if no
-     *         matching block was found.
+     *            The arguments of the request, defining the number of the
+     *            block whose header should be returned.
+     * @return The header of the referenced block. It is absent if no matching
+     *         block was found.
      * @throws SteemCommunicationException
      *             <ul>
      *             <li>If the server was not able to answer the request in the
@@ -59,6 +65,37 @@ public class BlockApi {
         return communicationHandler.performRequest(requestObject, GetBlockHeaderReturn.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of {@link #getBlockHeader(CommunicationHandler,
+     * GetBlockHeaderArgs)}. The request is sent without blocking the calling
+     * thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @param getBlockHeaderArgs
+     *            The arguments of the request, defining the number of the
+     *            block whose header should be returned.
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         header of the referenced block, which is absent if no matching
+     *         block was found. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<GetBlockHeaderReturn> getBlockHeaderAsync(CommunicationHandler communicationHandler,
+            GetBlockHeaderArgs getBlockHeaderArgs) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_BLOCK_HEADER);
+        requestObject.setSteemApi(SteemApiType.BLOCK_API);
+        requestObject.setAdditionalParameters(getBlockHeaderArgs);
+
+        return communicationHandler.performRequestAsync(requestObject, GetBlockHeaderReturn.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * Get a full, signed block by providing its <code>blockNumber</code>. The
      * returned object contains all information related to the block (e.g.
@@ -97,4 +134,132 @@ public class BlockApi {
 
         return communicationHandler.performRequest(requestObject, GetBlockReturn.class).get(0);
     }
+
+    /**
+     * Asynchronous variant of {@link #getBlock(CommunicationHandler,
+     * GetBlockArgs)}. The request is sent without blocking the calling thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @param getBlockArgs
+     *            Height of the block to be returned.
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         referenced full, signed block, or <code>null</code> if no
+     *         matching block was found. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<GetBlockReturn> getBlockAsync(CommunicationHandler communicationHandler,
+            GetBlockArgs getBlockArgs) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_BLOCK);
+        requestObject.setSteemApi(SteemApiType.BLOCK_API);
+        requestObject.setAdditionalParameters(getBlockArgs);
+
+        return communicationHandler.performRequestAsync(requestObject, GetBlockReturn.class)
+                .thenApply(result -> result.get(0));
+    }
+
+    /**
+     * Get multiple full, signed blocks with a single round-trip. All requests
+     * are sent as one JSON-RPC batch (see
+     * {@link CommunicationHandler#performBatchRequest(JsonRPCBatchRequest, Class)}).
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @param getBlockArgs
+     *            The heights of the blocks to be returned.
+     * @return The referenced blocks in the same order as the
+     *         <code>getBlockArgs</code>.
+     * @throws SteemCommunicationException
+     *             <ul>
+     *             <li>If the server was not able to answer the request in the
+     *             given time (see
+     *             {@link eu.bittrade.libs.steemj.configuration.SteemJConfig#setResponseTimeout(int)
+     *             setResponseTimeout}).</li>
+     *             <li>If there is a connection problem.</li>
+     *             </ul>
+     * @throws SteemResponseException
+     *             <ul>
+     *             <li>If the SteemJ is unable to transform the JSON response
+     *             into a Java object.</li>
+     *             <li>If the Server returned an error object.</li>
+     *             </ul>
+     */
+    public static List<GetBlockReturn> getBlocks(CommunicationHandler communicationHandler,
+            List<GetBlockArgs> getBlockArgs) throws SteemCommunicationException, SteemResponseException {
+        return getFirstResults(
+                communicationHandler.performBatchRequest(createGetBlockBatch(getBlockArgs), GetBlockReturn.class));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getBlocks(CommunicationHandler, List)}.
+     * The requests are sent without blocking the calling thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @param getBlockArgs
+     *            The heights of the blocks to be returned.
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         referenced blocks in the same order as the
+     *         <code>getBlockArgs</code>. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<List<GetBlockReturn>> getBlocksAsync(CommunicationHandler communicationHandler,
+            List<GetBlockArgs> getBlockArgs) {
+        return communicationHandler.performBatchRequestAsync(createGetBlockBatch(getBlockArgs), GetBlockReturn.class)
+                .thenApply(BlockApi::getFirstResults);
+    }
+
+    /**
+     * Create a batch containing one "get_block" request per entry of
+     * <code>getBlockArgs</code>.
+     * 
+     * @param getBlockArgs
+     *            The heights of the blocks to request.
+     * @return The batch to send.
+     */
+    private static JsonRPCBatchRequest createGetBlockBatch(List<GetBlockArgs> getBlockArgs) {
+        JsonRPCBatchRequest batchRequest = new JsonRPCBatchRequest();
+        for (GetBlockArgs getBlockArg : getBlockArgs) {
+            JsonRPCRequest requestObject = new JsonRPCRequest();
+            requestObject.setApiMethod(RequestMethods.GET_BLOCK);
+            requestObject.setSteemApi(SteemApiType.BLOCK_API);
+            requestObject.setAdditionalParameters(getBlockArg);
+
+            batchRequest.addRequest(requestObject);
+        }
+
+        return batchRequest;
+    }
+
+    /**
+     * Reduce the results of a batch to the first element of each result like
+     * it is done for single requests.
+     * 
+     * @param results
+     *            The results of a batch.
+     * @return The first element of each result or <code>null</code> if a
+     *         result is empty.
+     */
+    private static <T> List<T> getFirstResults(List<List<T>> results) {
+        List<T> firstResults = new ArrayList<>(results.size());
+        for (List<T> result : results) {
+            firstResults.add(result.isEmpty() ? null : result.get(0));
+        }
+
+        return firstResults;
+    }
 }
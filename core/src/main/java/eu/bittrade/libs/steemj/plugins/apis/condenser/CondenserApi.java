@@ -1,5 +1,7 @@
 package eu.bittrade.libs.steemj.plugins.apis.condenser;
 
+import java.util.concurrent.CompletableFuture;
+
 import eu.bittrade.libs.steemj.base.models.Permlink;
 import eu.bittrade.libs.steemj.communication.CommunicationHandler;
 import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
@@ -12,9 +14,8 @@ import eu.bittrade.libs.steemj.plugins.apis.condenser.models.State;
 public class CondenserApi {
     /**
      * This API is a short-cut for returning all of the state required for a
-     * particular URL with a single query.
-     * 
-     * TODO: Provide examples.
+     * particular URL with a single query, e.g. the accounts, the posts and
+     * the feed price required to render the page of a post.
      * 
      * @param communicationHandler
      *            A
@@ -22,8 +23,9 @@ public class CondenserApi {
      *            CommunicationHandler} instance that should be used to send the
      *            request.
      * @param path
-     *            TODO: Fix JavaDoc
-     * @return TODO: Fix JavaDoc
+     *            The path of the URL to return the state for, e.g.
+     *            <code>/trending</code> or <code>/@dez1337/steemj</code>.
+     * @return The state of the given <code>path</code>.
      * @throws SteemCommunicationException
      *             <ul>
      *             <li>If the server was not able to answer the request in the
@@ -44,11 +46,39 @@ public class CondenserApi {
         JsonRPCRequest requestObject = new JsonRPCRequest();
         requestObject.setApiMethod(RequestMethods.GET_STATE);
         requestObject.setSteemApi(SteemApiType.DATABASE_API);
-        String[] parameters = {};
+        String[] parameters = { path.getLink() };
         requestObject.setAdditionalParameters(parameters);
 
         return communicationHandler.performRequest(requestObject, State.class).get(0);
     }
+
+    /**
+     * Asynchronous variant of {@link #getState(CommunicationHandler,
+     * Permlink)}. The request is sent without blocking the calling thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @param path
+     *            The path of the URL to return the state for, e.g.
+     *            <code>/trending</code> or <code>/@dez1337/steemj</code>.
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         {@link State} of the given path. It is completed exceptionally
+     *         with a {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<State> getStateAsync(CommunicationHandler communicationHandler, Permlink path) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_STATE);
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        String[] parameters = { path.getLink() };
+        requestObject.setAdditionalParameters(parameters);
+
+        return communicationHandler.performRequestAsync(requestObject, State.class).thenApply(result -> result.get(0));
+    }
     
     /**
      * Get the hardfork version the node you are connected to is using.
@@ -78,6 +108,28 @@ public class CondenserApi {
 
         return communicationHandler.performRequest(requestObject, String.class).get(0);
     }
+
+    /**
+     * Asynchronous variant of
+     * {@link #getHardforkVersion(CommunicationHandler)}. The request is sent
+     * without blocking the calling thread.
+     * 
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         hardfork version that the connected node is running on. It is
+     *         completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<String> getHardforkVersionAsync(CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_HARDFORK_VERSION);
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        String[] parameters = {};
+        requestObject.setAdditionalParameters(parameters);
+
+        return communicationHandler.performRequestAsync(requestObject, String.class).thenApply(result -> result.get(0));
+    }
     /*
     (get_version)
     (get_trending_tags)
@@ -1,10 +1,14 @@
 package eu.bittrade.libs.steemj.plugins.apis.database;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import eu.bittrade.libs.steemj.base.models.FeedHistory;
 import eu.bittrade.libs.steemj.base.models.Price;
+import eu.bittrade.libs.steemj.base.models.SignedTransaction;
 import eu.bittrade.libs.steemj.communication.CommunicationHandler;
+import eu.bittrade.libs.steemj.communication.NoticeListener;
+import eu.bittrade.libs.steemj.communication.Subscription;
 import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
 import eu.bittrade.libs.steemj.enums.RequestMethods;
 import eu.bittrade.libs.steemj.enums.RewardFundType;
@@ -19,6 +23,7 @@ import eu.bittrade.libs.steemj.plugins.apis.database.models.ListWitnessesReturn;
 import eu.bittrade.libs.steemj.plugins.apis.database.models.RewardFund;
 import eu.bittrade.libs.steemj.plugins.apis.database.models.WitnessSchedule;
 import eu.bittrade.libs.steemj.protocol.AccountName;
+import eu.bittrade.libs.steemj.protocol.SignedBlockHeader;
 
 /**
  * This class implements the "database_api".
@@ -59,6 +64,26 @@ public class DatabaseApi {
 
         return communicationHandler.performRequest(requestObject, Config.class).get(0);
     }
+
+    /**
+     * Asynchronous variant of {@link #getConfig(CommunicationHandler)}. The
+     * request is sent without blocking the calling thread.
+     * 
+     * @return A {@link CompletableFuture} that will be completed with the steem
+     *         configuration. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<Config> getConfigAsync(CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_CONFIG);
+        requestObject.setSteemApi(SteemApiType.CONDENSER_API);
+        String[] parameters = {};
+        requestObject.setAdditionalParameters(parameters);
+
+        return communicationHandler.performRequestAsync(requestObject, Config.class).thenApply(result -> result.get(0));
+    }
     
 
     /**
@@ -90,7 +115,80 @@ public class DatabaseApi {
 
         return communicationHandler.performRequest(requestObject, DynamicGlobalProperty.class).get(0);
     }
-    
+
+    /**
+     * Asynchronous variant of
+     * {@link #getDynamicGlobalProperties(CommunicationHandler)}. The request is
+     * sent without blocking the calling thread.
+     * 
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         dynamic global properties. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<DynamicGlobalProperty> getDynamicGlobalPropertiesAsync(
+            CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_DYNAMIC_GLOBAL_PROPERTIES);
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        String[] parameters = {};
+        requestObject.setAdditionalParameters(parameters);
+
+        return communicationHandler.performRequestAsync(requestObject, DynamicGlobalProperty.class)
+                .thenApply(result -> result.get(0));
+    }
+
+    /**
+     * Let the node push the header of each applied block to the given
+     * <code>listener</code>, which is cheaper than polling the
+     * {@link #getDynamicGlobalProperties(CommunicationHandler) dynamic global
+     * properties} for every block. This requires a WebSocket endpoint.
+     * 
+     * @param listener
+     *            The listener to inform about each applied block.
+     * @return The subscription, which can be used to stop informing the
+     *         <code>listener</code>.
+     * @throws SteemCommunicationException
+     *             <ul>
+     *             <li>If no WebSocket endpoint has been configured.</li>
+     *             <li>If there is a connection problem.</li>
+     *             </ul>
+     * @throws SteemResponseException
+     *             <ul>
+     *             <li>If the Server returned an error object.</li>
+     *             </ul>
+     */
+    public static Subscription setBlockAppliedCallback(CommunicationHandler communicationHandler,
+            NoticeListener<SignedBlockHeader> listener) throws SteemCommunicationException, SteemResponseException {
+        return communicationHandler.subscribe(RequestMethods.SET_BLOCK_APPLIED_CALLBACK, SignedBlockHeader.class,
+                listener);
+    }
+
+    /**
+     * Let the node push each transaction that enters its pending pool to the
+     * given <code>listener</code>. This requires a WebSocket endpoint.
+     * 
+     * @param listener
+     *            The listener to inform about each pending transaction.
+     * @return The subscription, which can be used to stop informing the
+     *         <code>listener</code>.
+     * @throws SteemCommunicationException
+     *             <ul>
+     *             <li>If no WebSocket endpoint has been configured.</li>
+     *             <li>If there is a connection problem.</li>
+     *             </ul>
+     * @throws SteemResponseException
+     *             <ul>
+     *             <li>If the Server returned an error object.</li>
+     *             </ul>
+     */
+    public static Subscription setPendingTransactionCallback(CommunicationHandler communicationHandler,
+            NoticeListener<SignedTransaction> listener) throws SteemCommunicationException, SteemResponseException {
+        return communicationHandler.subscribe(RequestMethods.SET_PENDING_TRANSACTION_CALLBACK,
+                SignedTransaction.class, listener);
+    }
+
     /**
      * Get the witness schedule.
      * 
@@ -119,6 +217,29 @@ public class DatabaseApi {
 
         return communicationHandler.performRequest(requestObject, WitnessSchedule.class).get(0);
     }
+
+    /**
+     * Asynchronous variant of
+     * {@link #getWitnessSchedule(CommunicationHandler)}. The request is sent
+     * without blocking the calling thread.
+     * 
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         witness schedule. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<WitnessSchedule> getWitnessScheduleAsync(
+            CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_WITNESS_SCHEDULE);
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        String[] parameters = {};
+        requestObject.setAdditionalParameters(parameters);
+
+        return communicationHandler.performRequestAsync(requestObject, WitnessSchedule.class)
+                .thenApply(result -> result.get(0));
+    }
     
     public static HardforkProperty getHardforkProperties(CommunicationHandler communicationHandler) throws SteemCommunicationException, SteemResponseException {
         JsonRPCRequest requestObject = new JsonRPCRequest();
@@ -165,6 +286,33 @@ public class DatabaseApi {
 
         return communicationHandler.performRequest(requestObject, RewardFund.class).get(0);
     }
+
+    /**
+     * Asynchronous variant of {@link #getRewardFunds(CommunicationHandler,
+     * RewardFundType)}. The request is sent without blocking the calling
+     * thread.
+     * 
+     * @param rewordFundType
+     *            One of the {@link eu.bittrade.libs.steemj.enums.RewardFundType
+     *            RewardFundType}s.
+     * @return A {@link CompletableFuture} that will be completed with a refund
+     *         object containing detailed information about the requested reward
+     *         fund. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<RewardFund> getRewardFundsAsync(CommunicationHandler communicationHandler,
+            RewardFundType rewordFundType) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_REWARD_FUNDS);
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        Object[] parameters = { rewordFundType.name().toLowerCase() };
+        requestObject.setAdditionalParameters(parameters);
+
+        return communicationHandler.performRequestAsync(requestObject, RewardFund.class)
+                .thenApply(result -> result.get(0));
+    }
     
     public static Price getCurrentPriceFeed(CommunicationHandler communicationHandler) throws SteemCommunicationException, SteemResponseException {
         JsonRPCRequest requestObject = new JsonRPCRequest();
@@ -274,6 +422,33 @@ public class DatabaseApi {
 
         return communicationHandler.performRequest(requestObject, AccountName.class);
     }
+
+    /**
+     * Asynchronous variant of
+     * {@link #getActiveWitnesses(CommunicationHandler)}. The request is sent
+     * without blocking the calling thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @return A {@link CompletableFuture} that will be completed with the list
+     *         of the current active witnesses. It is completed exceptionally
+     *         with a {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<List<AccountName>> getActiveWitnessesAsync(
+            CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_ACTIVE_WITNESSES);
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        String[] parameters = {};
+        requestObject.setAdditionalParameters(parameters);
+
+        return communicationHandler.performRequestAsync(requestObject, AccountName.class);
+    }
     
     
    /* DECLARE_API_IMPL
@@ -1,6 +1,7 @@
 package eu.bittrade.libs.steemj.plugins.apis.market.history;
 
 import java.security.InvalidParameterException;
+import java.util.concurrent.CompletableFuture;
 
 import eu.bittrade.libs.steemj.communication.CommunicationHandler;
 import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
@@ -67,6 +68,33 @@ public class MarketHistoryApi {
         return communicationHandler.performRequest(requestObject, GetTickerReturn.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of {@link #getTicker(CommunicationHandler)}. The
+     * request is sent without blocking the calling thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         market ticker for the internal SBD:STEEM market. It is completed
+     *         exceptionally with a {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<GetTickerReturn> getTickerAsync(CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_TICKER);
+        requestObject.setSteemApi(SteemApiType.MARKET_HISTORY_API);
+
+        Object[] parameters = {};
+        requestObject.setAdditionalParameters(parameters);
+
+        return communicationHandler.performRequestAsync(requestObject, GetTickerReturn.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * Use this method to get the SBD and Steem volume that has been traded in
      * the past 24 hours at the internal SBD:STEEM market.
@@ -104,6 +132,33 @@ public class MarketHistoryApi {
         return communicationHandler.performRequest(requestObject, GetVolumeReturn.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of {@link #getVolume(CommunicationHandler)}. The
+     * request is sent without blocking the calling thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         market volume for the past 24 hours. It is completed
+     *         exceptionally with a {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<GetVolumeReturn> getVolumeAsync(CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_VOLUME);
+        requestObject.setSteemApi(SteemApiType.MARKET_HISTORY_API);
+
+        Object[] parameters = {};
+        requestObject.setAdditionalParameters(parameters);
+
+        return communicationHandler.performRequestAsync(requestObject, GetVolumeReturn.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * Use this method to receive the current order book of the internal
      * SBD:STEEM market.
@@ -148,6 +203,43 @@ public class MarketHistoryApi {
         return communicationHandler.performRequest(requestObject, GetOrderBookReturn.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of {@link #getOrderBook(CommunicationHandler,
+     * GetOrderBookArgs)}. The request is sent without blocking the calling
+     * thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @param limit
+     *            The number of orders to have on each side of the order book.
+     *            Maximum is 500.
+     * @return A {@link CompletableFuture} that will be completed with returns
+     *         the current order book for the internal SBD:STEEM market. It is
+     *         completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     * @throws InvalidParameterException
+     *             If the limit is less than 0 or greater than 500.
+     */
+    public static CompletableFuture<GetOrderBookReturn> getOrderBookAsync(CommunicationHandler communicationHandler,
+            GetOrderBookArgs getOrderBookArgs) {
+        if (getOrderBookArgs.getLimit().longValue() < 0 || getOrderBookArgs.getLimit().longValue() > 500) {
+            throw new InvalidParameterException("The limit can't be less than 0 or greater than 500.");
+        }
+
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_ORDER_BOOK);
+        requestObject.setSteemApi(SteemApiType.MARKET_HISTORY_API);
+        requestObject.setAdditionalParameters(getOrderBookArgs);
+
+        return communicationHandler.performRequestAsync(requestObject, GetOrderBookReturn.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * Use this method to get the trade history of the internal SBD:STEEM market
      * between the defined <code>start</code> and <code>end</code> time.
@@ -195,6 +287,45 @@ public class MarketHistoryApi {
         return communicationHandler.performRequest(requestObject, GetTradeHistoryReturn.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of {@link #getTradeHistory(CommunicationHandler,
+     * GetTradeHistoryArgs)}. The request is sent without blocking the calling
+     * thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @param start
+     *            The start time of the trade history.
+     * @param end
+     *            The end time of the trade history.
+     * @param limit
+     *            The number of trades to return. Maximum is 1000.
+     * @return A {@link CompletableFuture} that will be completed with a list of
+     *         completed trades. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     * @throws InvalidParameterException
+     *             If the limit is less than 0 or greater than 500.
+     */
+    public static CompletableFuture<GetTradeHistoryReturn> getTradeHistoryAsync(
+            CommunicationHandler communicationHandler, GetTradeHistoryArgs getTradeHistoryArgs) {
+        if (getTradeHistoryArgs.getLimit().longValue() < 0 || getTradeHistoryArgs.getLimit().longValue() > 1000) {
+            throw new InvalidParameterException("The limit can't be less than 0 or greater than 1000.");
+        }
+
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_TRADE_HISTORY);
+        requestObject.setSteemApi(SteemApiType.MARKET_HISTORY_API);
+        requestObject.setAdditionalParameters(getTradeHistoryArgs);
+
+        return communicationHandler.performRequestAsync(requestObject, GetTradeHistoryReturn.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * Use this method to request the most recent trades for the internal
      * SBD:STEEM market. The number of results is limited by the
@@ -239,6 +370,41 @@ public class MarketHistoryApi {
         return communicationHandler.performRequest(requestObject, GetRecentTradesReturn.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of {@link #getRecentTrades(CommunicationHandler,
+     * GetRecentTradesArgs)}. The request is sent without blocking the calling
+     * thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @param limit
+     *            The number of trades to return. Maximum is 1000.
+     * @return A {@link CompletableFuture} that will be completed with a list of
+     *         completed trades. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     * @throws InvalidParameterException
+     *             If the limit is less than 0 or greater than 500.
+     */
+    public static CompletableFuture<GetRecentTradesReturn> getRecentTradesAsync(
+            CommunicationHandler communicationHandler, GetRecentTradesArgs getRecentTradesArgs) {
+        if (getRecentTradesArgs.getLimit().longValue() < 0 || getRecentTradesArgs.getLimit().longValue() > 1000) {
+            throw new InvalidParameterException("The limit can't be less than 0 or greater than 500.");
+        }
+
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_RECENT_TRADES);
+        requestObject.setSteemApi(SteemApiType.MARKET_HISTORY_API);
+        requestObject.setAdditionalParameters(getRecentTradesArgs);
+
+        return communicationHandler.performRequestAsync(requestObject, GetRecentTradesReturn.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * Returns the market history for the internal SBD:STEEM market.
      * 
@@ -282,6 +448,42 @@ public class MarketHistoryApi {
         return communicationHandler.performRequest(requestObject, GetMarketHistoryReturn.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of {@link #getMarketHistory(CommunicationHandler,
+     * GetMarketHistoryArgs)}. The request is sent without blocking the calling
+     * thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @param bucketSeconds
+     *            The size of buckets the history is broken into. The bucket
+     *            size must be configured in the plugin options.
+     * @param start
+     *            The start time to get market history.
+     * @param end
+     *            The end time to get market history.
+     * @return A {@link CompletableFuture} that will be completed with a list of
+     *         market history
+     *         {@link eu.bittrade.libs.steemj.plugins.apis.market.history.models.Bucket
+     *         Bucket}s. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<GetMarketHistoryReturn> getMarketHistoryAsync(
+            CommunicationHandler communicationHandler, GetMarketHistoryArgs getMarketHistoryArgs) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_MARKET_HISTORY);
+        requestObject.setSteemApi(SteemApiType.MARKET_HISTORY_API);
+        requestObject.setAdditionalParameters(getMarketHistoryArgs);
+
+        return communicationHandler.performRequestAsync(requestObject, GetMarketHistoryReturn.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * Use this method to receive the bucket seconds being tracked by the node.
      * 
@@ -317,4 +519,33 @@ public class MarketHistoryApi {
 
         return communicationHandler.performRequest(requestObject, GetMarketHistoryBucketsReturn.class).get(0);
     }
+
+    /**
+     * Asynchronous variant of
+     * {@link #getMarketHistoryBuckets(CommunicationHandler)}. The request is
+     * sent without blocking the calling thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @return A {@link CompletableFuture} that will be completed with returns
+     *         The bucket seconds being tracked by the node. It is completed
+     *         exceptionally with a {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<GetMarketHistoryBucketsReturn> getMarketHistoryBucketsAsync(
+            CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_MARKET_HISTORY_BUCKETS);
+        requestObject.setSteemApi(SteemApiType.MARKET_HISTORY_API);
+
+        Object[] parameters = {};
+        requestObject.setAdditionalParameters(parameters);
+
+        return communicationHandler.performRequestAsync(requestObject, GetMarketHistoryBucketsReturn.class)
+                .thenApply(result -> result.get(0));
+    }
 }
@@ -1,5 +1,7 @@
 package eu.bittrade.libs.steemj.plugins.apis.network.broadcast.api;
 
+import java.util.concurrent.CompletableFuture;
+
 import eu.bittrade.libs.steemj.base.models.SignedTransaction;
 import eu.bittrade.libs.steemj.communication.CommunicationHandler;
 import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
@@ -70,6 +72,42 @@ public class NetworkBroadcastApi {
         communicationHandler.performRequest(requestObject, Object.class);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #broadcastTransaction(CommunicationHandler, SignedTransaction)}.
+     * The request is sent without blocking the calling thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @param transaction
+     *            The {@link SignedTransaction} object to broadcast.
+     * @return A {@link CompletableFuture} that will be completed as soon as the
+     *         node answered the request. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     * @throws SteemInvalidTransactionException
+     *             In case the provided transaction is not valid.
+     */
+    public static CompletableFuture<Void> broadcastTransactionAsync(CommunicationHandler communicationHandler,
+            SignedTransaction transaction) throws SteemInvalidTransactionException {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.BROADCAST_TRANSACTION);
+        requestObject.setSteemApi(SteemApiType.NETWORK_BROADCAST_API);
+
+        if (transaction.getSignatures() == null || transaction.getSignatures().isEmpty()) {
+            transaction.sign();
+        }
+
+        Object[] parameters = { transaction };
+        requestObject.setAdditionalParameters(parameters);
+
+        return communicationHandler.performRequestAsync(requestObject, Object.class).thenApply(result -> null);
+    }
+
     /**
      * Broadcast a transaction on the Steem blockchain. This method will
      * validate the transaction and return after it has been accepted and
@@ -119,6 +157,47 @@ public class NetworkBroadcastApi {
         return communicationHandler.performRequest(requestObject, BroadcastTransactionSynchronousReturn.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #broadcastTransactionSynchronous(CommunicationHandler,
+     * SignedTransaction)}. The request is sent without blocking the calling
+     * thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @param transaction
+     *            The {@link SignedTransaction} object to broadcast.
+     * @return A {@link CompletableFuture} that will be completed with a
+     *         {@link BroadcastTransactionSynchronousReturn} object providing
+     *         information about the block in which the transaction has been
+     *         applied. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     * @throws SteemInvalidTransactionException
+     *             In case the provided transaction is not valid.
+     */
+    public static CompletableFuture<BroadcastTransactionSynchronousReturn> broadcastTransactionSynchronousAsync(
+            CommunicationHandler communicationHandler, SignedTransaction transaction)
+            throws SteemInvalidTransactionException {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.BROADCAST_TRANSACTION_SYNCHRONOUS);
+        requestObject.setSteemApi(SteemApiType.NETWORK_BROADCAST_API);
+
+        if (transaction.getSignatures() == null || transaction.getSignatures().isEmpty()) {
+            transaction.sign();
+        }
+
+        Object[] parameters = { transaction };
+        requestObject.setAdditionalParameters(parameters);
+
+        return communicationHandler.performRequestAsync(requestObject, BroadcastTransactionSynchronousReturn.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * Broadcast a whole block.
      * 
@@ -155,4 +234,33 @@ public class NetworkBroadcastApi {
 
         communicationHandler.performRequest(requestObject, Object.class);
     }
+
+    /**
+     * Asynchronous variant of {@link #broadcastBlock(CommunicationHandler,
+     * SignedBlock)}. The request is sent without blocking the calling thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @param signedBlock
+     *            The {@link SignedBlock} object to broadcast.
+     * @return A {@link CompletableFuture} that will be completed as soon as the
+     *         node answered the request. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<Void> broadcastBlockAsync(CommunicationHandler communicationHandler,
+            SignedBlock signedBlock) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.BROADCAST_BLOCK);
+        requestObject.setSteemApi(SteemApiType.NETWORK_BROADCAST_API);
+
+        Object[] parameters = { signedBlock };
+        requestObject.setAdditionalParameters(parameters);
+
+        return communicationHandler.performRequestAsync(requestObject, Object.class).thenApply(result -> null);
+    }
 }
@@ -1,6 +1,7 @@
 package eu.bittrade.libs.steemj.plugins.apis.tags;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import eu.bittrade.libs.steemj.communication.CommunicationHandler;
 import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
@@ -82,6 +83,38 @@ public class TagsApi {
         return communicationHandler.performRequest(requestObject, Tag.class);
     }
 
+    /**
+     * Asynchronous variant of {@link #getTrendingTags(CommunicationHandler,
+     * String, int)}. The request is sent without blocking the calling thread.
+     * 
+     * @param communicationHandler
+     *            A
+     *            {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+     *            CommunicationHandler} instance that should be used to send the
+     *            request.
+     * @param firstTagPattern
+     *            The search pattern used to build the resulting list of tags.
+     * @param limit
+     *            The maximum number of results.
+     * @return A {@link CompletableFuture} that will be completed with a list of
+     *         the tags. The first entry in the list is the tag that has the
+     *         biggest match with the <code>firstTagPattern</code>. while the
+     *         last tag in the last has the smallest match. It is completed
+     *         exceptionally with a {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<List<Tag>> getTrendingTagsAsync(CommunicationHandler communicationHandler,
+            String firstTagPattern, int limit) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_TRENDING_TAGS);
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        String[] parameters = { firstTagPattern, String.valueOf(limit) };
+        requestObject.setAdditionalParameters(parameters);
+
+        return communicationHandler.performRequestAsync(requestObject, Tag.class);
+    }
+
     /**
      * 
      * @param communicationHandler
@@ -101,6 +134,30 @@ public class TagsApi {
         return communicationHandler.performRequest(requestObject, GetTagsUsedByAuthorReturn.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of {@link #getTagsUsedByAuthor(CommunicationHandler,
+     * GetTagsUsedByAuthorArgs)}. The request is sent without blocking the
+     * calling thread.
+     * 
+     * @param communicationHandler
+     * @param getTagsUsedByAuthorArgs
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         result of the request. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<GetTagsUsedByAuthorReturn> getTagsUsedByAuthorAsync(
+            CommunicationHandler communicationHandler, GetTagsUsedByAuthorArgs getTagsUsedByAuthorArgs) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_CONTENT_REPLIES);
+        requestObject.setSteemApi(SteemApiType.TAGS_API);
+        requestObject.setAdditionalParameters(getTagsUsedByAuthorArgs);
+
+        return communicationHandler.performRequestAsync(requestObject, GetTagsUsedByAuthorReturn.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * 
      * @param communicationHandler
@@ -119,6 +176,30 @@ public class TagsApi {
         return communicationHandler.performRequest(requestObject, Discussion.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of {@link #getDiscussion(CommunicationHandler,
+     * GetDiscussionArgs)}. The request is sent without blocking the calling
+     * thread.
+     * 
+     * @param communicationHandler
+     * @param getDiscussionArgs
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         result of the request. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<Discussion> getDiscussionAsync(CommunicationHandler communicationHandler,
+            GetDiscussionArgs getDiscussionArgs) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_DISCUSSION);
+        requestObject.setSteemApi(SteemApiType.TAGS_API);
+        requestObject.setAdditionalParameters(getDiscussionArgs);
+
+        return communicationHandler.performRequestAsync(requestObject, Discussion.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * Get the replies of a specific post.
      * 
@@ -170,6 +251,31 @@ public class TagsApi {
         return communicationHandler.performRequest(requestObject, DiscussionQueryResult.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getPostDiscussionsByPayout(CommunicationHandler,
+     * DiscussionQuery)}. The request is sent without blocking the calling
+     * thread.
+     * 
+     * @param communicationHandler
+     * @param discussionQuery
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         result of the request. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<DiscussionQueryResult> getPostDiscussionsByPayoutAsync(
+            CommunicationHandler communicationHandler, DiscussionQuery discussionQuery) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_POST_DISCUSSIONS_BY_PAYOUT);
+        requestObject.setSteemApi(SteemApiType.TAGS_API);
+        requestObject.setAdditionalParameters(discussionQuery);
+
+        return communicationHandler.performRequestAsync(requestObject, DiscussionQueryResult.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * 
      * @param communicationHandler
@@ -188,6 +294,31 @@ public class TagsApi {
         return communicationHandler.performRequest(requestObject, DiscussionQueryResult.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getCommentDiscussionsByPayout(CommunicationHandler,
+     * DiscussionQuery)}. The request is sent without blocking the calling
+     * thread.
+     * 
+     * @param communicationHandler
+     * @param discussionQuery
+     * @return A {@link CompletableFuture} that will be completed with the
+     *         result of the request. It is completed exceptionally with a
+     *         {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<DiscussionQueryResult> getCommentDiscussionsByPayoutAsync(
+            CommunicationHandler communicationHandler, DiscussionQuery discussionQuery) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_COMMENT_DISCUSSIONS_BY_PAYOUT);
+        requestObject.setSteemApi(SteemApiType.TAGS_API);
+        requestObject.setAdditionalParameters(discussionQuery);
+
+        return communicationHandler.performRequestAsync(requestObject, DiscussionQueryResult.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * Get active discussions for a specified tag.
      * 
@@ -329,4 +460,30 @@ public class TagsApi {
 
         return communicationHandler.performRequest(requestObject, GetActiveVotesReturn.class).get(0);
     }
+
+    /**
+     * Asynchronous variant of {@link #getActiveVotes(CommunicationHandler,
+     * GetActiveVotesArgs)}. The request is sent without blocking the calling
+     * thread.
+     * 
+     * @param author
+     *            The authors name.
+     * @param permlink
+     *            The permlink of the article.
+     * @return A {@link CompletableFuture} that will be completed with a list of
+     *         votes for a specific article. It is completed exceptionally with
+     *         a {@link SteemCommunicationException} or a
+     *         {@link SteemResponseException} in the same cases the blocking
+     *         variant throws them.
+     */
+    public static CompletableFuture<GetActiveVotesReturn> getActiveVotesAsync(CommunicationHandler communicationHandler,
+            GetActiveVotesArgs getActiveVotesArgs) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setApiMethod(RequestMethods.GET_ACTIVE_VOTES);
+        requestObject.setSteemApi(SteemApiType.TAGS_API);
+        requestObject.setAdditionalParameters(getActiveVotesArgs);
+
+        return communicationHandler.performRequestAsync(requestObject, GetActiveVotesReturn.class)
+                .thenApply(result -> result.get(0));
+    }
 }
@@ -17,6 +17,7 @@ import eu.bittrade.crypto.core.ECKey;
 import eu.bittrade.crypto.core.base58.Base58;
 import eu.bittrade.libs.steemj.base.models.serializer.PublicKeySerializer;
 import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.enums.AddressPrefixType;
 import eu.bittrade.libs.steemj.exceptions.SteemInvalidTransactionException;
 import eu.bittrade.libs.steemj.interfaces.ByteTransformable;
 
@@ -115,8 +116,22 @@ public class PublicKey implements ByteTransformable {
      *            The public key.
      */
     public PublicKey(ECKey publicKey) {
+        this(publicKey, SteemJConfig.getInstance().getAddressPrefix());
+    }
+
+    /**
+     * Like {@link #PublicKey(ECKey)}, but uses the given
+     * <code>addressPrefix</code> instead of the one of the
+     * {@link SteemJConfig}.
+     * 
+     * @param publicKey
+     *            The public key.
+     * @param addressPrefix
+     *            The prefix of the address, e.g. "STM" for the main network.
+     */
+    public PublicKey(ECKey publicKey, AddressPrefixType addressPrefix) {
         this.setPublicKey(publicKey);
-        this.prefix = SteemJConfig.getInstance().getAddressPrefix().toString().toUpperCase();
+        this.prefix = addressPrefix.toString().toUpperCase();
     }
 
     /**
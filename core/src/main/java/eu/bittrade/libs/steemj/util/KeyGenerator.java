@@ -11,6 +11,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import eu.bittrade.crypto.core.ECKey;
 import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.enums.AddressPrefixType;
 import eu.bittrade.libs.steemj.exceptions.SteemFatalErrorException;
 import eu.bittrade.libs.steemj.exceptions.SteemKeyHandlingException;
 import eu.bittrade.libs.steemj.protocol.PublicKey;
@@ -126,6 +127,19 @@ public class KeyGenerator {
         return new PublicKey(ECKey.fromPrivate(this.getPrivateKey().getPrivKeyBytes()));
     }
 
+    /**
+     * Get the generated public key with the given <code>addressPrefix</code>.
+     * 
+     * @param addressPrefix
+     *            The prefix of the public key, e.g. the
+     *            {@link eu.bittrade.libs.steemj.configuration.SteemJContext#getAddressPrefix()
+     *            one of a context}.
+     * @return The generated public key.
+     */
+    public PublicKey getPublicKey(AddressPrefixType addressPrefix) {
+        return new PublicKey(ECKey.fromPrivate(this.getPrivateKey().getPrivKeyBytes()), addressPrefix);
+    }
+
     /**
      * Get the generated brain key.
      * 
@@ -0,0 +1,227 @@
+package eu.bittrade.libs.steemj;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.bittrade.libs.steemj.communication.CommunicationHandler;
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.exceptions.SteemResponseException;
+import eu.bittrade.libs.steemj.plugins.apis.database.models.DynamicGlobalProperty;
+import eu.bittrade.libs.steemj.testsupport.MockSteemNode;
+
+/**
+ * This class tests the {@link ReferenceBlockProvider} using a
+ * {@link eu.bittrade.libs.steemj.testsupport.MockSteemNode MockSteemNode}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class ReferenceBlockProviderTest {
+    private List<Pair<URI, Boolean>> endpointURIs;
+    private long referenceBlockRefreshInterval;
+    private long referenceBlockIdleTimeout;
+    private long maxReferenceBlockAge;
+    private MockSteemNode mockSteemNode;
+    private CommunicationHandler communicationHandler;
+
+    /**
+     * Start a node and use it as the only endpoint. The communication handler
+     * is created by each test once it has configured the reference block
+     * settings, as the handler takes them from the configuration when it is
+     * created.
+     *
+     * @throws Exception
+     *             If the node could not be started.
+     */
+    @Before
+    public void startNode() throws Exception {
+        endpointURIs = new ArrayList<>(SteemJConfig.getInstance().getEndpointURIs());
+        referenceBlockRefreshInterval = SteemJConfig.getInstance().getReferenceBlockRefreshInterval();
+        referenceBlockIdleTimeout = SteemJConfig.getInstance().getReferenceBlockIdleTimeout();
+        maxReferenceBlockAge = SteemJConfig.getInstance().getMaxReferenceBlockAge();
+
+        mockSteemNode = new MockSteemNode();
+        mockSteemNode.start();
+
+        SteemJConfig.getInstance().setEndpointURIs(
+                Collections.singletonList(new ImmutablePair<>(mockSteemNode.getHttpUri(), false)));
+    }
+
+    /**
+     * Stop the node and restore the configuration.
+     *
+     * @throws Exception
+     *             If the communication handler could not be closed.
+     */
+    @After
+    public void stopNode() throws Exception {
+        if (communicationHandler != null) {
+            communicationHandler.close();
+        }
+        mockSteemNode.close();
+        SteemJConfig.getInstance().setEndpointURIs(endpointURIs);
+        SteemJConfig.getInstance().setReferenceBlockRefreshInterval(referenceBlockRefreshInterval);
+        SteemJConfig.getInstance().setReferenceBlockIdleTimeout(referenceBlockIdleTimeout);
+        SteemJConfig.getInstance().setMaxReferenceBlockAge(maxReferenceBlockAge);
+    }
+
+    /**
+     * Test that the received properties are reused until they are older than
+     * the maximum age.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testSnapshotReused() throws Exception {
+        SteemJConfig.getInstance().setReferenceBlockRefreshInterval(0);
+        SteemJConfig.getInstance().setMaxReferenceBlockAge(300);
+
+        try (ReferenceBlockProvider referenceBlockProvider = createReferenceBlockProvider()) {
+            long requestCount = mockSteemNode.getRequestCount();
+            DynamicGlobalProperty dynamicGlobalProperties = referenceBlockProvider.getDynamicGlobalProperties();
+
+            assertThat(referenceBlockProvider.getHeadBlockId(), sameInstance(dynamicGlobalProperties.getHeadBlockId()));
+            assertThat(referenceBlockProvider.getDynamicGlobalProperties(), sameInstance(dynamicGlobalProperties));
+            assertThat(mockSteemNode.getRequestCount(), equalTo(requestCount + 1));
+
+            Thread.sleep(400);
+
+            referenceBlockProvider.getDynamicGlobalProperties();
+            assertThat(mockSteemNode.getRequestCount(), equalTo(requestCount + 2));
+        }
+    }
+
+    /**
+     * Test that the chain time is estimated from the age of the received
+     * properties.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testChainTimeAgeing() throws Exception {
+        SteemJConfig.getInstance().setReferenceBlockRefreshInterval(0);
+
+        try (ReferenceBlockProvider referenceBlockProvider = createReferenceBlockProvider()) {
+            long blockTime = referenceBlockProvider.getDynamicGlobalProperties().getTime().getDateTimeAsTimestamp();
+            long chainTime = referenceBlockProvider.getChainTime().getDateTimeAsTimestamp();
+            assertThat(chainTime - blockTime, lessThan(500L));
+
+            Thread.sleep(1000);
+
+            assertThat(referenceBlockProvider.getChainTime().getDateTimeAsTimestamp() - chainTime,
+                    greaterThanOrEqualTo(1000L));
+        }
+    }
+
+    /**
+     * Test that a failed background refresh keeps the last properties, while
+     * a failed request for properties that are too old is reported.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testRefreshFailure() throws Exception {
+        SteemJConfig.getInstance().setReferenceBlockRefreshInterval(100);
+        SteemJConfig.getInstance().setMaxReferenceBlockAge(1000);
+
+        try (ReferenceBlockProvider referenceBlockProvider = createReferenceBlockProvider()) {
+            DynamicGlobalProperty dynamicGlobalProperties = referenceBlockProvider.getDynamicGlobalProperties();
+            mockSteemNode.failNextRequests(Integer.MAX_VALUE);
+
+            Thread.sleep(500);
+            assertThat(referenceBlockProvider.getDynamicGlobalProperties(), sameInstance(dynamicGlobalProperties));
+
+            Thread.sleep(700);
+            try {
+                referenceBlockProvider.getDynamicGlobalProperties();
+                throw new AssertionError("The outdated properties have been returned.");
+            } catch (SteemResponseException e) {
+                // Expected.
+            }
+
+            mockSteemNode.failNextRequests(0);
+            assertThat(referenceBlockProvider.getDynamicGlobalProperties().getHeadBlockNumber(),
+                    equalTo(dynamicGlobalProperties.getHeadBlockNumber()));
+        }
+    }
+
+    /**
+     * Test that the background refresh stops once no reference block has
+     * been requested for the idle timeout and is started again with the next
+     * request.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testRefreshStopsWhenIdle() throws Exception {
+        SteemJConfig.getInstance().setReferenceBlockRefreshInterval(100);
+        SteemJConfig.getInstance().setReferenceBlockIdleTimeout(300);
+
+        try (ReferenceBlockProvider referenceBlockProvider = createReferenceBlockProvider()) {
+            referenceBlockProvider.getHeadBlockId();
+            assertThat(referenceBlockProvider.isRefreshing(), equalTo(true));
+
+            Thread.sleep(600);
+            assertThat(referenceBlockProvider.isRefreshing(), equalTo(false));
+
+            long requestCount = mockSteemNode.getRequestCount();
+            Thread.sleep(300);
+            assertThat(mockSteemNode.getRequestCount(), equalTo(requestCount));
+
+            referenceBlockProvider.getHeadBlockId();
+            assertThat(referenceBlockProvider.isRefreshing(), equalTo(true));
+        }
+    }
+
+    /**
+     * Test that closing a {@link SteemJ} instance stops the background
+     * refresh of its reference block.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testCloseSteemJ() throws Exception {
+        SteemJConfig.getInstance().setReferenceBlockRefreshInterval(100);
+
+        SteemJ steemJ = new SteemJ();
+        ReferenceBlockProvider referenceBlockProvider = steemJ.getReferenceBlockProvider();
+        referenceBlockProvider.getHeadBlockId();
+        assertThat(referenceBlockProvider.isRefreshing(), equalTo(true));
+
+        steemJ.close();
+        assertThat(referenceBlockProvider.isRefreshing(), equalTo(false));
+
+        long requestCount = mockSteemNode.getRequestCount();
+        Thread.sleep(300);
+        assertThat(mockSteemNode.getRequestCount(), equalTo(requestCount));
+    }
+
+    /**
+     * @return A new provider using a communication handler that has been
+     *         created with the current configuration.
+     * @throws Exception
+     *             If the communication handler could not be created.
+     */
+    private ReferenceBlockProvider createReferenceBlockProvider() throws Exception {
+        communicationHandler = new CommunicationHandler();
+        return new ReferenceBlockProvider(communicationHandler);
+    }
+}
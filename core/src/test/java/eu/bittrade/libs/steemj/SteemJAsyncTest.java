@@ -0,0 +1,127 @@
+package eu.bittrade.libs.steemj;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Optional;
+
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.exceptions.SteemResponseException;
+import eu.bittrade.libs.steemj.protocol.BlockHeader;
+import eu.bittrade.libs.steemj.testsupport.MockSteemNode;
+
+/**
+ * This class tests the asynchronous methods of {@link SteemJ} using a
+ * {@link eu.bittrade.libs.steemj.testsupport.MockSteemNode MockSteemNode}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class SteemJAsyncTest {
+    private static final String EXECUTOR_THREAD_NAME = "steemj-async-test";
+
+    private List<Pair<URI, Boolean>> endpointURIs;
+    private Executor asyncExecutor;
+    private ExecutorService executorService;
+    private MockSteemNode mockSteemNode;
+    private SteemJ steemJ;
+
+    /**
+     * Start a node and create a {@link SteemJ} instance that uses it as the
+     * only endpoint and completes its futures using a dedicated executor.
+     *
+     * @throws Exception
+     *             If the node could not be started.
+     */
+    @Before
+    public void startNode() throws Exception {
+        endpointURIs = new ArrayList<>(SteemJConfig.getInstance().getEndpointURIs());
+        asyncExecutor = SteemJConfig.getInstance().getAsyncExecutor();
+
+        mockSteemNode = new MockSteemNode();
+        mockSteemNode.start();
+        // Let the futures be pending while the callbacks are added.
+        mockSteemNode.setLatency(300);
+
+        executorService = Executors.newFixedThreadPool(2, runnable -> new Thread(runnable, EXECUTOR_THREAD_NAME));
+        SteemJConfig.getInstance().setEndpointURIs(
+                Collections.singletonList(new ImmutablePair<>(mockSteemNode.getHttpUri(), false)));
+        SteemJConfig.getInstance().setAsyncExecutor(executorService);
+        steemJ = new SteemJ(SteemJConfig.getInstance().createContext());
+    }
+
+    /**
+     * Stop the node and restore the configuration.
+     *
+     * @throws Exception
+     *             If the {@link SteemJ} instance could not be closed.
+     */
+    @After
+    public void stopNode() throws Exception {
+        steemJ.close();
+        executorService.shutdownNow();
+        mockSteemNode.close();
+        SteemJConfig.getInstance().setEndpointURIs(endpointURIs);
+        SteemJConfig.getInstance().setAsyncExecutor(asyncExecutor);
+    }
+
+    /**
+     * Test that the future returned by {@link SteemJ#getBlockHeaderAsync(long)}
+     * is completed with the transformed response by the configured executor.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testCompletedOnExecutor() throws Exception {
+        CompletableFuture<Optional<BlockHeader>> blockHeader = steemJ.getBlockHeaderAsync(1);
+        CompletableFuture<String> completingThread = blockHeader
+                .thenApply(result -> Thread.currentThread().getName());
+
+        assertThat(blockHeader.get(5, TimeUnit.SECONDS).isPresent(), equalTo(true));
+        assertThat(completingThread.get(5, TimeUnit.SECONDS), equalTo(EXECUTOR_THREAD_NAME));
+    }
+
+    /**
+     * Test that an error object returned by the node completes the future
+     * returned by {@link SteemJ#getBlockHeaderAsync(long)} exceptionally
+     * with a {@link SteemResponseException}, using the configured executor.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testResponseExceptionPropagated() throws Exception {
+        mockSteemNode.getFixtures().setError("block_api", "get_block_header", null, -32000, "Assert Exception");
+
+        CompletableFuture<Optional<BlockHeader>> blockHeader = steemJ.getBlockHeaderAsync(1);
+        CompletableFuture<String> completingThread = blockHeader
+                .handle((result, throwable) -> Thread.currentThread().getName());
+
+        try {
+            blockHeader.get(5, TimeUnit.SECONDS);
+            throw new AssertionError("The error object of the node has not been reported.");
+        } catch (ExecutionException e) {
+            // Expected.
+            assertThat(e.getCause(), instanceOf(SteemResponseException.class));
+        }
+        assertThat(completingThread.get(5, TimeUnit.SECONDS), equalTo(EXECUTOR_THREAD_NAME));
+    }
+}
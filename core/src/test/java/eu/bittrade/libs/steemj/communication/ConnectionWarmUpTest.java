@@ -0,0 +1,146 @@
+package eu.bittrade.libs.steemj.communication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.bittrade.libs.steemj.communication.selection.EndpointStatistics;
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.testsupport.MockSteemNode;
+
+/**
+ * This class tests the connection warm-up of the {@link CommunicationHandler}
+ * and the probes of its endpoints using
+ * {@link eu.bittrade.libs.steemj.testsupport.MockSteemNode MockSteemNodes}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class ConnectionWarmUpTest {
+    private List<Pair<URI, Boolean>> endpointURIs;
+    private boolean connectionWarmUpEnabled;
+    private int circuitBreakerFailureThreshold;
+    private long endpointProbeInterval;
+    private MockSteemNode httpNode;
+    private MockSteemNode websocketNode;
+    private CommunicationHandler communicationHandler;
+
+    /**
+     * Start a node for HTTP and a node for WebSocket requests. The warm-up is
+     * disabled, so each test decides when to start it, and unhealthy
+     * endpoints are not probed in the background.
+     *
+     * @throws Exception
+     *             If the nodes could not be started.
+     */
+    @Before
+    public void startNodes() throws Exception {
+        endpointURIs = new ArrayList<>(SteemJConfig.getInstance().getEndpointURIs());
+        connectionWarmUpEnabled = SteemJConfig.getInstance().isConnectionWarmUpEnabled();
+        circuitBreakerFailureThreshold = SteemJConfig.getInstance().getCircuitBreakerFailureThreshold();
+        endpointProbeInterval = SteemJConfig.getInstance().getEndpointProbeInterval();
+
+        httpNode = new MockSteemNode();
+        httpNode.start();
+        websocketNode = new MockSteemNode();
+        websocketNode.start();
+
+        SteemJConfig.getInstance().setConnectionWarmUpEnabled(false);
+        SteemJConfig.getInstance().setEndpointProbeInterval(0);
+    }
+
+    /**
+     * Stop the nodes and restore the configuration.
+     *
+     * @throws Exception
+     *             If the communication handler could not be closed.
+     */
+    @After
+    public void stopNodes() throws Exception {
+        if (communicationHandler != null) {
+            communicationHandler.close();
+        }
+        httpNode.close();
+        websocketNode.close();
+        SteemJConfig.getInstance().setEndpointURIs(endpointURIs);
+        SteemJConfig.getInstance().setConnectionWarmUpEnabled(connectionWarmUpEnabled);
+        SteemJConfig.getInstance().setCircuitBreakerFailureThreshold(circuitBreakerFailureThreshold);
+        SteemJConfig.getInstance().setEndpointProbeInterval(endpointProbeInterval);
+    }
+
+    /**
+     * Test that the warm-up opens a connection to each configured endpoint
+     * and records its latency.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testWarmUpOpensConnections() throws Exception {
+        communicationHandler = createCommunicationHandler(httpNode.getHttpUri(), websocketNode.getWebsocketUri());
+        assertThat(httpNode.getConnectionCount(), equalTo(0L));
+        assertThat(websocketNode.getConnectionCount(), equalTo(0L));
+
+        communicationHandler.warmUp().get(10, TimeUnit.SECONDS);
+
+        assertThat(httpNode.getConnectionCount(), greaterThanOrEqualTo(1L));
+        assertThat(httpNode.getRequestCount(), greaterThanOrEqualTo(1L));
+        assertThat(websocketNode.getConnectionCount(), greaterThanOrEqualTo(1L));
+        assertThat(websocketNode.getRequestCount(), greaterThanOrEqualTo(1L));
+        for (EndpointStatistics endpoint : communicationHandler.getEndpointStatistics()) {
+            assertThat(endpoint.getNumberOfSamples(), equalTo(1L));
+            assertThat(endpoint.isHealthy(), equalTo(true));
+        }
+    }
+
+    /**
+     * Test that an endpoint whose probe fails during the warm-up is marked
+     * as unhealthy, while the other endpoints stay healthy.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testFailedProbeMarksEndpointUnhealthy() throws Exception {
+        SteemJConfig.getInstance().setCircuitBreakerFailureThreshold(1);
+        URI unreachableUri = websocketNode.getWebsocketUri();
+        websocketNode.close();
+
+        communicationHandler = createCommunicationHandler(httpNode.getHttpUri(), unreachableUri);
+        communicationHandler.warmUp().get(10, TimeUnit.SECONDS);
+
+        EndpointStatistics httpEndpoint = communicationHandler.getEndpointStatistics().get(0);
+        EndpointStatistics unreachableEndpoint = communicationHandler.getEndpointStatistics().get(1);
+        assertThat(httpEndpoint.isHealthy(), equalTo(true));
+        assertThat(unreachableEndpoint.isHealthy(), equalTo(false));
+        assertThat(unreachableEndpoint.getConsecutiveFailures(), equalTo(1));
+        assertThat(unreachableEndpoint.getNumberOfSamples(), equalTo(0L));
+    }
+
+    /**
+     * @param endpointUris
+     *            The endpoints to use.
+     * @return A communication handler using the given endpoints.
+     * @throws Exception
+     *             If the communication handler could not be created.
+     */
+    private static CommunicationHandler createCommunicationHandler(URI... endpointUris) throws Exception {
+        List<Pair<URI, Boolean>> endpoints = new ArrayList<>();
+        for (URI endpointUri : endpointUris) {
+            endpoints.add(new ImmutablePair<>(endpointUri, false));
+        }
+        SteemJConfig.getInstance().setEndpointURIs(endpoints);
+
+        return new CommunicationHandler();
+    }
+}
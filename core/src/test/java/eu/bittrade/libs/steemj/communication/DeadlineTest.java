@@ -0,0 +1,303 @@
+package eu.bittrade.libs.steemj.communication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+import eu.bittrade.libs.steemj.exceptions.SteemTimeoutException;
+import eu.bittrade.libs.steemj.plugins.apis.database.DatabaseApi;
+import eu.bittrade.libs.steemj.plugins.apis.database.models.DynamicGlobalProperty;
+import eu.bittrade.libs.steemj.testsupport.FailureMode;
+import eu.bittrade.libs.steemj.testsupport.MockSteemNode;
+
+/**
+ * This class tests that the {@link Deadline} of a request is applied to all
+ * of its attempts and that cancelled requests release their connections using
+ * a {@link eu.bittrade.libs.steemj.testsupport.MockSteemNode MockSteemNode}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class DeadlineTest {
+    private List<Pair<URI, Boolean>> endpointURIs;
+    private int responseTimeout;
+    private RetryPolicy retryPolicy;
+    private MockSteemNode mockSteemNode;
+
+    /**
+     * Start a node and configure a response timeout that is longer than the
+     * deadlines used by the tests.
+     *
+     * @throws Exception
+     *             If the node could not be started.
+     */
+    @Before
+    public void startNode() throws Exception {
+        endpointURIs = new ArrayList<>(SteemJConfig.getInstance().getEndpointURIs());
+        responseTimeout = SteemJConfig.getInstance().getResponseTimeout();
+        retryPolicy = SteemJConfig.getInstance().getRetryPolicy();
+
+        mockSteemNode = new MockSteemNode();
+        mockSteemNode.start();
+
+        SteemJConfig.getInstance().setResponseTimeout(5000);
+    }
+
+    /**
+     * Stop the node and restore the configuration.
+     */
+    @After
+    public void stopNode() {
+        mockSteemNode.close();
+        SteemJConfig.getInstance().setEndpointURIs(endpointURIs);
+        SteemJConfig.getInstance().setResponseTimeout(responseTimeout);
+        SteemJConfig.getInstance().setRetryPolicy(retryPolicy);
+    }
+
+    /**
+     * Test that the deadline of the current thread aborts a blocking request
+     * before the response timeout is reached.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testDeadlineOfCurrentThread() throws Exception {
+        useEndpoint(mockSteemNode.getHttpUri());
+        mockSteemNode.setLatency(2000);
+
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+        long startTime = System.currentTimeMillis();
+        Deadline.Scope scope = Deadline.after(300, TimeUnit.MILLISECONDS).activate();
+        try {
+            DatabaseApi.getDynamicGlobalProperties(communicationHandler);
+            throw new AssertionError("The deadline has been ignored.");
+        } catch (SteemTimeoutException e) {
+            assertThat(System.currentTimeMillis() - startTime, lessThan(1500L));
+        } finally {
+            scope.close();
+            communicationHandler.close();
+        }
+
+        assertThat(Deadline.current(), nullValue());
+    }
+
+    /**
+     * Test that a blocking request is aborted once its deadline expires, even
+     * if the node sends its answer so slowly that the read timeout never
+     * expires.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testTricklingResponseAbortedAtDeadline() throws Exception {
+        useEndpoint(mockSteemNode.getHttpUri());
+
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+        try {
+            // Establish the connection before the deadline is started.
+            DatabaseApi.getDynamicGlobalProperties(communicationHandler);
+            mockSteemNode.setTrickleDelay(50);
+
+            long startTime = System.currentTimeMillis();
+            Deadline.Scope scope = Deadline.after(500, TimeUnit.MILLISECONDS).activate();
+            try {
+                DatabaseApi.getDynamicGlobalProperties(communicationHandler);
+                throw new AssertionError("The deadline has been ignored.");
+            } catch (SteemTimeoutException e) {
+                assertThat(System.currentTimeMillis() - startTime, lessThan(1500L));
+            } finally {
+                scope.close();
+            }
+
+            mockSteemNode.setTrickleDelay(0);
+            DatabaseApi.getDynamicGlobalProperties(communicationHandler);
+        } finally {
+            communicationHandler.close();
+        }
+    }
+
+    /**
+     * Test that a failing request is not retried once its deadline would
+     * expire before the next attempt.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testNoRetryAfterDeadline() throws Exception {
+        useEndpoint(mockSteemNode.getHttpUri());
+        SteemJConfig.getInstance().setRetryPolicy(new RetryPolicy(10, 60000, 400, 400,
+                Collections.singleton(RetryPolicy.INTERNAL_ERROR_CODE)));
+
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+        try {
+            // Establish the connection before the deadline is started.
+            DatabaseApi.getDynamicGlobalProperties(communicationHandler);
+            mockSteemNode.setFailureMode(FailureMode.HTTP_ERROR);
+            mockSteemNode.setFailureRate(1);
+
+            JsonRPCRequest requestObject = createRequest();
+            requestObject.setDeadline(Deadline.after(500, TimeUnit.MILLISECONDS));
+
+            CompletableFuture<List<DynamicGlobalProperty>> response = communicationHandler
+                    .performRequestAsync(requestObject, DynamicGlobalProperty.class);
+            try {
+                response.get(5, TimeUnit.SECONDS);
+                throw new AssertionError("The request should have failed.");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(SteemCommunicationException.class));
+            }
+
+            long requestCount = mockSteemNode.getRequestCount();
+            Thread.sleep(600);
+
+            assertThat(requestCount, lessThan(4L));
+            assertThat(mockSteemNode.getRequestCount(), equalTo(requestCount));
+        } finally {
+            communicationHandler.close();
+        }
+    }
+
+    /**
+     * Test that cancelling a request waiting for its response closes the
+     * connection, so the next request does not have to wait for it.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testCancelledRequestReleasesConnection() throws Exception {
+        NioHttpClient nioHttpClient = new NioHttpClient(1, false, 5000, 60000, new CompressionStatistics());
+        try {
+            mockSteemNode.setLatency(2000);
+            CompletableFuture<JsonRPCResponse> cancelledResponse = nioHttpClient.invokeAndReadResponseAsync(
+                    createRequest(), mockSteemNode.getHttpUri(), false, Runnable::run);
+            waitForRequests(1);
+
+            mockSteemNode.setLatency(0);
+            CompletableFuture<JsonRPCResponse> response = nioHttpClient.invokeAndReadResponseAsync(createRequest(),
+                    mockSteemNode.getHttpUri(), false, Runnable::run);
+            cancelledResponse.cancel(true);
+
+            assertThat(response.get(1, TimeUnit.SECONDS).isError(), equalTo(false));
+        } finally {
+            nioHttpClient.closeConnection();
+        }
+    }
+
+    /**
+     * Test that cancelling a request sent using a pooled connection aborts
+     * it, so the next request does not have to wait for the connection.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testCancelledPooledRequestReleasesConnection() throws Exception {
+        HttpConnectionPool httpConnectionPool = new HttpConnectionPool(1, 60000, 0);
+        HttpClient httpClient = new HttpClient(httpConnectionPool);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            mockSteemNode.setLatency(2000);
+            CompletableFuture<JsonRPCResponse> cancelledResponse = httpClient.invokeAndReadResponseAsync(
+                    createRequest(), mockSteemNode.getHttpUri(), false, executor);
+            waitForRequests(1);
+
+            mockSteemNode.setLatency(0);
+            CompletableFuture<JsonRPCResponse> response = httpClient.invokeAndReadResponseAsync(createRequest(),
+                    mockSteemNode.getHttpUri(), false, executor);
+            cancelledResponse.cancel(true);
+
+            assertThat(response.get(1, TimeUnit.SECONDS).isError(), equalTo(false));
+        } finally {
+            executor.shutdownNow();
+            httpConnectionPool.close();
+        }
+    }
+
+    /**
+     * Test that a cancelled WebSocket request no longer waits for its
+     * response.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testCancelledWebsocketRequest() throws Exception {
+        WebsocketClient websocketClient = new WebsocketClient();
+        try {
+            mockSteemNode.setLatency(2000);
+            JsonRPCRequest requestObject = createRequest();
+            CompletableFuture<JsonRPCResponse> response = websocketClient.invokeAndReadResponseAsync(requestObject,
+                    mockSteemNode.getWebsocketUri(), false, Runnable::run);
+            waitForRequests(1);
+
+            response.cancel(true);
+
+            assertThat(websocketClient.takePendingRequest(requestObject.getId()), nullValue());
+        } finally {
+            websocketClient.closeConnection();
+        }
+    }
+
+    /**
+     * @param endpointUri
+     *            The only endpoint to use.
+     */
+    private static void useEndpoint(URI endpointUri) {
+        SteemJConfig.getInstance().setEndpointURIs(Collections.singletonList(new ImmutablePair<>(endpointUri, false)));
+    }
+
+    /**
+     * Wait until the node has received the given number of requests.
+     *
+     * @param numberOfRequests
+     *            The number of requests to wait for.
+     * @throws InterruptedException
+     *             If the thread has been interrupted.
+     */
+    private void waitForRequests(long numberOfRequests) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (mockSteemNode.getRequestCount() < numberOfRequests && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(mockSteemNode.getRequestCount(), equalTo(numberOfRequests));
+    }
+
+    /**
+     * @return A request for the dynamic global properties.
+     */
+    private static JsonRPCRequest createRequest() {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        requestObject.setApiMethod(RequestMethods.GET_DYNAMIC_GLOBAL_PROPERTIES);
+
+        return requestObject;
+    }
+}
@@ -0,0 +1,90 @@
+package eu.bittrade.libs.steemj.communication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.plugins.apis.database.DatabaseApi;
+import eu.bittrade.libs.steemj.testsupport.FailureMode;
+import eu.bittrade.libs.steemj.testsupport.MockSteemNode;
+
+/**
+ * This class tests the failover of the
+ * {@link eu.bittrade.libs.steemj.communication.CommunicationHandler
+ * CommunicationHandler} using two
+ * {@link eu.bittrade.libs.steemj.testsupport.MockSteemNode MockSteemNode}
+ * instances.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class FailoverTest {
+    private List<Pair<URI, Boolean>> endpointURIs;
+    private MockSteemNode failingNode;
+    private MockSteemNode healthyNode;
+
+    /**
+     * Start a failing and a healthy node and configure them as endpoints.
+     *
+     * @throws Exception
+     *             If a node could not be started.
+     */
+    @Before
+    public void startNodes() throws Exception {
+        endpointURIs = new ArrayList<>(SteemJConfig.getInstance().getEndpointURIs());
+
+        failingNode = new MockSteemNode();
+        failingNode.setFailureMode(FailureMode.HTTP_ERROR);
+        failingNode.setFailureRate(1);
+        failingNode.start();
+        healthyNode = new MockSteemNode();
+        healthyNode.start();
+
+        SteemJConfig.getInstance().setEndpointURIs(Arrays.asList(
+                new ImmutablePair<>(failingNode.getHttpUri(), false),
+                new ImmutablePair<>(healthyNode.getHttpUri(), false)));
+    }
+
+    /**
+     * Stop the nodes and restore the configured endpoints.
+     */
+    @After
+    public void stopNodes() {
+        failingNode.close();
+        healthyNode.close();
+        SteemJConfig.getInstance().setEndpointURIs(endpointURIs);
+    }
+
+    /**
+     * Test that all requests are answered by the healthy node.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testFailover() throws Exception {
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+        try {
+            for (int i = 0; i < 10; i++) {
+                assertThat(DatabaseApi.getDynamicGlobalProperties(communicationHandler).getHeadBlockNumber(),
+                        equalTo(20000000L));
+            }
+        } finally {
+            communicationHandler.close();
+        }
+
+        assertThat(healthyNode.getRequestCount(), greaterThan(9L));
+        assertThat(failingNode.getFailedRequestCount(), equalTo(failingNode.getRequestCount()));
+    }
+}
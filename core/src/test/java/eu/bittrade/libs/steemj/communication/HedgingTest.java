@@ -0,0 +1,269 @@
+package eu.bittrade.libs.steemj.communication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
+import eu.bittrade.libs.steemj.testsupport.MockSteemNode;
+
+/**
+ * This class tests how the {@link CommunicationHandler} hedges read requests
+ * using {@link eu.bittrade.libs.steemj.testsupport.MockSteemNode
+ * MockSteemNodes}. Each node answers with its own name, so the tests can tell
+ * which node has answered a request.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class HedgingTest {
+    private List<Pair<URI, Boolean>> endpointURIs;
+    private boolean hedgingEnabled;
+    private List<RequestInterceptor> requestInterceptors;
+    private MockSteemNode primaryNode;
+    private MockSteemNode secondaryNode;
+    private MockSteemNode websocketNode;
+    private CommunicationHandler communicationHandler;
+    /** The last request sent to each endpoint. */
+    private final Map<URI, CompletableFuture<JsonRPCResponse>> sentRequests = new ConcurrentHashMap<>();
+
+    /**
+     * Start the nodes and enable hedging. An interceptor records the request
+     * sent to each endpoint.
+     *
+     * @throws Exception
+     *             If the nodes could not be started.
+     */
+    @Before
+    public void startNodes() throws Exception {
+        endpointURIs = new ArrayList<>(SteemJConfig.getInstance().getEndpointURIs());
+        hedgingEnabled = SteemJConfig.getInstance().isHedgingEnabled();
+        requestInterceptors = new ArrayList<>(SteemJConfig.getInstance().getRequestInterceptors());
+
+        primaryNode = startNode("primary");
+        secondaryNode = startNode("secondary");
+        websocketNode = startNode("websocket");
+
+        SteemJConfig.getInstance().setHedgingEnabled(true);
+        SteemJConfig.getInstance().setRequestInterceptors(
+                Collections.singletonList((RequestInterceptor) (requestObject, endpointUri, chain) -> {
+                    CompletableFuture<JsonRPCResponse> response = chain.proceed(requestObject);
+                    sentRequests.put(endpointUri, response);
+
+                    return response;
+                }));
+    }
+
+    /**
+     * Stop the nodes and restore the configuration.
+     *
+     * @throws Exception
+     *             If the communication handler could not be closed.
+     */
+    @After
+    public void stopNodes() throws Exception {
+        if (communicationHandler != null) {
+            communicationHandler.close();
+        }
+        primaryNode.close();
+        secondaryNode.close();
+        websocketNode.close();
+        SteemJConfig.getInstance().setEndpointURIs(endpointURIs);
+        SteemJConfig.getInstance().setHedgingEnabled(hedgingEnabled);
+        SteemJConfig.getInstance().setRequestInterceptors(requestInterceptors);
+    }
+
+    /**
+     * Test that a request is sent to a second endpoint once the primary
+     * endpoint did not answer within its recent latency, that the first
+     * response wins and that the request to the primary endpoint is
+     * cancelled.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testSlowPrimaryHedged() throws Exception {
+        createCommunicationHandler(200, 1000);
+        primaryNode.setLatency(3000);
+
+        long startTime = System.currentTimeMillis();
+        List<String> result = performRequest(SteemApiType.DATABASE_API,
+                RequestMethods.GET_DYNAMIC_GLOBAL_PROPERTIES);
+        long duration = System.currentTimeMillis() - startTime;
+
+        assertThat(result, contains("secondary"));
+        assertThat(duration, greaterThanOrEqualTo(200L));
+        assertThat(duration, lessThan(2000L));
+        assertThat(primaryNode.getRequestCount(), equalTo(1L));
+        assertThat(secondaryNode.getRequestCount(), equalTo(1L));
+
+        CompletableFuture<JsonRPCResponse> primaryRequest = sentRequests.get(primaryNode.getHttpUri());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!primaryRequest.isCancelled() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(primaryRequest.isCancelled(), equalTo(true));
+    }
+
+    /**
+     * Test that a request is not hedged if the primary endpoint answers in
+     * time.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testFastPrimaryNotHedged() throws Exception {
+        createCommunicationHandler(200, 1000);
+
+        assertThat(performRequest(SteemApiType.DATABASE_API, RequestMethods.GET_DYNAMIC_GLOBAL_PROPERTIES),
+                contains("primary"));
+        Thread.sleep(400);
+
+        assertThat(secondaryNode.getRequestCount(), equalTo(0L));
+    }
+
+    /**
+     * Test that requests to the network broadcast api and broadcast methods
+     * of other apis are never hedged, as they have side effects.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testBroadcastsNotHedged() throws Exception {
+        createCommunicationHandler(50, 1000);
+        primaryNode.setLatency(500);
+
+        assertThat(performRequest(SteemApiType.NETWORK_BROADCAST_API, RequestMethods.GET_DYNAMIC_GLOBAL_PROPERTIES),
+                contains("primary"));
+        assertThat(performRequest(SteemApiType.CONDENSER_API, RequestMethods.BROADCAST_TRANSACTION),
+                contains("primary"));
+
+        assertThat(primaryNode.getRequestCount(), equalTo(2L));
+        assertThat(secondaryNode.getRequestCount(), equalTo(0L));
+    }
+
+    /**
+     * Test that requests for methods that are not
+     * {@link SteemJConfig#getHedgedMethods() hedged methods} are not hedged.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testUnhedgedMethodNotHedged() throws Exception {
+        createCommunicationHandler(50, 1000);
+        primaryNode.setLatency(500);
+
+        assertThat(performRequest(SteemApiType.DATABASE_API, RequestMethods.GET_CONFIG), contains("primary"));
+
+        assertThat(primaryNode.getRequestCount(), equalTo(1L));
+        assertThat(secondaryNode.getRequestCount(), equalTo(0L));
+    }
+
+    /**
+     * Test that only HTTP endpoints are used as second endpoint, even if a
+     * WebSocket endpoint is faster.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testOnlyHttpEndpointsAsSecondEndpoint() throws Exception {
+        createCommunicationHandler(200, 1000, 300);
+        primaryNode.setLatency(3000);
+
+        assertThat(performRequest(SteemApiType.DATABASE_API, RequestMethods.GET_DYNAMIC_GLOBAL_PROPERTIES),
+                contains("secondary"));
+
+        assertThat(secondaryNode.getRequestCount(), equalTo(1L));
+        assertThat(websocketNode.getRequestCount(), equalTo(0L));
+        assertThat(websocketNode.getConnectionCount(), equalTo(0L));
+    }
+
+    /**
+     * Create the communication handler used by the test. The primary node is
+     * the fastest HTTP endpoint, so it receives the requests first.
+     *
+     * @param latencies
+     *            The latency recorded for the primary node, the secondary node
+     *            and, if given, the WebSocket node, which is used as an
+     *            additional endpoint.
+     * @throws Exception
+     *             If the communication handler could not be created.
+     */
+    private void createCommunicationHandler(double... latencies) throws Exception {
+        List<Pair<URI, Boolean>> endpoints = new ArrayList<>();
+        endpoints.add(new ImmutablePair<>(primaryNode.getHttpUri(), false));
+        endpoints.add(new ImmutablePair<>(secondaryNode.getHttpUri(), false));
+        if (latencies.length > 2) {
+            endpoints.add(new ImmutablePair<>(websocketNode.getWebsocketUri(), false));
+        }
+        SteemJConfig.getInstance().setEndpointURIs(endpoints);
+
+        communicationHandler = new CommunicationHandler();
+        for (int i = 0; i < latencies.length; i++) {
+            communicationHandler.getEndpointStatistics().get(i).recordSuccess(latencies[i]);
+        }
+    }
+
+    /**
+     * @param api
+     *            The api of the request.
+     * @param method
+     *            The method of the request.
+     * @return The names of the nodes that answered the request.
+     * @throws Exception
+     *             If the request failed.
+     */
+    private List<String> performRequest(SteemApiType api, RequestMethods method) throws Exception {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setSteemApi(api);
+        requestObject.setApiMethod(method);
+
+        return communicationHandler.performRequest(requestObject, String.class);
+    }
+
+    /**
+     * @param name
+     *            The name the node answers all requests of the tests with.
+     * @return The started node.
+     * @throws Exception
+     *             If the node could not be started.
+     */
+    private static MockSteemNode startNode(String name) throws Exception {
+        MockSteemNode mockSteemNode = new MockSteemNode();
+        mockSteemNode.getFixtures().setResult("database_api", "get_dynamic_global_properties", null,
+                new TextNode(name));
+        mockSteemNode.getFixtures().setResult("database_api", "get_config", null, new TextNode(name));
+        mockSteemNode.getFixtures().setResult("network_broadcast_api", "get_dynamic_global_properties", null,
+                new TextNode(name));
+        mockSteemNode.getFixtures().setResult("condenser_api", "broadcast_transaction", null, new TextNode(name));
+        mockSteemNode.start();
+
+        return mockSteemNode;
+    }
+}
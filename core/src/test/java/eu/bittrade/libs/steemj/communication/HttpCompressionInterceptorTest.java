@@ -0,0 +1,141 @@
+package eu.bittrade.libs.steemj.communication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.HttpException;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+
+/**
+ * This class contains all test connected to the
+ * {@link eu.bittrade.libs.steemj.communication.HttpCompressionInterceptor
+ * HttpCompressionInterceptor} object.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class HttpCompressionInterceptorTest {
+    private static final String CONTENT;
+
+    static {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            content.append("{\"witness\":\"steemit\",\"transactions\":[]}");
+        }
+
+        CONTENT = content.toString();
+    }
+
+    /**
+     * Test that the compression is requested only if it is enabled.
+     *
+     * @throws HttpException
+     *             If the request could not be processed.
+     * @throws IOException
+     *             If the request could not be processed.
+     */
+    @Test
+    public void testAcceptEncoding() throws HttpException, IOException {
+        BasicHttpRequest request = new BasicHttpRequest("POST", "/");
+        new HttpCompressionInterceptor(true, new CompressionStatistics()).process(request, new BasicHttpContext());
+        assertThat(request.getFirstHeader("Accept-Encoding").getValue(), equalTo("gzip, deflate"));
+
+        new HttpCompressionInterceptor(false, new CompressionStatistics()).process(request, new BasicHttpContext());
+        assertThat(request.getFirstHeader("Accept-Encoding").getValue(), equalTo("identity"));
+    }
+
+    /**
+     * Test that gzip and deflate compressed responses are decompressed and
+     * counted.
+     *
+     * @throws HttpException
+     *             If the response could not be processed.
+     * @throws IOException
+     *             If the response could not be processed.
+     */
+    @Test
+    public void testDecompressResponse() throws HttpException, IOException {
+        for (String encoding : new String[] { "gzip", "deflate" }) {
+            ByteArrayOutputStream compressedContent = new ByteArrayOutputStream();
+            try (OutputStream outputStream = "gzip".equals(encoding) ? new GZIPOutputStream(compressedContent)
+                    : new DeflaterOutputStream(compressedContent)) {
+                outputStream.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+            }
+
+            CompressionStatistics compressionStatistics = new CompressionStatistics();
+            HttpResponse response = process(compressedContent.toByteArray(), encoding, compressionStatistics);
+
+            assertThat(response.getEntity().getContentEncoding(), nullValue());
+            assertThat(response.getFirstHeader("Content-Encoding"), nullValue());
+            assertThat(EntityUtils.toString(response.getEntity(), "UTF-8"), equalTo(CONTENT));
+            assertThat(compressionStatistics.getCompressedBytes(), equalTo((long) compressedContent.size()));
+            assertThat(compressionStatistics.getUncompressedBytes(), equalTo((long) CONTENT.length()));
+            assertThat(compressionStatistics.getCompressionRatio(), greaterThan(1.0));
+        }
+    }
+
+    /**
+     * Test that uncompressed responses are counted as both, compressed and
+     * uncompressed bytes.
+     *
+     * @throws HttpException
+     *             If the response could not be processed.
+     * @throws IOException
+     *             If the response could not be processed.
+     */
+    @Test
+    public void testUncompressedResponse() throws HttpException, IOException {
+        CompressionStatistics compressionStatistics = new CompressionStatistics();
+        HttpResponse response = process(CONTENT.getBytes(StandardCharsets.UTF_8), null, compressionStatistics);
+
+        assertThat(EntityUtils.toString(response.getEntity(), "UTF-8"), equalTo(CONTENT));
+        assertThat(compressionStatistics.getCompressedBytes(), equalTo((long) CONTENT.length()));
+        assertThat(compressionStatistics.getUncompressedBytes(), equalTo((long) CONTENT.length()));
+        assertThat(compressionStatistics.getCompressionRatio(), equalTo(1.0));
+    }
+
+    /**
+     * Let a new interceptor process a response with the given content.
+     *
+     * @param content
+     *            The content of the response.
+     * @param encoding
+     *            The content encoding or <code>null</code>.
+     * @param compressionStatistics
+     *            The statistics to update.
+     * @return The processed response.
+     * @throws HttpException
+     *             If the response could not be processed.
+     * @throws IOException
+     *             If the response could not be processed.
+     */
+    private HttpResponse process(byte[] content, String encoding, CompressionStatistics compressionStatistics)
+            throws HttpException, IOException {
+        ByteArrayEntity entity = new ByteArrayEntity(content);
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        if (encoding != null) {
+            entity.setContentEncoding(encoding);
+            response.setHeader("Content-Encoding", encoding);
+        }
+        response.setEntity(entity);
+
+        new HttpCompressionInterceptor(true, compressionStatistics).process(response, new BasicHttpContext());
+
+        return response;
+    }
+}
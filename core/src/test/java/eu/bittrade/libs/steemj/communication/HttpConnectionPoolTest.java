@@ -0,0 +1,94 @@
+package eu.bittrade.libs.steemj.communication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
+import eu.bittrade.libs.steemj.testsupport.MockSteemNode;
+
+/**
+ * This class tests how the {@link HttpConnectionPool} keeps and evicts the
+ * connections to an endpoint using a
+ * {@link eu.bittrade.libs.steemj.testsupport.MockSteemNode MockSteemNode}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class HttpConnectionPoolTest {
+    private MockSteemNode mockSteemNode;
+    private HttpConnectionPool httpConnectionPool;
+    private HttpClient httpClient;
+
+    /**
+     * Start a node and create a pool whose connections are evicted after
+     * 300 milliseconds without a request.
+     *
+     * @throws Exception
+     *             If the node could not be started.
+     */
+    @Before
+    public void startNode() throws Exception {
+        mockSteemNode = new MockSteemNode();
+        mockSteemNode.start();
+
+        httpConnectionPool = new HttpConnectionPool(4, 300, 50L);
+        httpClient = new HttpClient(httpConnectionPool);
+    }
+
+    /**
+     * Stop the node and close the pool.
+     *
+     * @throws Exception
+     *             If the node could not be stopped.
+     */
+    @After
+    public void stopNode() throws Exception {
+        httpConnectionPool.close();
+        mockSteemNode.close();
+    }
+
+    /**
+     * Test that sequential requests reuse a single connection, which is closed
+     * once it has been idle for longer than the idle timeout.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testConnectionReusedAndEvicted() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            httpClient.invokeAndReadResponse(createRequest(), mockSteemNode.getHttpUri(), false);
+            assertThat(httpConnectionPool.getNumberOfConnections(mockSteemNode.getHttpUri(), false), equalTo(1));
+        }
+        assertThat(mockSteemNode.getRequestCount(), equalTo(5L));
+        assertThat(mockSteemNode.getConnectionCount(), equalTo(1L));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (httpConnectionPool.getNumberOfConnections(mockSteemNode.getHttpUri(), false) > 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(httpConnectionPool.getNumberOfConnections(mockSteemNode.getHttpUri(), false), equalTo(0));
+
+        // The next request has to open a new connection.
+        httpClient.invokeAndReadResponse(createRequest(), mockSteemNode.getHttpUri(), false);
+        assertThat(httpConnectionPool.getNumberOfConnections(mockSteemNode.getHttpUri(), false), equalTo(1));
+        assertThat(mockSteemNode.getConnectionCount(), equalTo(2L));
+    }
+
+    /**
+     * @return A request for the dynamic global properties.
+     */
+    private static JsonRPCRequest createRequest() {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        requestObject.setApiMethod(RequestMethods.GET_DYNAMIC_GLOBAL_PROPERTIES);
+
+        return requestObject;
+    }
+}
@@ -0,0 +1,246 @@
+package eu.bittrade.libs.steemj.communication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
+import eu.bittrade.libs.steemj.exceptions.SteemTimeoutException;
+import eu.bittrade.libs.steemj.testsupport.MockSteemNode;
+
+/**
+ * This class tests how the {@link NioHttpClient} and its
+ * {@link NioHttpConnection NioHttpConnections} exchange requests with a
+ * {@link eu.bittrade.libs.steemj.testsupport.MockSteemNode MockSteemNode}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class NioHttpClientTest {
+    /** Decodes the responses on the I/O thread. */
+    private static final Executor CALLING_THREAD = Runnable::run;
+
+    private MockSteemNode mockSteemNode;
+    private NioHttpClient nioHttpClient;
+
+    /**
+     * Start a node.
+     *
+     * @throws Exception
+     *             If the node could not be started.
+     */
+    @Before
+    public void startNode() throws Exception {
+        mockSteemNode = new MockSteemNode();
+        mockSteemNode.start();
+    }
+
+    /**
+     * Close the connections of the client and stop the node.
+     */
+    @After
+    public void stopNode() {
+        if (nioHttpClient != null) {
+            nioHttpClient.closeConnection();
+        }
+        mockSteemNode.close();
+    }
+
+    /**
+     * Test that sequential requests reuse a single kept-alive connection.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testConnectionReused() throws Exception {
+        nioHttpClient = createClient(4, 5000);
+
+        for (int i = 0; i < 5; i++) {
+            JsonRPCRequest requestObject = createRequest();
+            assertThat(getId(invoke(requestObject).get(5, TimeUnit.SECONDS)), equalTo(requestObject.getId()));
+        }
+
+        assertThat(mockSteemNode.getRequestCount(), equalTo(5L));
+        assertThat(mockSteemNode.getConnectionCount(), equalTo(1L));
+        assertThat(nioHttpClient.getNumberOfConnections(mockSteemNode.getHttpUri(), false), equalTo(1));
+    }
+
+    /**
+     * Test that requests exceeding the maximum number of connections per
+     * endpoint are queued and sent once a connection becomes available.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testRequestsQueuedBeyondConnectionLimit() throws Exception {
+        nioHttpClient = createClient(2, 5000);
+        mockSteemNode.setLatency(200);
+
+        List<JsonRPCRequest> requests = new ArrayList<>();
+        List<CompletableFuture<JsonRPCResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            requests.add(createRequest());
+            responses.add(invoke(requests.get(i)));
+        }
+        assertThat(nioHttpClient.getNumberOfConnections(mockSteemNode.getHttpUri(), false), lessThanOrEqualTo(2));
+
+        for (int i = 0; i < requests.size(); i++) {
+            assertThat(getId(responses.get(i).get(5, TimeUnit.SECONDS)), equalTo(requests.get(i).getId()));
+        }
+
+        assertThat(mockSteemNode.getRequestCount(), equalTo(6L));
+        assertThat(mockSteemNode.getConnectionCount(), equalTo(2L));
+        assertThat(mockSteemNode.getPeakConcurrentRequests(), equalTo(2));
+    }
+
+    /**
+     * Test that a request sent using a kept-alive connection the node has
+     * closed in the meantime is sent once more using a new connection.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testRetryOnStaleConnection() throws Exception {
+        nioHttpClient = createClient(1, 5000);
+        invoke(createRequest()).get(5, TimeUnit.SECONDS);
+
+        mockSteemNode.dropConnections();
+        Thread.sleep(100);
+
+        JsonRPCRequest requestObject = createRequest();
+        assertThat(getId(invoke(requestObject).get(5, TimeUnit.SECONDS)), equalTo(requestObject.getId()));
+
+        assertThat(mockSteemNode.getRequestCount(), equalTo(2L));
+        assertThat(mockSteemNode.getConnectionCount(), equalTo(2L));
+    }
+
+    /**
+     * Test that a request that has not been answered within the response
+     * timeout fails and its connection is closed.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testResponseTimeout() throws Exception {
+        nioHttpClient = createClient(1, 300);
+        mockSteemNode.setLatency(2000);
+
+        long startTime = System.currentTimeMillis();
+        try {
+            invoke(createRequest()).get(5, TimeUnit.SECONDS);
+            throw new AssertionError("The response timeout has been ignored.");
+        } catch (ExecutionException e) {
+            // Expected.
+            assertThat(e.getCause(), instanceOf(SteemTimeoutException.class));
+        }
+        assertThat(System.currentTimeMillis() - startTime, lessThan(1500L));
+
+        // The connection is released once the I/O thread noticed the close.
+        long deadline = System.currentTimeMillis() + 5000;
+        while (nioHttpClient.getNumberOfConnections(mockSteemNode.getHttpUri(), false) > 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(nioHttpClient.getNumberOfConnections(mockSteemNode.getHttpUri(), false), equalTo(0));
+
+        // The next request uses a new connection.
+        mockSteemNode.setLatency(0);
+        JsonRPCRequest requestObject = createRequest();
+        assertThat(getId(invoke(requestObject).get(5, TimeUnit.SECONDS)), equalTo(requestObject.getId()));
+        assertThat(mockSteemNode.getConnectionCount(), equalTo(2L));
+    }
+
+    /**
+     * Test that a body announced by its Content-Length is read completely,
+     * even if it is received in many parts.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testContentLengthBody() throws Exception {
+        nioHttpClient = createClient(1, 10000);
+        String largeResult = StringUtils.repeat("steem", 50000);
+        mockSteemNode.getFixtures().setResult("database_api", "get_dynamic_global_properties", null,
+                new TextNode(largeResult));
+
+        JsonRPCResponse response = invoke(createRequest()).get(5, TimeUnit.SECONDS);
+        assertThat(response.getRawJsonResponse().get(JsonRPCResponse.RESULT_FIELD_NAME).asText(),
+                equalTo(largeResult));
+
+        // A small body sent byte by byte.
+        mockSteemNode.getFixtures().setResult("database_api", "get_dynamic_global_properties", null,
+                new TextNode("trickled"));
+        mockSteemNode.setTrickleDelay(2);
+
+        response = invoke(createRequest()).get(5, TimeUnit.SECONDS);
+        assertThat(response.getRawJsonResponse().get(JsonRPCResponse.RESULT_FIELD_NAME).asText(),
+                equalTo("trickled"));
+        assertThat(mockSteemNode.getConnectionCount(), equalTo(1L));
+    }
+
+    /**
+     * @param requestObject
+     *            The request to send.
+     * @return The future response of the node.
+     */
+    private CompletableFuture<JsonRPCResponse> invoke(JsonRPCRequest requestObject) {
+        return nioHttpClient.invokeAndReadResponseAsync(requestObject, mockSteemNode.getHttpUri(), false,
+                CALLING_THREAD);
+    }
+
+    /**
+     * @param maxConnectionsPerEndpoint
+     *            The maximum number of connections opened to the node.
+     * @param responseTimeout
+     *            The time in milliseconds to wait for a response.
+     * @return A client without compression whose connections expire after a
+     *         minute.
+     */
+    private static NioHttpClient createClient(int maxConnectionsPerEndpoint, int responseTimeout) {
+        return new NioHttpClient(maxConnectionsPerEndpoint, false, responseTimeout, 60000,
+                new CompressionStatistics());
+    }
+
+    /**
+     * @param response
+     *            A response of the node.
+     * @return The id of the request the node has answered.
+     */
+    private static long getId(JsonRPCResponse response) {
+        return response.getRawJsonResponse().get(JsonRPCResponse.ID_FIELD_NAME).asLong();
+    }
+
+    /**
+     * @return A request for the dynamic global properties.
+     */
+    private static JsonRPCRequest createRequest() {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        requestObject.setApiMethod(RequestMethods.GET_DYNAMIC_GLOBAL_PROPERTIES);
+
+        return requestObject;
+    }
+}
@@ -0,0 +1,135 @@
+package eu.bittrade.libs.steemj.communication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.http.ProtocolException;
+import org.junit.Test;
+
+/**
+ * This class contains all test connected to the
+ * {@link eu.bittrade.libs.steemj.communication.NioHttpResponse
+ * NioHttpResponse} object.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class NioHttpResponseTest {
+    private static final String BODY = "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":[]}";
+
+    /**
+     * Test that a response with a content length is parsed, even if it is
+     * received byte by byte.
+     *
+     * @throws ProtocolException
+     *             If the response could not be parsed.
+     */
+    @Test
+    public void testContentLength() throws ProtocolException {
+        String response = "HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: " + BODY.length()
+                + "\r\n\r\n" + BODY;
+
+        NioHttpResponse nioHttpResponse = feedByteByByte(response);
+
+        assertThat(nioHttpResponse.getStatusCode(), equalTo(200));
+        assertThat(nioHttpResponse.getHeader("content-type"), equalTo("application/json"));
+        assertThat(new String(nioHttpResponse.getBody(), StandardCharsets.UTF_8), equalTo(BODY));
+        assertThat(nioHttpResponse.isKeepAlive(), equalTo(true));
+    }
+
+    /**
+     * Test that a chunked response with extensions and trailers is parsed.
+     *
+     * @throws ProtocolException
+     *             If the response could not be parsed.
+     */
+    @Test
+    public void testChunked() throws ProtocolException {
+        String response = "HTTP/1.1 100 Continue\r\n\r\nHTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n"
+                + "5;name=value\r\n" + BODY.substring(0, 5) + "\r\n" + Integer.toHexString(BODY.length() - 5)
+                + "\r\n" + BODY.substring(5) + "\r\n0\r\nX-Trailer: 1\r\n\r\n";
+
+        NioHttpResponse nioHttpResponse = feedByteByByte(response);
+
+        assertThat(nioHttpResponse.getStatusCode(), equalTo(200));
+        assertThat(new String(nioHttpResponse.getBody(), StandardCharsets.UTF_8), equalTo(BODY));
+        assertThat(nioHttpResponse.isKeepAlive(), equalTo(true));
+
+        // The whole response at once.
+        nioHttpResponse = new NioHttpResponse();
+        ByteBuffer data = ByteBuffer.wrap(response.getBytes(StandardCharsets.ISO_8859_1));
+        assertThat(nioHttpResponse.feed(data), equalTo(true));
+        assertThat(data.hasRemaining(), equalTo(false));
+        assertThat(new String(nioHttpResponse.getBody(), StandardCharsets.UTF_8), equalTo(BODY));
+    }
+
+    /**
+     * Test that a response which is terminated by closing the connection is
+     * only complete after the connection has been closed.
+     *
+     * @throws ProtocolException
+     *             If the response could not be parsed.
+     */
+    @Test
+    public void testBodyUntilClose() throws ProtocolException {
+        NioHttpResponse nioHttpResponse = new NioHttpResponse();
+
+        assertThat(nioHttpResponse.isEmpty(), equalTo(true));
+        assertThat(nioHttpResponse.feed(ByteBuffer.wrap(("HTTP/1.0 200 OK\r\n\r\n" + BODY).getBytes())),
+                equalTo(false));
+        assertThat(nioHttpResponse.isEmpty(), equalTo(false));
+        assertThat(nioHttpResponse.finish(), equalTo(true));
+        assertThat(new String(nioHttpResponse.getBody(), StandardCharsets.UTF_8), equalTo(BODY));
+        assertThat(nioHttpResponse.isKeepAlive(), equalTo(false));
+    }
+
+    /**
+     * Test that the connection is not kept alive if the node asks to close it.
+     *
+     * @throws ProtocolException
+     *             If the response could not be parsed.
+     */
+    @Test
+    public void testConnectionClose() throws ProtocolException {
+        NioHttpResponse nioHttpResponse = feedByteByByte(
+                "HTTP/1.1 503 Service Unavailable\r\nConnection: close\r\nContent-Length: 0\r\n\r\n");
+
+        assertThat(nioHttpResponse.getStatusCode(), equalTo(503));
+        assertThat(nioHttpResponse.getBody().length, equalTo(0));
+        assertThat(nioHttpResponse.isKeepAlive(), equalTo(false));
+    }
+
+    /**
+     * Test that an invalid response is rejected.
+     *
+     * @throws ProtocolException
+     *             If the response could not be parsed.
+     */
+    @Test(expected = ProtocolException.class)
+    public void testInvalidStatusLine() throws ProtocolException {
+        feedByteByByte("SSH-2.0-OpenSSH\r\n\r\n");
+    }
+
+    /**
+     * Feed the given <code>response</code> into a new {@link NioHttpResponse}
+     * one byte at a time.
+     *
+     * @param response
+     *            The response to feed.
+     * @return The parsed response.
+     * @throws ProtocolException
+     *             If the response could not be parsed.
+     */
+    private NioHttpResponse feedByteByByte(String response) throws ProtocolException {
+        NioHttpResponse nioHttpResponse = new NioHttpResponse();
+        byte[] data = response.getBytes(StandardCharsets.ISO_8859_1);
+
+        for (int i = 0; i < data.length; i++) {
+            assertThat(nioHttpResponse.feed(ByteBuffer.wrap(data, i, 1)), equalTo(i == data.length - 1));
+        }
+
+        return nioHttpResponse;
+    }
+}
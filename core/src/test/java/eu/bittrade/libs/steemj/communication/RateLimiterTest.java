@@ -0,0 +1,189 @@
+package eu.bittrade.libs.steemj.communication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Test;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
+import eu.bittrade.libs.steemj.exceptions.SteemRateLimitException;
+import eu.bittrade.libs.steemj.exceptions.SteemTimeoutException;
+import eu.bittrade.libs.steemj.plugins.apis.database.DatabaseApi;
+import eu.bittrade.libs.steemj.plugins.apis.database.models.DynamicGlobalProperty;
+import eu.bittrade.libs.steemj.testsupport.MockSteemNode;
+
+/**
+ * This class contains all test connected to the
+ * {@link eu.bittrade.libs.steemj.communication.RateLimiter RateLimiter} and
+ * the {@link eu.bittrade.libs.steemj.communication.TokenBucket TokenBucket}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class RateLimiterTest {
+    private static final URI ENDPOINT = URI.create("https://api.steemit.com");
+
+    /**
+     * Remove all rate limits configured by a test.
+     */
+    @After
+    public void resetRateLimits() {
+        SteemJConfig config = SteemJConfig.getInstance();
+        config.setEndpointRateLimit(null);
+        config.setApiRateLimit(SteemApiType.DATABASE_API, null);
+        config.setMethodRateLimit(RequestMethods.GET_BLOCK, null);
+    }
+
+    /**
+     * Test that a token bucket allows a burst and lets further requests wait
+     * according to the rate, but not longer than the maximum wait time.
+     */
+    @Test
+    public void testTokenBucket() {
+        TokenBucket tokenBucket = new TokenBucket(new RateLimit(10, 2));
+
+        assertThat(tokenBucket.reserve(1, 0), equalTo(0L));
+        assertThat(tokenBucket.reserve(1, 0), equalTo(0L));
+        assertThat(tokenBucket.reserve(1, 0), equalTo(-1L));
+
+        long maxWait = TimeUnit.SECONDS.toNanos(1);
+        long firstWait = tokenBucket.reserve(1, maxWait);
+        long secondWait = tokenBucket.reserve(1, maxWait);
+        assertThat(firstWait, greaterThan(0L));
+        assertThat(firstWait, lessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100)));
+        assertThat(secondWait, greaterThan(firstWait));
+
+        tokenBucket.refund(2);
+        assertThat(tokenBucket.getAvailablePermits() > -0.1, equalTo(true));
+    }
+
+    /**
+     * Test that the endpoint limit is charged once per call, while the method
+     * limit is charged for each request and that a refused reservation does
+     * not use any permits.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testRateLimiter() throws Exception {
+        SteemJConfig config = SteemJConfig.getInstance();
+        config.setEndpointRateLimit(new RateLimit(1, 2));
+        config.setMethodRateLimit(RequestMethods.GET_BLOCK, new RateLimit(1, 3));
+
+        JsonRPCRequest getBlock = createRequest(RequestMethods.GET_BLOCK);
+        JsonRPCRequest getConfig = createRequest(RequestMethods.GET_CONFIG);
+
+        RateLimiter rateLimiter = new RateLimiter(config.createContext());
+        assertThat(rateLimiter.reserve(ENDPOINT, Arrays.asList(getBlock, getBlock), 0), equalTo(0L));
+
+        try {
+            rateLimiter.reserve(ENDPOINT, Arrays.asList(getBlock, getBlock), 0);
+            throw new AssertionError("The method limit should have been exceeded.");
+        } catch (SteemRateLimitException e) {
+            // Expected.
+        }
+
+        // The refused reservation has given back the endpoint permit.
+        assertThat(rateLimiter.reserve(ENDPOINT, Collections.singletonList(getConfig), 0), equalTo(0L));
+        assertThat(rateLimiter.reserve(ENDPOINT, Collections.singletonList(getConfig), 10000), greaterThan(0L));
+    }
+
+    /**
+     * Test that a blocking request delayed by the rate limit is sent without
+     * occupying the scheduler, so the deadline of another request still
+     * expires on time while the node is slow to answer.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testDelayedBlockingRequest() throws Exception {
+        SteemJConfig config = SteemJConfig.getInstance();
+        List<Pair<URI, Boolean>> endpointURIs = new ArrayList<>(config.getEndpointURIs());
+        int responseTimeout = config.getResponseTimeout();
+
+        try (MockSteemNode mockSteemNode = new MockSteemNode()) {
+            mockSteemNode.start();
+            mockSteemNode.setLatency(1500);
+            config.setEndpointURIs(Collections.singletonList(new ImmutablePair<>(mockSteemNode.getHttpUri(), false)));
+            config.setResponseTimeout(5000);
+            config.setEndpointRateLimit(new RateLimit(5, 1));
+
+            CommunicationHandler communicationHandler = new CommunicationHandler();
+            List<Thread> blockingCallers = new ArrayList<>();
+            try {
+                // The first request is sent at once, the second one after the
+                // rate limit allows it.
+                for (int i = 0; i < 2; i++) {
+                    Thread blockingCaller = new Thread(() -> {
+                        try {
+                            DatabaseApi.getDynamicGlobalProperties(communicationHandler);
+                        } catch (Exception e) {
+                            // Only the timing of the other request matters.
+                        }
+                    });
+                    blockingCaller.start();
+                    blockingCallers.add(blockingCaller);
+                }
+                Thread.sleep(300);
+
+                JsonRPCRequest requestObject = createRequest(RequestMethods.GET_DYNAMIC_GLOBAL_PROPERTIES);
+                requestObject.setDeadline(Deadline.after(500, TimeUnit.MILLISECONDS));
+                long startTime = System.currentTimeMillis();
+                CompletableFuture<List<DynamicGlobalProperty>> response = communicationHandler
+                        .performRequestAsync(requestObject, DynamicGlobalProperty.class);
+                try {
+                    response.get(5, TimeUnit.SECONDS);
+                    throw new AssertionError("The deadline should have expired.");
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause(), instanceOf(SteemTimeoutException.class));
+                }
+
+                assertThat(System.currentTimeMillis() - startTime, lessThan(1000L));
+            } finally {
+                for (Thread blockingCaller : blockingCallers) {
+                    blockingCaller.join(5000);
+                }
+
+                communicationHandler.close();
+                config.setEndpointURIs(endpointURIs);
+                config.setResponseTimeout(responseTimeout);
+            }
+        }
+    }
+
+    /**
+     * Create a request for the given <code>method</code> of the database API.
+     *
+     * @param method
+     *            The method to call.
+     * @return The request.
+     */
+    private JsonRPCRequest createRequest(RequestMethods method) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        requestObject.setApiMethod(method);
+        requestObject.setAdditionalParameters(new Object[0]);
+
+        return requestObject;
+    }
+}
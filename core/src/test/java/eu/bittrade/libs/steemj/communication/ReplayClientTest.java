@@ -0,0 +1,147 @@
+package eu.bittrade.libs.steemj.communication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import eu.bittrade.libs.steemj.communication.RecordingFile.Exchange;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+import eu.bittrade.libs.steemj.exceptions.SteemResponseException;
+
+/**
+ * This class contains all test connected to the
+ * {@link eu.bittrade.libs.steemj.communication.ReplayClient ReplayClient} and
+ * the {@link eu.bittrade.libs.steemj.communication.RecordingFile
+ * RecordingFile}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class ReplayClientTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Test that the recorded exchanges can be read and that an incomplete
+     * last record is ignored.
+     *
+     * @throws IOException
+     *             If the recording could not be written.
+     */
+    @Test
+    public void testRecordingFile() throws IOException {
+        File file = temporaryFolder.newFile();
+        try (RecordingFile recordingFile = new RecordingFile(file)) {
+            recordingFile.append(1000, 2000, createRequest(1).toJson(), createResponse(1, "first"));
+            recordingFile.append(3000, 4000, createRequest(2).toJson(), createResponse(2, "\u00e4\u20ac"));
+        }
+
+        try (FileOutputStream outputStream = new FileOutputStream(file, true)) {
+            outputStream.write(new byte[] { 1, 0, 0 });
+        }
+
+        List<Exchange> exchanges = RecordingFile.read(file);
+
+        assertThat(exchanges.size(), equalTo(2));
+        assertThat(exchanges.get(0).getTimestamp(), equalTo(1000L));
+        assertThat(exchanges.get(0).getLatency(), equalTo(2000L));
+        assertThat(exchanges.get(1).getResponse(), equalTo(createResponse(2, "\u00e4\u20ac")));
+        assertThat(RecordingFile.getKey(exchanges.get(1).getRequest()),
+                equalTo(RecordingFile.getKey(createRequest(2).toJson())));
+    }
+
+    /**
+     * Test that the replay client answers requests with the recorded
+     * responses.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testReplay() throws Exception {
+        File file = temporaryFolder.newFile();
+        try (RecordingFile recordingFile = new RecordingFile(file)) {
+            recordingFile.append(1000, 2000, createRequest(1).toJson(), createResponse(1, "first"));
+            recordingFile.append(1000, 2000, createRequest(1).toJson(), createResponse(1, "second"));
+        }
+
+        ReplayClient replayClient = new ReplayClient();
+        URI endpointUri = new URI(ReplayClient.SCHEME, null, file.getAbsolutePath(), null);
+        try {
+            JsonRPCRequest requestObject = createRequest(1);
+            JsonRPCResponse response = replayClient.invokeAndReadResponse(requestObject, endpointUri, false);
+
+            assertThat(response.getRawJsonResponse().get(JsonRPCResponse.ID_FIELD_NAME).asLong(),
+                    equalTo(requestObject.getId()));
+            assertThat(response.getRawJsonResponse().get(JsonRPCResponse.RESULT_FIELD_NAME).asText(),
+                    equalTo("first"));
+            assertThat(replayClient.invokeAndReadResponse(createRequest(1), endpointUri, false)
+                    .getRawJsonResponse().get(JsonRPCResponse.RESULT_FIELD_NAME).asText(), equalTo("second"));
+            assertThat(replayClient.invokeAndReadResponse(createRequest(1), endpointUri, false)
+                    .getRawJsonResponse().get(JsonRPCResponse.RESULT_FIELD_NAME).asText(), equalTo("second"));
+        } finally {
+            replayClient.closeConnection();
+        }
+    }
+
+    /**
+     * Test that a request that has not been recorded fails.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test(expected = SteemCommunicationException.class)
+    public void testReplayMissingResponse() throws Exception {
+        File file = temporaryFolder.newFile();
+        try (RecordingFile recordingFile = new RecordingFile(file)) {
+            recordingFile.append(1000, 2000, createRequest(1).toJson(), createResponse(1, "first"));
+        }
+
+        ReplayClient replayClient = new ReplayClient();
+        try {
+            replayClient.invokeAndReadResponse(createRequest(2),
+                    new URI(ReplayClient.SCHEME, null, file.getAbsolutePath(), null), false);
+        } catch (SteemResponseException e) {
+            throw new AssertionError(e);
+        } finally {
+            replayClient.closeConnection();
+        }
+    }
+
+    /**
+     * @param blockNumber
+     *            The block to request.
+     * @return A new request.
+     */
+    private static JsonRPCRequest createRequest(long blockNumber) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        requestObject.setApiMethod(RequestMethods.GET_BLOCK);
+        requestObject.setAdditionalParameters(new Object[] { blockNumber });
+
+        return requestObject;
+    }
+
+    /**
+     * @param id
+     *            The id of the response.
+     * @param result
+     *            The result.
+     * @return A response as JSON.
+     */
+    private static String createResponse(long id, String result) {
+        return "{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"result\":\"" + result + "\"}";
+    }
+}
@@ -0,0 +1,226 @@
+package eu.bittrade.libs.steemj.communication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+import eu.bittrade.libs.steemj.exceptions.SteemResponseException;
+
+/**
+ * This class contains all test connected to the
+ * {@link eu.bittrade.libs.steemj.communication.RequestCoalescer
+ * RequestCoalescer} object.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class RequestCoalescerTest {
+    /**
+     * Test that concurrent asynchronous calls with the same key share one
+     * call, while calls with another key or later calls are performed again.
+     *
+     * @throws InterruptedException
+     *             If the test has been interrupted.
+     * @throws ExecutionException
+     *             If a call failed.
+     */
+    @Test
+    public void testCoalesce() throws InterruptedException, ExecutionException {
+        RequestCoalescer requestCoalescer = new RequestCoalescer();
+        AtomicInteger numberOfCalls = new AtomicInteger();
+        CompletableFuture<String> call = new CompletableFuture<>();
+
+        CompletableFuture<String> first = requestCoalescer.coalesce("key", () -> {
+            numberOfCalls.incrementAndGet();
+            return call;
+        });
+        CompletableFuture<String> second = requestCoalescer.coalesce("key", () -> {
+            numberOfCalls.incrementAndGet();
+            return call;
+        });
+        CompletableFuture<String> other = requestCoalescer.coalesce("other",
+                () -> CompletableFuture.completedFuture("other"));
+
+        assertThat(numberOfCalls.get(), equalTo(1));
+        assertThat(other.get(), equalTo("other"));
+
+        // Cancelling one caller must not affect the others.
+        second.cancel(true);
+        call.complete("result");
+
+        assertThat(first.get(), equalTo("result"));
+        assertThat(requestCoalescer.getNumberOfInFlightCalls(), equalTo(0));
+
+        requestCoalescer.coalesce("key", () -> {
+            numberOfCalls.incrementAndGet();
+            return call;
+        });
+
+        assertThat(numberOfCalls.get(), equalTo(2));
+    }
+
+    /**
+     * Test that a failure is passed to all callers without being wrapped.
+     *
+     * @throws InterruptedException
+     *             If the test has been interrupted.
+     */
+    @Test
+    public void testCoalesceFailure() throws InterruptedException {
+        RequestCoalescer requestCoalescer = new RequestCoalescer();
+        CompletableFuture<String> call = new CompletableFuture<>();
+
+        CompletableFuture<String> first = requestCoalescer.coalesce("key", () -> call);
+        CompletableFuture<String> second = requestCoalescer.coalesce("key", () -> call);
+        call.completeExceptionally(new SteemCommunicationException("Failed."));
+
+        for (CompletableFuture<String> future : Arrays.asList(first, second)) {
+            try {
+                future.get();
+                fail("The failure has not been passed to all callers.");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(SteemCommunicationException.class));
+            }
+        }
+
+        assertThat(requestCoalescer.getNumberOfInFlightCalls(), equalTo(0));
+    }
+
+    /**
+     * Test that threads which block while a call with the same key is in
+     * flight wait for its result instead of performing their own call.
+     *
+     * @throws Exception
+     *             If a call failed.
+     */
+    @Test
+    public void testCoalesceBlocking() throws Exception {
+        RequestCoalescer requestCoalescer = new RequestCoalescer();
+        AtomicInteger numberOfCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> followerResult = new AtomicReference<>();
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<String> leader = executorService.submit(() -> requestCoalescer.coalesceBlocking("key", () -> {
+                numberOfCalls.incrementAndGet();
+                await(release);
+                return "result";
+            }));
+
+            while (requestCoalescer.getNumberOfInFlightCalls() == 0) {
+                Thread.sleep(1);
+            }
+
+            Thread follower = new Thread(() -> {
+                try {
+                    followerResult.set(requestCoalescer.coalesceBlocking("key", () -> {
+                        numberOfCalls.incrementAndGet();
+                        return "own result";
+                    }));
+                } catch (SteemCommunicationException | SteemResponseException e) {
+                    followerResult.set(e.getMessage());
+                }
+            });
+            follower.start();
+
+            // Only release the leader once the follower waits for its result.
+            while (follower.getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            follower.join(5000);
+
+            assertThat(leader.get(5, TimeUnit.SECONDS), equalTo("result"));
+            assertThat(followerResult.get(), equalTo("result"));
+            assertThat(numberOfCalls.get(), equalTo(1));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Test that a failure of the leader is thrown by the waiting threads,
+     * too.
+     *
+     * @throws SteemCommunicationException
+     *             If the call failed unexpectedly.
+     * @throws SteemResponseException
+     *             If the call failed unexpectedly.
+     */
+    @Test(expected = SteemResponseException.class)
+    public void testCoalesceBlockingFailure() throws SteemCommunicationException, SteemResponseException {
+        RequestCoalescer requestCoalescer = new RequestCoalescer();
+
+        try {
+            requestCoalescer.coalesceBlocking("key", () -> {
+                throw new SteemResponseException("Failed.");
+            });
+        } finally {
+            assertThat(requestCoalescer.getNumberOfInFlightCalls(), equalTo(0));
+        }
+    }
+
+    /**
+     * Test that the key of a request ignores its id, but not its parameters.
+     */
+    @Test
+    public void testCreateKey() {
+        assertThat(RequestCoalescer.createKey(createRequest("steemit"), CommunicationHandler.getObjectMapper()),
+                equalTo(RequestCoalescer.createKey(createRequest("steemit"), CommunicationHandler.getObjectMapper())));
+        assertThat(RequestCoalescer.createKey(createRequest("steemit"), CommunicationHandler.getObjectMapper()),
+                not(equalTo(
+                        RequestCoalescer.createKey(createRequest("dez1337"), CommunicationHandler.getObjectMapper()))));
+    }
+
+    /**
+     * Create a request for the given <code>accountName</code>.
+     *
+     * @param accountName
+     *            The parameter of the request.
+     * @return The request.
+     */
+    private JsonRPCRequest createRequest(String accountName) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        requestObject.setApiMethod(RequestMethods.GET_ACCOUNTS);
+        requestObject.setAdditionalParameters(new Object[] { new String[] { accountName } });
+
+        return requestObject;
+    }
+
+    /**
+     * Wait for the given <code>latch</code>.
+     *
+     * @param latch
+     *            The latch to wait for.
+     * @throws SteemCommunicationException
+     *             If the thread has been interrupted.
+     */
+    private static void await(CountDownLatch latch) throws SteemCommunicationException {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SteemCommunicationException("Interrupted.", e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package eu.bittrade.libs.steemj.communication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
+import eu.bittrade.libs.steemj.plugins.apis.database.models.DynamicGlobalProperty;
+import eu.bittrade.libs.steemj.testsupport.MockSteemNode;
+
+/**
+ * This class tests how the {@link CommunicationHandler} passes requests
+ * through the configured {@link RequestInterceptor request interceptors}
+ * using a {@link eu.bittrade.libs.steemj.testsupport.MockSteemNode
+ * MockSteemNode}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class RequestInterceptorTest {
+    private List<Pair<URI, Boolean>> endpointURIs;
+    private List<RequestInterceptor> requestInterceptors;
+    private MockSteemNode mockSteemNode;
+    private CommunicationHandler communicationHandler;
+
+    /**
+     * Start a node and use it as the only endpoint.
+     *
+     * @throws Exception
+     *             If the node could not be started.
+     */
+    @Before
+    public void startNode() throws Exception {
+        endpointURIs = new ArrayList<>(SteemJConfig.getInstance().getEndpointURIs());
+        requestInterceptors = new ArrayList<>(SteemJConfig.getInstance().getRequestInterceptors());
+
+        mockSteemNode = new MockSteemNode();
+        mockSteemNode.start();
+
+        SteemJConfig.getInstance().setEndpointURIs(
+                Collections.singletonList(new ImmutablePair<>(mockSteemNode.getHttpUri(), false)));
+    }
+
+    /**
+     * Stop the node and restore the configuration.
+     *
+     * @throws Exception
+     *             If the communication handler could not be closed.
+     */
+    @After
+    public void stopNode() throws Exception {
+        if (communicationHandler != null) {
+            communicationHandler.close();
+        }
+        mockSteemNode.close();
+        SteemJConfig.getInstance().setEndpointURIs(endpointURIs);
+        SteemJConfig.getInstance().setRequestInterceptors(requestInterceptors);
+    }
+
+    /**
+     * Test that the interceptors see the request in the configured order and
+     * the response in the reverse order.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testInterceptorOrder() throws Exception {
+        List<String> calls = new CopyOnWriteArrayList<>();
+        createCommunicationHandler(createRecordingInterceptor("first", calls),
+                createRecordingInterceptor("second", calls));
+
+        List<DynamicGlobalProperty> result = communicationHandler.performRequest(
+                createRequest(RequestMethods.GET_DYNAMIC_GLOBAL_PROPERTIES), DynamicGlobalProperty.class);
+
+        assertThat(result.get(0).getHeadBlockNumber(), equalTo(20000000L));
+        assertThat(calls, contains("first request", "second request", "second response", "first response"));
+        assertThat(mockSteemNode.getRequestCount(), equalTo(1L));
+    }
+
+    /**
+     * Test that an interceptor can answer a request on its own, so neither the
+     * following interceptors nor the node see it.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testShortCircuitResponse() throws Exception {
+        List<String> calls = new CopyOnWriteArrayList<>();
+        RequestInterceptor answeringInterceptor = (requestObject, endpointUri, chain) -> {
+            ObjectNode response = CommunicationHandler.getObjectMapper().createObjectNode();
+            response.put(JsonRPCResponse.ID_FIELD_NAME, requestObject.getId());
+            response.put(JsonRPCResponse.RESULT_FIELD_NAME, "0.19.2");
+
+            return CompletableFuture.completedFuture(new JsonRPCResponse(response));
+        };
+        createCommunicationHandler(answeringInterceptor, createRecordingInterceptor("second", calls));
+
+        List<String> result = communicationHandler.performRequest(createRequest(RequestMethods.GET_HARDFORK_VERSION),
+                String.class);
+
+        assertThat(result, contains("0.19.2"));
+        assertThat(calls.isEmpty(), equalTo(true));
+        assertThat(mockSteemNode.getRequestCount(), equalTo(0L));
+    }
+
+    /**
+     * Test that cancelling a request is passed on to the request sent by the
+     * last interceptor, even if the interceptors returned another future.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testCancellationPassedOn() throws Exception {
+        AtomicReference<CompletableFuture<JsonRPCResponse>> sentRequest = new AtomicReference<>();
+        RequestInterceptor wrappingInterceptor = (requestObject, endpointUri, chain) -> {
+            CompletableFuture<JsonRPCResponse> response = chain.proceed(requestObject);
+            sentRequest.set(response);
+
+            return response.thenApply(rawJsonResponse -> rawJsonResponse);
+        };
+        createCommunicationHandler(wrappingInterceptor);
+        mockSteemNode.setLatency(5000);
+
+        CompletableFuture<List<DynamicGlobalProperty>> result = communicationHandler.performRequestAsync(
+                createRequest(RequestMethods.GET_DYNAMIC_GLOBAL_PROPERTIES), DynamicGlobalProperty.class);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sentRequest.get() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        result.cancel(true);
+
+        assertThat(sentRequest.get().isCancelled(), equalTo(true));
+    }
+
+    /**
+     * Create the communication handler used by the test, which calls the
+     * given interceptors.
+     *
+     * @param interceptors
+     *            The interceptors in the order they should be called.
+     * @throws Exception
+     *             If the communication handler could not be created.
+     */
+    private void createCommunicationHandler(RequestInterceptor... interceptors) throws Exception {
+        SteemJConfig.getInstance().setRequestInterceptors(Arrays.asList(interceptors));
+        communicationHandler = new CommunicationHandler();
+    }
+
+    /**
+     * @param name
+     *            The name of the interceptor.
+     * @param calls
+     *            The list to add the calls of the interceptor to.
+     * @return An interceptor that records when it sees a request and its
+     *         response.
+     */
+    private static RequestInterceptor createRecordingInterceptor(String name, List<String> calls) {
+        return (requestObject, endpointUri, chain) -> {
+            calls.add(name + " request");
+            return chain.proceed(requestObject).whenComplete((response, throwable) -> calls.add(name + " response"));
+        };
+    }
+
+    /**
+     * @param method
+     *            The method of the request.
+     * @return A request of the database api without parameters.
+     */
+    private static JsonRPCRequest createRequest(RequestMethods method) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        requestObject.setApiMethod(method);
+
+        return requestObject;
+    }
+}
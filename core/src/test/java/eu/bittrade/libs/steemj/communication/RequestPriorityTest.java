@@ -0,0 +1,186 @@
+package eu.bittrade.libs.steemj.communication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCBatchRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.RequestPriority;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
+import eu.bittrade.libs.steemj.plugins.apis.database.models.DynamicGlobalProperty;
+import eu.bittrade.libs.steemj.testsupport.MockSteemNode;
+
+/**
+ * This class tests that requests of a higher {@link RequestPriority} do not
+ * wait behind requests of a lower priority using a
+ * {@link eu.bittrade.libs.steemj.testsupport.MockSteemNode MockSteemNode}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class RequestPriorityTest {
+    private List<Pair<URI, Boolean>> endpointURIs;
+    private int maxConnectionsPerEndpoint;
+    private int responseTimeout;
+    private MockSteemNode mockSteemNode;
+
+    /**
+     * Start a node and use it as the only endpoint.
+     *
+     * @throws Exception
+     *             If the node could not be started.
+     */
+    @Before
+    public void startNode() throws Exception {
+        endpointURIs = new ArrayList<>(SteemJConfig.getInstance().getEndpointURIs());
+        maxConnectionsPerEndpoint = SteemJConfig.getInstance().getMaxConnectionsPerEndpoint();
+        responseTimeout = SteemJConfig.getInstance().getResponseTimeout();
+
+        mockSteemNode = new MockSteemNode();
+        mockSteemNode.start();
+
+        SteemJConfig.getInstance().setEndpointURIs(
+                Collections.singletonList(new ImmutablePair<>(mockSteemNode.getHttpUri(), false)));
+        SteemJConfig.getInstance().setResponseTimeout(5000);
+    }
+
+    /**
+     * Stop the node and restore the configuration.
+     */
+    @After
+    public void stopNode() {
+        mockSteemNode.close();
+        SteemJConfig.getInstance().setEndpointURIs(endpointURIs);
+        SteemJConfig.getInstance().setMaxConnectionsPerEndpoint(maxConnectionsPerEndpoint);
+        SteemJConfig.getInstance().setResponseTimeout(responseTimeout);
+        SteemJConfig.getInstance().setEndpointRateLimit(null);
+    }
+
+    /**
+     * Test that the priority of a request is derived from its api and method
+     * unless it has been set explicitly.
+     */
+    @Test
+    public void testDefaultPriority() {
+        assertThat(createRequest(SteemApiType.NETWORK_BROADCAST_API, RequestMethods.BROADCAST_TRANSACTION)
+                .getPriority(), equalTo(RequestPriority.BROADCAST));
+        assertThat(createRequest(SteemApiType.BLOCK_API, RequestMethods.GET_BLOCK).getPriority(),
+                equalTo(RequestPriority.BULK));
+        assertThat(createRequest(SteemApiType.DATABASE_API, RequestMethods.GET_DYNAMIC_GLOBAL_PROPERTIES)
+                .getPriority(), equalTo(RequestPriority.INTERACTIVE));
+
+        JsonRPCRequest getBlock = createRequest(SteemApiType.BLOCK_API, RequestMethods.GET_BLOCK);
+        getBlock.setPriority(RequestPriority.INTERACTIVE);
+        assertThat(getBlock.getPriority(), equalTo(RequestPriority.INTERACTIVE));
+        assertThat(getBlock.copy().getPriority(), equalTo(RequestPriority.INTERACTIVE));
+
+        JsonRPCBatchRequest batchRequest = new JsonRPCBatchRequest(
+                Arrays.asList(createRequest(SteemApiType.BLOCK_API, RequestMethods.GET_BLOCK), getBlock));
+        assertThat(batchRequest.getPriority(), equalTo(RequestPriority.INTERACTIVE));
+    }
+
+    /**
+     * Test that a broadcast gets the next pooled connection even if bulk
+     * reads have been waiting for it before, without enabling the
+     * concurrency limiter.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testBroadcastBeforeBulkReadsWaitingForConnection() throws Exception {
+        SteemJConfig.getInstance().setMaxConnectionsPerEndpoint(1);
+        mockSteemNode.setLatency(300);
+
+        assertBroadcastOvertakesBulkReads();
+    }
+
+    /**
+     * Test that a broadcast takes over the next point in time the endpoint
+     * rate limit allows a request, even if bulk reads have reserved it
+     * before.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testBroadcastBeforeBulkReadsWaitingForRateLimit() throws Exception {
+        SteemJConfig.getInstance().setEndpointRateLimit(new RateLimit(5, 1));
+
+        assertBroadcastOvertakesBulkReads();
+    }
+
+    /**
+     * Send five bulk reads followed by a broadcast and check that the
+     * broadcast is answered right after the bulk read that has been sent
+     * first.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    private void assertBroadcastOvertakesBulkReads() throws Exception {
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+        try {
+            List<CompletableFuture<List<DynamicGlobalProperty>>> bulkReads = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                bulkReads.add(communicationHandler.performRequestAsync(createRequest(RequestPriority.BULK),
+                        DynamicGlobalProperty.class));
+            }
+            // Let the bulk reads queue up before the broadcast arrives.
+            Thread.sleep(100);
+            CompletableFuture<List<DynamicGlobalProperty>> broadcast = communicationHandler
+                    .performRequestAsync(createRequest(RequestPriority.BROADCAST), DynamicGlobalProperty.class);
+
+            broadcast.get(5, TimeUnit.SECONDS);
+            assertThat(bulkReads.stream().filter(CompletableFuture::isDone).count(), equalTo(1L));
+
+            bulkReads.get(4).get(5, TimeUnit.SECONDS);
+        } finally {
+            communicationHandler.close();
+        }
+    }
+
+    /**
+     * @param priority
+     *            The priority of the request.
+     * @return A request for the dynamic global properties with the given
+     *         <code>priority</code>.
+     */
+    private static JsonRPCRequest createRequest(RequestPriority priority) {
+        JsonRPCRequest requestObject = createRequest(SteemApiType.DATABASE_API,
+                RequestMethods.GET_DYNAMIC_GLOBAL_PROPERTIES);
+        requestObject.setPriority(priority);
+
+        return requestObject;
+    }
+
+    /**
+     * @param api
+     *            The api of the request.
+     * @param method
+     *            The method of the request.
+     * @return A request without parameters.
+     */
+    private static JsonRPCRequest createRequest(SteemApiType api, RequestMethods method) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setSteemApi(api);
+        requestObject.setApiMethod(method);
+
+        return requestObject;
+    }
+}
@@ -0,0 +1,66 @@
+package eu.bittrade.libs.steemj.communication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+import eu.bittrade.libs.steemj.exceptions.SteemResponseException;
+import eu.bittrade.libs.steemj.exceptions.SteemTimeoutException;
+import eu.bittrade.libs.steemj.exceptions.SteemTransformationException;
+
+/**
+ * This class contains all test connected to the
+ * {@link eu.bittrade.libs.steemj.communication.RetryPolicy RetryPolicy}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class RetryPolicyTest {
+    private final RetryPolicy retryPolicy = new RetryPolicy(4, 1000L, 100L, 300L,
+            new HashSet<>(Arrays.asList(RetryPolicy.INTERNAL_ERROR_CODE)));
+
+    /**
+     * Test that only transient failures are retried.
+     */
+    @Test
+    public void testIsRetryable() {
+        assertThat(retryPolicy.isRetryable(new SteemCommunicationException("Connection lost.")), equalTo(true));
+        assertThat(retryPolicy.isRetryable(new SteemTimeoutException("Timeout.")), equalTo(true));
+        assertThat(retryPolicy.isRetryable(new SteemTransformationException("Invalid JSON.")), equalTo(false));
+        assertThat(retryPolicy.isRetryable(new SteemResponseException(-32603, "Internal error.", null)),
+                equalTo(true));
+        assertThat(retryPolicy.isRetryable(new SteemResponseException(-32602, "Invalid params.", null)),
+                equalTo(false));
+        assertThat(retryPolicy.isRetryable(new IllegalStateException()), equalTo(false));
+    }
+
+    /**
+     * Test that the delay grows exponentially, is capped and respects the
+     * maximum number of attempts and the deadline.
+     */
+    @Test
+    public void testRetryDelay() {
+        SteemCommunicationException failure = new SteemCommunicationException("Connection lost.");
+
+        assertThat(retryPolicy.getRetryDelay(1, 0, failure), allOf(greaterThanOrEqualTo(50L), lessThanOrEqualTo(100L)));
+        assertThat(retryPolicy.getRetryDelay(2, 0, failure),
+                allOf(greaterThanOrEqualTo(100L), lessThanOrEqualTo(200L)));
+        assertThat(retryPolicy.getRetryDelay(3, 0, failure),
+                allOf(greaterThanOrEqualTo(150L), lessThanOrEqualTo(300L)));
+
+        // The maximum number of attempts has been reached.
+        assertThat(retryPolicy.getRetryDelay(4, 0, failure), equalTo(-1L));
+        // The deadline would be exceeded.
+        assertThat(retryPolicy.getRetryDelay(1, 950, failure), equalTo(-1L));
+        // The failure is not transient.
+        assertThat(retryPolicy.getRetryDelay(1, 0, new SteemTransformationException("Invalid JSON.")),
+                equalTo(-1L));
+    }
+}
@@ -0,0 +1,298 @@
+package eu.bittrade.libs.steemj.communication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+import eu.bittrade.libs.steemj.plugins.apis.database.DatabaseApi;
+import eu.bittrade.libs.steemj.protocol.SignedBlockHeader;
+import eu.bittrade.libs.steemj.testsupport.MockSteemNode;
+
+/**
+ * This class tests the subscriptions to the notices pushed by a node using a
+ * {@link eu.bittrade.libs.steemj.testsupport.MockSteemNode MockSteemNode}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class SubscriptionTest {
+    private static final String BLOCK_APPLIED_CALLBACK = "set_block_applied_callback";
+
+    private List<Pair<URI, Boolean>> endpointURIs;
+    private MockSteemNode mockSteemNode;
+    private MockSteemNode otherNode;
+    private CommunicationHandler communicationHandler;
+    private WebsocketClient websocketClient;
+
+    /**
+     * Start a node and configure its WebSocket endpoint.
+     *
+     * @throws Exception
+     *             If the node could not be started.
+     */
+    @Before
+    public void startNode() throws Exception {
+        endpointURIs = new ArrayList<>(SteemJConfig.getInstance().getEndpointURIs());
+
+        mockSteemNode = new MockSteemNode();
+        mockSteemNode.start();
+
+        SteemJConfig.getInstance().setEndpointURIs(
+                Collections.singletonList(new ImmutablePair<>(mockSteemNode.getWebsocketUri(), false)));
+        communicationHandler = new CommunicationHandler();
+    }
+
+    /**
+     * Stop the node and restore the configured endpoints.
+     *
+     * @throws Exception
+     *             If the connection could not be closed.
+     */
+    @After
+    public void stopNode() throws Exception {
+        communicationHandler.close();
+        if (websocketClient != null) {
+            websocketClient.closeConnection();
+        }
+        if (otherNode != null) {
+            otherNode.close();
+        }
+        mockSteemNode.close();
+        SteemJConfig.getInstance().setEndpointURIs(endpointURIs);
+    }
+
+    /**
+     * Test that the pushed blocks are delivered to the listener until the
+     * subscription is cancelled, while requests are still answered.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testBlockAppliedCallback() throws Exception {
+        BlockingQueue<SignedBlockHeader> blocks = new LinkedBlockingQueue<>();
+        Subscription subscription = DatabaseApi.setBlockAppliedCallback(communicationHandler, blocks::add);
+
+        assertThat(subscription.isActive(), equalTo(true));
+        assertThat(mockSteemNode.publishNotice(BLOCK_APPLIED_CALLBACK, createBlockHeader("initminer")), equalTo(1));
+        assertThat(mockSteemNode.publishNotice(BLOCK_APPLIED_CALLBACK, createBlockHeader("steemit")), equalTo(1));
+
+        assertThat(blocks.poll(5, TimeUnit.SECONDS).getWitness().getName(), equalTo("initminer"));
+        assertThat(blocks.poll(5, TimeUnit.SECONDS).getWitness().getName(), equalTo("steemit"));
+        assertThat(DatabaseApi.getDynamicGlobalProperties(communicationHandler).getHeadBlockNumber(),
+                equalTo(20000000L));
+
+        subscription.cancel();
+        mockSteemNode.publishNotice(BLOCK_APPLIED_CALLBACK, createBlockHeader("initminer"));
+
+        assertThat(subscription.isActive(), equalTo(false));
+        assertThat(blocks.poll(200, TimeUnit.MILLISECONDS) == null, equalTo(true));
+    }
+
+    /**
+     * Test that a slow listener does not block the responses to requests.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testSlowListener() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        DatabaseApi.setBlockAppliedCallback(communicationHandler, block -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        try {
+            mockSteemNode.publishNotice(BLOCK_APPLIED_CALLBACK, createBlockHeader("initminer"));
+
+            assertThat(DatabaseApi.getDynamicGlobalProperties(communicationHandler).getHeadBlockNumber(),
+                    equalTo(20000000L));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Test that a subscription requires a WebSocket endpoint.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test(expected = SteemCommunicationException.class)
+    public void testSubscriptionWithoutWebsocket() throws Exception {
+        SteemJConfig.getInstance()
+                .setEndpointURIs(Collections.singletonList(new ImmutablePair<>(mockSteemNode.getHttpUri(), false)));
+
+        DatabaseApi.setBlockAppliedCallback(communicationHandler, block -> {
+        });
+    }
+
+    /**
+     * Test that a subscription follows the client to another endpoint, so
+     * the notices of the new endpoint are delivered.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testSubscriptionMovedToOtherEndpoint() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        Subscription subscription = subscribeAndSwitchEndpoint(listener);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (otherNode.publishNotice(BLOCK_APPLIED_CALLBACK, createBlockHeader("steemit")) == 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(listener.blocks.poll(5, TimeUnit.SECONDS).getWitness().getName(), equalTo("steemit"));
+
+        assertThat(mockSteemNode.publishNotice(BLOCK_APPLIED_CALLBACK, createBlockHeader("initminer")), equalTo(0));
+        assertThat(subscription.isActive(), equalTo(true));
+        assertThat(subscription.getEndpointUri(), equalTo(otherNode.getWebsocketUri()));
+        assertThat(listener.endings.isEmpty(), equalTo(true));
+    }
+
+    /**
+     * Test that a subscription ends and its listener is informed if the other
+     * endpoint does not accept its callback.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testSubscriptionEndedByOtherEndpoint() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        otherNode = new MockSteemNode();
+        otherNode.start();
+        // The request sent to the other node may be answered before the
+        // callback, so both fail.
+        otherNode.failNextRequests(2);
+        Subscription subscription = subscribeAndSwitchEndpoint(listener);
+
+        assertThat(listener.endings.poll(5, TimeUnit.SECONDS) instanceof SteemCommunicationException,
+                equalTo(true));
+        assertThat(subscription.isActive(), equalTo(false));
+        assertThat(otherNode.publishNotice(BLOCK_APPLIED_CALLBACK, createBlockHeader("steemit")), equalTo(0));
+    }
+
+    /**
+     * Test that a subscription ends and its listener is informed once its
+     * session has been closed without being replaced.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testSubscriptionEndedByClose() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        websocketClient = new WebsocketClient();
+        Subscription subscription = subscribe(listener);
+
+        websocketClient.closeConnection();
+
+        assertThat(listener.endings.poll(5, TimeUnit.SECONDS) instanceof SteemCommunicationException,
+                equalTo(true));
+        assertThat(subscription.isActive(), equalTo(false));
+    }
+
+    /**
+     * Register the given <code>listener</code> at the node and send the next
+     * request using the same client to another node.
+     *
+     * @param listener
+     *            The listener to register.
+     * @return The subscription of the listener.
+     * @throws Exception
+     *             If something went wrong.
+     */
+    private Subscription subscribeAndSwitchEndpoint(RecordingListener listener) throws Exception {
+        if (otherNode == null) {
+            otherNode = new MockSteemNode();
+            otherNode.start();
+        }
+        websocketClient = new WebsocketClient();
+        Subscription subscription = subscribe(listener);
+        assertThat(subscription.getEndpointUri(), equalTo(mockSteemNode.getWebsocketUri()));
+
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        requestObject.setApiMethod(RequestMethods.GET_DYNAMIC_GLOBAL_PROPERTIES);
+        websocketClient.invokeAndReadResponse(requestObject, otherNode.getWebsocketUri(), false);
+
+        return subscription;
+    }
+
+    /**
+     * @param listener
+     *            The listener to register.
+     * @return The subscription of the <code>listener</code> to the applied
+     *         blocks of the node.
+     * @throws Exception
+     *             If the callback could not be registered.
+     */
+    private Subscription subscribe(RecordingListener listener) throws Exception {
+        return websocketClient.subscribe(RequestMethods.SET_BLOCK_APPLIED_CALLBACK,
+                CommunicationHandler.getObjectMapper().getTypeFactory().constructType(SignedBlockHeader.class),
+                listener, mockSteemNode.getWebsocketUri(), false, ForkJoinPool.commonPool()).get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param witness
+     *            The witness of the block.
+     * @return A block header as JSON.
+     */
+    private static ObjectNode createBlockHeader(String witness) {
+        ObjectNode blockHeader = CommunicationHandler.getObjectMapper().createObjectNode();
+        blockHeader.put("previous", "0000000000000000000000000000000000000000");
+        blockHeader.put("timestamp", "2016-03-24T16:05:00");
+        blockHeader.put("witness", witness);
+        blockHeader.put("transaction_merkle_root", "0000000000000000000000000000000000000000");
+        blockHeader.putArray("extensions");
+
+        return blockHeader;
+    }
+
+    /**
+     * A listener recording the received blocks and the end of its
+     * subscription.
+     */
+    private static class RecordingListener implements NoticeListener<SignedBlockHeader> {
+        private final BlockingQueue<SignedBlockHeader> blocks = new LinkedBlockingQueue<>();
+        private final BlockingQueue<SteemCommunicationException> endings = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onNotice(SignedBlockHeader notice) {
+            blocks.add(notice);
+        }
+
+        @Override
+        public void onSubscriptionEnded(SteemCommunicationException reason) {
+            endings.add(reason);
+        }
+    }
+}
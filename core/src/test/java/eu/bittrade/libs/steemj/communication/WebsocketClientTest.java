@@ -0,0 +1,238 @@
+package eu.bittrade.libs.steemj.communication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+import eu.bittrade.libs.steemj.exceptions.SteemTimeoutException;
+import eu.bittrade.libs.steemj.testsupport.MockSteemNode;
+
+/**
+ * This class tests how the {@link WebsocketClient} matches the responses to
+ * its {@link PendingRequest pending requests} using a
+ * {@link eu.bittrade.libs.steemj.testsupport.MockSteemNode MockSteemNode}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class WebsocketClientTest {
+    /** Establishes new connections on the calling thread. */
+    private static final Executor CALLING_THREAD = Runnable::run;
+
+    private List<Pair<URI, Boolean>> endpointURIs;
+    private int idleTimeout;
+    private int responseTimeout;
+    private long websocketPingInterval;
+    private MockSteemNode mockSteemNode;
+    private WebsocketClient websocketClient;
+
+    /**
+     * Start a node and use it as the only endpoint. Pings are disabled, so a
+     * closed session is not resumed.
+     *
+     * @throws Exception
+     *             If the node could not be started.
+     */
+    @Before
+    public void startNode() throws Exception {
+        endpointURIs = new ArrayList<>(SteemJConfig.getInstance().getEndpointURIs());
+        idleTimeout = SteemJConfig.getInstance().getIdleTimeout();
+        responseTimeout = SteemJConfig.getInstance().getResponseTimeout();
+        websocketPingInterval = SteemJConfig.getInstance().getWebsocketPingInterval();
+
+        mockSteemNode = new MockSteemNode();
+        mockSteemNode.start();
+
+        SteemJConfig.getInstance().setEndpointURIs(
+                Collections.singletonList(new ImmutablePair<>(mockSteemNode.getWebsocketUri(), false)));
+        SteemJConfig.getInstance().setIdleTimeout(60000);
+        SteemJConfig.getInstance().setResponseTimeout(5000);
+        SteemJConfig.getInstance().setWebsocketPingInterval(0);
+    }
+
+    /**
+     * Stop the node and restore the configuration.
+     *
+     * @throws Exception
+     *             If the connection could not be closed.
+     */
+    @After
+    public void stopNode() throws Exception {
+        if (websocketClient != null) {
+            websocketClient.closeConnection();
+        }
+        mockSteemNode.close();
+        SteemJConfig.getInstance().setEndpointURIs(endpointURIs);
+        SteemJConfig.getInstance().setIdleTimeout(idleTimeout);
+        SteemJConfig.getInstance().setResponseTimeout(responseTimeout);
+        SteemJConfig.getInstance().setWebsocketPingInterval(websocketPingInterval);
+    }
+
+    /**
+     * Test that concurrent requests whose responses arrive in another order
+     * than the requests have been sent receive their own response.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testResponsesOutOfOrder() throws Exception {
+        websocketClient = new WebsocketClient();
+        invoke(createRequest()).get(5, TimeUnit.SECONDS);
+
+        mockSteemNode.setLatency(800);
+        JsonRPCRequest slowRequest = createRequest();
+        CompletableFuture<JsonRPCResponse> slowResponse = invoke(slowRequest);
+        waitForRequestCount(2);
+
+        mockSteemNode.setLatency(0);
+        JsonRPCRequest fastRequest = createRequest();
+        CompletableFuture<JsonRPCResponse> fastResponse = invoke(fastRequest);
+
+        assertThat(getId(fastResponse.get(5, TimeUnit.SECONDS)), equalTo(fastRequest.getId()));
+        assertThat(slowResponse.isDone(), equalTo(false));
+        assertThat(websocketClient.getPendingRequestCount(), equalTo(1));
+
+        assertThat(getId(slowResponse.get(5, TimeUnit.SECONDS)), equalTo(slowRequest.getId()));
+        assertThat(websocketClient.getPendingRequestCount(), equalTo(0));
+    }
+
+    /**
+     * Test that all requests waiting for a response are failed once their
+     * session has been closed and can't be resumed.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testPendingRequestsFailedOnClose() throws Exception {
+        websocketClient = new WebsocketClient();
+        invoke(createRequest()).get(5, TimeUnit.SECONDS);
+
+        mockSteemNode.setLatency(10000);
+        List<CompletableFuture<JsonRPCResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            responses.add(invoke(createRequest()));
+        }
+        waitForRequestCount(4);
+        assertThat(websocketClient.getPendingRequestCount(), equalTo(3));
+
+        mockSteemNode.dropConnections();
+
+        for (CompletableFuture<JsonRPCResponse> response : responses) {
+            assertThat(getFailure(response), instanceOf(SteemCommunicationException.class));
+        }
+        assertThat(websocketClient.getPendingRequestCount(), equalTo(0));
+    }
+
+    /**
+     * Test that a request that has not been answered within the response
+     * timeout is failed and removed from the pending requests, so the late
+     * response is ignored.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testTimeoutRemovesPendingRequest() throws Exception {
+        SteemJConfig.getInstance().setResponseTimeout(300);
+        websocketClient = new WebsocketClient();
+        invoke(createRequest()).get(5, TimeUnit.SECONDS);
+
+        mockSteemNode.setLatency(1000);
+        CompletableFuture<JsonRPCResponse> response = invoke(createRequest());
+
+        assertThat(getFailure(response), instanceOf(SteemTimeoutException.class));
+        assertThat(websocketClient.getPendingRequestCount(), equalTo(0));
+
+        // The late response does not disturb the next request.
+        Thread.sleep(1000);
+        mockSteemNode.setLatency(0);
+        JsonRPCRequest requestObject = createRequest();
+        assertThat(getId(invoke(requestObject).get(5, TimeUnit.SECONDS)), equalTo(requestObject.getId()));
+    }
+
+    /**
+     * @param requestObject
+     *            The request to send.
+     * @return The future response of the node.
+     */
+    private CompletableFuture<JsonRPCResponse> invoke(JsonRPCRequest requestObject) {
+        return websocketClient.invokeAndReadResponseAsync(requestObject, mockSteemNode.getWebsocketUri(), false,
+                CALLING_THREAD);
+    }
+
+    /**
+     * Wait until the node has received the given number of requests.
+     *
+     * @param requestCount
+     *            The number of requests.
+     * @throws InterruptedException
+     *             If the thread has been interrupted.
+     */
+    private void waitForRequestCount(long requestCount) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (mockSteemNode.getRequestCount() < requestCount && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(mockSteemNode.getRequestCount(), equalTo(requestCount));
+    }
+
+    /**
+     * @param response
+     *            A response that is expected to fail.
+     * @return The reason why the <code>response</code> failed.
+     * @throws Exception
+     *             If the response did not fail in time.
+     */
+    private static Throwable getFailure(CompletableFuture<JsonRPCResponse> response) throws Exception {
+        try {
+            response.get(5, TimeUnit.SECONDS);
+            throw new AssertionError("The request did not fail.");
+        } catch (ExecutionException e) {
+            // Expected.
+            return e.getCause();
+        }
+    }
+
+    /**
+     * @param response
+     *            A response of the node.
+     * @return The id of the request the node has answered.
+     */
+    private static long getId(JsonRPCResponse response) {
+        return response.getRawJsonResponse().get(JsonRPCResponse.ID_FIELD_NAME).asLong();
+    }
+
+    /**
+     * @return A request for the dynamic global properties.
+     */
+    private static JsonRPCRequest createRequest() {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        requestObject.setApiMethod(RequestMethods.GET_DYNAMIC_GLOBAL_PROPERTIES);
+
+        return requestObject;
+    }
+}
@@ -0,0 +1,226 @@
+package eu.bittrade.libs.steemj.communication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.websocket.Session;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
+import eu.bittrade.libs.steemj.plugins.apis.database.DatabaseApi;
+import eu.bittrade.libs.steemj.protocol.SignedBlockHeader;
+import eu.bittrade.libs.steemj.testsupport.FailureMode;
+import eu.bittrade.libs.steemj.testsupport.MockSteemNode;
+
+/**
+ * This class tests the keep-alive and the resumption of WebSocket sessions
+ * using a {@link eu.bittrade.libs.steemj.testsupport.MockSteemNode
+ * MockSteemNode}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class WebsocketKeepAliveTest {
+    private List<Pair<URI, Boolean>> endpointURIs;
+    private int idleTimeout;
+    private int responseTimeout;
+    private long websocketPingInterval;
+    private MockSteemNode mockSteemNode;
+    private WebsocketClient websocketClient;
+
+    /**
+     * Start a node and configure short timeouts.
+     *
+     * @throws Exception
+     *             If the node could not be started.
+     */
+    @Before
+    public void startNode() throws Exception {
+        endpointURIs = new ArrayList<>(SteemJConfig.getInstance().getEndpointURIs());
+        idleTimeout = SteemJConfig.getInstance().getIdleTimeout();
+        responseTimeout = SteemJConfig.getInstance().getResponseTimeout();
+        websocketPingInterval = SteemJConfig.getInstance().getWebsocketPingInterval();
+
+        mockSteemNode = new MockSteemNode();
+        mockSteemNode.start();
+
+        SteemJConfig.getInstance().setEndpointURIs(
+                Collections.singletonList(new ImmutablePair<>(mockSteemNode.getWebsocketUri(), false)));
+        SteemJConfig.getInstance().setIdleTimeout(500);
+        SteemJConfig.getInstance().setResponseTimeout(5000);
+        SteemJConfig.getInstance().setWebsocketPingInterval(100);
+        websocketClient = new WebsocketClient();
+    }
+
+    /**
+     * Stop the node and restore the configuration.
+     *
+     * @throws Exception
+     *             If the connection could not be closed.
+     */
+    @After
+    public void stopNode() throws Exception {
+        websocketClient.closeConnection();
+        mockSteemNode.close();
+        SteemJConfig.getInstance().setEndpointURIs(endpointURIs);
+        SteemJConfig.getInstance().setIdleTimeout(idleTimeout);
+        SteemJConfig.getInstance().setResponseTimeout(responseTimeout);
+        SteemJConfig.getInstance().setWebsocketPingInterval(websocketPingInterval);
+    }
+
+    /**
+     * Test that pings keep an unused session open beyond the idle timeout.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testSessionKeptAlive() throws Exception {
+        invoke();
+        Session session = websocketClient.getSession();
+
+        Thread.sleep(1500);
+
+        assertThat(session.isOpen(), equalTo(true));
+        invoke();
+        assertThat(websocketClient.getSession(), sameInstance(session));
+    }
+
+    /**
+     * Test that a session whose node does not answer pings is replaced in
+     * the background.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testUnansweredPings() throws Exception {
+        invoke();
+        Session session = websocketClient.getSession();
+
+        mockSteemNode.setPingsAnswered(false);
+        waitForNewSession(session);
+        mockSteemNode.setPingsAnswered(true);
+
+        assertThat(session.isOpen(), equalTo(false));
+        invoke();
+    }
+
+    /**
+     * Test that a request in flight is sent again if the node drops the
+     * connection before answering it.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testReplayAfterDroppedConnection() throws Exception {
+        invoke();
+        Session session = websocketClient.getSession();
+
+        mockSteemNode.setFailureMode(FailureMode.DROP_CONNECTION);
+        mockSteemNode.failNextRequests(1);
+        invoke();
+
+        assertThat(websocketClient.getSession(), not(sameInstance(session)));
+        assertThat(mockSteemNode.getRequestCount(), equalTo(3L));
+    }
+
+    /**
+     * Test that a session dropped by the node is replaced without a request
+     * and that the callbacks of the active subscriptions are registered
+     * again.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testSubscriptionRenewed() throws Exception {
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+        try {
+            BlockingQueue<SignedBlockHeader> blocks = new LinkedBlockingQueue<>();
+            DatabaseApi.setBlockAppliedCallback(communicationHandler, blocks::add);
+
+            mockSteemNode.dropConnections();
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (mockSteemNode.publishNotice("set_block_applied_callback", createBlockHeader()) == 0
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertThat(blocks.poll(5, TimeUnit.SECONDS).getWitness().getName(), equalTo("initminer"));
+        } finally {
+            communicationHandler.close();
+        }
+    }
+
+    /**
+     * Send a request to the node and check that it has been answered.
+     *
+     * @throws Exception
+     *             If the request failed.
+     */
+    private void invoke() throws Exception {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        requestObject.setApiMethod(RequestMethods.GET_DYNAMIC_GLOBAL_PROPERTIES);
+
+        JsonRPCResponse response = websocketClient.invokeAndReadResponse(requestObject,
+                mockSteemNode.getWebsocketUri(), false);
+
+        assertThat(response.isError(), equalTo(false));
+    }
+
+    /**
+     * Wait until the given <code>session</code> has been replaced.
+     *
+     * @param session
+     *            The session to replace.
+     * @throws InterruptedException
+     *             If the thread has been interrupted.
+     */
+    private void waitForNewSession(Session session) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((websocketClient.getSession() == session || !websocketClient.getSession().isOpen())
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(websocketClient.getSession(), not(sameInstance(session)));
+    }
+
+    /**
+     * @return A block header as JSON.
+     */
+    private static ObjectNode createBlockHeader() {
+        ObjectNode blockHeader = CommunicationHandler.getObjectMapper().createObjectNode();
+        blockHeader.put("previous", "0000000000000000000000000000000000000000");
+        blockHeader.put("timestamp", "2016-03-24T16:05:00");
+        blockHeader.put("witness", "initminer");
+        blockHeader.put("transaction_merkle_root", "0000000000000000000000000000000000000000");
+        blockHeader.putArray("extensions");
+
+        return blockHeader;
+    }
+}
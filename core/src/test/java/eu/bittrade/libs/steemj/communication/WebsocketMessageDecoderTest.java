@@ -0,0 +1,119 @@
+package eu.bittrade.libs.steemj.communication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
+
+/**
+ * This class contains all test connected to the
+ * {@link eu.bittrade.libs.steemj.communication.WebsocketMessageDecoder
+ * WebsocketMessageDecoder}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class WebsocketMessageDecoderTest {
+    private final Map<Long, PendingRequest> pendingRequests = new HashMap<>();
+    private final List<JsonNode> notices = new ArrayList<>();
+    private WebsocketMessageDecoder websocketMessageDecoder;
+
+    /**
+     * Create a decoder that decodes the messages in the calling thread.
+     */
+    @Before
+    public void createDecoder() {
+        WebsocketClient websocketClient = new WebsocketClient() {
+            @Override
+            PendingRequest takePendingRequest(long id) {
+                return pendingRequests.remove(id);
+            }
+
+            @Override
+            protected void dispatchNotice(JsonNode notice) {
+                notices.add(notice);
+            }
+        };
+
+        websocketMessageDecoder = new WebsocketMessageDecoder(websocketClient, Runnable::run);
+    }
+
+    /**
+     * Test that a response split into single characters is decoded into the
+     * expected type, even if a surrogate pair is split.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testSplitResponse() throws Exception {
+        PendingRequest pendingRequest = createPendingRequest(1);
+        String message = "{\"jsonrpc\":\"2.0\",\"result\":[\"a\uD83D\uDE00b\",\"\u00e4\"],\"id\":1}";
+
+        for (int i = 0; i < message.length(); i++) {
+            websocketMessageDecoder.onMessage(message.substring(i, i + 1), i == message.length() - 1);
+        }
+
+        assertThat(pendingRequest.getResponse().isDone(), equalTo(true));
+        List<String> result = pendingRequest.getResponse().get().handleResult(
+                pendingRequest.getRequest().getResultType(), 1);
+        assertThat(result.get(0), equalTo("a\uD83D\uDE00b"));
+        assertThat(result.get(1), equalTo("\u00e4"));
+    }
+
+    /**
+     * Test that the responses of a batch and notices are handed over and
+     * that an invalid message does not affect the following ones.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testBatchAndNotices() throws Exception {
+        PendingRequest firstRequest = createPendingRequest(2);
+        PendingRequest secondRequest = createPendingRequest(3);
+
+        websocketMessageDecoder.onMessage("[{\"id\":2,\"result\":[\"first\"]},{\"id\":3,\"res", false);
+        websocketMessageDecoder.onMessage("ult\":[\"second\"]}]", true);
+        websocketMessageDecoder.onMessage("{\"id\":4,\"result\":", true);
+        websocketMessageDecoder.onMessage("{\"method\":\"notice\",\"params\":[1,[{\"block\":5}]]}", true);
+
+        assertThat(firstRequest.getResponse().get().getRawJsonResponse().get(JsonRPCResponse.ID_FIELD_NAME).asLong(),
+                equalTo(2L));
+        assertThat(secondRequest.getResponse().get().handleResult(secondRequest.getRequest().getResultType(), 3)
+                .get(0), equalTo("second"));
+        assertThat(notices.size(), equalTo(1));
+        assertThat(notices.get(0).get(JsonRPCResponse.PARAMETERS_FIELD_NAME).get(1).get(0).get("block").asInt(),
+                equalTo(5));
+    }
+
+    /**
+     * @param id
+     *            The id of the request.
+     * @return A request waiting for a list of Strings.
+     */
+    private PendingRequest createPendingRequest(long id) {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        requestObject.setApiMethod(RequestMethods.GET_CONFIG);
+        requestObject.setResultType(CommunicationHandler.getObjectMapper().getTypeFactory()
+                .constructCollectionType(List.class, String.class));
+
+        PendingRequest pendingRequest = new PendingRequest(requestObject);
+        pendingRequests.put(id, pendingRequest);
+
+        return pendingRequest;
+    }
+}
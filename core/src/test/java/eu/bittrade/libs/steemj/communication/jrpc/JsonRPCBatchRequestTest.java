@@ -0,0 +1,121 @@
+package eu.bittrade.libs.steemj.communication.jrpc;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import eu.bittrade.libs.steemj.communication.CommunicationHandler;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+
+/**
+ * This class contains all test connected to the
+ * {@link eu.bittrade.libs.steemj.communication.jrpc.JsonRPCBatchRequest
+ * JsonRPCBatchRequest} object.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class JsonRPCBatchRequestTest {
+    /**
+     * Test that a batch is serialized as JSON array of requests.
+     *
+     * @throws IOException
+     *             If the batch could not be serialized.
+     */
+    @Test
+    public void testToJson() throws IOException {
+        JsonRPCBatchRequest batchRequest = new JsonRPCBatchRequest();
+        batchRequest.addRequest(createRequest());
+        batchRequest.addRequest(createRequest());
+
+        JsonNode serializedBatch = CommunicationHandler.getObjectMapper().readTree(batchRequest.toJson());
+
+        assertThat(serializedBatch.isArray(), equalTo(true));
+        assertThat(serializedBatch.size(), equalTo(2));
+        assertThat(serializedBatch.get(1).get("id").asLong(), equalTo(batchRequest.getRequests().get(1).getId()));
+        assertThat(serializedBatch.get(1).get("method").asText(), equalTo("call"));
+    }
+
+    /**
+     * Test that the responses are assigned to the requests using their id
+     * independent of their order.
+     *
+     * @throws IOException
+     *             If the test response could not be parsed.
+     * @throws SteemCommunicationException
+     *             If the responses could not be assigned.
+     */
+    @Test
+    public void testMatchResponses() throws IOException, SteemCommunicationException {
+        JsonRPCRequest firstRequest = createRequest();
+        JsonRPCRequest secondRequest = createRequest();
+        JsonRPCBatchRequest batchRequest = new JsonRPCBatchRequest();
+        batchRequest.addRequest(firstRequest);
+        batchRequest.addRequest(secondRequest);
+
+        List<JsonRPCResponse> responses = batchRequest.matchResponses(CommunicationHandler.getObjectMapper()
+                .readTree("[{\"jsonrpc\":\"2.0\",\"id\":" + secondRequest.getId() + ",\"result\":2},"
+                        + "{\"jsonrpc\":\"2.0\",\"id\":" + firstRequest.getId() + ",\"result\":1}]"));
+
+        assertThat(responses.size(), equalTo(2));
+        assertThat(responses.get(0).getRawJsonResponse().get("result").asInt(), equalTo(1));
+        assertThat(responses.get(1).getRawJsonResponse().get("result").asInt(), equalTo(2));
+
+        // Verify that an exception is thrown if a response is missing:
+        try {
+            batchRequest.matchResponses(CommunicationHandler.getObjectMapper()
+                    .readTree("[{\"jsonrpc\":\"2.0\",\"id\":" + firstRequest.getId() + ",\"result\":1}]"));
+            fail();
+        } catch (SteemCommunicationException e) {
+            // Expected.
+        }
+
+        // Verify that an exception is thrown if no array is returned:
+        try {
+            batchRequest.matchResponses(CommunicationHandler.getObjectMapper().readTree(
+                    "{\"jsonrpc\":\"2.0\",\"id\":null,\"error\":{\"code\":-32600,\"message\":\"Invalid Request\"}}"));
+            fail();
+        } catch (SteemCommunicationException e) {
+            // Expected.
+        }
+    }
+
+    /**
+     * Test that large batches are split without changing the order of the
+     * requests.
+     */
+    @Test
+    public void testSplit() {
+        JsonRPCBatchRequest batchRequest = new JsonRPCBatchRequest();
+        for (int i = 0; i < 5; i++) {
+            batchRequest.addRequest(createRequest());
+        }
+
+        List<JsonRPCBatchRequest> batches = batchRequest.split(2);
+
+        assertThat(batches.size(), equalTo(3));
+        assertThat(batches.get(0).size(), equalTo(2));
+        assertThat(batches.get(2).size(), equalTo(1));
+        assertThat(batches.get(1).getRequests().get(0), equalTo(batchRequest.getRequests().get(2)));
+        assertThat(batchRequest.split(5).get(0), equalTo(batchRequest));
+    }
+
+    /**
+     * @return A simple request used for testing.
+     */
+    private JsonRPCRequest createRequest() {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        requestObject.setApiMethod(RequestMethods.GET_CONFIG);
+
+        return requestObject;
+    }
+}
@@ -0,0 +1,106 @@
+package eu.bittrade.libs.steemj.communication.jrpc;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+
+import eu.bittrade.libs.steemj.communication.CommunicationHandler;
+import eu.bittrade.libs.steemj.exceptions.SteemCommunicationException;
+import eu.bittrade.libs.steemj.exceptions.SteemResponseException;
+
+/**
+ * This class contains all test connected to the
+ * {@link eu.bittrade.libs.steemj.communication.jrpc.JsonRPCResponse
+ * JsonRPCResponse} object.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class JsonRPCResponseTest {
+    private static final JavaType LONG_LIST_TYPE = CommunicationHandler.getObjectMapper().getTypeFactory()
+            .constructCollectionType(List.class, Long.class);
+
+    /**
+     * Test that the result is decoded while reading, even if the id follows
+     * the result.
+     *
+     * @throws IOException
+     *             If the test response could not be parsed.
+     * @throws SteemCommunicationException
+     *             If the result could not be handled.
+     */
+    @Test
+    public void testReadResult() throws IOException, SteemCommunicationException {
+        JsonRPCResponse response = read("{\"jsonrpc\":\"2.0\",\"result\":[1,2,3],\"id\":7}", LONG_LIST_TYPE);
+
+        assertThat(response.isError(), equalTo(false));
+        assertThat(response.getRawJsonResponse().has(JsonRPCResponse.RESULT_FIELD_NAME), equalTo(false));
+        assertThat(response.<Long> handleResult(LONG_LIST_TYPE, 7), contains(1L, 2L, 3L));
+
+        // A single value is accepted as array.
+        response = read("{\"id\":7,\"result\":4}", LONG_LIST_TYPE);
+        assertThat(response.<Long> handleResult(LONG_LIST_TYPE, 7), contains(4L));
+
+        response = read("{\"id\":7,\"result\":null}", LONG_LIST_TYPE);
+        assertThat(response.<Long> handleResult(LONG_LIST_TYPE, 7), empty());
+    }
+
+    /**
+     * Test that errors are read like before.
+     *
+     * @throws IOException
+     *             If the test response could not be parsed.
+     * @throws SteemCommunicationException
+     *             If the error could not be handled.
+     */
+    @Test
+    public void testReadError() throws IOException, SteemCommunicationException {
+        JsonRPCResponse response = read("{\"id\":7,\"error\":{\"code\":-32603,\"message\":\"Busy\"}}",
+                LONG_LIST_TYPE);
+
+        assertThat(response.isError(), equalTo(true));
+        SteemResponseException error = response.handleError(7);
+        assertThat(error.getCode(), equalTo(-32603));
+        assertThat(error.getMessage(), equalTo("Busy"));
+        assertThat(error.getData(), nullValue());
+    }
+
+    /**
+     * Test that the whole response is kept as tree if no result type is known.
+     *
+     * @throws IOException
+     *             If the test response could not be parsed.
+     */
+    @Test
+    public void testReadWithoutResultType() throws IOException {
+        JsonRPCResponse response = read("{\"id\":7,\"result\":[1]}", null);
+
+        assertThat(response.getRawJsonResponse().get(JsonRPCResponse.RESULT_FIELD_NAME).get(0).asInt(), equalTo(1));
+    }
+
+    /**
+     * Read a single response from the given JSON.
+     *
+     * @param json
+     *            The JSON to read.
+     * @param resultType
+     *            The expected result type.
+     * @return The response.
+     * @throws IOException
+     *             If the JSON could not be parsed.
+     */
+    private JsonRPCResponse read(String json, JavaType resultType) throws IOException {
+        try (JsonParser parser = CommunicationHandler.getObjectMapper().getFactory().createParser(json)) {
+            return JsonRPCResponse.readFrom(parser, resultType);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package eu.bittrade.libs.steemj.communication.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.net.URI;
+
+import org.junit.Test;
+
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+
+/**
+ * This class contains all test connected to the
+ * {@link eu.bittrade.libs.steemj.communication.metrics.MetricsRegistry
+ * MetricsRegistry} and the
+ * {@link eu.bittrade.libs.steemj.communication.metrics.LatencyHistogram
+ * LatencyHistogram}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class MetricsRegistryTest {
+    private static final URI ENDPOINT = URI.create("https://api.steemit.com");
+    private static final URI OTHER_ENDPOINT = URI.create("wss://steemd.minnowsupportproject.org");
+
+    /**
+     * Test that the buckets of the histogram are contiguous and that the
+     * reported percentiles are close to the recorded values.
+     */
+    @Test
+    public void testLatencyHistogram() {
+        for (long value : new long[] { 0, 1, 63, 64, 65, 127, 128, 1000, 123456789, Long.MAX_VALUE }) {
+            int index = LatencyHistogram.getBucketIndex(value);
+            assertThat(LatencyHistogram.getHighestValue(index), greaterThanOrEqualTo(value));
+            if (index > 0) {
+                assertThat(LatencyHistogram.getHighestValue(index - 1) < value, equalTo(true));
+            }
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.getValueAtPercentile(99), equalTo(0L));
+
+        for (long latency = 1; latency <= 1000; latency++) {
+            histogram.record(latency * 1000);
+        }
+
+        assertThat(histogram.getCount(), equalTo(1000L));
+        assertThat(histogram.getMax(), equalTo(1000000L));
+        assertThat(histogram.getMean(), equalTo(500500.0));
+        assertThat(histogram.getValueAtPercentile(50), greaterThanOrEqualTo(500000L));
+        assertThat(histogram.getValueAtPercentile(50), lessThanOrEqualTo(500000L + 500000L / 32));
+        assertThat(histogram.getValueAtPercentile(99), greaterThanOrEqualTo(990000L));
+        assertThat(histogram.getValueAtPercentile(99), lessThanOrEqualTo(990000L + 990000L / 32));
+        assertThat(histogram.getValueAtPercentile(100), equalTo(1000000L));
+    }
+
+    /**
+     * Test that the registry keeps the measurements per method and per
+     * endpoint.
+     */
+    @Test
+    public void testMetricsRegistry() {
+        MetricsRegistry metricsRegistry = new MetricsRegistry();
+
+        metricsRegistry.recordLatency(ENDPOINT, RequestMethods.GET_BLOCK, 2000);
+        metricsRegistry.recordLatency(OTHER_ENDPOINT, RequestMethods.GET_BLOCK, 4000);
+        metricsRegistry.recordDecodeTime(RequestMethods.GET_BLOCK, 500);
+        metricsRegistry.recordBytesSent(ENDPOINT, 100);
+        metricsRegistry.recordBytesReceived(ENDPOINT, 1000);
+        metricsRegistry.recordBytesReceived(OTHER_ENDPOINT, 500);
+        metricsRegistry.recordTimeout(ENDPOINT);
+        metricsRegistry.recordRetry(ENDPOINT);
+        metricsRegistry.recordFailover(ENDPOINT, OTHER_ENDPOINT);
+
+        assertThat(metricsRegistry.getLatencyHistograms().size(), equalTo(1));
+        assertThat(metricsRegistry.getLatencyHistograms().get(RequestMethods.GET_BLOCK).getCount(), equalTo(2L));
+        assertThat(metricsRegistry.getDecodeTimeHistograms().get(RequestMethods.GET_BLOCK).getMax(), equalTo(500L));
+        assertThat(metricsRegistry.getBytesSent(), equalTo(100L));
+        assertThat(metricsRegistry.getBytesReceived(), equalTo(1500L));
+
+        EndpointMetrics endpointMetrics = metricsRegistry.getEndpointMetrics(ENDPOINT);
+        assertThat(endpointMetrics.getTimeouts(), equalTo(1L));
+        assertThat(endpointMetrics.getRetries(), equalTo(1L));
+        assertThat(endpointMetrics.getFailovers(), equalTo(1L));
+        assertThat(metricsRegistry.getEndpointMetrics(OTHER_ENDPOINT).getFailovers(), equalTo(0L));
+    }
+}
@@ -0,0 +1,133 @@
+package eu.bittrade.libs.steemj.communication.selection;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import eu.bittrade.libs.steemj.communication.selection.CircuitBreaker.State;
+
+/**
+ * This class contains all test connected to the
+ * {@link eu.bittrade.libs.steemj.communication.selection.CircuitBreaker
+ * CircuitBreaker}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class CircuitBreakerTest {
+    /**
+     * Test that the breaker opens after the configured number of consecutive
+     * failures and closes again after a success.
+     */
+    @Test
+    public void testOpenAndClose() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(2, 60000L);
+        assertThat(circuitBreaker.getState(), equalTo(State.CLOSED));
+
+        circuitBreaker.recordFailure();
+        assertThat(circuitBreaker.getState(), equalTo(State.CLOSED));
+        assertThat(circuitBreaker.allowsRequests(), equalTo(true));
+
+        circuitBreaker.recordFailure();
+        assertThat(circuitBreaker.getState(), equalTo(State.OPEN));
+        assertThat(circuitBreaker.allowsRequests(), equalTo(false));
+
+        circuitBreaker.recordSuccess();
+        assertThat(circuitBreaker.getState(), equalTo(State.CLOSED));
+        assertThat(circuitBreaker.getConsecutiveFailures(), equalTo(0));
+    }
+
+    /**
+     * Test that an open breaker becomes half open after the open duration and
+     * opens again if the trial request fails.
+     *
+     * @throws InterruptedException
+     *             If the test has been interrupted.
+     */
+    @Test
+    public void testHalfOpen() throws InterruptedException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, 20L);
+
+        circuitBreaker.recordFailure();
+        assertThat(circuitBreaker.getState(), equalTo(State.OPEN));
+
+        Thread.sleep(30);
+        assertThat(circuitBreaker.getState(), equalTo(State.HALF_OPEN));
+        assertThat(circuitBreaker.allowsRequests(), equalTo(true));
+
+        circuitBreaker.recordFailure();
+        assertThat(circuitBreaker.getState(), equalTo(State.OPEN));
+    }
+
+    /**
+     * Test that a half open breaker admits a single trial request out of many
+     * concurrent ones and closes once the trial request succeeded.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testSingleTrialRequest() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, 20L);
+        circuitBreaker.recordFailure();
+        Thread.sleep(30);
+        assertThat(circuitBreaker.getState(), equalTo(State.HALF_OPEN));
+
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> admissions = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                admissions.add(executorService.submit(() -> {
+                    start.await();
+                    return circuitBreaker.allowsRequests();
+                }));
+            }
+            start.countDown();
+
+            int admittedRequests = 0;
+            for (Future<Boolean> admission : admissions) {
+                if (admission.get(5, TimeUnit.SECONDS)) {
+                    admittedRequests++;
+                }
+            }
+            assertThat(admittedRequests, equalTo(1));
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertThat(circuitBreaker.getState(), equalTo(State.OPEN));
+
+        circuitBreaker.recordSuccess();
+        assertThat(circuitBreaker.getState(), equalTo(State.CLOSED));
+        assertThat(circuitBreaker.allowsRequests(), equalTo(true));
+        assertThat(circuitBreaker.allowsRequests(), equalTo(true));
+    }
+
+    /**
+     * Test that another trial request is admitted if the outcome of the
+     * previous one has not been recorded within the open duration.
+     *
+     * @throws InterruptedException
+     *             If the test has been interrupted.
+     */
+    @Test
+    public void testTrialRequestWithoutOutcome() throws InterruptedException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, 20L);
+        circuitBreaker.recordFailure();
+        Thread.sleep(30);
+
+        assertThat(circuitBreaker.allowsRequests(), equalTo(true));
+        assertThat(circuitBreaker.allowsRequests(), equalTo(false));
+
+        Thread.sleep(30);
+        assertThat(circuitBreaker.allowsRequests(), equalTo(true));
+    }
+}
@@ -0,0 +1,176 @@
+package eu.bittrade.libs.steemj.communication.selection;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+import eu.bittrade.libs.steemj.enums.RequestPriority;
+
+/**
+ * This class contains all test connected to the
+ * {@link eu.bittrade.libs.steemj.communication.selection.ConcurrencyLimiter
+ * ConcurrencyLimiter}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class ConcurrencyLimiterTest {
+    /**
+     * Test that requests exceeding the limit wait until a permit is given
+     * back.
+     */
+    @Test
+    public void testQueueing() {
+        ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(2, 2);
+
+        CompletableFuture<Void> first = concurrencyLimiter.acquire();
+        CompletableFuture<Void> second = concurrencyLimiter.acquire();
+        CompletableFuture<Void> third = concurrencyLimiter.acquire();
+
+        assertThat(first.isDone() && second.isDone(), equalTo(true));
+        assertThat(third.isDone(), equalTo(false));
+        assertThat(concurrencyLimiter.getInFlight(), equalTo(2));
+        assertThat(concurrencyLimiter.getQueueDepth(), equalTo(1));
+
+        concurrencyLimiter.recordSuccess(10);
+
+        assertThat(third.isDone(), equalTo(true));
+        assertThat(concurrencyLimiter.getInFlight(), equalTo(2));
+        assertThat(concurrencyLimiter.getQueueDepth(), equalTo(0));
+    }
+
+    /**
+     * Test that a request which stops waiting leaves the queue without
+     * getting a permit.
+     */
+    @Test
+    public void testStopWaiting() {
+        ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(1, 1);
+
+        concurrencyLimiter.acquire();
+        CompletableFuture<Void> waiting = concurrencyLimiter.acquire();
+        assertThat(concurrencyLimiter.getQueueDepth(), equalTo(1));
+
+        waiting.cancel(false);
+        assertThat(concurrencyLimiter.getQueueDepth(), equalTo(0));
+
+        concurrencyLimiter.recordCancellation();
+        assertThat(concurrencyLimiter.getInFlight(), equalTo(0));
+        assertThat(concurrencyLimiter.getLimit(), equalTo(1));
+    }
+
+    /**
+     * Test that the limit grows while it is used and the latency stays low,
+     * but never exceeds the maximum limit.
+     */
+    @Test
+    public void testIncrease() {
+        ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(2, 4);
+
+        for (int i = 0; i < 10; i++) {
+            concurrencyLimiter.acquire();
+            concurrencyLimiter.acquire();
+            concurrencyLimiter.recordSuccess(10);
+            concurrencyLimiter.recordSuccess(10);
+        }
+
+        assertThat(concurrencyLimiter.getLimit(), equalTo(4));
+        assertThat(concurrencyLimiter.getBaselineLatency(), equalTo(10.0));
+
+        // A single request does not use the limit, so it does not grow it.
+        ConcurrencyLimiter idleConcurrencyLimiter = new ConcurrencyLimiter(4, 10);
+        idleConcurrencyLimiter.acquire();
+        idleConcurrencyLimiter.recordSuccess(10);
+
+        assertThat(idleConcurrencyLimiter.getLimit(), equalTo(4));
+    }
+
+    /**
+     * Test that the limit shrinks if the recent latency exceeds the baseline
+     * latency too much or a request fails, but only once for requests that
+     * have been in flight at the same time.
+     *
+     * @throws InterruptedException
+     *             If the test has been interrupted.
+     */
+    @Test
+    public void testDecrease() throws InterruptedException {
+        ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(10, 10);
+
+        concurrencyLimiter.acquire();
+        concurrencyLimiter.recordSuccess(1);
+        Thread.sleep(20);
+
+        // The recent latency exceeds the tolerance with the second slow
+        // request, all following requests have been sent before the decrease.
+        for (int i = 0; i < 5; i++) {
+            concurrencyLimiter.acquire();
+            concurrencyLimiter.recordSuccess(10);
+        }
+        assertThat(concurrencyLimiter.getLimit(), equalTo(9));
+
+        Thread.sleep(20);
+        concurrencyLimiter.acquire();
+        concurrencyLimiter.acquire();
+        concurrencyLimiter.recordFailure(10);
+        concurrencyLimiter.recordFailure(10);
+        assertThat(concurrencyLimiter.getLimit(), equalTo(8));
+        assertThat(concurrencyLimiter.getInFlight(), equalTo(0));
+    }
+
+    /**
+     * Test that a broadcast gets the next permit even if many bulk reads are
+     * waiting already.
+     */
+    @Test
+    public void testBroadcastBeforeBulkReads() {
+        ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(1, 1);
+
+        concurrencyLimiter.acquire();
+        List<CompletableFuture<Void>> bulkReads = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            bulkReads.add(concurrencyLimiter.acquire(RequestPriority.BULK));
+        }
+        CompletableFuture<Void> broadcast = concurrencyLimiter.acquire(RequestPriority.BROADCAST);
+        assertThat(concurrencyLimiter.getQueueDepth(RequestPriority.BULK), equalTo(5));
+        assertThat(concurrencyLimiter.getQueueDepth(), equalTo(6));
+
+        concurrencyLimiter.recordSuccess(10);
+
+        assertThat(broadcast.isDone(), equalTo(true));
+        assertThat(bulkReads.get(0).isDone(), equalTo(false));
+        assertThat(concurrencyLimiter.getQueueDepth(RequestPriority.BROADCAST), equalTo(0));
+    }
+
+    /**
+     * Test that the queues are served in proportion to their weights, so
+     * bulk reads still make progress while interactive reads are waiting.
+     */
+    @Test
+    public void testWeightedScheduling() {
+        Map<RequestPriority, Integer> priorityWeights = new EnumMap<>(RequestPriority.class);
+        priorityWeights.put(RequestPriority.INTERACTIVE, 3);
+        priorityWeights.put(RequestPriority.BULK, 1);
+        ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(1, 1, priorityWeights);
+
+        concurrencyLimiter.acquire();
+        for (int i = 0; i < 8; i++) {
+            concurrencyLimiter.acquire(RequestPriority.INTERACTIVE);
+            concurrencyLimiter.acquire(RequestPriority.BULK);
+        }
+
+        for (int i = 0; i < 8; i++) {
+            concurrencyLimiter.recordCancellation();
+        }
+
+        assertThat(concurrencyLimiter.getQueueDepth(RequestPriority.INTERACTIVE), equalTo(2));
+        assertThat(concurrencyLimiter.getQueueDepth(RequestPriority.BULK), equalTo(6));
+        assertThat(concurrencyLimiter.getInFlight(), equalTo(1));
+    }
+}
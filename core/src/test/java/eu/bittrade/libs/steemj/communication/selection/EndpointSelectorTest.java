@@ -0,0 +1,107 @@
+package eu.bittrade.libs.steemj.communication.selection;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.bittrade.libs.steemj.configuration.SteemJConfig;
+
+/**
+ * This class contains all test connected to the
+ * {@link eu.bittrade.libs.steemj.communication.selection.EndpointSelector
+ * EndpointSelector}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class EndpointSelectorTest {
+    private final List<Pair<URI, Boolean>> endpoints = Arrays.asList(
+            new ImmutablePair<>(URI.create("https://fast.example"), false),
+            new ImmutablePair<>(URI.create("https://slow.example"), false));
+
+    private int circuitBreakerFailureThreshold;
+    private long circuitBreakerOpenDuration;
+
+    /**
+     * Open the circuit breakers after a single failure for a short time.
+     */
+    @Before
+    public void configureCircuitBreakers() {
+        circuitBreakerFailureThreshold = SteemJConfig.getInstance().getCircuitBreakerFailureThreshold();
+        circuitBreakerOpenDuration = SteemJConfig.getInstance().getCircuitBreakerOpenDuration();
+
+        SteemJConfig.getInstance().setCircuitBreakerFailureThreshold(1);
+        SteemJConfig.getInstance().setCircuitBreakerOpenDuration(20L);
+    }
+
+    /**
+     * Restore the configuration.
+     */
+    @After
+    public void restoreConfiguration() {
+        SteemJConfig.getInstance().setCircuitBreakerFailureThreshold(circuitBreakerFailureThreshold);
+        SteemJConfig.getInstance().setCircuitBreakerOpenDuration(circuitBreakerOpenDuration);
+    }
+
+    /**
+     * Test that only the trial request is sent to an endpoint whose circuit
+     * breaker is half open, while the following requests are sent to another
+     * endpoint until the trial request succeeded.
+     *
+     * @throws InterruptedException
+     *             If the test has been interrupted.
+     */
+    @Test
+    public void testSingleTrialRequestToHalfOpenEndpoint() throws InterruptedException {
+        EndpointSelector endpointSelector = new EndpointSelector(new LatencyWeightedSelectionStrategy(), null, 0,
+                () -> endpoints);
+        EndpointStatistics fastEndpoint = endpointSelector.getEndpointStatistics().get(0);
+        EndpointStatistics slowEndpoint = endpointSelector.getEndpointStatistics().get(1);
+        fastEndpoint.recordSuccess(50);
+        slowEndpoint.recordSuccess(500);
+
+        fastEndpoint.recordFailure();
+        assertThat(endpointSelector.selectEndpoint(), sameInstance(slowEndpoint));
+        Thread.sleep(30);
+
+        assertThat(endpointSelector.selectEndpoint(), sameInstance(fastEndpoint));
+        assertThat(endpointSelector.selectEndpoint(), sameInstance(slowEndpoint));
+        assertThat(endpointSelector.selectEndpoint(), sameInstance(slowEndpoint));
+
+        fastEndpoint.recordSuccess(50);
+        assertThat(endpointSelector.selectEndpoint(), sameInstance(fastEndpoint));
+        assertThat(endpointSelector.selectEndpoint(), sameInstance(fastEndpoint));
+    }
+
+    /**
+     * Test that the statistics are reused as long as the same endpoints are
+     * supplied and updated once the supplied list has been changed in place.
+     */
+    @Test
+    public void testStatisticsFollowSuppliedEndpoints() {
+        List<Pair<URI, Boolean>> suppliedEndpoints = new ArrayList<>(endpoints);
+        EndpointSelector endpointSelector = new EndpointSelector(new LatencyWeightedSelectionStrategy(), null, 0,
+                () -> suppliedEndpoints);
+
+        List<EndpointStatistics> statistics = endpointSelector.getEndpointStatistics();
+        assertThat(endpointSelector.getEndpointStatistics(), sameInstance(statistics));
+
+        suppliedEndpoints.add(new ImmutablePair<>(URI.create("https://other.example"), false));
+        List<EndpointStatistics> updatedStatistics = endpointSelector.getEndpointStatistics();
+        assertThat(updatedStatistics, hasSize(3));
+        assertThat(updatedStatistics.get(0), sameInstance(statistics.get(0)));
+        assertThat(updatedStatistics.get(1), sameInstance(statistics.get(1)));
+        assertThat(updatedStatistics.get(2).getEndpointUri(), equalTo(URI.create("https://other.example")));
+    }
+}
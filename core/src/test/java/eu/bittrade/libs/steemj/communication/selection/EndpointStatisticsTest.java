@@ -0,0 +1,88 @@
+package eu.bittrade.libs.steemj.communication.selection;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+
+import org.junit.Test;
+
+/**
+ * This class contains all test connected to the
+ * {@link eu.bittrade.libs.steemj.communication.selection.EndpointStatistics
+ * EndpointStatistics}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class EndpointStatisticsTest {
+    /**
+     * Test that the latency and error rate are calculated as exponentially
+     * weighted moving averages.
+     */
+    @Test
+    public void testMovingAverages() {
+        EndpointStatistics endpointStatistics = new EndpointStatistics(URI.create("https://api.example"), false, 0.5,
+                new CircuitBreaker(2, 60000L));
+
+        endpointStatistics.recordSuccess(100);
+        assertThat(endpointStatistics.getAverageLatency(), closeTo(100, 0.001));
+
+        endpointStatistics.recordSuccess(200);
+        assertThat(endpointStatistics.getAverageLatency(), closeTo(150, 0.001));
+        assertThat(endpointStatistics.getErrorRate(), closeTo(0, 0.001));
+
+        endpointStatistics.recordFailure();
+        assertThat(endpointStatistics.getErrorRate(), closeTo(0.5, 0.001));
+        assertThat(endpointStatistics.getAverageLatency(), closeTo(150, 0.001));
+        assertThat(endpointStatistics.isHealthy(), equalTo(true));
+
+        endpointStatistics.recordFailure();
+        assertThat(endpointStatistics.getErrorRate(), closeTo(0.75, 0.001));
+        assertThat(endpointStatistics.getConsecutiveFailures(), equalTo(2));
+        assertThat(endpointStatistics.isHealthy(), equalTo(false));
+    }
+
+    /**
+     * Test that latency percentiles are calculated from the recent latencies.
+     */
+    @Test
+    public void testLatencyPercentile() {
+        EndpointStatistics endpointStatistics = new EndpointStatistics(URI.create("https://api.example"), false);
+        assertThat(endpointStatistics.getLatencyPercentile(0.95), closeTo(0, 0.001));
+
+        for (int i = 1; i <= EndpointStatistics.LATENCY_WINDOW_SIZE; i++) {
+            endpointStatistics.recordSuccess(i);
+        }
+        assertThat(endpointStatistics.getLatencyPercentile(0.5), closeTo(50, 0.001));
+        assertThat(endpointStatistics.getLatencyPercentile(0.95), closeTo(95, 0.001));
+        assertThat(endpointStatistics.getLatencyPercentile(1), closeTo(100, 0.001));
+
+        // Old latencies are replaced by new ones.
+        for (int i = 0; i < EndpointStatistics.LATENCY_WINDOW_SIZE; i++) {
+            endpointStatistics.recordSuccess(10);
+        }
+        assertThat(endpointStatistics.getLatencyPercentile(1), closeTo(10, 0.001));
+    }
+
+    /**
+     * Test that invalid parameters are rejected.
+     */
+    @Test
+    public void testFieldValidation() {
+        try {
+            new EndpointStatistics(URI.create("https://api.example"), false, 0, new CircuitBreaker());
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+
+        try {
+            new EndpointStatistics(URI.create("https://api.example"), false, 0.3, null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package eu.bittrade.libs.steemj.communication.selection;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * This class contains all test connected to the
+ * {@link eu.bittrade.libs.steemj.communication.selection.LatencyWeightedSelectionStrategy
+ * LatencyWeightedSelectionStrategy}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class LatencyWeightedSelectionStrategyTest {
+    private final EndpointStatistics fastEndpoint = new EndpointStatistics(URI.create("https://fast.example"), false);
+    private final EndpointStatistics slowEndpoint = new EndpointStatistics(URI.create("https://slow.example"), false);
+    private final List<EndpointStatistics> endpoints = Arrays.asList(slowEndpoint, fastEndpoint);
+    private final LatencyWeightedSelectionStrategy strategy = new LatencyWeightedSelectionStrategy();
+
+    /**
+     * Test that endpoints without samples are selected first and the fastest
+     * endpoint is preferred afterwards.
+     */
+    @Test
+    public void testSelectFastestEndpoint() {
+        assertThat(strategy.selectEndpoint(endpoints), sameInstance(slowEndpoint));
+        slowEndpoint.recordSuccess(500);
+
+        assertThat(strategy.selectEndpoint(endpoints), sameInstance(fastEndpoint));
+        fastEndpoint.recordSuccess(50);
+
+        assertThat(strategy.selectEndpoint(endpoints), sameInstance(fastEndpoint));
+    }
+
+    /**
+     * Test that the error rate is taken into account and unhealthy endpoints
+     * are skipped.
+     */
+    @Test
+    public void testSkipUnhealthyEndpoints() {
+        slowEndpoint.recordSuccess(500);
+        fastEndpoint.recordSuccess(50);
+
+        fastEndpoint.recordFailure();
+        assertThat(fastEndpoint.isHealthy(), equalTo(true));
+        assertThat(strategy.selectEndpoint(endpoints), sameInstance(fastEndpoint));
+
+        fastEndpoint.recordFailure();
+        fastEndpoint.recordFailure();
+        assertThat(fastEndpoint.isHealthy(), equalTo(false));
+        assertThat(strategy.selectEndpoint(endpoints), sameInstance(slowEndpoint));
+
+        // A successful request or probe makes the endpoint healthy again.
+        fastEndpoint.recordSuccess(50);
+        assertThat(fastEndpoint.isHealthy(), equalTo(true));
+    }
+
+    /**
+     * Test that an endpoint is selected even if all endpoints are unhealthy.
+     *
+     * @throws InterruptedException
+     *             If the test has been interrupted.
+     */
+    @Test
+    public void testAllEndpointsUnhealthy() throws InterruptedException {
+        for (int i = 0; i < CircuitBreaker.DEFAULT_FAILURE_THRESHOLD; i++) {
+            slowEndpoint.recordFailure();
+        }
+        Thread.sleep(5);
+        for (int i = 0; i < CircuitBreaker.DEFAULT_FAILURE_THRESHOLD; i++) {
+            fastEndpoint.recordFailure();
+        }
+
+        assertThat(strategy.selectEndpoint(endpoints), sameInstance(slowEndpoint));
+    }
+
+    /**
+     * Test that endpoints without samples are selected in turns, so
+     * concurrent requests at startup are not all sent to the same endpoint.
+     */
+    @Test
+    public void testUnmeasuredEndpointsInTurns() {
+        EndpointStatistics otherEndpoint = new EndpointStatistics(URI.create("https://other.example"), false);
+        List<EndpointStatistics> allEndpoints = Arrays.asList(slowEndpoint, fastEndpoint, otherEndpoint);
+
+        Set<EndpointStatistics> selectedEndpoints = new HashSet<>();
+        for (int i = 0; i < allEndpoints.size(); i++) {
+            selectedEndpoints.add(strategy.selectEndpoint(allEndpoints));
+        }
+
+        assertThat(selectedEndpoints, containsInAnyOrder(slowEndpoint, fastEndpoint, otherEndpoint));
+    }
+
+    /**
+     * Test that the score of an endpoint decays while it is not used, so an
+     * endpoint that has been slow once is tried again.
+     *
+     * @throws InterruptedException
+     *             If the test has been interrupted.
+     */
+    @Test
+    public void testSlowEndpointTriedAgain() throws InterruptedException {
+        LatencyWeightedSelectionStrategy decayingStrategy = new LatencyWeightedSelectionStrategy(
+                LatencyWeightedSelectionStrategy.DEFAULT_ERROR_PENALTY, 20L);
+        slowEndpoint.recordSuccess(200);
+        fastEndpoint.recordSuccess(50);
+        assertThat(decayingStrategy.selectEndpoint(endpoints), sameInstance(fastEndpoint));
+
+        EndpointStatistics selectedEndpoint = fastEndpoint;
+        long deadline = System.currentTimeMillis() + 5000;
+        while (selectedEndpoint == fastEndpoint && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            fastEndpoint.recordSuccess(50);
+            selectedEndpoint = decayingStrategy.selectEndpoint(endpoints);
+        }
+
+        assertThat(selectedEndpoint, sameInstance(slowEndpoint));
+    }
+
+    /**
+     * Test that the score of an endpoint does not decay if the half life is
+     * 0.
+     *
+     * @throws InterruptedException
+     *             If the test has been interrupted.
+     */
+    @Test
+    public void testDecayDisabled() throws InterruptedException {
+        LatencyWeightedSelectionStrategy nonDecayingStrategy = new LatencyWeightedSelectionStrategy(
+                LatencyWeightedSelectionStrategy.DEFAULT_ERROR_PENALTY, 0L);
+        slowEndpoint.recordSuccess(200);
+        fastEndpoint.recordSuccess(50);
+
+        Thread.sleep(100);
+        fastEndpoint.recordSuccess(50);
+        assertThat(nonDecayingStrategy.selectEndpoint(endpoints), sameInstance(fastEndpoint));
+    }
+}
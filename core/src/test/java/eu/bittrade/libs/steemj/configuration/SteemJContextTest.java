@@ -0,0 +1,252 @@
+package eu.bittrade.libs.steemj.configuration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Test;
+
+import eu.bittrade.libs.steemj.SteemJ;
+import eu.bittrade.libs.steemj.base.models.BlockId;
+import eu.bittrade.libs.steemj.base.models.Permlink;
+import eu.bittrade.libs.steemj.base.models.SignedTransaction;
+import eu.bittrade.libs.steemj.communication.CommunicationHandler;
+import eu.bittrade.libs.steemj.communication.RateLimit;
+import eu.bittrade.libs.steemj.communication.jrpc.JsonRPCRequest;
+import eu.bittrade.libs.steemj.communication.metrics.MetricsRegistry;
+import eu.bittrade.libs.steemj.enums.AddressPrefixType;
+import eu.bittrade.libs.steemj.enums.PrivateKeyType;
+import eu.bittrade.libs.steemj.enums.RequestMethods;
+import eu.bittrade.libs.steemj.enums.RequestPriority;
+import eu.bittrade.libs.steemj.enums.SteemApiType;
+import eu.bittrade.libs.steemj.exceptions.SteemRateLimitException;
+import eu.bittrade.libs.steemj.plugins.apis.database.models.DynamicGlobalProperty;
+import eu.bittrade.libs.steemj.protocol.AccountName;
+import eu.bittrade.libs.steemj.protocol.operations.Operation;
+import eu.bittrade.libs.steemj.protocol.operations.VoteOperation;
+import eu.bittrade.libs.steemj.testsupport.MockSteemNode;
+
+/**
+ * This class contains all test connected to the
+ * {@link eu.bittrade.libs.steemj.configuration.SteemJContext SteemJContext}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class SteemJContextTest {
+    private static final String TESTNET_CHAIN_ID = "46d82ab7d8db682eb1959aed0ada039a6d49afa1602491f93dde9cac3e8e6c32";
+
+    /**
+     * Reset the configuration changed by the tests.
+     */
+    @After
+    public void resetConfig() {
+        SteemJConfig.getNewInstance();
+    }
+
+    /**
+     * Test that a context keeps the settings it has been created with, even
+     * if the configuration changes afterwards.
+     */
+    @Test
+    public void testSnapshot() {
+        SteemJConfig steemJConfig = SteemJConfig.getNewInstance();
+        String chainId = steemJConfig.getChainId();
+        int responseTimeout = steemJConfig.getResponseTimeout();
+
+        SteemJContext context = steemJConfig.createContext();
+        steemJConfig.setChainId(TESTNET_CHAIN_ID);
+        steemJConfig.setResponseTimeout(responseTimeout + 1000);
+
+        assertThat(context.getChainId(), equalTo(chainId));
+        assertThat(context.getResponseTimeout(), equalTo(responseTimeout));
+        assertThat(context.getPrivateKeyStorage(), sameInstance(steemJConfig.getPrivateKeyStorage()));
+
+        SteemJConfig.getNewInstance();
+    }
+
+    /**
+     * Test that the copies of a context only differ in the changed setting.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testCopies() throws Exception {
+        SteemJContext mainnet = SteemJConfig.getNewInstance().createContext();
+
+        List<Pair<URI, Boolean>> testnetEndpoints = new ArrayList<>(
+                Arrays.asList(new ImmutablePair<>(new URI("https://testnet.steemitdev.com"), false)));
+        SteemJContext testnet = mainnet.withChainId(TESTNET_CHAIN_ID).withAddressPrefix(AddressPrefixType.TST)
+                .withEndpointURIs(testnetEndpoints);
+        testnetEndpoints.clear();
+
+        assertThat(testnet.getChainId(), equalTo(TESTNET_CHAIN_ID));
+        assertThat(testnet.getAddressPrefix(), equalTo(AddressPrefixType.TST));
+        assertThat(testnet.getEndpointURIs().size(), equalTo(1));
+        assertThat(testnet.getResponseTimeout(), equalTo(mainnet.getResponseTimeout()));
+        assertThat(mainnet.getAddressPrefix(), equalTo(AddressPrefixType.STM));
+        assertThat(mainnet.getChainId().equals(TESTNET_CHAIN_ID), equalTo(false));
+    }
+
+    /**
+     * Test that the public keys created for a test network context carry its
+     * address prefix, while the global configuration keeps its own prefix.
+     */
+    @Test
+    public void testAddressPrefix() {
+        SteemJContext testnet = SteemJConfig.getNewInstance().createContext()
+                .withAddressPrefix(AddressPrefixType.TST);
+
+        assertThat(SteemJ.getPrivateKeyFromPassword(new AccountName("dez1337"), PrivateKeyType.POSTING, "password",
+                testnet.getAddressPrefix()).getLeft().getAddressFromPublicKey(), startsWith("TST"));
+        assertThat(SteemJ.getPrivateKeyFromPassword(new AccountName("dez1337"), PrivateKeyType.POSTING, "password")
+                .getLeft().getAddressFromPublicKey(), startsWith("STM"));
+    }
+
+    /**
+     * Test that a transaction created for a context expires within the
+     * maximum expiration date offset of that context.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testMaximumExpirationDateOffset() throws Exception {
+        SteemJConfig steemJConfig = SteemJConfig.getNewInstance();
+        steemJConfig.setMaximumExpirationDateOffset(120000L);
+        SteemJContext context = steemJConfig.createContext();
+        steemJConfig.setMaximumExpirationDateOffset(3600000L);
+
+        List<Operation> operations = new ArrayList<>();
+        operations.add(new VoteOperation(new AccountName("dez1337"), new AccountName("steemj"),
+                new Permlink("steemj-v0-2-4-has-been-released-update-9")));
+
+        long startTime = System.currentTimeMillis();
+        SignedTransaction signedTransaction = new SignedTransaction(
+                new BlockId("013c6fc2a9a38bbef7a7e67a4ab1c2aa35b4bbb9"), operations, null,
+                context.getMaximumExpirationDateOffset());
+
+        assertThat(signedTransaction.getExpirationDate().getDateTimeAsTimestamp() - startTime,
+                lessThanOrEqualTo(120000L));
+        assertThat(signedTransaction.getExpirationDate().getDateTimeAsTimestamp() - startTime,
+                greaterThan(60000L - 1000L));
+    }
+
+    /**
+     * Test that two handlers created for differently configured contexts use
+     * their own metrics recorder, request interceptors, connection and rate
+     * limits and bulk methods side by side, even if the global configuration
+     * has been changed in the meantime.
+     *
+     * @throws Exception
+     *             If something went wrong.
+     */
+    @Test
+    public void testContextsSideBySide() throws Exception {
+        try (MockSteemNode limitedNode = new MockSteemNode(); MockSteemNode defaultNode = new MockSteemNode()) {
+            limitedNode.start();
+            defaultNode.start();
+
+            AtomicInteger limitedInterceptions = new AtomicInteger();
+            MetricsRegistry limitedMetrics = new MetricsRegistry();
+            SteemJConfig steemJConfig = SteemJConfig.getNewInstance();
+            steemJConfig.setMetricsRecorder(limitedMetrics);
+            steemJConfig.getRequestInterceptors().add((requestObject, endpointUri, chain) -> {
+                limitedInterceptions.incrementAndGet();
+                return chain.proceed(requestObject);
+            });
+            steemJConfig.setMaxConnectionsPerEndpoint(1);
+            steemJConfig.setEndpointRateLimit(new RateLimit(0.1, 1));
+            steemJConfig.setRateLimitMaxWait(0);
+            steemJConfig.setBulkMethods(EnumSet.noneOf(RequestMethods.class));
+            SteemJContext limited = steemJConfig.createContext().withEndpointURIs(
+                    Collections.singletonList(new ImmutablePair<>(limitedNode.getHttpUri(), false)));
+
+            MetricsRegistry defaultMetrics = new MetricsRegistry();
+            steemJConfig = SteemJConfig.getNewInstance();
+            steemJConfig.setMetricsRecorder(defaultMetrics);
+            steemJConfig.setMaxConnectionsPerEndpoint(4);
+            SteemJContext defaults = steemJConfig.createContext().withEndpointURIs(
+                    Collections.singletonList(new ImmutablePair<>(defaultNode.getHttpUri(), false)));
+
+            // Neither handler may pick up the global configuration.
+            AtomicInteger globalInterceptions = new AtomicInteger();
+            steemJConfig.getRequestInterceptors().add((requestObject, endpointUri, chain) -> {
+                globalInterceptions.incrementAndGet();
+                return chain.proceed(requestObject);
+            });
+            steemJConfig.setEndpointRateLimit(new RateLimit(0.1, 1));
+            steemJConfig.setRateLimitMaxWait(0);
+            steemJConfig.setMaxConnectionsPerEndpoint(2);
+
+            try (CommunicationHandler limitedHandler = new CommunicationHandler(limited, null);
+                    CommunicationHandler defaultHandler = new CommunicationHandler(defaults, null)) {
+                assertThat(limitedHandler.getMetricsRecorder(), sameInstance(limitedMetrics));
+                assertThat(defaultHandler.getMetricsRecorder(), sameInstance(defaultMetrics));
+                assertThat(limitedHandler.getHttpConnectionPool().getMaxConnectionsPerEndpoint(), equalTo(1));
+                assertThat(defaultHandler.getHttpConnectionPool().getMaxConnectionsPerEndpoint(), equalTo(4));
+
+                CompletableFuture<List<DynamicGlobalProperty>> limitedResponse = limitedHandler
+                        .performRequestAsync(createRequest(), DynamicGlobalProperty.class);
+                List<CompletableFuture<List<DynamicGlobalProperty>>> defaultResponses = new ArrayList<>();
+                for (int i = 0; i < 3; i++) {
+                    defaultResponses.add(
+                            defaultHandler.performRequestAsync(createRequest(), DynamicGlobalProperty.class));
+                }
+
+                limitedResponse.get(5, TimeUnit.SECONDS);
+                for (CompletableFuture<List<DynamicGlobalProperty>> defaultResponse : defaultResponses) {
+                    defaultResponse.get(5, TimeUnit.SECONDS);
+                }
+
+                assertThat(limitedInterceptions.get(), equalTo(1));
+                assertThat(globalInterceptions.get(), equalTo(0));
+
+                try {
+                    limitedHandler.performRequest(createRequest(), DynamicGlobalProperty.class);
+                    throw new AssertionError("The rate limit of the context should have been exceeded.");
+                } catch (SteemRateLimitException e) {
+                    // Expected.
+                }
+
+                assertThat(limitedNode.getRequestCount(), equalTo(1L));
+                assertThat(defaultNode.getRequestCount(), equalTo(3L));
+                assertThat(limitedMetrics.getBytesSent(), greaterThan(0L));
+                assertThat(defaultMetrics.getBytesSent(), greaterThan(limitedMetrics.getBytesSent()));
+
+                JsonRPCRequest getBlock = new JsonRPCRequest();
+                getBlock.setSteemApi(SteemApiType.BLOCK_API);
+                getBlock.setApiMethod(RequestMethods.GET_BLOCK);
+                assertThat(getBlock.getPriority(limited), equalTo(RequestPriority.INTERACTIVE));
+                assertThat(getBlock.getPriority(defaults), equalTo(RequestPriority.BULK));
+            }
+        }
+    }
+
+    /**
+     * @return A request for the dynamic global properties.
+     */
+    private static JsonRPCRequest createRequest() {
+        JsonRPCRequest requestObject = new JsonRPCRequest();
+        requestObject.setSteemApi(SteemApiType.DATABASE_API);
+        requestObject.setApiMethod(RequestMethods.GET_DYNAMIC_GLOBAL_PROPERTIES);
+
+        return requestObject;
+    }
+}
@@ -4,6 +4,9 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.joou.UInteger;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -21,6 +24,7 @@ import eu.bittrade.libs.steemj.fc.TimePointSec;
 import eu.bittrade.libs.steemj.plugins.apis.block.models.ExtendedSignedBlock;
 import eu.bittrade.libs.steemj.plugins.apis.block.models.GetBlockArgs;
 import eu.bittrade.libs.steemj.plugins.apis.block.models.GetBlockHeaderArgs;
+import eu.bittrade.libs.steemj.plugins.apis.block.models.GetBlockReturn;
 import eu.bittrade.libs.steemj.protocol.AccountName;
 import eu.bittrade.libs.steemj.protocol.BlockHeader;
 
@@ -100,4 +104,26 @@ public class BlockApiIT extends BaseIT {
         assertThat(blockHeader.getTimestamp().getDateTime(), equalTo("2017-07-02T19:15:06"));
         assertThat(blockHeader.getWitness(), equalTo(new AccountName("clayop")));
     }
+
+    /**
+     * Test the
+     * {@link eu.bittrade.libs.steemj.plugins.apis.block.BlockApi#getBlocks(CommunicationHandler, List)}
+     * method.
+     * 
+     * @throws SteemCommunicationException
+     *             If a communication error occurs.
+     * @throws SteemResponseException
+     *             If the response is an error.
+     */
+    @Category({ IntegrationTest.class })
+    @Test
+    public void testGetBlocks() throws SteemCommunicationException, SteemResponseException {
+        final List<GetBlockReturn> blocks = BlockApi.getBlocks(COMMUNICATION_HANDLER,
+                Arrays.asList(new GetBlockArgs(UInteger.valueOf(13310401)),
+                        new GetBlockArgs(UInteger.valueOf(12615532))));
+
+        assertThat(blocks.size(), equalTo(2));
+        assertThat(blocks.get(0).getBlock().get().getWitness(), equalTo(new AccountName("riverhead")));
+        assertThat(blocks.get(1).getBlock().get().getWitness(), equalTo(new AccountName("dragosroua")));
+    }
 }
@@ -0,0 +1,26 @@
+package eu.bittrade.libs.steemj.testsupport;
+
+/**
+ * The ways a {@link MockSteemNode} fails a request it has been told to fail.
+ * 
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public enum FailureMode {
+    /**
+     * Answer with a JSON-RPC error object, like a node that could not process
+     * the request.
+     */
+    RPC_ERROR,
+    /**
+     * Answer with the HTTP status 503. WebSocket requests are answered with a
+     * JSON-RPC error object instead.
+     */
+    HTTP_ERROR,
+    /** Close the connection without answering. */
+    DROP_CONNECTION,
+    /**
+     * Never answer, while keeping the connection open, so the client runs
+     * into its timeout.
+     */
+    NO_RESPONSE
+}
@@ -0,0 +1,259 @@
+package eu.bittrade.libs.steemj.testsupport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * The data a {@link MockSteemNode} answers requests with.
+ * 
+ * <p>
+ * Fixtures are defined per api and method. A fixture either applies to
+ * requests with specific parameters or, if it has no parameters, to all
+ * requests of the method that are not covered by a more specific fixture. It
+ * provides either the result or the JSON-RPC error object the node answers
+ * with. Fixtures can be added programmatically or be loaded from a JSON array
+ * like the following one:
+ * </p>
+ * 
+ * <pre>
+ * [
+ *   { "api": "block_api", "method": "get_block", "params": { "block_num": 1 }, "result": { "block": { ... } } },
+ *   { "api": "block_api", "method": "get_block", "result": {} },
+ *   { "api": "condenser_api", "method": "get_account_count", "error": { "code": -32000, "message": "..." } }
+ * ]
+ * </pre>
+ * 
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class Fixtures {
+    private static final String DEFAULT_FIXTURES = "fixtures.json";
+    private static final String API_FIELD_NAME = "api";
+    private static final String METHOD_FIELD_NAME = "method";
+    private static final String PARAMS_FIELD_NAME = "params";
+    private static final String RESULT_FIELD_NAME = "result";
+    private static final String ERROR_FIELD_NAME = "error";
+    private static final String CODE_FIELD_NAME = "code";
+    private static final String MESSAGE_FIELD_NAME = "message";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    /** The fixtures per "api.method", the most recently added first. */
+    private final ConcurrentMap<String, List<Fixture>> fixtures = new ConcurrentHashMap<>();
+
+    /**
+     * Create an empty {@link Fixtures} instance.
+     */
+    public Fixtures() {
+        // Fixtures are added through the setters or the load methods.
+    }
+
+    /**
+     * Create a {@link Fixtures} instance containing the default fixtures,
+     * which cover common methods of the <code>block_api</code>, the
+     * <code>database_api</code>, the <code>condenser_api</code> and the
+     * <code>network_broadcast_api</code>.
+     * 
+     * @return The default fixtures.
+     * @throws IllegalStateException
+     *             If the default fixtures could not be read.
+     */
+    public static Fixtures createDefaultFixtures() {
+        Fixtures defaultFixtures = new Fixtures();
+        try (InputStream inputStream = Fixtures.class.getResourceAsStream(DEFAULT_FIXTURES)) {
+            defaultFixtures.load(inputStream);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read the default fixtures.", e);
+        }
+
+        return defaultFixtures;
+    }
+
+    /**
+     * Add the fixtures of the given JSON array.
+     * 
+     * @param inputStream
+     *            The stream to read the JSON array from.
+     * @throws IOException
+     *             If the stream could not be read or does not contain a valid
+     *             fixture array.
+     */
+    public void load(InputStream inputStream) throws IOException {
+        JsonNode fixtureArray = mapper.readTree(inputStream);
+        if (fixtureArray == null || !fixtureArray.isArray()) {
+            throw new IOException("The fixtures have to be a JSON array.");
+        }
+
+        for (JsonNode fixture : fixtureArray) {
+            if (!fixture.hasNonNull(API_FIELD_NAME) || !fixture.hasNonNull(METHOD_FIELD_NAME)
+                    || !(fixture.has(RESULT_FIELD_NAME) || fixture.hasNonNull(ERROR_FIELD_NAME))) {
+                throw new IOException("The fixture " + fixture + " needs an api, a method and a result or an error.");
+            }
+
+            JsonNode params = fixture.hasNonNull(PARAMS_FIELD_NAME) ? fixture.get(PARAMS_FIELD_NAME) : null;
+            add(fixture.get(API_FIELD_NAME).asText(), fixture.get(METHOD_FIELD_NAME).asText(),
+                    new Fixture(params, fixture.get(RESULT_FIELD_NAME), fixture.get(ERROR_FIELD_NAME)));
+        }
+    }
+
+    /**
+     * Answer requests to the given method with the given <code>result</code>.
+     * A fixture that has been set before for the same parameters is replaced.
+     * 
+     * @param api
+     *            The api, e.g. <code>database_api</code>.
+     * @param method
+     *            The method, e.g. <code>get_dynamic_global_properties</code>.
+     * @param params
+     *            The parameters the fixture applies to or <code>null</code> if
+     *            it applies to all parameters.
+     * @param result
+     *            The result to answer with.
+     */
+    public void setResult(String api, String method, JsonNode params, JsonNode result) {
+        add(api, method, new Fixture(params, result, null));
+    }
+
+    /**
+     * Answer requests to the given method with a JSON-RPC error object. A
+     * fixture that has been set before for the same parameters is replaced.
+     * 
+     * @param api
+     *            The api, e.g. <code>database_api</code>.
+     * @param method
+     *            The method, e.g. <code>get_dynamic_global_properties</code>.
+     * @param params
+     *            The parameters the fixture applies to or <code>null</code> if
+     *            it applies to all parameters.
+     * @param code
+     *            The error code.
+     * @param message
+     *            The error message.
+     */
+    public void setError(String api, String method, JsonNode params, int code, String message) {
+        ObjectNode error = mapper.createObjectNode();
+        error.put(CODE_FIELD_NAME, code);
+        error.put(MESSAGE_FIELD_NAME, message);
+
+        add(api, method, new Fixture(params, null, error));
+    }
+
+    /**
+     * Get the fixture used to answer a request.
+     * 
+     * @param api
+     *            The requested api.
+     * @param method
+     *            The requested method.
+     * @param params
+     *            The parameters of the request.
+     * @return The fixture with the same parameters, the fixture without
+     *         parameters or <code>null</code> if the method is not covered.
+     */
+    Fixture find(String api, String method, JsonNode params) {
+        List<Fixture> methodFixtures = fixtures.get(getKey(api, method));
+        if (methodFixtures == null) {
+            return null;
+        }
+
+        Fixture defaultFixture = null;
+        for (Fixture fixture : methodFixtures) {
+            if (fixture.getParams() == null) {
+                if (defaultFixture == null) {
+                    defaultFixture = fixture;
+                }
+            } else if (fixture.getParams().equals(params)) {
+                return fixture;
+            }
+        }
+
+        return defaultFixture;
+    }
+
+    /**
+     * Add the given <code>fixture</code>, replacing the one with the same
+     * parameters.
+     * 
+     * @param api
+     *            The api.
+     * @param method
+     *            The method.
+     * @param fixture
+     *            The fixture.
+     */
+    private void add(String api, String method, Fixture fixture) {
+        List<Fixture> methodFixtures = fixtures.computeIfAbsent(getKey(api, method),
+                key -> new CopyOnWriteArrayList<>());
+        synchronized (methodFixtures) {
+            methodFixtures.removeIf(existing -> Objects.equals(existing.getParams(), fixture.getParams()));
+            methodFixtures.add(0, fixture);
+        }
+    }
+
+    /**
+     * @param api
+     *            The api.
+     * @param method
+     *            The method.
+     * @return The key the fixtures of the method are stored with.
+     */
+    private static String getKey(String api, String method) {
+        return api.toLowerCase() + "." + method.toLowerCase();
+    }
+
+    /**
+     * The answer to the requests with specific parameters.
+     */
+    static class Fixture {
+        private final JsonNode params;
+        private final JsonNode result;
+        private final JsonNode error;
+
+        /**
+         * Create a new {@link Fixture} instance.
+         * 
+         * @param params
+         *            The parameters the fixture applies to or
+         *            <code>null</code> if it applies to all parameters.
+         * @param result
+         *            The result or <code>null</code> if the fixture is an
+         *            error.
+         * @param error
+         *            The JSON-RPC error object or <code>null</code>.
+         */
+        Fixture(JsonNode params, JsonNode result, JsonNode error) {
+            this.params = params;
+            this.result = result;
+            this.error = error;
+        }
+
+        /**
+         * @return The parameters the fixture applies to or <code>null</code>
+         *         if it applies to all parameters.
+         */
+        JsonNode getParams() {
+            return params;
+        }
+
+        /**
+         * @return The result or <code>null</code> if the fixture is an error.
+         */
+        JsonNode getResult() {
+            return result;
+        }
+
+        /**
+         * @return The JSON-RPC error object or <code>null</code>.
+         */
+        JsonNode getError() {
+            return error;
+        }
+    }
+}
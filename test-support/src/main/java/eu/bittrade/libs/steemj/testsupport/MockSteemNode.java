@@ -0,0 +1,1110 @@
+package eu.bittrade.libs.steemj.testsupport;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import eu.bittrade.libs.steemj.testsupport.Fixtures.Fixture;
+
+/**
+ * A lightweight Steem node that runs in the same process as the test using it.
+ *
+ * <p>
+ * The node answers JSON-RPC requests sent over HTTP (using POST) and over
+ * WebSocket on the same port. Requests may use the <code>call</code> style (
+ * <code>{"method": "call", "params": [api, method, args]}</code>) or the
+ * <code>api.method</code> style, and may be sent as batch. They are answered
+ * from the {@link Fixtures} of the node.
+ * </p>
+ *
+ * <p>
+ * To reproduce failover and saturation scenarios, the node can delay its
+ * answers ({@link #setLatency(long, long)}) or send them slowly
+ * ({@link #setTrickleDelay(long)}), fail requests in different ways
+ * ({@link #setFailureRate(double)}, {@link #failNextRequests(int)} and
+ * {@link #setFailureMode(FailureMode)}) and reject requests exceeding a
+ * number of concurrent requests ({@link #setMaxConcurrentRequests(int)}).
+ * Connections can be dropped ({@link #dropConnections()}) and pings can be
+ * ignored ({@link #setPingsAnswered(boolean)}). All random decisions use a
+ * {@link #setSeed(long) seedable} random generator, so scenarios can be
+ * repeated. An HTTP request or WebSocket message, which may contain a batch,
+ * counts as one request.
+ * </p>
+ *
+ * <p>
+ * WebSocket connections can register callbacks using the
+ * <code>set_*_callback</code> methods (e.g.
+ * <code>set_block_applied_callback</code>). The node answers them without
+ * fixtures and pushes the notices passed to
+ * {@link #publishNotice(String, JsonNode)} to the registered callbacks.
+ * </p>
+ *
+ * <pre>
+ * try (MockSteemNode node = new MockSteemNode()) {
+ *     node.setLatency(20, 50);
+ *     node.setFailureRate(0.1);
+ *     node.start();
+ *     SteemJConfig.getInstance()
+ *             .setEndpointURIs(Collections.singletonList(new ImmutablePair&lt;&gt;(node.getHttpUri(), false)));
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class MockSteemNode implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MockSteemNode.class);
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final String CALL_METHOD = "call";
+    private static final int METHOD_NOT_FOUND_CODE = -32601;
+    private static final int PARSE_ERROR_CODE = -32700;
+    private static final int SERVER_ERROR_CODE = -32000;
+    private static final String CALLBACK_SUFFIX = "_callback";
+    private static final String NOTICE_METHOD = "notice";
+    private static final int TEXT_OPCODE = 0x1;
+    private static final int CLOSE_OPCODE = 0x8;
+    private static final int PING_OPCODE = 0x9;
+    private static final int PONG_OPCODE = 0xA;
+
+    private final Fixtures fixtures;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Random random = new Random();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<OutputStream, Map<String, JsonNode>> callbacks = new ConcurrentHashMap<>();
+    private final AtomicLong connectionCount = new AtomicLong();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong failedRequestCount = new AtomicLong();
+    private final AtomicLong rejectedRequestCount = new AtomicLong();
+    private final AtomicInteger concurrentRequests = new AtomicInteger();
+    private final AtomicInteger peakConcurrentRequests = new AtomicInteger();
+    private final AtomicInteger requestsToFail = new AtomicInteger();
+
+    private volatile long minimumLatency;
+    private volatile long maximumLatency;
+    private volatile long trickleDelay;
+    private volatile double failureRate;
+    private volatile FailureMode failureMode = FailureMode.RPC_ERROR;
+    private volatile int maxConcurrentRequests = Integer.MAX_VALUE;
+    private volatile boolean pingsAnswered = true;
+    private volatile boolean closed;
+    private ServerSocket serverSocket;
+    private ExecutorService executor;
+
+    /**
+     * Create a new node answering requests using the
+     * {@link Fixtures#createDefaultFixtures() default fixtures}.
+     */
+    public MockSteemNode() {
+        this(Fixtures.createDefaultFixtures());
+    }
+
+    /**
+     * Create a new node answering requests using the given
+     * <code>fixtures</code>.
+     *
+     * @param fixtures
+     *            The fixtures to answer with. They can still be changed
+     *            while the node is running.
+     */
+    public MockSteemNode(Fixtures fixtures) {
+        this.fixtures = fixtures;
+    }
+
+    /**
+     * Start the node on a free port of the loopback interface.
+     *
+     * @throws IOException
+     *             If the server socket could not be opened.
+     */
+    public void start() throws IOException {
+        start(0);
+    }
+
+    /**
+     * Start the node on the given port of the loopback interface.
+     *
+     * @param port
+     *            The port or 0 to use a free port.
+     * @throws IOException
+     *             If the server socket could not be opened.
+     * @throws IllegalStateException
+     *             If the node has already been started.
+     */
+    public synchronized void start(int port) throws IOException {
+        if (serverSocket != null) {
+            throw new IllegalStateException("The node has already been started.");
+        }
+
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getByAddress(new byte[] { 127, 0, 0, 1 }), port));
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "steemj-mock-node");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::acceptConnections);
+
+        LOGGER.debug("Started the mock node on port {}.", serverSocket.getLocalPort());
+    }
+
+    /**
+     * Stop the node and close all open connections.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (serverSocket == null) {
+            return;
+        }
+
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            LOGGER.debug("Could not close the server socket.", e);
+        }
+
+        for (Socket connection : connections) {
+            closeQuietly(connection);
+        }
+
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return The port the node listens on.
+     * @throws IllegalStateException
+     *             If the node has not been started.
+     */
+    public int getPort() {
+        if (serverSocket == null) {
+            throw new IllegalStateException("The node has not been started.");
+        }
+
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return The URI used to send requests over HTTP.
+     */
+    public URI getHttpUri() {
+        return URI.create("http://127.0.0.1:" + getPort() + "/");
+    }
+
+    /**
+     * @return The URI used to send requests over WebSocket.
+     */
+    public URI getWebsocketUri() {
+        return URI.create("ws://127.0.0.1:" + getPort() + "/");
+    }
+
+    /**
+     * @return The fixtures the node answers with.
+     */
+    public Fixtures getFixtures() {
+        return fixtures;
+    }
+
+    /**
+     * Delay each answer by the given <code>latency</code>.
+     *
+     * @param latency
+     *            The latency in milliseconds.
+     * @throws IllegalArgumentException
+     *             If the <code>latency</code> is negative.
+     */
+    public void setLatency(long latency) {
+        setLatency(latency, latency);
+    }
+
+    /**
+     * Delay each answer by a random latency between the given bounds.
+     *
+     * @param minimumLatency
+     *            The minimum latency in milliseconds.
+     * @param maximumLatency
+     *            The maximum latency in milliseconds.
+     * @throws IllegalArgumentException
+     *             If a latency is negative or if the
+     *             <code>minimumLatency</code> is greater than the
+     *             <code>maximumLatency</code>.
+     */
+    public synchronized void setLatency(long minimumLatency, long maximumLatency) {
+        if (minimumLatency < 0 || minimumLatency > maximumLatency) {
+            throw new IllegalArgumentException("The latency bounds " + minimumLatency + " and " + maximumLatency
+                    + " are invalid.");
+        }
+
+        this.minimumLatency = minimumLatency;
+        this.maximumLatency = maximumLatency;
+    }
+
+    /**
+     * Fail the given share of the requests using the
+     * {@link #setFailureMode(FailureMode) failure mode}.
+     *
+     * @param failureRate
+     *            The share of the requests to fail between 0 and 1.
+     * @throws IllegalArgumentException
+     *             If the <code>failureRate</code> is not between 0 and 1.
+     */
+    public void setFailureRate(double failureRate) {
+        if (failureRate < 0 || failureRate > 1) {
+            throw new IllegalArgumentException("The failure rate has to be between 0 and 1.");
+        }
+
+        this.failureRate = failureRate;
+    }
+
+    /**
+     * Fail the next <code>numberOfRequests</code> requests using the
+     * {@link #setFailureMode(FailureMode) failure mode}, independent of the
+     * {@link #setFailureRate(double) failure rate}.
+     *
+     * @param numberOfRequests
+     *            The number of requests to fail.
+     * @throws IllegalArgumentException
+     *             If the <code>numberOfRequests</code> is negative.
+     */
+    public void failNextRequests(int numberOfRequests) {
+        if (numberOfRequests < 0) {
+            throw new IllegalArgumentException("The number of requests to fail can't be negative.");
+        }
+
+        requestsToFail.set(numberOfRequests);
+    }
+
+    /**
+     * Define how requests are failed. The default is
+     * {@link FailureMode#RPC_ERROR}.
+     *
+     * @param failureMode
+     *            The failure mode.
+     * @throws IllegalArgumentException
+     *             If the <code>failureMode</code> is null.
+     */
+    public void setFailureMode(FailureMode failureMode) {
+        if (failureMode == null) {
+            throw new IllegalArgumentException("The failure mode can't be null.");
+        }
+
+        this.failureMode = failureMode;
+    }
+
+    /**
+     * Reject requests that arrive while the given number of requests is
+     * processed. Rejected HTTP requests are answered with the status 503,
+     * rejected WebSocket requests with a JSON-RPC error object. By default,
+     * no request is rejected.
+     *
+     * @param maxConcurrentRequests
+     *            The maximum number of concurrent requests.
+     * @throws IllegalArgumentException
+     *             If the <code>maxConcurrentRequests</code> is less than 1.
+     */
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("The maximum number of concurrent requests has to be at least 1.");
+        }
+
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    /**
+     * Send the body of HTTP answers byte by byte and wait the given
+     * <code>trickleDelay</code> before each byte, like a node that answers
+     * slowly. Unlike a {@link #setLatency(long) latency}, this does not let
+     * the read timeout of a client expire as long as the delay is shorter.
+     * By default, the body is sent at once.
+     *
+     * @param trickleDelay
+     *            The delay before each byte in milliseconds.
+     * @throws IllegalArgumentException
+     *             If the <code>trickleDelay</code> is negative.
+     */
+    public void setTrickleDelay(long trickleDelay) {
+        if (trickleDelay < 0) {
+            throw new IllegalArgumentException("The trickle delay can't be negative.");
+        }
+
+        this.trickleDelay = trickleDelay;
+    }
+
+    /**
+     * Define if WebSocket pings are answered. A node that does not answer
+     * pings behaves like a broken connection that has not been closed. By
+     * default, pings are answered.
+     *
+     * @param pingsAnswered
+     *            <code>false</code> to ignore pings.
+     */
+    public void setPingsAnswered(boolean pingsAnswered) {
+        this.pingsAnswered = pingsAnswered;
+    }
+
+    /**
+     * Close all open connections without a close handshake, like a node that
+     * is restarted. New connections are still accepted.
+     */
+    public void dropConnections() {
+        for (Socket connection : connections) {
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Set the seed of the random generator used for the latencies and the
+     * failures.
+     *
+     * @param seed
+     *            The seed.
+     */
+    public void setSeed(long seed) {
+        synchronized (random) {
+            random.setSeed(seed);
+        }
+    }
+
+    /**
+     * Push a notice to all WebSocket connections that have registered a
+     * callback using the given method.
+     *
+     * @param callbackMethod
+     *            The method used to register the callback, e.g.
+     *            <code>set_block_applied_callback</code>.
+     * @param argument
+     *            The argument of the notice, e.g. a block header.
+     * @return The number of connections the notice has been pushed to.
+     */
+    public int publishNotice(String callbackMethod, JsonNode argument) {
+        int receivers = 0;
+        for (Map.Entry<OutputStream, Map<String, JsonNode>> connectionCallbacks : callbacks.entrySet()) {
+            JsonNode callbackId = connectionCallbacks.getValue().get(callbackMethod);
+            if (callbackId == null) {
+                continue;
+            }
+
+            ObjectNode notice = mapper.createObjectNode();
+            notice.put("jsonrpc", "2.0");
+            notice.put("method", NOTICE_METHOD);
+            ArrayNode params = notice.putArray("params");
+            params.add(callbackId);
+            params.addArray().add(argument);
+
+            try {
+                writeFrame(connectionCallbacks.getKey(), TEXT_OPCODE, toBytes(notice));
+                receivers++;
+            } catch (IOException e) {
+                LOGGER.debug("Could not push the notice.", e);
+            }
+        }
+
+        return receivers;
+    }
+
+    /**
+     * @return The number of connections the node has accepted.
+     */
+    public long getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * @return The number of requests the node has received.
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return The number of requests the node has failed on purpose.
+     */
+    public long getFailedRequestCount() {
+        return failedRequestCount.get();
+    }
+
+    /**
+     * @return The number of requests the node has rejected because of the
+     *         {@link #setMaxConcurrentRequests(int) maximum number of
+     *         concurrent requests}.
+     */
+    public long getRejectedRequestCount() {
+        return rejectedRequestCount.get();
+    }
+
+    /**
+     * @return The highest number of requests the node has processed at the
+     *         same time.
+     */
+    public int getPeakConcurrentRequests() {
+        return peakConcurrentRequests.get();
+    }
+
+    /**
+     * Accept new connections until the node is closed.
+     */
+    private void acceptConnections() {
+        while (!closed) {
+            try {
+                Socket connection = serverSocket.accept();
+                connectionCount.incrementAndGet();
+                connection.setTcpNoDelay(true);
+                connections.add(connection);
+                executor.execute(() -> handleConnection(connection));
+            } catch (IOException | RejectedExecutionException e) {
+                if (!closed) {
+                    LOGGER.warn("Could not accept a connection.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the HTTP requests of the given <code>connection</code> or, if the
+     * first request is a WebSocket handshake, its WebSocket messages.
+     *
+     * @param connection
+     *            The connection.
+     */
+    private void handleConnection(Socket connection) {
+        boolean keepOpen = false;
+        try {
+            InputStream inputStream = new BufferedInputStream(connection.getInputStream());
+            OutputStream outputStream = connection.getOutputStream();
+            while (!closed) {
+                String requestLine = readLine(inputStream);
+                if (requestLine == null) {
+                    return;
+                }
+
+                Map<String, String> headers = readHeaders(inputStream);
+                if ("websocket".equalsIgnoreCase(headers.get("upgrade"))) {
+                    acceptWebsocket(headers, outputStream);
+                    try {
+                        handleWebsocket(connection, inputStream, outputStream);
+                    } finally {
+                        callbacks.remove(outputStream);
+                    }
+
+                    return;
+                }
+
+                byte[] body = readBody(inputStream, headers);
+                if (!requestLine.startsWith("POST ")) {
+                    writeHttpResponse(outputStream, 405, "Method Not Allowed", new byte[0]);
+                } else if (!handleHttpRequest(connection, body, outputStream)) {
+                    keepOpen = true;
+                    return;
+                }
+
+                if ("close".equalsIgnoreCase(headers.get("connection"))) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("The connection has been closed.", e);
+        } finally {
+            if (!keepOpen) {
+                connections.remove(connection);
+                closeQuietly(connection);
+            }
+        }
+    }
+
+    /**
+     * Answer a single HTTP request.
+     *
+     * @param connection
+     *            The connection the request has been received from.
+     * @param body
+     *            The body of the request.
+     * @param outputStream
+     *            The stream to write the answer to.
+     * @return <code>false</code> if the connection must not be used anymore,
+     *         as the request is {@link FailureMode#NO_RESPONSE not answered}.
+     * @throws IOException
+     *             If the answer could not be written.
+     */
+    private boolean handleHttpRequest(Socket connection, byte[] body, OutputStream outputStream) throws IOException {
+        requestCount.incrementAndGet();
+        int concurrent = concurrentRequests.incrementAndGet();
+        try {
+            if (concurrent > maxConcurrentRequests) {
+                rejectedRequestCount.incrementAndGet();
+                writeHttpResponse(outputStream, 503, "Service Unavailable", new byte[0]);
+                return true;
+            }
+
+            peakConcurrentRequests.accumulateAndGet(concurrent, Math::max);
+            FailureMode failure = nextFailure();
+            sleep(nextLatency());
+
+            if (failure == FailureMode.DROP_CONNECTION) {
+                closeQuietly(connection);
+                return true;
+            } else if (failure == FailureMode.NO_RESPONSE) {
+                return false;
+            } else if (failure == FailureMode.HTTP_ERROR) {
+                writeHttpResponse(outputStream, 503, "Service Unavailable", new byte[0]);
+                return true;
+            }
+
+            writeHttpResponse(outputStream, 200, "OK", answer(body, failure != null, null));
+            return true;
+        } finally {
+            concurrentRequests.decrementAndGet();
+        }
+    }
+
+    /**
+     * Complete the WebSocket handshake.
+     *
+     * @param headers
+     *            The headers of the handshake request.
+     * @param outputStream
+     *            The stream to write the answer to.
+     * @throws IOException
+     *             If the answer could not be written.
+     */
+    private void acceptWebsocket(Map<String, String> headers, OutputStream outputStream) throws IOException {
+        String accept;
+        try {
+            accept = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1")
+                    .digest((headers.get("sec-websocket-key") + WEBSOCKET_GUID).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-1 is not available.", e);
+        }
+
+        outputStream.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + accept + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        outputStream.flush();
+    }
+
+    /**
+     * Read the WebSocket messages of the given <code>connection</code> and
+     * answer each of them in its own thread, so the answers of pipelined
+     * requests may overtake each other.
+     *
+     * @param connection
+     *            The connection.
+     * @param inputStream
+     *            The stream to read the frames from.
+     * @param outputStream
+     *            The stream to write the frames to.
+     * @throws IOException
+     *             If a frame could not be read or written.
+     */
+    private void handleWebsocket(Socket connection, InputStream inputStream, OutputStream outputStream)
+            throws IOException {
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        while (!closed) {
+            int firstByte = inputStream.read();
+            if (firstByte < 0) {
+                return;
+            }
+
+            int secondByte = readByte(inputStream);
+            boolean finalFragment = (firstByte & 0x80) != 0;
+            int opcode = firstByte & 0x0F;
+            long length = secondByte & 0x7F;
+            if (length == 126) {
+                length = (readByte(inputStream) << 8) | readByte(inputStream);
+            } else if (length == 127) {
+                length = 0;
+                for (int i = 0; i < 8; i++) {
+                    length = (length << 8) | readByte(inputStream);
+                }
+            }
+
+            byte[] mask = new byte[4];
+            if ((secondByte & 0x80) != 0) {
+                readFully(inputStream, mask);
+            }
+
+            byte[] payload = new byte[(int) length];
+            readFully(inputStream, payload);
+            for (int i = 0; i < payload.length; i++) {
+                payload[i] ^= mask[i % 4];
+            }
+
+            if (opcode == CLOSE_OPCODE) {
+                writeFrame(outputStream, CLOSE_OPCODE, payload);
+                return;
+            } else if (opcode == PING_OPCODE) {
+                if (pingsAnswered) {
+                    writeFrame(outputStream, PONG_OPCODE, payload);
+                }
+            } else if (opcode != PONG_OPCODE) {
+                message.write(payload);
+                if (finalFragment) {
+                    byte[] body = message.toByteArray();
+                    message.reset();
+                    executor.execute(() -> handleWebsocketMessage(connection, body, outputStream));
+                }
+            }
+        }
+    }
+
+    /**
+     * Answer a single WebSocket message.
+     *
+     * @param connection
+     *            The connection the message has been received from.
+     * @param body
+     *            The message.
+     * @param outputStream
+     *            The stream to write the answer to.
+     */
+    private void handleWebsocketMessage(Socket connection, byte[] body, OutputStream outputStream) {
+        requestCount.incrementAndGet();
+        int concurrent = concurrentRequests.incrementAndGet();
+        try {
+            if (concurrent > maxConcurrentRequests) {
+                rejectedRequestCount.incrementAndGet();
+                writeFrame(outputStream, TEXT_OPCODE, answer(body, "Too many concurrent requests.", null));
+                return;
+            }
+
+            peakConcurrentRequests.accumulateAndGet(concurrent, Math::max);
+            FailureMode failure = nextFailure();
+            sleep(nextLatency());
+
+            if (failure == FailureMode.DROP_CONNECTION) {
+                closeQuietly(connection);
+            } else if (failure != FailureMode.NO_RESPONSE) {
+                writeFrame(outputStream, TEXT_OPCODE, answer(body, failure != null, outputStream));
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not answer the WebSocket message.", e);
+        } finally {
+            concurrentRequests.decrementAndGet();
+        }
+    }
+
+    /**
+     * Create the answer to the given request body.
+     *
+     * @param body
+     *            The request body containing a single request or a batch.
+     * @param failed
+     *            Define if the request has to be answered with an error.
+     * @param subscriber
+     *            The stream of the WebSocket connection callbacks are
+     *            registered for or <code>null</code> if callbacks are not
+     *            supported.
+     * @return The answer.
+     */
+    private byte[] answer(byte[] body, boolean failed, OutputStream subscriber) {
+        return answer(body, failed ? "Injected failure." : null, subscriber);
+    }
+
+    /**
+     * Create the answer to the given request body.
+     *
+     * @param body
+     *            The request body containing a single request or a batch.
+     * @param errorMessage
+     *            The message of the error used to answer all requests or
+     *            <code>null</code> to answer them from the fixtures.
+     * @param subscriber
+     *            The stream of the WebSocket connection callbacks are
+     *            registered for or <code>null</code> if callbacks are not
+     *            supported.
+     * @return The answer.
+     */
+    private byte[] answer(byte[] body, String errorMessage, OutputStream subscriber) {
+        JsonNode request;
+        try {
+            request = mapper.readTree(body);
+        } catch (IOException e) {
+            return toBytes(createError(NullNode.getInstance(), PARSE_ERROR_CODE, "Parse error: " + e.getMessage()));
+        }
+
+        if (request != null && request.isArray()) {
+            ArrayNode answers = mapper.createArrayNode();
+            for (JsonNode batchElement : request) {
+                answers.add(answerSingle(batchElement, errorMessage, subscriber));
+            }
+
+            return toBytes(answers);
+        }
+
+        return toBytes(answerSingle(request, errorMessage, subscriber));
+    }
+
+    /**
+     * Create the answer to a single request.
+     *
+     * @param request
+     *            The request.
+     * @param errorMessage
+     *            The message of the error used to answer the request or
+     *            <code>null</code> to answer it from the fixtures.
+     * @param subscriber
+     *            The stream of the WebSocket connection callbacks are
+     *            registered for or <code>null</code> if callbacks are not
+     *            supported.
+     * @return The answer.
+     */
+    private ObjectNode answerSingle(JsonNode request, String errorMessage, OutputStream subscriber) {
+        JsonNode id = request == null || !request.has("id") ? NullNode.getInstance() : request.get("id");
+        if (errorMessage != null) {
+            return createError(id, SERVER_ERROR_CODE, errorMessage);
+        }
+
+        String method = request == null ? "" : request.path("method").asText();
+        JsonNode params = request == null ? null : request.get("params");
+        String api;
+        JsonNode args;
+        if (CALL_METHOD.equals(method) && params != null && params.isArray() && params.size() >= 2) {
+            api = params.get(0).asText();
+            method = params.get(1).asText();
+            args = params.size() > 2 ? params.get(2) : mapper.createArrayNode();
+        } else if (method.contains(".")) {
+            api = method.substring(0, method.indexOf('.'));
+            method = method.substring(method.indexOf('.') + 1);
+            args = params == null ? mapper.createObjectNode() : params;
+        } else {
+            return createError(id, METHOD_NOT_FOUND_CODE, "Could not find method " + method);
+        }
+
+        ObjectNode answer = mapper.createObjectNode();
+        answer.put("jsonrpc", "2.0");
+        if (subscriber != null && method.endsWith(CALLBACK_SUFFIX) && args.isArray() && args.size() > 0) {
+            callbacks.computeIfAbsent(subscriber, key -> new ConcurrentHashMap<>()).put(method, args.get(0));
+            answer.set("result", NullNode.getInstance());
+            answer.set("id", id);
+            return answer;
+        }
+
+        Fixture fixture = fixtures.find(api, method, args);
+        if (fixture == null) {
+            return createError(id, METHOD_NOT_FOUND_CODE, "Could not find method " + api + "." + method);
+        }
+
+        if (fixture.getError() != null) {
+            answer.set("error", fixture.getError());
+        } else {
+            answer.set("result", fixture.getResult());
+        }
+
+        answer.set("id", id);
+        return answer;
+    }
+
+    /**
+     * @param id
+     *            The id of the request.
+     * @param code
+     *            The error code.
+     * @param message
+     *            The error message.
+     * @return A JSON-RPC answer containing an error object.
+     */
+    private ObjectNode createError(JsonNode id, int code, String message) {
+        ObjectNode answer = mapper.createObjectNode();
+        answer.put("jsonrpc", "2.0");
+        ObjectNode error = answer.putObject("error");
+        error.put("code", code);
+        error.put("message", message);
+        answer.set("id", id);
+
+        return answer;
+    }
+
+    /**
+     * @param json
+     *            The JSON to serialize.
+     * @return The UTF-8 encoded JSON.
+     */
+    private byte[] toBytes(JsonNode json) {
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decide if the next request has to be failed.
+     *
+     * @return The failure mode to use or <code>null</code> if the request is
+     *         answered normally.
+     */
+    private FailureMode nextFailure() {
+        boolean failed = requestsToFail.getAndUpdate(remaining -> remaining > 0 ? remaining - 1 : 0) > 0;
+        if (!failed && failureRate > 0) {
+            synchronized (random) {
+                failed = random.nextDouble() < failureRate;
+            }
+        }
+
+        if (failed) {
+            failedRequestCount.incrementAndGet();
+            return failureMode;
+        }
+
+        return null;
+    }
+
+    /**
+     * @return The latency of the next answer in milliseconds.
+     */
+    private long nextLatency() {
+        long minimum;
+        long maximum;
+        synchronized (this) {
+            minimum = minimumLatency;
+            maximum = maximumLatency;
+        }
+
+        if (maximum <= minimum) {
+            return minimum;
+        }
+
+        synchronized (random) {
+            return minimum + (long) (random.nextDouble() * (maximum - minimum + 1));
+        }
+    }
+
+    /**
+     * @param millis
+     *            The time to sleep in milliseconds.
+     */
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Write an HTTP response. The body is sent byte by byte if a
+     * {@link #setTrickleDelay(long) trickle delay} is set.
+     *
+     * @param outputStream
+     *            The stream to write to.
+     * @param status
+     *            The status code.
+     * @param reason
+     *            The reason phrase.
+     * @param body
+     *            The body.
+     * @throws IOException
+     *             If the response could not be written.
+     */
+    private void writeHttpResponse(OutputStream outputStream, int status, String reason, byte[] body)
+            throws IOException {
+        String head = "HTTP/1.1 " + status + " " + reason + "\r\nContent-Type: application/json\r\nContent-Length: "
+                + body.length + "\r\n\r\n";
+        outputStream.write(head.getBytes(StandardCharsets.ISO_8859_1));
+
+        long currentTrickleDelay = trickleDelay;
+        if (currentTrickleDelay <= 0) {
+            outputStream.write(body);
+        } else {
+            outputStream.flush();
+            for (byte character : body) {
+                sleep(currentTrickleDelay);
+                outputStream.write(character);
+                outputStream.flush();
+            }
+        }
+
+        outputStream.flush();
+    }
+
+    /**
+     * Write an unmasked WebSocket frame.
+     *
+     * @param outputStream
+     *            The stream to write to.
+     * @param opcode
+     *            The opcode of the frame.
+     * @param payload
+     *            The payload.
+     * @throws IOException
+     *             If the frame could not be written.
+     */
+    private static void writeFrame(OutputStream outputStream, int opcode, byte[] payload) throws IOException {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(payload.length + 10);
+        frame.write(0x80 | opcode);
+        if (payload.length < 126) {
+            frame.write(payload.length);
+        } else if (payload.length <= 0xFFFF) {
+            frame.write(126);
+            frame.write(payload.length >>> 8);
+            frame.write(payload.length & 0xFF);
+        } else {
+            frame.write(127);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                frame.write((int) (((long) payload.length >>> shift) & 0xFF));
+            }
+        }
+
+        frame.write(payload);
+        synchronized (outputStream) {
+            frame.writeTo(outputStream);
+            outputStream.flush();
+        }
+    }
+
+    /**
+     * Read a line terminated by CRLF.
+     *
+     * @param inputStream
+     *            The stream to read from.
+     * @return The line without the terminator or <code>null</code> if the
+     *         stream has ended before the first character.
+     * @throws IOException
+     *             If the line could not be read.
+     */
+    private static String readLine(InputStream inputStream) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int character;
+        while ((character = inputStream.read()) != '\n') {
+            if (character < 0) {
+                return line.length() == 0 ? null : line.toString();
+            } else if (character != '\r') {
+                line.append((char) character);
+            }
+        }
+
+        return line.toString();
+    }
+
+    /**
+     * Read the HTTP headers up to the empty line.
+     *
+     * @param inputStream
+     *            The stream to read from.
+     * @return The headers with lower case names.
+     * @throws IOException
+     *             If the headers could not be read.
+     */
+    private static Map<String, String> readHeaders(InputStream inputStream) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        String line;
+        while ((line = readLine(inputStream)) != null && !line.isEmpty()) {
+            int separator = line.indexOf(':');
+            if (separator > 0) {
+                headers.put(line.substring(0, separator).trim().toLowerCase(), line.substring(separator + 1).trim());
+            }
+        }
+
+        return headers;
+    }
+
+    /**
+     * Read the body of an HTTP request, which may be sent chunked.
+     *
+     * @param inputStream
+     *            The stream to read from.
+     * @param headers
+     *            The headers of the request.
+     * @return The body.
+     * @throws IOException
+     *             If the body could not be read.
+     */
+    private static byte[] readBody(InputStream inputStream, Map<String, String> headers) throws IOException {
+        if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            int chunkSize;
+            while ((chunkSize = Integer.parseInt(readLine(inputStream).split(";")[0].trim(), 16)) > 0) {
+                byte[] chunk = new byte[chunkSize];
+                readFully(inputStream, chunk);
+                body.write(chunk);
+                readLine(inputStream);
+            }
+
+            readHeaders(inputStream);
+            return body.toByteArray();
+        }
+
+        String contentLength = headers.get("content-length");
+        byte[] body = new byte[contentLength == null ? 0 : Integer.parseInt(contentLength)];
+        readFully(inputStream, body);
+        return body;
+    }
+
+    /**
+     * @param inputStream
+     *            The stream to read from.
+     * @return The next byte.
+     * @throws IOException
+     *             If the stream has ended.
+     */
+    private static int readByte(InputStream inputStream) throws IOException {
+        int value = inputStream.read();
+        if (value < 0) {
+            throw new EOFException();
+        }
+
+        return value;
+    }
+
+    /**
+     * @param inputStream
+     *            The stream to read from.
+     * @param buffer
+     *            The buffer to fill completely.
+     * @throws IOException
+     *             If the stream has ended before the buffer has been filled.
+     */
+    private static void readFully(InputStream inputStream, byte[] buffer) throws IOException {
+        int offset = 0;
+        while (offset < buffer.length) {
+            int read = inputStream.read(buffer, offset, buffer.length - offset);
+            if (read < 0) {
+                throw new EOFException();
+            }
+
+            offset += read;
+        }
+    }
+
+    /**
+     * @param connection
+     *            The connection to close.
+     */
+    private static void closeQuietly(Socket connection) {
+        try {
+            connection.close();
+        } catch (IOException e) {
+            LOGGER.debug("Could not close the connection.", e);
+        }
+    }
+}
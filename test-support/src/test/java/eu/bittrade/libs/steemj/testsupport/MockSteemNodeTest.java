@@ -0,0 +1,234 @@
+package eu.bittrade.libs.steemj.testsupport;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * This class contains all test connected to the
+ * {@link eu.bittrade.libs.steemj.testsupport.MockSteemNode MockSteemNode} and
+ * the {@link eu.bittrade.libs.steemj.testsupport.Fixtures Fixtures}.
+ *
+ * @author <a href="http://steemit.com/@dez1337">dez1337</a>
+ */
+public class MockSteemNodeTest {
+    private static final String GET_BLOCK_REQUEST = "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"call\","
+            + "\"params\":[\"block_api\",\"get_block\",{\"block_num\":1}]}";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private MockSteemNode mockSteemNode;
+
+    /**
+     * Start a node using the default fixtures.
+     *
+     * @throws IOException
+     *             If the node could not be started.
+     */
+    @Before
+    public void startNode() throws IOException {
+        mockSteemNode = new MockSteemNode();
+        mockSteemNode.start();
+    }
+
+    /**
+     * Stop the node.
+     */
+    @After
+    public void stopNode() {
+        mockSteemNode.close();
+    }
+
+    /**
+     * Test that the fixtures with matching parameters take precedence over
+     * the ones without parameters.
+     */
+    @Test
+    public void testFixtures() {
+        Fixtures fixtures = new Fixtures();
+        fixtures.setResult("block_api", "get_block", null, mapper.createObjectNode());
+        fixtures.setResult("block_api", "get_block", mapper.createObjectNode().put("block_num", 2),
+                mapper.createObjectNode().put("block", "two"));
+        fixtures.setError("block_api", "get_block", mapper.createObjectNode().put("block_num", 3), -32000, "three");
+
+        assertThat(fixtures.find("block_api", "get_block", mapper.createObjectNode().put("block_num", 1)).getResult()
+                .size(), equalTo(0));
+        assertThat(fixtures.find("block_api", "get_block", mapper.createObjectNode().put("block_num", 2)).getResult()
+                .get("block").asText(), equalTo("two"));
+        assertThat(fixtures.find("BLOCK_API", "get_block", mapper.createObjectNode().put("block_num", 3)).getError()
+                .get("message").asText(), equalTo("three"));
+        assertThat(fixtures.find("database_api", "get_block", null) == null, equalTo(true));
+    }
+
+    /**
+     * Test that single and batch requests of both styles are answered over
+     * HTTP.
+     *
+     * @throws IOException
+     *             If the request could not be sent.
+     */
+    @Test
+    public void testHttpRequests() throws IOException {
+        JsonNode answer = post(GET_BLOCK_REQUEST);
+        assertThat(answer.get("id").asInt(), equalTo(1));
+        assertThat(answer.get("result").get("block").get("block_id").asText(),
+                equalTo("0000000109833ce528d5bbfb3f6225b39ee10086"));
+
+        JsonNode batchAnswer = post("[{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"database_api.get_config\"},"
+                + "{\"jsonrpc\":\"2.0\",\"id\":3,\"method\":\"call\",\"params\":[\"foo_api\",\"bar\",[]]}]");
+        assertThat(batchAnswer.size(), equalTo(2));
+        assertThat(batchAnswer.get(0).get("result").get("STEEMIT_ADDRESS_PREFIX").asText(), equalTo("STM"));
+        assertThat(batchAnswer.get(1).get("id").asInt(), equalTo(3));
+        assertThat(batchAnswer.get(1).get("error").get("code").asInt(), equalTo(-32601));
+        assertThat(mockSteemNode.getRequestCount(), equalTo(2L));
+        assertThat(mockSteemNode.getConnectionCount() > 0, equalTo(true));
+    }
+
+    /**
+     * Test the failure injection, the latency and the trickle delay.
+     *
+     * @throws IOException
+     *             If the request could not be sent.
+     */
+    @Test
+    public void testFailures() throws IOException {
+        mockSteemNode.failNextRequests(1);
+        assertThat(post(GET_BLOCK_REQUEST).get("error").get("code").asInt(), equalTo(-32000));
+
+        mockSteemNode.setFailureMode(FailureMode.HTTP_ERROR);
+        mockSteemNode.failNextRequests(1);
+        HttpURLConnection connection = openConnection(GET_BLOCK_REQUEST);
+        assertThat(connection.getResponseCode(), equalTo(503));
+        connection.disconnect();
+
+        mockSteemNode.setLatency(100);
+        long startTime = System.currentTimeMillis();
+        assertThat(post(GET_BLOCK_REQUEST).has("result"), equalTo(true));
+        assertThat(System.currentTimeMillis() - startTime, greaterThanOrEqualTo(100L));
+        assertThat(mockSteemNode.getFailedRequestCount(), equalTo(2L));
+
+        mockSteemNode.setLatency(0);
+        mockSteemNode.setTrickleDelay(2);
+        startTime = System.currentTimeMillis();
+        connection = openConnection(GET_BLOCK_REQUEST);
+        try (InputStream inputStream = connection.getInputStream()) {
+            assertThat(mapper.readTree(inputStream).has("result"), equalTo(true));
+        }
+        assertThat(System.currentTimeMillis() - startTime,
+                greaterThanOrEqualTo(2L * connection.getContentLengthLong()));
+    }
+
+    /**
+     * Test that requests are answered over WebSocket.
+     *
+     * @throws IOException
+     *             If the request could not be sent.
+     */
+    @Test
+    public void testWebsocketRequest() throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", mockSteemNode.getPort())) {
+            OutputStream outputStream = socket.getOutputStream();
+            InputStream inputStream = socket.getInputStream();
+            outputStream.write(("GET / HTTP/1.1\r\nHost: 127.0.0.1\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                    + "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\nSec-WebSocket-Version: 13\r\n\r\n")
+                            .getBytes(StandardCharsets.ISO_8859_1));
+
+            String handshake = readUntil(inputStream, "\r\n\r\n");
+            assertThat(handshake.startsWith("HTTP/1.1 101"), equalTo(true));
+            assertThat(handshake.contains("Sec-WebSocket-Accept: s3pPLMBiTxaQ9kYGzzhZRbK+xOo="), equalTo(true));
+
+            byte[] payload = GET_BLOCK_REQUEST.getBytes(StandardCharsets.UTF_8);
+            byte[] mask = { 1, 2, 3, 4 };
+            ByteArrayOutputStream frame = new ByteArrayOutputStream();
+            frame.write(0x81);
+            frame.write(0x80 | 126);
+            frame.write(payload.length >>> 8);
+            frame.write(payload.length & 0xFF);
+            frame.write(mask);
+            for (int i = 0; i < payload.length; i++) {
+                frame.write(payload[i] ^ mask[i % 4]);
+            }
+            outputStream.write(frame.toByteArray());
+
+            assertThat(inputStream.read(), equalTo(0x81));
+            int length = inputStream.read();
+            if (length == 126) {
+                length = (inputStream.read() << 8) | inputStream.read();
+            }
+
+            byte[] answer = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                offset += inputStream.read(answer, offset, length - offset);
+            }
+
+            assertThat(mapper.readTree(answer).get("result").get("block").get("witness").asText(),
+                    equalTo("initminer"));
+        }
+    }
+
+    /**
+     * @param body
+     *            The request to send.
+     * @return The answer of the node.
+     * @throws IOException
+     *             If the request could not be sent.
+     */
+    private JsonNode post(String body) throws IOException {
+        HttpURLConnection connection = openConnection(body);
+        try (InputStream inputStream = connection.getInputStream()) {
+            return mapper.readTree(inputStream);
+        }
+    }
+
+    /**
+     * @param body
+     *            The request to send.
+     * @return The connection the request has been sent with.
+     * @throws IOException
+     *             If the request could not be sent.
+     */
+    private HttpURLConnection openConnection(String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) mockSteemNode.getHttpUri().toURL().openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return connection;
+    }
+
+    /**
+     * @param inputStream
+     *            The stream to read from.
+     * @param terminator
+     *            The text to read up to.
+     * @return The text read including the terminator.
+     * @throws IOException
+     *             If the stream could not be read.
+     */
+    private static String readUntil(InputStream inputStream, String terminator) throws IOException {
+        StringBuilder text = new StringBuilder();
+        int character;
+        while (!text.toString().endsWith(terminator) && (character = inputStream.read()) >= 0) {
+            text.append((char) character);
+        }
+
+        return text.toString();
+    }
+}